@@ -19,6 +19,7 @@ package org.apache.activemq.core.buffers.impl;
 import java.nio.ByteBuffer;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import org.apache.activemq.api.core.ActiveMQBuffer;
 import org.apache.activemq.api.core.SimpleString;
@@ -227,12 +228,12 @@ public class ChannelBufferWrapper implements ActiveMQBuffer
 
    public ActiveMQBuffer copy()
    {
-      return new ChannelBufferWrapper(buffer.copy(), releasable);
+      return new ChannelBufferWrapper(copyOf(buffer.readerIndex(), buffer.readableBytes()), releasable);
    }
 
    public ActiveMQBuffer copy(final int index, final int length)
    {
-      return new ChannelBufferWrapper(buffer.copy(index, length), releasable);
+      return new ChannelBufferWrapper(copyOf(index, length), releasable);
    }
 
    public void discardReadBytes()
@@ -382,7 +383,11 @@ public class ChannelBufferWrapper implements ActiveMQBuffer
 
    public ActiveMQBuffer readBytes(final int length)
    {
-      return new ChannelBufferWrapper(buffer.readBytes(length), releasable);
+      ByteBuf read = copyOf(buffer.readerIndex(), length);
+
+      buffer.skipBytes(length);
+
+      return new ChannelBufferWrapper(read, releasable);
    }
 
    public char readChar()
@@ -630,4 +635,17 @@ public class ChannelBufferWrapper implements ActiveMQBuffer
       buffer.writeShort(value);
    }
 
+   /**
+    * Copies are handed to whoever asked for them with nothing keeping track of when they are done, so they aren't
+    * taken from a pool even if this buffer was.
+    */
+   private ByteBuf copyOf(final int index, final int length)
+   {
+      if (buffer.alloc() instanceof PooledByteBufAllocator)
+      {
+         return Unpooled.buffer(length, buffer.maxCapacity()).writeBytes(buffer, index, length);
+      }
+
+      return buffer.copy(index, length);
+   }
 }
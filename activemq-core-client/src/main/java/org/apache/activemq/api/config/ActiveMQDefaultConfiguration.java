@@ -77,6 +77,16 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_JOURNAL_BUFFER_SIZE_NIO;
    }
 
+   public static boolean isDefaultJournalAdaptiveBufferTimeout()
+   {
+      return DEFAULT_JOURNAL_ADAPTIVE_BUFFER_TIMEOUT;
+   }
+
+   public static int getDefaultJournalStripes()
+   {
+      return DEFAULT_JOURNAL_STRIPES;
+   }
+
    public static String getPropMaskPassword()
    {
       return PROP_MASK_PASSWORD;
@@ -118,6 +128,8 @@ public final class ActiveMQDefaultConfiguration
    private static int DEFAULT_JOURNAL_MAX_IO_NIO = 1;
    private static int DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO = JournalConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO;
    private static int DEFAULT_JOURNAL_BUFFER_SIZE_NIO = JournalConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO;
+   private static boolean DEFAULT_JOURNAL_ADAPTIVE_BUFFER_TIMEOUT = false;
+   private static int DEFAULT_JOURNAL_STRIPES = 1;
 
    // XXX not on schema.
    //properties passed to acceptor/connectors.
@@ -198,6 +210,9 @@ public final class ActiveMQDefaultConfiguration
    // how many days to keep message counter history
    private static int DEFAULT_MESSAGE_COUNTER_MAX_DAY_HISTORY = 10;
 
+   // true means that the broker metrics (counters and latency histograms) are recorded
+   private static boolean DEFAULT_METRICS_ENABLED = false;
+
    // if set, this will override how long (in ms) to keep a connection alive without receiving a ping. -1 disables this setting.
    private static long DEFAULT_CONNECTION_TTL_OVERRIDE = -1;
 
@@ -228,6 +243,9 @@ public final class ActiveMQDefaultConfiguration
    // the directory to store paged messages in
    private static String DEFAULT_PAGING_DIR = "data/paging";
 
+   // the maximum number of bytes the messages of all the addresses can take in memory (-1 means no limit)
+   private static long DEFAULT_GLOBAL_MAX_SIZE = -1;
+
    // the directory to store the persisted bindings to
    private static String DEFAULT_BINDINGS_DIRECTORY = "data/bindings";
 
@@ -264,6 +282,9 @@ public final class ActiveMQDefaultConfiguration
    // The minimal number of data files before we can start compacting
    private static int DEFAULT_JOURNAL_COMPACT_MIN_FILES = 10;
 
+   // The maximal number of data files compacted at a time, 0 compacting all of them at once
+   private static int DEFAULT_JOURNAL_COMPACT_MAX_FILES = 0;
+
    // XXX Only meant to be used by project developers
    private static int DEFAULT_JOURNAL_PERF_BLAST_PAGES = -1;
 
@@ -279,6 +300,12 @@ public final class ActiveMQDefaultConfiguration
    // frequency to sample JVM memory in ms (or -1 to disable memory sampling)
    private static long DEFAULT_MEMORY_MEASURE_INTERVAL = -1;
 
+   // whether the messages sent to the server are received in pooled buffers
+   private static boolean DEFAULT_POOLED_MESSAGE_BUFFERS = false;
+
+   // whether the pooled message buffers use direct memory
+   private static boolean DEFAULT_DIRECT_MESSAGE_BUFFERS = false;
+
    // the directory to store large messages
    private static String DEFAULT_LARGE_MESSAGES_DIR = "data/largemessages";
 
@@ -357,6 +384,12 @@ public final class ActiveMQDefaultConfiguration
    // how many times this cluster connection will notify the cluster of its existence right after joining the cluster
    private static int DEFAULT_CLUSTER_NOTIFICATION_ATTEMPTS = 2;
 
+   // how often (in ms) the cluster connection will update the cluster with the load of its node, -1 means never
+   private static long DEFAULT_CLUSTER_LOAD_UPDATE_PERIOD = 5000;
+
+   // whether the messages are distributed to the nodes according to the backlog and consumption rate of their queues
+   private static boolean DEFAULT_CLUSTER_LOAD_AWARE_DISTRIBUTION = false;
+
    // whether this is an exclusive divert
    private static boolean DEFAULT_DIVERT_EXCLUSIVE = false;
 
@@ -574,6 +607,14 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_MESSAGE_COUNTER_MAX_DAY_HISTORY;
    }
 
+   /**
+    * true means that the broker metrics (counters and latency histograms) are recorded
+    */
+   public static boolean isDefaultMetricsEnabled()
+   {
+      return DEFAULT_METRICS_ENABLED;
+   }
+
    /**
     * if set, this will override how long (in ms) to keep a connection alive without receiving a ping. -1 disables this setting.
     */
@@ -654,6 +695,14 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_PAGING_DIR;
    }
 
+   /**
+    * the maximum number of bytes the messages of all the addresses can take in memory (-1 means no limit)
+    */
+   public static long getDefaultGlobalMaxSize()
+   {
+      return DEFAULT_GLOBAL_MAX_SIZE;
+   }
+
    /**
     * the directory to store the persisted bindings to
     */
@@ -750,6 +799,14 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_JOURNAL_COMPACT_MIN_FILES;
    }
 
+   /**
+    * The maximal number of data files compacted at a time, 0 compacting all of them at once
+    */
+   public static int getDefaultJournalCompactMaxFiles()
+   {
+      return DEFAULT_JOURNAL_COMPACT_MAX_FILES;
+   }
+
    /**
     * XXX Only meant to be used by project developers
     */
@@ -790,6 +847,22 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_MEMORY_MEASURE_INTERVAL;
    }
 
+   /**
+    * whether the messages sent to the server are received in pooled buffers
+    */
+   public static boolean isDefaultPooledMessageBuffers()
+   {
+      return DEFAULT_POOLED_MESSAGE_BUFFERS;
+   }
+
+   /**
+    * whether the pooled message buffers use direct memory
+    */
+   public static boolean isDefaultDirectMessageBuffers()
+   {
+      return DEFAULT_DIRECT_MESSAGE_BUFFERS;
+   }
+
    /**
     * the directory to store large messages
     */
@@ -998,6 +1071,22 @@ public final class ActiveMQDefaultConfiguration
       return DEFAULT_CLUSTER_NOTIFICATION_ATTEMPTS;
    }
 
+   /**
+    * how often (in ms) the cluster connection will update the cluster with the load of its node, -1 means never
+    */
+   public static long getDefaultClusterLoadUpdatePeriod()
+   {
+      return DEFAULT_CLUSTER_LOAD_UPDATE_PERIOD;
+   }
+
+   /**
+    * whether the messages are distributed to the nodes according to the backlog and consumption rate of their queues
+    */
+   public static boolean isDefaultClusterLoadAwareDistribution()
+   {
+      return DEFAULT_CLUSTER_LOAD_AWARE_DISTRIBUTION;
+   }
+
    /**
     * whether this is an exclusive divert
     */
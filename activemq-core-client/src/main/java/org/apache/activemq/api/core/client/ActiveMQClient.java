@@ -52,8 +52,16 @@ public final class ActiveMQClient
 
    public static final boolean DEFAULT_COMPRESS_LARGE_MESSAGES = false;
 
+   public static final String DEFAULT_BODY_CODEC_CLASS_NAME = null;
+
+   public static final int DEFAULT_MIN_BODY_COMPRESSION_SIZE = 1024;
+
    public static final int DEFAULT_CONSUMER_WINDOW_SIZE = 1024 * 1024;
 
+   public static final int DEFAULT_CONSUMER_MIN_WINDOW_SIZE = 64 * 1024;
+
+   public static final int DEFAULT_CONSUMER_MAX_WINDOW_SIZE = -1;
+
    public static final int DEFAULT_CONSUMER_MAX_RATE = -1;
 
    public static final int DEFAULT_CONFIRMATION_WINDOW_SIZE = -1;
@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.api.core.client;
 
+import java.util.Collection;
+
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
@@ -75,6 +77,19 @@ public interface ClientProducer extends AutoCloseable
     */
    void send(Message message, SendAcknowledgementHandler handler) throws ActiveMQException;
 
+   /**
+    * Sends a collection of messages to the address specified in {@link ClientSession#createProducer(String)} or
+    * similar methods. <br>
+    * <br>
+    * The messages are sent to the server in a single packet and routed as a unit. This will block
+    * only once, until the whole batch has reached the server, if {@link ServerLocator#setBlockOnDurableSend(boolean)} or
+    * {@link ServerLocator#setBlockOnNonDurableSend(boolean)} are set to <code>true</code> for any of the messages.
+    * Large messages are sent on their own, keeping the order of the collection.
+    * @param messages the messages to send
+    * @throws org.apache.activemq.api.core.ActiveMQException if an exception occurs while sending the messages
+    */
+   void send(Collection<? extends Message> messages) throws ActiveMQException;
+
    /**
     * Sends a message to the specified address instead of the ClientProducer's address. <br>
     * <br>
@@ -248,6 +248,48 @@ public interface ServerLocator extends AutoCloseable
     */
    ServerLocator setConsumerWindowSize(int consumerWindowSize);
 
+   /**
+    * Returns the smallest window an adaptive consumer window can shrink to.
+    * <p>
+    * Value is in bytes, default value is {@link ActiveMQClient#DEFAULT_CONSUMER_MIN_WINDOW_SIZE}.
+    *
+    * @return the minimum window size of adaptive consumers
+    * @see #setConsumerMaxWindowSize(int)
+    */
+   int getConsumerMinWindowSize();
+
+   /**
+    * Sets the smallest window an adaptive consumer window can shrink to.
+    *
+    * @param consumerMinWindowSize minimum window size (in bytes) of adaptive consumers
+    * @return this ServerLocator
+    * @see #setConsumerMaxWindowSize(int)
+    */
+   ServerLocator setConsumerMinWindowSize(int consumerMinWindowSize);
+
+   /**
+    * Returns the largest window an adaptive consumer window can grow to.
+    * <p>
+    * Value is in bytes, default value is {@link ActiveMQClient#DEFAULT_CONSUMER_MAX_WINDOW_SIZE}.
+    *
+    * @return the maximum window size of adaptive consumers, -1 if adaptive windows are disabled
+    * @see #setConsumerMaxWindowSize(int)
+    */
+   int getConsumerMaxWindowSize();
+
+   /**
+    * Sets the largest window an adaptive consumer window can grow to.
+    * <p>
+    * Value must be -1 (to use the fixed {@link #getConsumerWindowSize() consumer window size}) or greater than 0.
+    * When greater than 0, consumers with a window size greater than 1 start with that window and size it from the
+    * rate at which they process messages and the round trip time to the server, between the minimum and the maximum
+    * window sizes.
+    *
+    * @param consumerMaxWindowSize maximum window size (in bytes) of adaptive consumers
+    * @return this ServerLocator
+    */
+   ServerLocator setConsumerMaxWindowSize(int consumerMaxWindowSize);
+
    /**
     * Returns the maximum rate of message consumption for consumers created through this factory.
     * <p>
@@ -754,6 +796,45 @@ public interface ServerLocator extends AutoCloseable
     */
    ServerLocator setCompressLargeMessage(boolean compressLargeMessages);
 
+   /**
+    * Returns the class name of the codec compressing the body of regular (non large) messages.
+    * <p>
+    * Default value is {@link ActiveMQClient#DEFAULT_BODY_CODEC_CLASS_NAME}.
+    *
+    * @return the class name of the body codec, {@code null} if bodies aren't compressed
+    */
+   String getBodyCodecClassName();
+
+   /**
+    * Sets the class name of the codec compressing the body of regular (non large) messages.
+    * <p>
+    * The class must implement {@link org.apache.activemq.api.core.client.compression.BodyCodec}, and be registered
+    * in {@link org.apache.activemq.api.core.client.compression.BodyCodecs} wherever the messages are decompressed.
+    * {@link org.apache.activemq.api.core.client.compression.LZBodyCodec} is provided and always registered. Bodies stay compressed on the server, in paging and across bridges, and are decompressed when a
+    * consumer reads them.
+    *
+    * @param bodyCodecClassName the class name of the body codec, {@code null} to not compress bodies
+    * @return this ServerLocator
+    */
+   ServerLocator setBodyCodecClassName(String bodyCodecClassName);
+
+   /**
+    * Returns the size of the smallest body compressed by the {@link #getBodyCodecClassName() body codec}.
+    * <p>
+    * Value is in bytes, default value is {@link ActiveMQClient#DEFAULT_MIN_BODY_COMPRESSION_SIZE}.
+    *
+    * @return the body compression threshold
+    */
+   int getMinBodyCompressionSize();
+
+   /**
+    * Sets the size of the smallest body compressed by the {@link #getBodyCodecClassName() body codec}.
+    *
+    * @param minBodyCompressionSize body compression threshold in bytes
+    * @return this ServerLocator
+    */
+   ServerLocator setMinBodyCompressionSize(int minBodyCompressionSize);
+
    // XXX No javadocs
    ServerLocator addClusterTopologyListener(ClusterTopologyListener listener);
 
@@ -17,6 +17,7 @@
 package org.apache.activemq.api.core.client;
 
 import org.apache.activemq.api.core.TransportConfiguration;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 
 /**
@@ -76,6 +77,13 @@ public interface TopologyMember
     */
    long getUniqueEventID();
 
+   /**
+    * Returns the load the live server last reported.
+    *
+    * @return the {@link NodeLoad} of the live server, or {@code null} if it didn't report its load
+    */
+   NodeLoad getLoad();
+
    /**
     * Returns true if this TopologyMember is the target of this remoting connection
     *
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.compression;
+
+/**
+ * A BodyCodec compresses the body of regular (non large) messages.
+ * <p>
+ * Producers compress the bodies bigger than {@code minBodyCompressionSize} with the codec configured on their
+ * session factory, the id the codec is registered with in {@link BodyCodecs} travels with the message so its
+ * consumers can decompress it. Implementations must have a no-argument constructor and be thread-safe.
+ * <p>
+ * A body is only compressed up to {@link BodyCodecs#MAX_BODY_SIZE}, and must not expand more than
+ * {@link BodyCodecs#MAX_EXPANSION} times when decompressed, the size declared by a message being checked against both
+ * before decompressing it.
+ */
+public interface BodyCodec
+{
+   /**
+    * @return the size of the buffer needed to compress {@code length} bytes
+    */
+   int maxCompressedLength(int length);
+
+   /**
+    * Compresses {@code length} bytes of {@code src} into {@code dest}.
+    *
+    * @return the number of bytes written to {@code dest}
+    */
+   int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset);
+
+   /**
+    * Decompresses {@code length} bytes of {@code src} into the {@code originalLength} bytes they were compressed from.
+    *
+    * @throws IllegalArgumentException if {@code src} wasn't compressed by this codec
+    */
+   void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int originalLength);
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.compression;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
+
+/**
+ * The registry of the {@link BodyCodec}s messages can be decompressed with.
+ * <p>
+ * A compressed message only carries the id its codec was registered with, and is decompressed with the codec
+ * registered under that id, so a producer can't make a consumer or the server instantiate any class.
+ * {@link LZBodyCodec} is registered as {@link #LZ}, other codecs must be registered on both ends, either
+ * explicitly or through {@link #getCodecForClassName(String)}.
+ */
+public final class BodyCodecs
+{
+   public static final String LZ = "lz";
+
+   /**
+    * The largest body compressed, and so the largest size a compressed body may declare
+    */
+   public static final int MAX_BODY_SIZE = 100 * 1024 * 1024;
+
+   /**
+    * The most a body may expand when decompressed, as with {@link LZBodyCodec}: each byte of a run length extension
+    * adds 255 bytes
+    */
+   public static final int MAX_EXPANSION = 255;
+
+   private static final ConcurrentMap<String, BodyCodec> CODECS = new ConcurrentHashMap<String, BodyCodec>();
+
+   private static final ConcurrentMap<Class<?>, String> IDS = new ConcurrentHashMap<Class<?>, String>();
+
+   static
+   {
+      register(LZ, new LZBodyCodec());
+   }
+
+   private BodyCodecs()
+   {
+   }
+
+   /**
+    * Registers {@code codec} under {@code id}, unless a codec of the same class is already registered under it.
+    *
+    * @throws IllegalStateException if another codec is registered under {@code id}
+    */
+   public static void register(final String id, final BodyCodec codec)
+   {
+      BodyCodec previous = CODECS.putIfAbsent(id, codec);
+
+      if (previous != null && previous.getClass() != codec.getClass())
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.bodyCodecAlreadyRegistered(id, previous.getClass().getName());
+      }
+
+      IDS.putIfAbsent(codec.getClass(), id);
+   }
+
+   /**
+    * @return the codec registered under {@code id}, {@code null} if there is none
+    */
+   public static BodyCodec getCodec(final String id)
+   {
+      return CODECS.get(id);
+   }
+
+   /**
+    * @return the id the class of {@code codec} is registered with
+    * @throws IllegalArgumentException if it isn't registered
+    */
+   public static String getId(final BodyCodec codec)
+   {
+      String id = IDS.get(codec.getClass());
+
+      if (id == null)
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.unknownBodyCodec(codec.getClass().getName());
+      }
+
+      return id;
+   }
+
+   /**
+    * Returns the codec registered for the class {@code className}, registering a new instance under the class name
+    * if there is none. This is meant for the codecs configured locally, never for a name read from a message.
+    *
+    * @throws IllegalArgumentException if the class doesn't implement {@link BodyCodec}
+    */
+   public static BodyCodec getCodecForClassName(final String className)
+   {
+      for (BodyCodec codec : CODECS.values())
+      {
+         if (codec.getClass().getName().equals(className))
+         {
+            return codec;
+         }
+      }
+
+      Class<?> clazz = AccessController.doPrivileged(new PrivilegedAction<Class<?>>()
+      {
+         public Class<?> run()
+         {
+            return loadClass(className);
+         }
+      });
+
+      // checked before calling any constructor
+      if (!BodyCodec.class.isAssignableFrom(clazz))
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.notABodyCodec(className);
+      }
+
+      BodyCodec codec;
+
+      try
+      {
+         codec = (BodyCodec) clazz.newInstance();
+      }
+      catch (Exception e)
+      {
+         throw new IllegalArgumentException(e);
+      }
+
+      register(className, codec);
+
+      return CODECS.get(className);
+   }
+
+   private static Class<?> loadClass(final String className)
+   {
+      try
+      {
+         return BodyCodecs.class.getClassLoader().loadClass(className);
+      }
+      catch (ClassNotFoundException e)
+      {
+         ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+         if (loader == null)
+         {
+            throw new IllegalArgumentException(e);
+         }
+
+         try
+         {
+            return loader.loadClass(className);
+         }
+         catch (ClassNotFoundException e2)
+         {
+            throw new IllegalArgumentException(e2);
+         }
+      }
+   }
+}
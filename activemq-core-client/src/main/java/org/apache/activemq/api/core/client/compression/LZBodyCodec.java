@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.compression;
+
+import java.util.Arrays;
+
+import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
+
+/**
+ * LZBodyCodec is a byte oriented LZ77 codec trading compression ratio for speed, in the spirit of LZ4.
+ * <p>
+ * The compressed body is a list of sequences, each made of a token, the literals copied as they are and a match
+ * copied from the bytes already decompressed:
+ * <pre>
+ * token (literal length:4 | match length - 4:4) [literal length extension] literals offset:2 [match length extension]
+ * </pre>
+ * A length of 15 in the token is followed by extension bytes added to it, the last one being smaller than 255.
+ * The last sequence only has literals.
+ */
+public final class LZBodyCodec implements BodyCodec
+{
+   private static final int MIN_MATCH = 4;
+
+   // the last bytes are always literals so the last sequence can be told apart from the others
+   private static final int LAST_LITERALS = 5;
+
+   // a match never starts on the last bytes, it wouldn't be worth its token
+   private static final int MATCH_FIND_LIMIT = 12;
+
+   private static final int MAX_OFFSET = 0xFFFF;
+
+   private static final int RUN_MASK = 0x0F;
+
+   private static final int HASH_LOG = 12;
+
+   private static final ThreadLocal<int[]> HASH_TABLES = new ThreadLocal<int[]>()
+   {
+      @Override
+      protected int[] initialValue()
+      {
+         return new int[1 << HASH_LOG];
+      }
+   };
+
+   public int maxCompressedLength(final int length)
+   {
+      return length + length / 255 + 16;
+   }
+
+   public int compress(final byte[] src, final int srcOffset, final int length, final byte[] dest, final int destOffset)
+   {
+      // last position each hashed sequence of 4 bytes was seen at
+      int[] table = HASH_TABLES.get();
+
+      Arrays.fill(table, -1);
+
+      final int srcEnd = srcOffset + length;
+      final int matchLimit = srcEnd - LAST_LITERALS;
+      final int findLimit = srcEnd - MATCH_FIND_LIMIT;
+
+      int anchor = srcOffset;
+      int ip = srcOffset;
+      int op = destOffset;
+      int misses = 0;
+
+      while (ip < findLimit)
+      {
+         int sequence = readInt(src, ip);
+         int hash = hash(sequence);
+         int ref = table[hash];
+         table[hash] = ip;
+
+         if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence)
+         {
+            // incompressible data is skipped faster the longer no match is found
+            ip += 1 + (misses++ >>> 6);
+            continue;
+         }
+
+         misses = 0;
+
+         while (ip > anchor && ref > srcOffset && src[ip - 1] == src[ref - 1])
+         {
+            ip--;
+            ref--;
+         }
+
+         int matchLength = MIN_MATCH;
+
+         while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength])
+         {
+            matchLength++;
+         }
+
+         op = writeToken(ip - anchor, matchLength - MIN_MATCH, dest, op);
+         op = writeLiterals(src, anchor, ip - anchor, dest, op);
+
+         int offset = ip - ref;
+         dest[op++] = (byte) offset;
+         dest[op++] = (byte) (offset >>> 8);
+
+         op = writeLength(matchLength - MIN_MATCH, dest, op);
+
+         ip += matchLength;
+         anchor = ip;
+      }
+
+      op = writeToken(srcEnd - anchor, 0, dest, op);
+      op = writeLiterals(src, anchor, srcEnd - anchor, dest, op);
+
+      return op - destOffset;
+   }
+
+   public void decompress(final byte[] src, final int srcOffset, final int length, final byte[] dest,
+                          final int destOffset, final int originalLength)
+   {
+      final int srcEnd = srcOffset + length;
+      final int destEnd = destOffset + originalLength;
+
+      int ip = srcOffset;
+      int op = destOffset;
+
+      try
+      {
+         while (true)
+         {
+            int token = src[ip++] & 0xFF;
+
+            int literalLength = token >>> 4;
+
+            if (literalLength == RUN_MASK)
+            {
+               int b;
+               do
+               {
+                  b = src[ip++] & 0xFF;
+                  literalLength += b;
+               }
+               while (b == 255);
+            }
+
+            if (ip + literalLength > srcEnd || op + literalLength > destEnd)
+            {
+               throw malformed();
+            }
+
+            System.arraycopy(src, ip, dest, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+
+            if (ip == srcEnd)
+            {
+               break;
+            }
+
+            int offset = src[ip++] & 0xFF | (src[ip++] & 0xFF) << 8;
+
+            int matchLength = token & RUN_MASK;
+
+            if (matchLength == RUN_MASK)
+            {
+               int b;
+               do
+               {
+                  b = src[ip++] & 0xFF;
+                  matchLength += b;
+               }
+               while (b == 255);
+            }
+
+            matchLength += MIN_MATCH;
+
+            int ref = op - offset;
+
+            if (offset == 0 || ref < destOffset || op + matchLength > destEnd)
+            {
+               throw malformed();
+            }
+
+            if (offset >= matchLength)
+            {
+               System.arraycopy(dest, ref, dest, op, matchLength);
+            }
+            else
+            {
+               // the match overlaps the bytes it produces, as runs of the same bytes do
+               for (int i = 0; i < matchLength; i++)
+               {
+                  dest[op + i] = dest[ref + i];
+               }
+            }
+
+            op += matchLength;
+         }
+      }
+      catch (ArrayIndexOutOfBoundsException e)
+      {
+         throw malformed();
+      }
+
+      if (op != destEnd)
+      {
+         throw malformed();
+      }
+   }
+
+   private static int readInt(final byte[] bytes, final int pos)
+   {
+      return bytes[pos] & 0xFF | (bytes[pos + 1] & 0xFF) << 8 | (bytes[pos + 2] & 0xFF) << 16 | bytes[pos + 3] << 24;
+   }
+
+   private static int hash(final int sequence)
+   {
+      return sequence * -1640531535 >>> 32 - HASH_LOG;
+   }
+
+   private static int writeToken(final int literalLength, final int matchLength, final byte[] dest, final int op)
+   {
+      dest[op] = (byte) (Math.min(literalLength, RUN_MASK) << 4 | Math.min(matchLength, RUN_MASK));
+
+      return op + 1;
+   }
+
+   private static int writeLiterals(final byte[] src, final int from, final int literalLength, final byte[] dest, int op)
+   {
+      op = writeLength(literalLength, dest, op);
+
+      System.arraycopy(src, from, dest, op, literalLength);
+
+      return op + literalLength;
+   }
+
+   private static int writeLength(int length, final byte[] dest, int op)
+   {
+      if (length >= RUN_MASK)
+      {
+         length -= RUN_MASK;
+
+         while (length >= 255)
+         {
+            dest[op++] = (byte) 255;
+            length -= 255;
+         }
+
+         dest[op++] = (byte) length;
+      }
+
+      return op;
+   }
+
+   private IllegalArgumentException malformed()
+   {
+      return ActiveMQClientMessageBundle.BUNDLE.malformedCompressedBody(getClass().getName());
+   }
+}
@@ -14,12 +14,4 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.apache.activemq.core.protocol.openwire;
-
-import java.io.IOException;
-
-public class NotEnoughBytesException extends IOException
-{
-   private static final long serialVersionUID = 3752739907942923658L;
-
-}
+package org.apache.activemq.api.core.client.compression;
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.loadbalance;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.api.core.client.TopologyMember;
+import org.apache.activemq.utils.Random;
+
+/**
+ * LeastLoadedConnectionLoadBalancingPolicy chooses the node with the fewest connections.
+ *
+ * <br>
+ * Nodes with as many connections are told apart by their queued bytes and then by their CPU load, the remaining ties
+ * are broken randomly. The connections made through this policy since a node last reported its load are added to the
+ * ones it reported, so the connections made in between two reports are spread too.
+ * <br>
+ * Until every node of the topology reported its load, such as with older servers in the cluster, and to choose among
+ * the initial connectors, nodes are chosen in a round-robin fashion.
+ */
+public final class LeastLoadedConnectionLoadBalancingPolicy implements LoadAwareConnectionLoadBalancingPolicy, Serializable
+{
+   private static final long serialVersionUID = -4021796322457513446L;
+
+   private final Random random = new Random();
+
+   private final RoundRobinConnectionLoadBalancingPolicy roundRobin = new RoundRobinConnectionLoadBalancingPolicy();
+
+   /**
+    * the connections made to each node since the report they were counted against, by node id
+    */
+   private final Map<String, Selections> selections = new HashMap<String, Selections>();
+
+   public int select(final int max)
+   {
+      return roundRobin.select(max);
+   }
+
+   public synchronized int select(final TopologyMember[] members)
+   {
+      for (TopologyMember member : members)
+      {
+         if (member.getLoad() == null)
+         {
+            return roundRobin.select(members.length);
+         }
+      }
+
+      int start = random.getRandom().nextInt(members.length);
+
+      int selected = -1;
+      int selectedConnections = 0;
+
+      for (int i = 0; i < members.length; i++)
+      {
+         int pos = (start + i) % members.length;
+
+         int connections = members[pos].getLoad().getConnectionCount() + getSelections(members[pos]).count;
+
+         if (selected == -1 || connections < selectedConnections ||
+            connections == selectedConnections && isLessLoaded(members[pos].getLoad(), members[selected].getLoad()))
+         {
+            selected = pos;
+            selectedConnections = connections;
+         }
+      }
+
+      getSelections(members[selected]).count++;
+
+      return selected;
+   }
+
+   private Selections getSelections(final TopologyMember member)
+   {
+      Selections nodeSelections = selections.get(member.getNodeId());
+
+      // a new report of the node already counts the connections made before it
+      if (nodeSelections == null || nodeSelections.uniqueEventID != member.getUniqueEventID())
+      {
+         nodeSelections = new Selections(member.getUniqueEventID());
+         selections.put(member.getNodeId(), nodeSelections);
+      }
+
+      return nodeSelections;
+   }
+
+   private static boolean isLessLoaded(final NodeLoad load, final NodeLoad other)
+   {
+      if (load.getQueuedBytes() != other.getQueuedBytes())
+      {
+         return load.getQueuedBytes() < other.getQueuedBytes();
+      }
+
+      return load.getCpuLoad() < other.getCpuLoad();
+   }
+
+   private static final class Selections implements Serializable
+   {
+      private static final long serialVersionUID = 6236781412035208418L;
+
+      private final long uniqueEventID;
+
+      private int count;
+
+      private Selections(final long uniqueEventID)
+      {
+         this.uniqueEventID = uniqueEventID;
+      }
+   }
+}
@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.loadbalance;
+
+import org.apache.activemq.api.core.client.TopologyMember;
+
+/**
+ * A ConnectionLoadBalancingPolicy that also looks at the load the nodes of the cluster report.
+ * <p>
+ * {@link #select(TopologyMember[])} is used once the topology of the cluster is known, {@link #select(int)} is still
+ * used to choose among the initial connectors.
+ */
+public interface LoadAwareConnectionLoadBalancingPolicy extends ConnectionLoadBalancingPolicy
+{
+   /**
+    * Returns the selected index according to the policy implementation.
+    *
+    * @param members the members of the topology, {@link TopologyMember#getLoad()} is {@code null} for the ones which
+    *                didn't report their load yet
+    */
+   int select(TopologyMember[] members);
+}
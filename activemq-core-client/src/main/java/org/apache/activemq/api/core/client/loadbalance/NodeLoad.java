@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.api.core.client.loadbalance;
+
+import java.io.Serializable;
+
+/**
+ * The load a node of the cluster last reported in the topology.
+ * <p>
+ * Each live server reports its own load periodically, see the {@code load-update-period} of its cluster connection.
+ */
+public final class NodeLoad implements Serializable
+{
+   private static final long serialVersionUID = 2908212536478741539L;
+
+   private final int connectionCount;
+
+   private final long queuedBytes;
+
+   private final int cpuLoad;
+
+   /**
+    * @param connectionCount the number of connections to the node
+    * @param queuedBytes     the size of the messages held in memory by the addresses of the node
+    * @param cpuLoad         the system load of the node as a percentage of its processors, {@code -1} if unknown
+    */
+   public NodeLoad(final int connectionCount, final long queuedBytes, final int cpuLoad)
+   {
+      this.connectionCount = connectionCount;
+      this.queuedBytes = queuedBytes;
+      this.cpuLoad = cpuLoad;
+   }
+
+   /**
+    * @return the number of connections to the node
+    */
+   public int getConnectionCount()
+   {
+      return connectionCount;
+   }
+
+   /**
+    * @return the size of the messages held in memory by the addresses of the node
+    */
+   public long getQueuedBytes()
+   {
+      return queuedBytes;
+   }
+
+   /**
+    * @return the system load of the node as a percentage of its processors, {@code -1} if unknown
+    */
+   public int getCpuLoad()
+   {
+      return cpuLoad;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + connectionCount;
+      result = prime * result + (int) (queuedBytes ^ (queuedBytes >>> 32));
+      result = prime * result + cpuLoad;
+      return result;
+   }
+
+   @Override
+   public boolean equals(final Object obj)
+   {
+      if (this == obj)
+      {
+         return true;
+      }
+      if (!(obj instanceof NodeLoad))
+      {
+         return false;
+      }
+      NodeLoad other = (NodeLoad) obj;
+      return connectionCount == other.connectionCount && queuedBytes == other.queuedBytes && cpuLoad == other.cpuLoad;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "NodeLoad[connectionCount=" + connectionCount + ", queuedBytes=" + queuedBytes + ", cpuLoad=" + cpuLoad + "]";
+   }
+}
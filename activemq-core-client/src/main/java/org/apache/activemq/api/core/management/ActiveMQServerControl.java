@@ -127,6 +127,24 @@ public interface ActiveMQServerControl
     */
    int getJournalBufferTimeout();
 
+   /**
+    * Returns whether the journal chooses when to flush its buffer from the time the syncs take and the rate they are
+    * requested at, the buffer timeout being the longest a sync waits for.
+    */
+   boolean isJournalAdaptiveBufferTimeout();
+
+   /**
+    * Returns the time (in nanoseconds) the syncs currently wait for before the journal flushes its buffer, the buffer
+    * timeout unless it is adaptive. With several journal stripes, this is the average over the stripes.
+    */
+   long getJournalFlushWindow();
+
+   /**
+    * Returns the average number of records written at once by the journal. With several journal stripes, this is the
+    * average over the stripes.
+    */
+   double getJournalAverageBatchSize();
+
    /**
     * do any clients failover on a server shutdown
     */
@@ -192,6 +210,11 @@ public interface ActiveMQServerControl
     */
    void setMessageCounterSamplePeriod(long newPeriod) throws Exception;
 
+   /**
+    * Returns whether the broker metrics (counters and latency histograms) are recorded by this server.
+    */
+   boolean isMetricsEnabled();
+
    /**
     * Returns {@code true} if this server is a backup, {@code false} if it is a live server.
     * <br>
@@ -209,6 +232,17 @@ public interface ActiveMQServerControl
     */
    String getPagingDirectory();
 
+   /**
+    * Returns the maximum number of bytes the messages of all the addresses can take in memory, {@code -1} for no
+    * limit.
+    */
+   long getGlobalMaxSize();
+
+   /**
+    * Returns the number of bytes the messages of all the addresses take in memory.
+    */
+   long getGlobalSize();
+
    /**
     * Returns whether delivery count is persisted before messages are delivered to the consumers.
     */
@@ -407,6 +441,21 @@ public interface ActiveMQServerControl
    @Operation(desc = "Reset all message counters history", impact = MBeanOperationInfo.ACTION)
    void resetAllMessageCounterHistories() throws Exception;
 
+   /**
+    * Lists the broker metrics using JSON serialization, sorted by name.
+    * <br>
+    * Each counter is listed with its value, and each latency histogram with its count, mean, max and
+    * p50/p90/p99/p999 percentiles, in nanoseconds. The list is empty if the metrics are not enabled.
+    */
+   @Operation(desc = "List the broker metrics using JSON", impact = MBeanOperationInfo.INFO)
+   String listMetricsAsJSON() throws Exception;
+
+   /**
+    * Resets the broker metrics.
+    */
+   @Operation(desc = "Reset the broker metrics", impact = MBeanOperationInfo.ACTION)
+   void resetMetrics() throws Exception;
+
    /**
     * List all the prepared transaction, sorted by date, oldest first.
     * <br>
@@ -72,6 +72,12 @@ public interface AddressControl
     */
    long getNumberOfBytesPerPage() throws Exception;
 
+   /**
+    * Returns how many times bigger the messages written to the compressed pages of this address are than the
+    * page files, {@code 1} if none was written.
+    */
+   double getPageCompressionRatio() throws Exception;
+
    /**
     * Returns the names of all bindings (both queues and diverts) bound to this address
     */
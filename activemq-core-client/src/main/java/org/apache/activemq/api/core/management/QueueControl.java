@@ -118,6 +118,23 @@ public interface QueueControl
    @Operation(desc = "List the messages scheduled for delivery and returns them using JSON", impact = MBeanOperationInfo.INFO)
    String listScheduledMessagesAsJSON() throws Exception;
 
+   /**
+    * Lists a page of the messages scheduled for delivery for this queue.
+    * <br>
+    * The first {@code offset} messages are skipped and at most {@code limit} messages are returned, all of them if
+    * {@code limit} is negative.
+    */
+   @Operation(desc = "List a page of the messages scheduled for delivery", impact = MBeanOperationInfo.INFO)
+   Map<String, Object>[] listScheduledMessages(@Parameter(name = "offset", desc = "The number of messages to skip") int offset,
+                                               @Parameter(name = "limit", desc = "The maximum number of messages to list, -1 for all") int limit) throws Exception;
+
+   /**
+    * Lists a page of the messages scheduled for delivery for this queue using JSON serialization.
+    */
+   @Operation(desc = "List a page of the messages scheduled for delivery and returns them using JSON", impact = MBeanOperationInfo.INFO)
+   String listScheduledMessagesAsJSON(@Parameter(name = "offset", desc = "The number of messages to skip") int offset,
+                                      @Parameter(name = "limit", desc = "The maximum number of messages to list, -1 for all") int limit) throws Exception;
+
    /**
     * Lists all the messages being deliver per consumer.
     * <br>
@@ -153,6 +170,31 @@ public interface QueueControl
    @Operation(desc = "List all the messages in the queue matching the given filter and returns them using JSON", impact = MBeanOperationInfo.INFO)
    String listMessagesAsJSON(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter) throws Exception;
 
+   /**
+    * Lists a page of the messages in this queue matching the specified filter, paged messages included.
+    * <br>
+    * The messages are listed in the same order as {@link #listMessages(String)}: the first {@code offset} matching
+    * messages are skipped and at most {@code limit} messages are returned, all of them if {@code limit} is negative.
+    * Only the messages of the page are converted, so a large queue can be browsed a page at a time.
+    */
+   @Operation(desc = "List a page of the messages in the queue matching the given filter", impact = MBeanOperationInfo.INFO)
+   Map<String, Object>[] listMessages(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter,
+                                      @Parameter(name = "offset", desc = "The number of matching messages to skip") int offset,
+                                      @Parameter(name = "limit", desc = "The maximum number of messages to list, -1 for all") int limit) throws Exception;
+
+   /**
+    * Lists a page of the messages in this queue matching the specified filter using JSON serialization.
+    * <br>
+    * The messages are written one at a time to the returned JSON, and {@code properties} restricts each message to
+    * the given comma separated list of properties and headers (e.g. {@code "messageID,priority,myProperty"}).
+    * Using {@code null} or empty {@code properties} will return all of them.
+    */
+   @Operation(desc = "List a page of the messages in the queue matching the given filter and returns them using JSON", impact = MBeanOperationInfo.INFO)
+   String listMessagesAsJSON(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter,
+                             @Parameter(name = "offset", desc = "The number of matching messages to skip") int offset,
+                             @Parameter(name = "limit", desc = "The maximum number of messages to list, -1 for all") int limit,
+                             @Parameter(name = "properties", desc = "A comma separated list of the properties to return (can be empty)") String properties) throws Exception;
+
    /**
     * Counts the number of messages in this queue matching the specified filter.
     * <br>
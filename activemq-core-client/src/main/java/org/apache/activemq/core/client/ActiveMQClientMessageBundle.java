@@ -229,4 +229,19 @@ public interface ActiveMQClientMessageBundle
 
    @Message(id = 119060, value = "Large Message Transmission interrupted on consumer shutdown.")
    ActiveMQLargeMessageInterruptedException largeMessageInterrupted();
+
+   @Message(id = 119061, value = "Messages can only be sent in batches by a producer created with an address")
+   ActiveMQIllegalStateException batchSendNeedsAddress();
+
+   @Message(id = 119062, value = "Malformed body compressed by {0}", format = Message.Format.MESSAGE_FORMAT)
+   IllegalArgumentException malformedCompressedBody(String codec);
+
+   @Message(id = 119063, value = "No body codec registered for {0}", format = Message.Format.MESSAGE_FORMAT)
+   IllegalArgumentException unknownBodyCodec(String codec);
+
+   @Message(id = 119064, value = "{0} does not implement BodyCodec", format = Message.Format.MESSAGE_FORMAT)
+   IllegalArgumentException notABodyCodec(String className);
+
+   @Message(id = 119065, value = "Body codec id {0} is already registered for {1}", format = Message.Format.MESSAGE_FORMAT)
+   IllegalStateException bodyCodecAlreadyRegistered(String id, String className);
 }
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flow control window of a consumer sized from the rate it processes messages at.
+ * <p>
+ * Credits are sent back once half of the window was consumed, and the other half has to keep the consumer busy
+ * until the server gets the credits and delivers more messages. The window is then the processing rate of the
+ * consumer times twice the round trip time of the session, plus an allowance for the delivery on the server, kept
+ * within the configured bounds.
+ * <p>
+ * Slow consumers end up buffering fewer messages, leaving them to the other consumers of the queue, while fast
+ * consumers are given enough credits to never wait for them.
+ */
+public final class AdaptiveConsumerWindow
+{
+   // Constants
+   // ------------------------------------------------------------------------------------
+
+   // time for the server to schedule the delivery once the credits arrive
+   private static final long DELIVERY_ALLOWANCE = TimeUnit.MILLISECONDS.toNanos(10);
+
+   // weight of a new sample on the smoothed processing rate
+   private static final double RATE_WEIGHT = 0.125;
+
+   // Attributes
+   // -----------------------------------------------------------------------------------
+
+   private final int minWindowSize;
+
+   private final int maxWindowSize;
+
+   private int windowSize;
+
+   // credits taken by the consumed messages and not sent back yet, negative while the window is shrinking
+   private int pendingCredits;
+
+   // bytes per nanosecond, negative until the first message is processed
+   private double processingRate = -1;
+
+   // Constructors
+   // ---------------------------------------------------------------------------------
+
+   public AdaptiveConsumerWindow(final int initialWindowSize, final int minWindowSize, final int maxWindowSize)
+   {
+      this.minWindowSize = Math.max(1, Math.min(minWindowSize, maxWindowSize));
+
+      this.maxWindowSize = maxWindowSize;
+
+      this.windowSize = Math.max(this.minWindowSize, Math.min(initialWindowSize, maxWindowSize));
+   }
+
+   // Public
+   // ---------------------------------------------------------------------------------------
+
+   /**
+    * @return the credits the server holds for the consumer once it got back everything it should
+    */
+   public synchronized int getWindowSize()
+   {
+      return windowSize;
+   }
+
+   /**
+    * Takes the time the consumer spent on a message into the processing rate.
+    */
+   public synchronized void processed(final int bytes, final long nanos)
+   {
+      double rate = (double) bytes / Math.max(1, nanos);
+
+      if (processingRate < 0)
+      {
+         processingRate = rate;
+      }
+      else
+      {
+         processingRate += RATE_WEIGHT * (rate - processingRate);
+      }
+   }
+
+   /**
+    * @param bytes          the credits taken by the message that was consumed
+    * @param roundTripTime  the round trip time of the session in nanoseconds
+    * @return the credits to send to the server now, 0 if they should be kept
+    */
+   public synchronized int consumed(final int bytes, final long roundTripTime)
+   {
+      pendingCredits += bytes;
+
+      if (pendingCredits < windowSize / 2)
+      {
+         return 0;
+      }
+
+      resize(roundTripTime);
+
+      if (pendingCredits <= 0)
+      {
+         return 0;
+      }
+
+      int credits = pendingCredits;
+
+      pendingCredits = 0;
+
+      return credits;
+   }
+
+   /**
+    * Forgets about the credits not sent yet, after failover the server is given a whole window again.
+    */
+   public synchronized void reset()
+   {
+      pendingCredits = 0;
+   }
+
+   // Private
+   // ---------------------------------------------------------------------------------------
+
+   private void resize(final long roundTripTime)
+   {
+      if (processingRate < 0)
+      {
+         return;
+      }
+
+      double target = processingRate * (2 * roundTripTime + DELIVERY_ALLOWANCE);
+
+      int newSize = (int) Math.max(minWindowSize, Math.min(maxWindowSize, target));
+
+      if (newSize < windowSize)
+      {
+         // a few slow messages shouldn't take all the buffered messages away from the consumer
+         newSize = Math.max(newSize, windowSize - windowSize / 4);
+      }
+
+      // growing gives the server more credits straight away, shrinking keeps credits back until it's paid
+      pendingCredits += newSize - windowSize;
+
+      windowSize = newSize;
+   }
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -86,6 +87,9 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
    private final int clientWindowSize;
 
+   // null unless the window is sized from the rate of the consumer
+   private final AdaptiveConsumerWindow adaptiveWindow;
+
    private final int ackBatchSize;
 
    private final PriorityLinkedList<ClientMessageInternal> buffer = new PriorityLinkedListImpl<ClientMessageInternal>(ClientConsumerImpl.NUM_PRIORITIES);
@@ -130,6 +134,11 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
    private final ClassLoader contextClassLoader;
 
+   // When receive returned the last message and the credits it took, to know how long the application spent on it
+   private long receivedTime;
+
+   private int receivedSize;
+
    // Constructors
    // ---------------------------------------------------------------------------------
 
@@ -139,6 +148,7 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
                              final SimpleString filterString,
                              final boolean browseOnly,
                              final int clientWindowSize,
+                             final AdaptiveConsumerWindow adaptiveWindow,
                              final int ackBatchSize,
                              final TokenBucketLimiter rateLimiter,
                              final Executor executor,
@@ -165,6 +175,8 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
       this.clientWindowSize = clientWindowSize;
 
+      this.adaptiveWindow = adaptiveWindow;
+
       this.ackBatchSize = ackBatchSize;
 
       this.queueInfo = queueInfo;
@@ -208,6 +220,13 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
          startSlowConsumer();
       }
 
+      if (adaptiveWindow != null && receivedTime != 0)
+      {
+         adaptiveWindow.processed(receivedSize, System.nanoTime() - receivedTime);
+
+         receivedTime = 0;
+      }
+
       receiverThread = Thread.currentThread();
 
       // To verify if deliveryForced was already call
@@ -368,6 +387,13 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
                   ActiveMQClientLogger.LOGGER.trace("Returning " + m);
                }
 
+               if (adaptiveWindow != null)
+               {
+                  receivedTime = System.nanoTime();
+
+                  receivedSize = m.getFlowControlSize();
+               }
+
                return m;
             }
             else
@@ -531,6 +557,11 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
       creditsToSend = 0;
 
+      if (adaptiveWindow != null)
+      {
+         adaptiveWindow.reset();
+      }
+
       failedOver = true;
 
       ackIndividually = false;
@@ -589,7 +620,52 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
       }
    }
 
+   public synchronized void handleMessages(final List<ClientMessageInternal> messages) throws Exception
+   {
+      if (closing)
+      {
+         // This is ok - we just ignore the messages
+         return;
+      }
+
+      int added = 0;
+
+      for (ClientMessageInternal message : messages)
+      {
+         if (message.getBooleanProperty(Message.HDR_LARGE_COMPRESSED))
+         {
+            handleCompressedMessage(message);
+         }
+         else
+         {
+            addToBuffer(message);
+
+            added++;
+         }
+      }
+
+      if (handler != null)
+      {
+         // the executor runs a single message per task
+         for (int i = 0; i < added; i++)
+         {
+            wakeUpReceiver();
+         }
+      }
+      else if (added > 0)
+      {
+         notify();
+      }
+   }
+
    private void handleRegularMessage(ClientMessageInternal message)
+   {
+      addToBuffer(message);
+
+      wakeUpReceiver();
+   }
+
+   private void addToBuffer(ClientMessageInternal message)
    {
       if (message.getAddress() == null)
       {
@@ -608,7 +684,10 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
       // Add it to the buffer
       buffer.addTail(message, message.getPriority());
+   }
 
+   private void wakeUpReceiver()
+   {
       if (handler != null)
       {
          // Execute using executor
@@ -782,7 +861,7 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
 
    public int getClientWindowSize()
    {
-      return clientWindowSize;
+      return adaptiveWindow != null ? adaptiveWindow.getWindowSize() : clientWindowSize;
    }
 
    public int getBufferSize()
@@ -839,7 +918,22 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
     */
    public void flowControl(final int messageBytes, final boolean discountSlowConsumer) throws ActiveMQException
    {
-      if (clientWindowSize >= 0)
+      if (adaptiveWindow != null)
+      {
+         final int credits = adaptiveWindow.consumed(messageBytes, sessionContext.getRoundTripTime());
+
+         if (credits > 0)
+         {
+            if (ActiveMQClientLogger.LOGGER.isDebugEnabled())
+            {
+               ActiveMQClientLogger.LOGGER.debug("Sending " + credits + " from adaptive flow-control, window is now " +
+                                                    adaptiveWindow.getWindowSize());
+            }
+
+            sendCredits(credits);
+         }
+      }
+      else if (clientWindowSize >= 0)
       {
          creditsToSend += messageBytes;
 
@@ -1084,9 +1178,16 @@ public final class ClientConsumerImpl implements ClientConsumerInternal
                });
 
                onMessageThread = Thread.currentThread();
+
+               long start = System.nanoTime();
                try
                {
                   theHandler.onMessage(message);
+
+                  if (adaptiveWindow != null)
+                  {
+                     adaptiveWindow.processed(message.getFlowControlSize(), System.nanoTime() - start);
+                  }
                }
                finally
                {
@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.core.client.impl;
 
+import java.util.List;
+
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.client.ClientConsumer;
@@ -33,6 +35,11 @@ public interface ClientConsumerInternal extends ClientConsumer
 
    void handleMessage(ClientMessageInternal message) throws Exception;
 
+   /**
+    * Adds all the messages of a batch to the buffer at once, without releasing the consumer in between.
+    */
+   void handleMessages(List<ClientMessageInternal> messages) throws Exception;
+
    void handleLargeMessage(ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception;
 
    void handleLargeMessageContinuation(byte[] chunk, int flowControlSize, boolean isContinues) throws Exception;
@@ -152,9 +152,26 @@ public class ClientMessageImpl extends MessageImpl implements ClientMessageInter
    @Override
    public int getBodySize()
    {
+      if (isBodyCompressed())
+      {
+         decompressBody();
+      }
+
       return buffer.writerIndex() - buffer.readerIndex();
    }
 
+   @Override
+   public ActiveMQBuffer getBodyBuffer()
+   {
+      // only decompressed when read, the server and the bridges pass the compressed body along
+      if (isBodyCompressed())
+      {
+         decompressBody();
+      }
+
+      return super.getBodyBuffer();
+   }
+
    @Override
    public String toString()
    {
@@ -18,6 +18,9 @@ package org.apache.activemq.core.client.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.api.core.ActiveMQBuffer;
@@ -27,6 +30,7 @@ import org.apache.activemq.api.core.ActiveMQInterruptedException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.message.BodyEncoder;
 import org.apache.activemq.core.message.impl.MessageInternal;
@@ -162,6 +166,18 @@ public class ClientProducerImpl implements ClientProducerInternal
       send(null, message, handler);
    }
 
+   public void send(final Collection<? extends Message> messages) throws ActiveMQException
+   {
+      checkClosed();
+
+      if (address == null)
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.batchSendNeedsAddress();
+      }
+
+      doSendBatch(messages);
+   }
+
    public synchronized void close() throws ActiveMQException
    {
       if (closed)
@@ -228,78 +244,150 @@ public class ClientProducerImpl implements ClientProducerInternal
 
       try
       {
-         MessageInternal msgI = (MessageInternal) msg;
+         sendMessage(address1, (MessageInternal) msg, handler);
+      }
+      finally
+      {
+         session.endCall();
+      }
+   }
+
+   private void sendMessage(final SimpleString address1, final MessageInternal msgI, final SendAcknowledgementHandler handler) throws ActiveMQException
+   {
+      ClientProducerCredits theCredits;
 
-         ClientProducerCredits theCredits;
+      boolean isLarge = isLargeMessage(msgI);
 
-         boolean isLarge;
-         // a note about the second check on the writerIndexSize,
-         // If it's a server's message, it means this is being done through the bridge or some special consumer on the
-         // server's on which case we can't' convert the message into large at the servers
-         if (sessionContext.supportsLargeMessage() && (msgI.getBodyInputStream() != null || msgI.isLargeMessage() ||
-            msgI.getBodyBuffer().writerIndex() > minLargeMessageSize && !msgI.isServerMessage()))
+      if (address1 != null)
+      {
+         if (!isLarge)
          {
-            isLarge = true;
+            session.setAddress(msgI, address1);
          }
          else
          {
-            isLarge = false;
+            msgI.setAddress(address1);
          }
 
-         if (address1 != null)
+         // Anonymous
+         theCredits = session.getCredits(address1, true);
+      }
+      else
+      {
+         if (!isLarge)
          {
-            if (!isLarge)
-            {
-               session.setAddress(msg, address1);
-            }
-            else
-            {
-               msg.setAddress(address1);
-            }
-
-            // Anonymous
-            theCredits = session.getCredits(address1, true);
+            session.setAddress(msgI, this.address);
          }
          else
          {
-            if (!isLarge)
-            {
-               session.setAddress(msg, this.address);
-            }
-            else
+            msgI.setAddress(this.address);
+         }
+
+         theCredits = producerCredits;
+      }
+
+      prepareMessage(msgI);
+
+      if (!isLarge)
+      {
+         compressBody(msgI);
+      }
+
+      final boolean sendBlockingConfig = msgI.isDurable() ? blockOnDurableSend : blockOnNonDurableSend;
+      final boolean forceAsyncOverride = handler != null;
+      final boolean sendBlocking = sendBlockingConfig && !forceAsyncOverride;
+
+      session.workDone();
+
+      if (isLarge)
+      {
+         largeMessageSend(sendBlocking, msgI, theCredits, handler);
+      }
+      else
+      {
+         sendRegularMessage(msgI, sendBlocking, theCredits, handler);
+      }
+   }
+
+   private boolean isLargeMessage(final MessageInternal msgI)
+   {
+      // a note about the second check on the writerIndexSize,
+      // If it's a server's message, it means this is being done through the bridge or some special consumer on the
+      // server's on which case we can't' convert the message into large at the servers
+      return sessionContext.supportsLargeMessage() && (msgI.getBodyInputStream() != null || msgI.isLargeMessage() ||
+         msgI.getBodyBuffer().writerIndex() > minLargeMessageSize && !msgI.isServerMessage());
+   }
+
+   private void prepareMessage(final MessageInternal msgI)
+   {
+      if (rateLimiter != null)
+      {
+         // Rate flow control
+
+         rateLimiter.limit();
+      }
+
+      if (groupID != null)
+      {
+         msgI.putStringProperty(Message.HDR_GROUP_ID, groupID);
+      }
+   }
+
+   private void compressBody(final MessageInternal msgI)
+   {
+      BodyCodec bodyCodec = session.getBodyCodec();
+
+      // server messages are shared with the queues they were routed to, bridges forward them as they are
+      if (bodyCodec != null && !msgI.isServerMessage())
+      {
+         msgI.compressBody(bodyCodec, session.getMinBodyCompressionSize());
+      }
+   }
+
+   /**
+    * Sends the regular messages of the collection in batches, large messages interrupt the batch and
+    * are sent on their own so the order of the collection is kept.
+    */
+   private void doSendBatch(final Collection<? extends Message> messages) throws ActiveMQException
+   {
+      session.startCall();
+
+      try
+      {
+         List<MessageInternal> batch = new ArrayList<MessageInternal>(messages.size());
+
+         boolean sendBlocking = false;
+
+         for (Message msg : messages)
+         {
+            MessageInternal msgI = (MessageInternal) msg;
+
+            if (isLargeMessage(msgI))
             {
-               msg.setAddress(this.address);
+               sendBatch(batch, sendBlocking);
+               batch.clear();
+               sendBlocking = false;
+
+               sendMessage(null, msgI, null);
+               continue;
             }
 
-            theCredits = producerCredits;
-         }
+            session.setAddress(msgI, this.address);
 
-         if (rateLimiter != null)
-         {
-            // Rate flow control
+            prepareMessage(msgI);
 
-            rateLimiter.limit();
-         }
+            compressBody(msgI);
 
-         if (groupID != null)
-         {
-            msgI.putStringProperty(Message.HDR_GROUP_ID, groupID);
-         }
+            sendBlocking |= msgI.isDurable() ? blockOnDurableSend : blockOnNonDurableSend;
 
-         final boolean sendBlockingConfig = msgI.isDurable() ? blockOnDurableSend : blockOnNonDurableSend;
-         final boolean forceAsyncOverride = handler != null;
-         final boolean sendBlocking = sendBlockingConfig && !forceAsyncOverride;
+            acquireCredits(producerCredits, msgI);
+
+            batch.add(msgI);
+         }
 
          session.workDone();
 
-         if (isLarge)
-         {
-            largeMessageSend(sendBlocking, msgI, theCredits, handler);
-         }
-         else
-         {
-            sendRegularMessage(msgI, sendBlocking, theCredits, handler);
-         }
+         sendBatch(batch, sendBlocking);
       }
       finally
       {
@@ -307,7 +395,26 @@ public class ClientProducerImpl implements ClientProducerInternal
       }
    }
 
+   private void sendBatch(final List<MessageInternal> batch, final boolean sendBlocking) throws ActiveMQException
+   {
+      if (batch.size() == 1)
+      {
+         sessionContext.sendFullMessage(batch.get(0), sendBlocking, null, address);
+      }
+      else if (!batch.isEmpty())
+      {
+         sessionContext.sendFullMessages(new ArrayList<MessageInternal>(batch), sendBlocking, null, address);
+      }
+   }
+
    private void sendRegularMessage(final MessageInternal msgI, final boolean sendBlocking, final ClientProducerCredits theCredits, final SendAcknowledgementHandler handler) throws ActiveMQException
+   {
+      acquireCredits(theCredits, msgI);
+
+      sessionContext.sendFullMessage(msgI, sendBlocking, handler, address);
+   }
+
+   private void acquireCredits(final ClientProducerCredits theCredits, final MessageInternal msgI) throws ActiveMQException
    {
       try
       {
@@ -325,8 +432,6 @@ public class ClientProducerImpl implements ClientProducerInternal
       {
          throw new ActiveMQInterruptedException(e);
       }
-
-      sessionContext.sendFullMessage(msgI, sendBlocking, handler, address);
    }
 
    private void checkClosed() throws ActiveMQException
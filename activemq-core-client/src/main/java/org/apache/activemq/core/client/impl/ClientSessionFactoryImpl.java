@@ -44,6 +44,7 @@ import org.apache.activemq.api.core.client.FailoverEventType;
 import org.apache.activemq.api.core.client.ActiveMQClient;
 import org.apache.activemq.api.core.client.ServerLocator;
 import org.apache.activemq.api.core.client.SessionFailureListener;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.protocol.core.CoreRemotingConnection;
@@ -761,6 +762,8 @@ public class ClientSessionFactoryImpl implements ClientSessionFactoryInternal, C
                                                             serverLocator.isAutoGroup(),
                                                             ackBatchSize,
                                                             serverLocator.getConsumerWindowSize(),
+                                                            serverLocator.getConsumerMinWindowSize(),
+                                                            serverLocator.getConsumerMaxWindowSize(),
                                                             serverLocator.getConsumerMaxRate(),
                                                             serverLocator.getConfirmationWindowSize(),
                                                             serverLocator.getProducerWindowSize(),
@@ -770,6 +773,8 @@ public class ClientSessionFactoryImpl implements ClientSessionFactoryInternal, C
                                                             serverLocator.isCacheLargeMessagesClient(),
                                                             serverLocator.getMinLargeMessageSize(),
                                                             serverLocator.isCompressLargeMessage(),
+                                                            serverLocator.getBodyCodec(),
+                                                            serverLocator.getMinBodyCompressionSize(),
                                                             serverLocator.getInitialMessagePacketSize(),
                                                             serverLocator.getGroupID(),
                                                             context,
@@ -1573,14 +1578,14 @@ public class ClientSessionFactoryImpl implements ClientSessionFactoryInternal, C
       }
 
       @Override
-      public void notifyNodeUp(long uniqueEventID, String nodeID, String backupGroupName, String scaleDownGroupName, Pair<TransportConfiguration, TransportConfiguration> connectorPair, boolean isLast)
+      public void notifyNodeUp(long uniqueEventID, String nodeID, String backupGroupName, String scaleDownGroupName, Pair<TransportConfiguration, TransportConfiguration> connectorPair, boolean isLast, NodeLoad load)
       {
          // if it is our connector then set the live id used for failover
          if (connectorPair.getA() != null && connectorPair.getA().equals(connectorConfig))
          {
             liveNodeID = nodeID;
          }
-         serverLocator.notifyNodeUp(uniqueEventID, nodeID, backupGroupName, scaleDownGroupName, connectorPair, isLast);
+         serverLocator.notifyNodeUp(uniqueEventID, nodeID, backupGroupName, scaleDownGroupName, connectorPair, isLast, load);
       }
 
       @Override
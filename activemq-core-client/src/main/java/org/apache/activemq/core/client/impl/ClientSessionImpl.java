@@ -22,6 +22,7 @@ import javax.transaction.xa.Xid;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
@@ -40,6 +41,7 @@ import org.apache.activemq.api.core.client.ClientSessionFactory;
 import org.apache.activemq.api.core.client.FailoverEventListener;
 import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
 import org.apache.activemq.api.core.client.SessionFailureListener;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.remoting.FailureListener;
@@ -93,6 +95,10 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
 
    private final int consumerWindowSize;
 
+   private final int consumerMinWindowSize;
+
+   private final int consumerMaxWindowSize;
+
    private final int consumerMaxRate;
 
    private final int confirmationWindowSize;
@@ -107,6 +113,10 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
 
    private final boolean compressLargeMessages;
 
+   private final BodyCodec bodyCodec;
+
+   private final int minBodyCompressionSize;
+
    private volatile int initialMessagePacketSize;
 
    private final boolean cacheLargeMessageClient;
@@ -154,6 +164,8 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
                      final boolean autoGroup,
                      final int ackBatchSize,
                      final int consumerWindowSize,
+                     final int consumerMinWindowSize,
+                     final int consumerMaxWindowSize,
                      final int consumerMaxRate,
                      final int confirmationWindowSize,
                      final int producerWindowSize,
@@ -163,6 +175,8 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
                      final boolean cacheLargeMessageClient,
                      final int minLargeMessageSize,
                      final boolean compressLargeMessages,
+                     final BodyCodec bodyCodec,
+                     final int minBodyCompressionSize,
                      final int initialMessagePacketSize,
                      final String groupID,
                      final SessionContext sessionContext,
@@ -197,6 +211,10 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
 
       this.consumerWindowSize = consumerWindowSize;
 
+      this.consumerMinWindowSize = consumerMinWindowSize;
+
+      this.consumerMaxWindowSize = consumerMaxWindowSize;
+
       this.consumerMaxRate = consumerMaxRate;
 
       this.confirmationWindowSize = confirmationWindowSize;
@@ -213,6 +231,10 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
 
       this.compressLargeMessages = compressLargeMessages;
 
+      this.bodyCodec = bodyCodec;
+
+      this.minBodyCompressionSize = minBodyCompressionSize;
+
       this.initialMessagePacketSize = initialMessagePacketSize;
 
       this.groupID = groupID;
@@ -729,6 +751,16 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
       return compressLargeMessages;
    }
 
+   public BodyCodec getBodyCodec()
+   {
+      return bodyCodec;
+   }
+
+   public int getMinBodyCompressionSize()
+   {
+      return minBodyCompressionSize;
+   }
+
    /**
     * @return the cacheLargeMessageClient
     */
@@ -845,6 +877,16 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
       }
    }
 
+   public void handleReceiveMessages(final ConsumerContext consumerID, final List<ClientMessageInternal> messages) throws Exception
+   {
+      ClientConsumerInternal consumer = getConsumer(consumerID);
+
+      if (consumer != null)
+      {
+         consumer.handleMessages(messages);
+      }
+   }
+
    public void handleReceiveLargeMessage(final ConsumerContext consumerID, ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception
    {
       ClientConsumerInternal consumer = getConsumer(consumerID);
@@ -1677,7 +1719,8 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
    {
       checkClosed();
 
-      ClientConsumerInternal consumer = sessionContext.createConsumer(queueName, filterString, windowSize, maxRate,
+      ClientConsumerInternal consumer = sessionContext.createConsumer(queueName, filterString, windowSize,
+                                                                      consumerMinWindowSize, consumerMaxWindowSize, maxRate,
                                                                       ackBatchSize, browseOnly, executor, flowControlExecutor);
 
       addConsumer(consumer);
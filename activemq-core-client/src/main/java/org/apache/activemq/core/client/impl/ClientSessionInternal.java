@@ -16,12 +16,15 @@
  */
 package org.apache.activemq.core.client.impl;
 
+import java.util.List;
+
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.client.ClientConsumer;
 import org.apache.activemq.api.core.client.ClientSession;
 import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.spi.core.remoting.ConsumerContext;
 
@@ -39,6 +42,10 @@ public interface ClientSessionInternal extends ClientSession
 
    boolean isCompressLargeMessages();
 
+   BodyCodec getBodyCodec();
+
+   int getMinBodyCompressionSize();
+
    void expire(ClientConsumer consumer, Message message) throws ActiveMQException;
 
    void addConsumer(ClientConsumerInternal consumer);
@@ -51,6 +58,8 @@ public interface ClientSessionInternal extends ClientSession
 
    void handleReceiveMessage(ConsumerContext consumerID, ClientMessageInternal message) throws Exception;
 
+   void handleReceiveMessages(ConsumerContext consumerID, List<ClientMessageInternal> messages) throws Exception;
+
    void handleReceiveLargeMessage(ConsumerContext consumerID, ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception;
 
    void handleReceiveContinuation(ConsumerContext consumerID, byte[] chunk, int flowControlSize, boolean isContinues) throws Exception;
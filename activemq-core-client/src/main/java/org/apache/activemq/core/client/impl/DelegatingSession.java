@@ -19,6 +19,7 @@ package org.apache.activemq.core.client.impl;
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.activemq.api.core.ActiveMQException;
@@ -31,6 +32,7 @@ import org.apache.activemq.api.core.client.ClientSessionFactory;
 import org.apache.activemq.api.core.client.FailoverEventListener;
 import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
 import org.apache.activemq.api.core.client.SessionFailureListener;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.spi.core.remoting.ConsumerContext;
@@ -402,6 +404,12 @@ public class DelegatingSession implements ClientSessionInternal
       session.handleReceiveMessage(consumerID, message);
    }
 
+   @Override
+   public void handleReceiveMessages(ConsumerContext consumerID, List<ClientMessageInternal> messages) throws Exception
+   {
+      session.handleReceiveMessages(consumerID, messages);
+   }
+
    @Override
    public void handleReceiveLargeMessage(ConsumerContext consumerID, ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception
    {
@@ -607,6 +615,16 @@ public class DelegatingSession implements ClientSessionInternal
       return session.isCompressLargeMessages();
    }
 
+   public BodyCodec getBodyCodec()
+   {
+      return session.getBodyCodec();
+   }
+
+   public int getMinBodyCompressionSize()
+   {
+      return session.getMinBodyCompressionSize();
+   }
+
    @Override
    public String toString()
    {
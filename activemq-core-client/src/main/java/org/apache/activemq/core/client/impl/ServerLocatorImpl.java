@@ -51,7 +51,11 @@ import org.apache.activemq.api.core.client.ClientSessionFactory;
 import org.apache.activemq.api.core.client.ClusterTopologyListener;
 import org.apache.activemq.api.core.client.ActiveMQClient;
 import org.apache.activemq.api.core.client.TopologyMember;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
+import org.apache.activemq.api.core.client.compression.BodyCodecs;
 import org.apache.activemq.api.core.client.loadbalance.ConnectionLoadBalancingPolicy;
+import org.apache.activemq.api.core.client.loadbalance.LoadAwareConnectionLoadBalancingPolicy;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.cluster.DiscoveryEntry;
@@ -108,10 +112,21 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
    private volatile Pair<TransportConfiguration, TransportConfiguration>[] topologyArray;
 
+   /**
+    * the members of {@link #topologyArray}, in the same order, for load aware load balancing policies
+    */
+   private transient volatile TopologyMember[] topologyMembers;
+
    private volatile boolean receivedTopology;
 
    private boolean compressLargeMessage;
 
+   private String bodyCodecClassName;
+
+   private int minBodyCompressionSize;
+
+   private transient volatile BodyCodec bodyCodec;
+
    // if the system should shutdown the pool when shutting down
    private transient boolean shutdownPool;
 
@@ -139,6 +154,10 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
    private int consumerWindowSize;
 
+   private int consumerMinWindowSize;
+
+   private int consumerMaxWindowSize;
+
    private int consumerMaxRate;
 
    private int confirmationWindowSize;
@@ -424,6 +443,10 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
       consumerWindowSize = ActiveMQClient.DEFAULT_CONSUMER_WINDOW_SIZE;
 
+      consumerMinWindowSize = ActiveMQClient.DEFAULT_CONSUMER_MIN_WINDOW_SIZE;
+
+      consumerMaxWindowSize = ActiveMQClient.DEFAULT_CONSUMER_MAX_WINDOW_SIZE;
+
       consumerMaxRate = ActiveMQClient.DEFAULT_CONSUMER_MAX_RATE;
 
       confirmationWindowSize = ActiveMQClient.DEFAULT_CONFIRMATION_WINDOW_SIZE;
@@ -472,6 +495,10 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
       compressLargeMessage = ActiveMQClient.DEFAULT_COMPRESS_LARGE_MESSAGES;
 
+      bodyCodecClassName = ActiveMQClient.DEFAULT_BODY_CODEC_CLASS_NAME;
+
+      minBodyCompressionSize = ActiveMQClient.DEFAULT_MIN_BODY_COMPRESSION_SIZE;
+
       clusterConnection = false;
    }
 
@@ -533,6 +560,7 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       {
          receivedTopology = false;
          topologyArray = null;
+         topologyMembers = null;
          topology.clear();
       }
    }
@@ -546,8 +574,11 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       discoveryGroupConfiguration = locator.discoveryGroupConfiguration;
       topology = locator.topology;
       topologyArray = locator.topologyArray;
+      topologyMembers = locator.topologyMembers;
       receivedTopology = locator.receivedTopology;
       compressLargeMessage = locator.compressLargeMessage;
+      bodyCodecClassName = locator.bodyCodecClassName;
+      minBodyCompressionSize = locator.minBodyCompressionSize;
       cacheLargeMessagesClient = locator.cacheLargeMessagesClient;
       clientFailureCheckPeriod = locator.clientFailureCheckPeriod;
       connectionTTL = locator.connectionTTL;
@@ -555,6 +586,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       callFailoverTimeout = locator.callFailoverTimeout;
       minLargeMessageSize = locator.minLargeMessageSize;
       consumerWindowSize = locator.consumerWindowSize;
+      consumerMinWindowSize = locator.consumerMinWindowSize;
+      consumerMaxWindowSize = locator.consumerMaxWindowSize;
       consumerMaxRate = locator.consumerMaxRate;
       confirmationWindowSize = locator.confirmationWindowSize;
       producerWindowSize = locator.producerWindowSize;
@@ -587,15 +620,28 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
    {
       Pair<TransportConfiguration, TransportConfiguration>[] usedTopology;
 
+      TopologyMember[] usedMembers;
+
       synchronized (topologyArrayGuard)
       {
          usedTopology = topologyArray;
+         usedMembers = topologyMembers;
       }
 
       // if the topologyArray is null, we will use the initialConnectors
       if (usedTopology != null)
       {
-         int pos = loadBalancingPolicy.select(usedTopology.length);
+         int pos;
+
+         // the members aren't serialized with the topologyArray
+         if (loadBalancingPolicy instanceof LoadAwareConnectionLoadBalancingPolicy && usedMembers != null)
+         {
+            pos = ((LoadAwareConnectionLoadBalancingPolicy) loadBalancingPolicy).select(usedMembers);
+         }
+         else
+         {
+            pos = loadBalancingPolicy.select(usedTopology.length);
+         }
          Pair<TransportConfiguration, TransportConfiguration> pair = usedTopology[pos];
 
          return pair.getA();
@@ -1057,6 +1103,30 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       return this;
    }
 
+   public int getConsumerMinWindowSize()
+   {
+      return consumerMinWindowSize;
+   }
+
+   public ServerLocatorImpl setConsumerMinWindowSize(final int consumerMinWindowSize)
+   {
+      checkWrite();
+      this.consumerMinWindowSize = consumerMinWindowSize;
+      return this;
+   }
+
+   public int getConsumerMaxWindowSize()
+   {
+      return consumerMaxWindowSize;
+   }
+
+   public ServerLocatorImpl setConsumerMaxWindowSize(final int consumerMaxWindowSize)
+   {
+      checkWrite();
+      this.consumerMaxWindowSize = consumerMaxWindowSize;
+      return this;
+   }
+
    public int getConsumerMaxRate()
    {
       return consumerMaxRate;
@@ -1365,6 +1435,40 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       return this;
    }
 
+   public String getBodyCodecClassName()
+   {
+      return bodyCodecClassName;
+   }
+
+   public ServerLocatorImpl setBodyCodecClassName(final String bodyCodecClassName)
+   {
+      checkWrite();
+      this.bodyCodecClassName = bodyCodecClassName;
+      this.bodyCodec = null;
+      return this;
+   }
+
+   public int getMinBodyCompressionSize()
+   {
+      return minBodyCompressionSize;
+   }
+
+   public ServerLocatorImpl setMinBodyCompressionSize(final int minBodyCompressionSize)
+   {
+      checkWrite();
+      this.minBodyCompressionSize = minBodyCompressionSize;
+      return this;
+   }
+
+   public BodyCodec getBodyCodec()
+   {
+      if (bodyCodec == null && bodyCodecClassName != null)
+      {
+         bodyCodec = BodyCodecs.getCodecForClassName(bodyCodecClassName);
+      }
+      return bodyCodec;
+   }
+
    private void checkWrite()
    {
       synchronized (stateGuard)
@@ -1601,6 +1705,7 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
                // Resetting the topology to its original condition as it was brand new
                receivedTopology = false;
                topologyArray = null;
+               topologyMembers = null;
             }
             else
             {
@@ -1622,7 +1727,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
                             final String backupGroupName,
                             final String scaleDownGroupName,
                             final Pair<TransportConfiguration, TransportConfiguration> connectorPair,
-                            final boolean last)
+                            final boolean last,
+                            final NodeLoad load)
    {
       if (ActiveMQClientLogger.LOGGER.isTraceEnabled())
       {
@@ -1631,6 +1737,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
       TopologyMemberImpl member = new TopologyMemberImpl(nodeID, backupGroupName, scaleDownGroupName, connectorPair.getA(), connectorPair.getB());
 
+      member.setLoad(load);
+
       topology.updateMember(uniqueEventID, nodeID, member);
 
       TopologyMember actMember = topology.getMember(nodeID);
@@ -1691,13 +1799,17 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
             (Pair<TransportConfiguration, TransportConfiguration>[]) Array.newInstance(Pair.class,
                                                                                        membersCopy.size());
 
+         TopologyMember[] topologyMembersLocal = new TopologyMember[membersCopy.size()];
+
          int count = 0;
          for (TopologyMemberImpl pair : membersCopy)
          {
+            topologyMembersLocal[count] = pair;
             topologyArrayLocal[count++] = pair.getConnector();
          }
 
          this.topologyArray = topologyArrayLocal;
+         this.topologyMembers = topologyMembersLocal;
       }
    }
 
@@ -1769,6 +1881,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
                receivedTopology = false;
 
                topologyArray = null;
+
+               topologyMembers = null;
             }
          }
       }
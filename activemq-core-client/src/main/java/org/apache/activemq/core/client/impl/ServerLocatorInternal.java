@@ -22,6 +22,8 @@ import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.client.ClientSessionFactory;
 import org.apache.activemq.api.core.client.ServerLocator;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.api.core.Pair;
 import org.apache.activemq.spi.core.remoting.ClientProtocolManager;
 
@@ -58,7 +60,7 @@ public interface ServerLocatorInternal extends ServerLocator
    ClientSessionFactoryInternal connectNoWarnings() throws ActiveMQException;
 
    void notifyNodeUp(long uniqueEventID, String nodeID, String backupGroupName, String scaleDownGroupName,
-                     Pair<TransportConfiguration, TransportConfiguration> connectorPair, boolean last);
+                     Pair<TransportConfiguration, TransportConfiguration> connectorPair, boolean last, NodeLoad load);
 
    /**
     *
@@ -79,5 +81,10 @@ public interface ServerLocatorInternal extends ServerLocator
 
    ClientProtocolManager newProtocolManager();
 
+   /**
+    * @return the codec compressing the body of regular messages, {@code null} if they aren't compressed
+    */
+   BodyCodec getBodyCodec();
+
    boolean isConnectable();
 }
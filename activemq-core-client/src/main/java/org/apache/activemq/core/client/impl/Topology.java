@@ -29,6 +29,7 @@ import java.util.concurrent.Executor;
 
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.client.ClusterTopologyListener;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.spi.core.remoting.Connector;
 
@@ -141,6 +142,25 @@ public final class Topology implements Serializable
       }
    }
 
+   /**
+    * Sends the node again with the load it just reported, the server calls it periodically for itself.
+    * @param nodeId
+    * @param load
+    */
+   public void updateLoad(final String nodeId, final NodeLoad load)
+   {
+      synchronized (this)
+      {
+         TopologyMemberImpl memberInput = topology.get(nodeId);
+         if (memberInput != null)
+         {
+            memberInput.setLoad(load);
+            memberInput.setUniqueEventID(System.currentTimeMillis());
+            sendMemberUp(nodeId, memberInput);
+         }
+      }
+   }
+
    /** This is called by the server when the node is activated from backup state. It will always succeed */
    public TopologyMemberImpl updateBackup(final TopologyMemberImpl memberInput)
    {
@@ -168,6 +188,7 @@ public final class Topology implements Serializable
          TopologyMemberImpl newMember =
                   new TopologyMemberImpl(nodeId, currentMember.getBackupGroupName(), currentMember.getScaleDownGroupName(), currentMember.getLive(),
                                          memberInput.getBackup());
+         newMember.setLoad(currentMember.getLoad());
          newMember.setUniqueEventID(System.currentTimeMillis());
          topology.remove(nodeId);
          topology.put(nodeId, newMember);
@@ -231,6 +252,8 @@ public final class Topology implements Serializable
                newMember.setBackup(currentMember.getBackup());
             }
 
+            newMember.setLoad(memberInput.getLoad() != null ? memberInput.getLoad() : currentMember.getLoad());
+
             if (ActiveMQClientLogger.LOGGER.isTraceEnabled())
             {
                ActiveMQClientLogger.LOGGER.trace(this + "::updated currentMember=nodeID=" + nodeId + ", currentMember=" +
@@ -19,6 +19,7 @@ package org.apache.activemq.core.client.impl;
 import org.apache.activemq.api.core.Pair;
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.client.TopologyMember;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 
 public final class TopologyMemberImpl implements TopologyMember
@@ -38,6 +39,11 @@ public final class TopologyMemberImpl implements TopologyMember
 
    private final String nodeId;
 
+   /**
+    * transient to avoid serialization changes
+    */
+   private transient volatile NodeLoad load;
+
    public TopologyMemberImpl(String nodeId, final String backupGroupName, final String scaleDownGroupName, final TransportConfiguration a,
                              final TransportConfiguration b)
    {
@@ -102,6 +108,17 @@ public final class TopologyMemberImpl implements TopologyMember
       this.uniqueEventID = uniqueEventID;
    }
 
+   @Override
+   public NodeLoad getLoad()
+   {
+      return load;
+   }
+
+   public void setLoad(final NodeLoad load)
+   {
+      this.load = load;
+   }
+
    public Pair<TransportConfiguration, TransportConfiguration> getConnector()
    {
       return connector;
@@ -133,6 +150,6 @@ public final class TopologyMemberImpl implements TopologyMember
    @Override
    public String toString()
    {
-      return "TopologyMember[id = " + nodeId + ", connector=" + connector + ", backupGroupName=" + backupGroupName + ", scaleDownGroupName=" + scaleDownGroupName + "]";
+      return "TopologyMember[id = " + nodeId + ", connector=" + connector + ", backupGroupName=" + backupGroupName + ", scaleDownGroupName=" + scaleDownGroupName + ", load=" + load + "]";
    }
 }
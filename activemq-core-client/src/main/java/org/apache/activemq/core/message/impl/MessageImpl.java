@@ -27,7 +27,10 @@ import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.ActiveMQPropertyConversionException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
+import org.apache.activemq.api.core.client.compression.BodyCodecs;
 import org.apache.activemq.core.buffers.impl.ResetLimitWrappedActiveMQBuffer;
+import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.message.BodyEncoder;
 import org.apache.activemq.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.utils.ByteUtil;
@@ -51,6 +54,14 @@ public abstract class MessageImpl implements MessageInternal
    // used by the bridges to set duplicates
    public static final SimpleString HDR_BRIDGE_DUPLICATE_ID = new SimpleString("_HQ_BRIDGE_DUP");
 
+   // set by protocols storing the message body in their own wire format (e.g. AMQP), holds the protocol name
+   public static final SimpleString HDR_NATIVE_PROTOCOL = new SimpleString("_HQ_NATIVE_PROTOCOL");
+
+   // set on bodies compressed by a BodyCodec, hold the id the codec is registered with in BodyCodecs and the size of the original body
+   public static final SimpleString HDR_BODY_CODEC = new SimpleString("_HQ_BODY_CODEC");
+
+   public static final SimpleString HDR_BODY_SIZE = new SimpleString("_HQ_BODY_SIZE");
+
    public static final int BUFFER_HEADER_SPACE = PacketImpl.PACKET_HEADERS_SIZE;
 
    public static final int BODY_OFFSET = BUFFER_HEADER_SPACE + DataConstants.SIZE_INT;
@@ -291,6 +302,19 @@ public abstract class MessageImpl implements MessageInternal
 
    public synchronized ActiveMQBuffer getBodyBufferCopy()
    {
+      if (isBodyCompressed())
+      {
+         byte[] body = decompressedBody();
+
+         ActiveMQBuffer newBuffer = ActiveMQBuffers.fixedBuffer(BODY_OFFSET + body.length);
+
+         newBuffer.setIndex(0, BODY_OFFSET);
+
+         newBuffer.writeBytes(body);
+
+         return new ResetLimitWrappedActiveMQBuffer(BODY_OFFSET, newBuffer, null);
+      }
+
       // Must copy buffer before sending it
 
       ActiveMQBuffer newBuffer = buffer.copy(0, buffer.capacity());
@@ -485,6 +509,67 @@ public abstract class MessageImpl implements MessageInternal
       copied = false;
    }
 
+   public boolean isBodyCompressed()
+   {
+      return properties.containsProperty(HDR_BODY_CODEC);
+   }
+
+   /**
+    * Compresses the body with {@code codec} unless it's already compressed, smaller than {@code minSize} or
+    * the codec can't make it any smaller.
+    *
+    * @return whether the body was compressed
+    */
+   public synchronized boolean compressBody(final BodyCodec codec, final int minSize)
+   {
+      int bodySize = getEndOfBodyPosition() - BODY_OFFSET;
+
+      if (bodySize < minSize || bodySize > BodyCodecs.MAX_BODY_SIZE || isBodyCompressed())
+      {
+         return false;
+      }
+
+      SimpleString codecName = new SimpleString(BodyCodecs.getId(codec));
+
+      byte[] body = new byte[bodySize];
+
+      buffer.getBytes(BODY_OFFSET, body);
+
+      byte[] compressed = new byte[codec.maxCompressedLength(bodySize)];
+
+      int compressedSize = codec.compress(body, 0, bodySize, compressed, 0);
+
+      // the properties would take back what was saved
+      if (compressedSize + HDR_BODY_CODEC.sizeof() + codecName.sizeof() + HDR_BODY_SIZE.sizeof() >= bodySize)
+      {
+         return false;
+      }
+
+      replaceBody(compressed, compressedSize);
+
+      putStringProperty(HDR_BODY_CODEC, codecName);
+
+      putIntProperty(HDR_BODY_SIZE, bodySize);
+
+      return true;
+   }
+
+   public synchronized void decompressBody()
+   {
+      if (!isBodyCompressed())
+      {
+         return;
+      }
+
+      byte[] body = decompressedBody();
+
+      replaceBody(body, body.length);
+
+      properties.removeProperty(HDR_BODY_CODEC);
+
+      properties.removeProperty(HDR_BODY_SIZE);
+   }
+
    public int getEndOfMessagePosition()
    {
       return endOfMessagePosition;
@@ -1084,6 +1169,70 @@ public abstract class MessageImpl implements MessageInternal
       bufferUsed = false;
    }
 
+   private byte[] decompressedBody()
+   {
+      String codecName = properties.getSimpleStringProperty(HDR_BODY_CODEC).toString();
+
+      // only registered codecs, the name comes from the producer
+      BodyCodec codec = BodyCodecs.getCodec(codecName);
+
+      if (codec == null)
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.unknownBodyCodec(codecName);
+      }
+
+      int start = BODY_OFFSET;
+
+      byte[] compressed = new byte[getEndOfBodyPosition() - start];
+
+      buffer.getBytes(start, compressed);
+
+      // the size comes from the producer too, it's checked before allocating anything
+      Object size = properties.getProperty(HDR_BODY_SIZE);
+
+      if (!(size instanceof Integer) ||
+         (Integer) size < 0 ||
+         (Integer) size > BodyCodecs.MAX_BODY_SIZE ||
+         (Integer) size > (long) compressed.length * BodyCodecs.MAX_EXPANSION + 16)
+      {
+         throw ActiveMQClientMessageBundle.BUNDLE.malformedCompressedBody(codecName);
+      }
+
+      byte[] body = new byte[(Integer) size];
+
+      codec.decompress(compressed, 0, compressed.length, body, 0, body.length);
+
+      return body;
+   }
+
+   /**
+    * Moves the message to a new buffer holding {@code body}, the previous one could still be in use by a packet
+    * being sent.
+    */
+   private void replaceBody(final byte[] body, final int length)
+   {
+      ActiveMQBuffer newBuffer = ActiveMQBuffers.dynamicBuffer(BODY_OFFSET + length + getHeadersAndPropertiesEncodeSize());
+
+      newBuffer.setIndex(0, BODY_OFFSET);
+
+      newBuffer.writeBytes(body, 0, length);
+
+      newBuffer.readerIndex(BODY_OFFSET);
+
+      buffer = newBuffer;
+
+      if (bodyBuffer != null)
+      {
+         bodyBuffer.setBuffer(newBuffer);
+      }
+
+      bufferUsed = false;
+
+      bufferValid = false;
+
+      endOfBodyPosition = -1;
+   }
+
    // Inner classes -------------------------------------------------
 
    private final class DecodingContext implements BodyEncoder
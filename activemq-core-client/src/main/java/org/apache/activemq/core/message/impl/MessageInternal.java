@@ -22,6 +22,7 @@ import org.apache.activemq.api.core.ActiveMQBuffer;
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.core.message.BodyEncoder;
 import org.apache.activemq.utils.TypedProperties;
 
@@ -29,6 +30,10 @@ public interface MessageInternal extends Message
 {
    void decodeFromBuffer(ActiveMQBuffer buffer);
 
+   void encode(ActiveMQBuffer buffer);
+
+   void decode(ActiveMQBuffer buffer);
+
    int getEndOfMessagePosition();
 
    int getEndOfBodyPosition();
@@ -58,4 +63,16 @@ public interface MessageInternal extends Message
    void setAddressTransient(SimpleString address);
 
    TypedProperties getTypedProperties();
+
+   /**
+    * @return whether the body was compressed by a {@link BodyCodec} and wasn't decompressed since
+    */
+   boolean isBodyCompressed();
+
+   boolean compressBody(BodyCodec codec, int minSize);
+
+   /**
+    * Replaces a compressed body with the original one, and removes the properties describing the compression.
+    */
+   void decompressBody();
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.core.protocol;
 
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_BATCH;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_LARGE_MSG;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_MSG;
 
@@ -24,6 +25,7 @@ import org.apache.activemq.core.client.impl.ClientLargeMessageImpl;
 import org.apache.activemq.core.client.impl.ClientMessageImpl;
 import org.apache.activemq.core.protocol.core.Packet;
 import org.apache.activemq.core.protocol.core.impl.PacketDecoder;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveClientBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveClientLargeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveMessage;
 
@@ -56,6 +58,11 @@ public class ClientPacketDecoder extends PacketDecoder
             packet = new SessionReceiveMessage(new ClientMessageImpl());
             break;
          }
+         case SESS_RECEIVE_BATCH:
+         {
+            packet = new SessionReceiveClientBatchMessage();
+            break;
+         }
          case SESS_RECEIVE_LARGE_MSG:
          {
             packet = new SessionReceiveClientLargeMessage(new ClientLargeMessageImpl());
@@ -41,6 +41,13 @@ public interface Channel
    /** For protocol check */
    boolean supports(byte packetID);
 
+   /**
+    * Returns the smoothed time the blocking calls on this channel took to get their response.
+    *
+    * @return the round trip time in nanoseconds, or 0 if no blocking call completed yet
+    */
+   long getRoundTripTime();
+
    /**
     * Sends a packet on this channel.
     * @param packet the packet to send
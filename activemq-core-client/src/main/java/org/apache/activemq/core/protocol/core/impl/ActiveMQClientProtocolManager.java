@@ -32,6 +32,7 @@ import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.client.ClientSessionFactory;
 import org.apache.activemq.api.core.client.ActiveMQClient;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
 import org.apache.activemq.core.client.impl.ClientSessionFactoryInternal;
@@ -45,6 +46,7 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.CheckFailoverReply
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V2;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V3;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V4;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateSessionMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateSessionResponseMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.DisconnectMessage;
@@ -526,7 +528,8 @@ public class ActiveMQClientProtocolManager implements ClientProtocolManager
             ClusterTopologyChangeMessage_V2 topMessage = (ClusterTopologyChangeMessage_V2) packet;
             notifyTopologyChange(topMessage);
          }
-         else if (type == PacketImpl.CLUSTER_TOPOLOGY || type == PacketImpl.CLUSTER_TOPOLOGY_V2 || type == PacketImpl.CLUSTER_TOPOLOGY_V3)
+         else if (type == PacketImpl.CLUSTER_TOPOLOGY || type == PacketImpl.CLUSTER_TOPOLOGY_V2 || type == PacketImpl.CLUSTER_TOPOLOGY_V3 ||
+            type == PacketImpl.CLUSTER_TOPOLOGY_V4)
          {
             ClusterTopologyChangeMessage topMessage = (ClusterTopologyChangeMessage) packet;
             notifyTopologyChange(topMessage);
@@ -545,6 +548,7 @@ public class ActiveMQClientProtocolManager implements ClientProtocolManager
          final long eventUID;
          final String backupGroupName;
          final String scaleDownGroupName;
+         final NodeLoad load = topMessage instanceof ClusterTopologyChangeMessage_V4 ? ((ClusterTopologyChangeMessage_V4) topMessage).getLoad() : null;
          if (topMessage instanceof ClusterTopologyChangeMessage_V3)
          {
             eventUID = ((ClusterTopologyChangeMessage_V3) topMessage).getUniqueEventID();
@@ -588,7 +592,7 @@ public class ActiveMQClientProtocolManager implements ClientProtocolManager
 
             if (topologyResponseHandler != null)
             {
-               topologyResponseHandler.notifyNodeUp(eventUID, topMessage.getNodeID(), backupGroupName, scaleDownGroupName, transportConfig, topMessage.isLast());
+               topologyResponseHandler.notifyNodeUp(eventUID, topMessage.getNodeID(), backupGroupName, scaleDownGroupName, transportConfig, topMessage.isLast(), load);
             }
          }
       }
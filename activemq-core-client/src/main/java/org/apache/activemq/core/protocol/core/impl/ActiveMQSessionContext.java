@@ -21,6 +21,7 @@ import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ import org.apache.activemq.api.core.client.ClientSession;
 import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
 import org.apache.activemq.core.client.ActiveMQClientLogger;
 import org.apache.activemq.core.client.ActiveMQClientMessageBundle;
+import org.apache.activemq.core.client.impl.AdaptiveConsumerWindow;
 import org.apache.activemq.core.client.impl.AddressQueryImpl;
 import org.apache.activemq.core.client.impl.ClientConsumerImpl;
 import org.apache.activemq.core.client.impl.ClientConsumerInternal;
@@ -73,10 +75,12 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.SessionProducerCre
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionProducerCreditsMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionQueueQueryMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionQueueQueryResponseMessage_V2;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveContinuationMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveLargeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionRequestProducerCreditsMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendContinuationMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendLargeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendMessage;
@@ -103,12 +107,18 @@ import org.apache.activemq.utils.VersionLoader;
 
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.DISCONNECT_CONSUMER;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.EXCEPTION;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_BATCH;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_CONTINUATION;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_LARGE_MSG;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_RECEIVE_MSG;
 
 public class ActiveMQSessionContext extends SessionContext
 {
+   /**
+    * First server version able to decode {@link SessionSendBatchMessage}.
+    */
+   private static final int SEND_BATCH_VERSION = 127;
+
    private final Channel sessionChannel;
    private final int serverVersion;
    private int confirmationWindow;
@@ -144,6 +154,14 @@ public class ActiveMQSessionContext extends SessionContext
             SessionSendMessage ssm = (SessionSendMessage) packet;
             callSendAck(ssm.getHandler(), ssm.getMessage());
          }
+         else if (packet.getType() == PacketImpl.SESS_SEND_BATCH)
+         {
+            SessionSendBatchMessage ssbm = (SessionSendBatchMessage) packet;
+            for (MessageInternal message : ssbm.getMessages())
+            {
+               callSendAck(ssbm.getHandler(), message);
+            }
+         }
          else if (packet.getType() == PacketImpl.SESS_SEND_CONTINUATION)
          {
             SessionSendContinuationMessage scm = (SessionSendContinuationMessage) packet;
@@ -234,7 +252,8 @@ public class ActiveMQSessionContext extends SessionContext
    }
 
    public ClientConsumerInternal createConsumer(SimpleString queueName, SimpleString filterString,
-                                                int windowSize, int maxRate, int ackBatchSize, boolean browseOnly,
+                                                int windowSize, int minWindowSize, int maxWindowSize, int maxRate,
+                                                int ackBatchSize, boolean browseOnly,
                                                 Executor executor, Executor flowControlExecutor) throws ActiveMQException
    {
       long consumerID = idGenerator.generateID();
@@ -253,12 +272,19 @@ public class ActiveMQSessionContext extends SessionContext
       // could be overridden on the queue settings
       // The value we send is just a hint
 
+      int clientWindowSize = calcWindowSize(windowSize);
+
+      // slow consumers and consumers without flow control keep their fixed behaviour
+      AdaptiveConsumerWindow adaptiveWindow = maxWindowSize > 0 && clientWindowSize > 1 ?
+         new AdaptiveConsumerWindow(clientWindowSize, minWindowSize, maxWindowSize) : null;
+
       return new ClientConsumerImpl(session,
                                     consumerContext,
                                     queueName,
                                     filterString,
                                     browseOnly,
-                                    calcWindowSize(windowSize),
+                                    clientWindowSize,
+                                    adaptiveWindow,
                                     ackBatchSize,
                                     maxRate > 0 ? new TokenBucketLimiterImpl(maxRate,
                                                                              false)
@@ -296,6 +322,11 @@ public class ActiveMQSessionContext extends SessionContext
       sessionChannel.send(new SessionConsumerFlowCreditMessage(getConsumerID(consumer), credits));
    }
 
+   public long getRoundTripTime()
+   {
+      return sessionChannel.getRoundTripTime();
+   }
+
    public void forceDelivery(final ClientConsumer consumer, final long sequence) throws ActiveMQException
    {
       SessionForceConsumerDelivery request = new SessionForceConsumerDelivery(getConsumerID(consumer), sequence);
@@ -413,6 +444,30 @@ public class ActiveMQSessionContext extends SessionContext
       }
    }
 
+   @Override
+   public void sendFullMessages(List<MessageInternal> messages, boolean sendBlocking, SendAcknowledgementHandler handler, SimpleString defaultAddress) throws ActiveMQException
+   {
+      if (serverVersion < SEND_BATCH_VERSION)
+      {
+         for (MessageInternal msgI : messages)
+         {
+            sendFullMessage(msgI, sendBlocking, handler, defaultAddress);
+         }
+         return;
+      }
+
+      SessionSendBatchMessage packet = new SessionSendBatchMessage(messages, sendBlocking, handler);
+
+      if (sendBlocking)
+      {
+         sessionChannel.sendBlocking(packet, PacketImpl.NULL_RESPONSE);
+      }
+      else
+      {
+         sessionChannel.sendBatched(packet);
+      }
+   }
+
    @Override
    public int sendInitialChunkOnLargeMessage(MessageInternal msgI) throws ActiveMQException
    {
@@ -772,6 +827,26 @@ public class ActiveMQSessionContext extends SessionContext
       handleReceiveMessage(new ActiveMQConsumerContext(messagePacket.getConsumerID()), msgi);
    }
 
+   private void handleReceivedBatchPacket(SessionReceiveBatchMessage batchPacket) throws Exception
+   {
+      List<MessageInternal> messages = batchPacket.getMessages();
+
+      List<ClientMessageInternal> clientMessages = new ArrayList<ClientMessageInternal>(messages.size());
+
+      for (int i = 0; i < messages.size(); i++)
+      {
+         ClientMessageInternal msgi = (ClientMessageInternal) messages.get(i);
+
+         msgi.setDeliveryCount(batchPacket.getDeliveryCount(i));
+
+         msgi.setFlowControlSize(batchPacket.getFlowControlSize(i));
+
+         clientMessages.add(msgi);
+      }
+
+      handleReceiveMessages(new ActiveMQConsumerContext(batchPacket.getConsumerID()), clientMessages);
+   }
+
    private void handleReceiveLargeMessage(SessionReceiveLargeMessage serverPacket) throws Exception
    {
       ClientLargeMessageInternal clientLargeMessage = (ClientLargeMessageInternal) serverPacket.getLargeMessage();
@@ -830,6 +905,12 @@ public class ActiveMQSessionContext extends SessionContext
 
                   break;
                }
+               case SESS_RECEIVE_BATCH:
+               {
+                  handleReceivedBatchPacket((SessionReceiveBatchMessage) packet);
+
+                  break;
+               }
                case SESS_RECEIVE_LARGE_MSG:
                {
                   handleReceiveLargeMessage((SessionReceiveLargeMessage) packet);
@@ -38,6 +38,8 @@ import org.apache.activemq.core.protocol.core.CoreRemotingConnection;
 import org.apache.activemq.core.protocol.core.Packet;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ActiveMQExceptionMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.PacketsConfirmedMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveBatchMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveMessage;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 
 public final class ChannelImpl implements Channel
@@ -120,6 +122,9 @@ public final class ChannelImpl implements Channel
 
    private volatile boolean transferring;
 
+   // smoothed as TCP does, giving 1/8 of the weight to each new sample
+   private volatile long roundTripTime;
+
    private final List<Interceptor> interceptors;
 
    public ChannelImpl(final CoreRemotingConnection connection, final long id, final int confWindowSize, final List<Interceptor> interceptors)
@@ -160,11 +165,20 @@ public final class ChannelImpl implements Channel
             return version >= 126;
          case PacketImpl.SESS_BINDINGQUERY_RESP_V2:
             return version >= 126;
+         case PacketImpl.SESS_RECEIVE_BATCH:
+            return version >= 127;
+         case PacketImpl.CLUSTER_TOPOLOGY_V4:
+            return version >= 128;
          default:
             return true;
       }
    }
 
+   public long getRoundTripTime()
+   {
+      return roundTripTime;
+   }
+
    public long getID()
    {
       return id;
@@ -363,6 +377,8 @@ public final class ChannelImpl implements Channel
 
             connection.getTransportConnection().write(buffer, false, false);
 
+            final long sent = System.nanoTime();
+
             long toWait = connection.getBlockingCallTimeout();
 
             long start = System.currentTimeMillis();
@@ -411,6 +427,10 @@ public final class ChannelImpl implements Channel
 
                throw e;
             }
+
+            final long sample = System.nanoTime() - sent;
+
+            roundTripTime = roundTripTime == 0 ? sample : roundTripTime + (sample - roundTripTime) / 8;
          }
          finally
          {
@@ -455,11 +475,54 @@ public final class ChannelImpl implements Channel
                ActiveMQClientLogger.LOGGER.errorCallingInterceptor(e, interceptor);
             }
          }
+
+         if (packet.getType() == PacketImpl.SESS_RECEIVE_BATCH)
+         {
+            return invokeInterceptors((SessionReceiveBatchMessage) packet, interceptors, connection);
+         }
       }
 
       return null;
    }
 
+   /**
+    * After the batch itself, interceptors see each of its messages as the {@link SessionReceiveMessage} it would
+    * have been sent with, so interceptors written for single deliveries keep working. The messages they reject
+    * are taken out of the batch.
+    *
+    * @return the name of the last interceptor that returned <code>false</code> if all the messages were rejected,
+    * <code>null</code> otherwise.
+    */
+   private static String invokeInterceptors(final SessionReceiveBatchMessage batch, final List<Interceptor> interceptors, final RemotingConnection connection)
+   {
+      String result = null;
+
+      int i = 0;
+
+      while (i < batch.getMessages().size())
+      {
+         SessionReceiveMessage packet = new SessionReceiveMessage(batch.getConsumerID(),
+                                                                  batch.getMessages().get(i),
+                                                                  batch.getDeliveryCount(i));
+         packet.setChannelID(batch.getChannelID());
+
+         String interceptor = invokeInterceptors(packet, interceptors, connection);
+
+         if (interceptor != null)
+         {
+            batch.removeMessage(i);
+
+            result = interceptor;
+         }
+         else
+         {
+            i++;
+         }
+      }
+
+      return batch.getMessages().isEmpty() ? result : null;
+   }
+
    public void setCommandConfirmationHandler(final CommandConfirmationHandler handler)
    {
       if (confWindowSize < 0)
@@ -19,6 +19,7 @@ package org.apache.activemq.core.protocol.core.impl;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CLUSTER_TOPOLOGY;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CLUSTER_TOPOLOGY_V2;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CLUSTER_TOPOLOGY_V3;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CLUSTER_TOPOLOGY_V4;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CREATESESSION;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CREATESESSION_RESP;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.CREATE_QUEUE;
@@ -90,6 +91,7 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.CheckFailoverReply
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V2;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V3;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V4;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateQueueMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateSessionMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateSessionResponseMessage;
@@ -445,6 +447,11 @@ public abstract class PacketDecoder implements Serializable
             packet = new ClusterTopologyChangeMessage_V3();
             break;
          }
+         case CLUSTER_TOPOLOGY_V4:
+         {
+            packet = new ClusterTopologyChangeMessage_V4();
+            break;
+         }
          case SUBSCRIBE_TOPOLOGY:
          {
             packet = new SubscribeClusterTopologyUpdatesMessage();
@@ -246,6 +246,16 @@ public class PacketImpl implements Packet
 
    public static final byte SESS_BINDINGQUERY_RESP_V2 = -8;
 
+   public static final byte SESS_SEND_BATCH = -9;
+
+   public static final byte SESS_RECEIVE_BATCH = -10;
+
+   public static final byte REPLICATION_BATCH = -11;
+
+   public static final byte REPLICATION_BATCH_RESPONSE = -12;
+
+   public static final byte CLUSTER_TOPOLOGY_V4 = -13;
+
    // Static --------------------------------------------------------
 
    public PacketImpl(final byte type)
@@ -272,7 +282,7 @@ public class PacketImpl implements Packet
 
    public ActiveMQBuffer encode(final RemotingConnection connection)
    {
-      ActiveMQBuffer buffer = connection.createTransportBuffer(PacketImpl.INITIAL_PACKET_SIZE);
+      ActiveMQBuffer buffer = connection.createTransportBuffer(expectedEncodeSize());
 
       // The standard header fields
 
@@ -316,6 +326,12 @@ public class PacketImpl implements Packet
       return false;
    }
 
+   // Initial size of the buffer the packet is encoded into
+   protected int expectedEncodeSize()
+   {
+      return INITIAL_PACKET_SIZE;
+   }
+
    public void encodeRest(final ActiveMQBuffer buffer)
    {
    }
@@ -22,7 +22,7 @@ import org.apache.activemq.api.core.TransportConfiguration;
 
 public class ClusterTopologyChangeMessage_V3 extends ClusterTopologyChangeMessage_V2
 {
-   private String scaleDownGroupName;
+   protected String scaleDownGroupName;
 
    public ClusterTopologyChangeMessage_V3(final long uniqueEventID, final String nodeID, final String backupGroupName, final String scaleDownGroupName,
                                           final Pair<TransportConfiguration, TransportConfiguration> pair, final boolean last)
@@ -49,6 +49,11 @@ public class ClusterTopologyChangeMessage_V3 extends ClusterTopologyChangeMessag
       super(CLUSTER_TOPOLOGY_V3);
    }
 
+   public ClusterTopologyChangeMessage_V3(byte clusterTopologyV4)
+   {
+      super(clusterTopologyV4);
+   }
+
    public String getScaleDownGroupName()
    {
       return scaleDownGroupName;
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.api.core.Pair;
+import org.apache.activemq.api.core.TransportConfiguration;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
+
+/**
+ * Adds the load the node last reported, if any.
+ */
+public class ClusterTopologyChangeMessage_V4 extends ClusterTopologyChangeMessage_V3
+{
+   private NodeLoad load;
+
+   public ClusterTopologyChangeMessage_V4(final long uniqueEventID, final String nodeID, final String backupGroupName, final String scaleDownGroupName,
+                                          final Pair<TransportConfiguration, TransportConfiguration> pair, final boolean last, final NodeLoad load)
+   {
+      super(CLUSTER_TOPOLOGY_V4);
+
+      this.nodeID = nodeID;
+
+      this.pair = pair;
+
+      this.last = last;
+
+      this.exit = false;
+
+      this.uniqueEventID = uniqueEventID;
+
+      this.backupGroupName = backupGroupName;
+
+      this.scaleDownGroupName = scaleDownGroupName;
+
+      this.load = load;
+   }
+
+   public ClusterTopologyChangeMessage_V4()
+   {
+      super(CLUSTER_TOPOLOGY_V4);
+   }
+
+   public NodeLoad getLoad()
+   {
+      return load;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer)
+   {
+      super.encodeRest(buffer);
+      if (load != null)
+      {
+         buffer.writeBoolean(true);
+         buffer.writeInt(load.getConnectionCount());
+         buffer.writeLong(load.getQueuedBytes());
+         buffer.writeInt(load.getCpuLoad());
+      }
+      else
+      {
+         buffer.writeBoolean(false);
+      }
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer)
+   {
+      super.decodeRest(buffer);
+      if (buffer.readBoolean())
+      {
+         load = new NodeLoad(buffer.readInt(), buffer.readLong(), buffer.readInt());
+      }
+      else
+      {
+         load = null;
+      }
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + ((load == null) ? 0 : load.hashCode());
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+      {
+         return true;
+      }
+      if (!super.equals(obj))
+      {
+         return false;
+      }
+      if (!(obj instanceof ClusterTopologyChangeMessage_V4))
+      {
+         return false;
+      }
+      ClusterTopologyChangeMessage_V4 other = (ClusterTopologyChangeMessage_V4) obj;
+      if (load == null)
+      {
+         if (other.load != null)
+         {
+            return false;
+         }
+      }
+      else if (!load.equals(other.load))
+      {
+         return false;
+      }
+      return true;
+   }
+}
@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.core.message.impl.MessageInternal;
+import org.apache.activemq.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.utils.DataConstants;
+
+/**
+ * Delivers several regular (non large) messages to a consumer in a single packet.
+ * <p/>
+ * Each message is written with the same encoding used by the journal, preceded by its delivery count.
+ * Flow control is not affected by the batching: every message takes the same credits it would take
+ * if it was delivered through its own {@link SessionReceiveMessage}.
+ * <p/>
+ * The messages are only decoded on the client, by {@link SessionReceiveClientBatchMessage}.
+ */
+public class SessionReceiveBatchMessage extends PacketImpl
+{
+   /**
+    * What a {@link SessionReceiveMessage} adds to the encoded message: the standard headers, the consumer ID and
+    * the delivery count.
+    */
+   private static final int RECEIVE_MESSAGE_OVERHEAD = PACKET_HEADERS_SIZE + DataConstants.SIZE_LONG + DataConstants.SIZE_INT;
+
+   protected long consumerID;
+
+   private final List<MessageInternal> messages = new ArrayList<MessageInternal>();
+
+   private int[] deliveryCounts;
+
+   private int[] encodeSizes;
+
+   private int encodeSize;
+
+   private int removedCredits;
+
+   public SessionReceiveBatchMessage(final long consumerID)
+   {
+      this();
+
+      this.consumerID = consumerID;
+   }
+
+   /**
+    * To be used by the subclass decoding the batch on the client, see {@link SessionReceiveClientBatchMessage}
+    */
+   protected SessionReceiveBatchMessage()
+   {
+      super(SESS_RECEIVE_BATCH);
+
+      this.deliveryCounts = new int[16];
+
+      this.encodeSizes = new int[16];
+   }
+
+   // Public --------------------------------------------------------
+
+   /**
+    * @return the credits taken by the message
+    */
+   public int addMessage(final MessageInternal message, final int deliveryCount)
+   {
+      int size = message.getEncodeSize();
+
+      addMessage(message, deliveryCount, size);
+
+      return size + RECEIVE_MESSAGE_OVERHEAD;
+   }
+
+   /**
+    * Adds a message taking {@code size} bytes of the encoded batch.
+    */
+   protected void addMessage(final MessageInternal message, final int deliveryCount, final int size)
+   {
+      int index = messages.size();
+
+      if (index == deliveryCounts.length)
+      {
+         deliveryCounts = Arrays.copyOf(deliveryCounts, index * 2);
+         encodeSizes = Arrays.copyOf(encodeSizes, index * 2);
+      }
+
+      messages.add(message);
+      deliveryCounts[index] = deliveryCount;
+      encodeSizes[index] = size;
+      encodeSize += DataConstants.SIZE_INT + size;
+   }
+
+   /**
+    * Takes a message out of the batch, as when an interceptor rejects it.
+    */
+   public void removeMessage(final int index)
+   {
+      int last = messages.size() - 1;
+
+      removedCredits += getFlowControlSize(index);
+      encodeSize -= DataConstants.SIZE_INT + encodeSizes[index];
+
+      messages.remove(index);
+      System.arraycopy(deliveryCounts, index + 1, deliveryCounts, index, last - index);
+      System.arraycopy(encodeSizes, index + 1, encodeSizes, index, last - index);
+   }
+
+   /**
+    * @return the credits of the messages taken out of the batch through {@link #removeMessage(int)}
+    */
+   public int getRemovedCredits()
+   {
+      return removedCredits;
+   }
+
+   public long getConsumerID()
+   {
+      return consumerID;
+   }
+
+   public List<MessageInternal> getMessages()
+   {
+      return messages;
+   }
+
+   public int getDeliveryCount(final int index)
+   {
+      return deliveryCounts[index];
+   }
+
+   /**
+    * @return the credits taken by the message at {@code index}, the same {@link #addMessage(MessageInternal, int)} returned for it
+    */
+   public int getFlowControlSize(final int index)
+   {
+      return encodeSizes[index] + RECEIVE_MESSAGE_OVERHEAD;
+   }
+
+   /**
+    * @return the number of bytes taken by the messages already added to the batch
+    */
+   public int getMessagesEncodeSize()
+   {
+      return encodeSize;
+   }
+
+   @Override
+   protected int expectedEncodeSize()
+   {
+      return PACKET_HEADERS_SIZE + DataConstants.SIZE_LONG + DataConstants.SIZE_INT + encodeSize;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer)
+   {
+      buffer.writeLong(consumerID);
+
+      buffer.writeInt(messages.size());
+
+      for (int i = 0; i < messages.size(); i++)
+      {
+         MessageInternal message = messages.get(i);
+
+         buffer.writeInt(deliveryCounts[i]);
+
+         // the same message could be delivered to other consumers at the same time
+         synchronized (message)
+         {
+            message.encode(buffer);
+         }
+      }
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + (int)(consumerID ^ (consumerID >>> 32));
+      result = prime * result + messages.size();
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!super.equals(obj))
+         return false;
+      if (!(obj instanceof SessionReceiveBatchMessage))
+         return false;
+      SessionReceiveBatchMessage other = (SessionReceiveBatchMessage)obj;
+      if (consumerID != other.consumerID)
+         return false;
+      if (messages.size() != other.messages.size())
+         return false;
+      return true;
+   }
+
+   @Override
+   public String toString()
+   {
+      return getParentString() + ", consumerID=" + consumerID + ", messages=" + messages.size() + "]";
+   }
+}
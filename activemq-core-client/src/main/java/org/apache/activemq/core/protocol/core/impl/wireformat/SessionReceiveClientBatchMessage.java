@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.core.client.impl.ClientMessageImpl;
+import org.apache.activemq.core.message.impl.MessageImpl;
+
+/**
+ * A {@link SessionReceiveBatchMessage} decoded on the client, its messages being decoded into {@link ClientMessageImpl}s.
+ */
+public class SessionReceiveClientBatchMessage extends SessionReceiveBatchMessage
+{
+   // the body of each message grows as it is decoded
+   private static final int INITIAL_MESSAGE_SIZE = 512;
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer)
+   {
+      consumerID = buffer.readLong();
+
+      int count = buffer.readInt();
+
+      for (int i = 0; i < count; i++)
+      {
+         int deliveryCount = buffer.readInt();
+
+         int start = buffer.readerIndex();
+
+         ClientMessageImpl message = new ClientMessageImpl();
+         message.createBody(INITIAL_MESSAGE_SIZE);
+         message.decode(buffer);
+
+         // Need to position the message buffer for reading
+         message.getWholeBuffer().setIndex(MessageImpl.BODY_OFFSET, message.getEndOfBodyPosition());
+
+         addMessage(message, deliveryCount, buffer.readerIndex() - start);
+      }
+   }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import java.util.List;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.api.core.client.SendAcknowledgementHandler;
+import org.apache.activemq.core.message.impl.MessageInternal;
+import org.apache.activemq.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.utils.DataConstants;
+
+/**
+ * Sends several regular (non large) messages in a single packet.
+ * <p/>
+ * Each message is written with the same encoding used by the journal, and the server routes the
+ * whole batch as a unit, answering with a single response when {@link #isRequiresResponse()}.
+ * <p/>
+ * The messages are only decoded on the server, which knows what message type to decode them into.
+ */
+public class SessionSendBatchMessage extends PacketImpl
+{
+   protected List<MessageInternal> messages;
+
+   protected boolean requiresResponse;
+
+   /**
+    * This field is only used at the client side.
+    *
+    * @see SessionSendMessage#getHandler()
+    */
+   private final transient SendAcknowledgementHandler handler;
+
+   public SessionSendBatchMessage(final List<MessageInternal> messages, final boolean requiresResponse,
+                                  final SendAcknowledgementHandler handler)
+   {
+      super(SESS_SEND_BATCH);
+      this.messages = messages;
+      this.requiresResponse = requiresResponse;
+      this.handler = handler;
+   }
+
+   /**
+    * To be used by the subclass decoding the batch on the server, see {@code ServerSessionSendBatchMessage}
+    */
+   protected SessionSendBatchMessage()
+   {
+      super(SESS_SEND_BATCH);
+      this.handler = null;
+   }
+
+   // Public --------------------------------------------------------
+
+   public List<MessageInternal> getMessages()
+   {
+      return messages;
+   }
+
+   public boolean isRequiresResponse()
+   {
+      return requiresResponse;
+   }
+
+   public SendAcknowledgementHandler getHandler()
+   {
+      return handler;
+   }
+
+   @Override
+   protected int expectedEncodeSize()
+   {
+      int size = PACKET_HEADERS_SIZE + DataConstants.SIZE_INT + DataConstants.SIZE_BOOLEAN;
+
+      for (MessageInternal message : messages)
+      {
+         size += message.getEncodeSize();
+      }
+
+      return size;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer)
+   {
+      buffer.writeInt(messages.size());
+
+      for (MessageInternal message : messages)
+      {
+         message.encode(buffer);
+      }
+
+      buffer.writeBoolean(requiresResponse);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + (requiresResponse ? 1231 : 1237);
+      result = prime * result + (messages == null ? 0 : messages.size());
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!super.equals(obj))
+         return false;
+      if (!(obj instanceof SessionSendBatchMessage))
+         return false;
+      SessionSendBatchMessage other = (SessionSendBatchMessage) obj;
+      if (requiresResponse != other.requiresResponse)
+         return false;
+      if (messages == null ? other.messages != null : other.messages == null || messages.size() != other.messages.size())
+         return false;
+      return true;
+   }
+
+   @Override
+   public String toString()
+   {
+      return getParentString() + ", messages=" + (messages == null ? 0 : messages.size()) +
+         ", requiresResponse=" + requiresResponse + "]";
+   }
+}
@@ -70,7 +70,18 @@ public class ActiveMQChannelHandler extends ChannelDuplexHandler
    {
       ByteBuf buffer = (ByteBuf) msg;
 
-      handler.bufferReceived(channelId(ctx.channel()), new ChannelBufferWrapper(buffer));
+      try
+      {
+         handler.bufferReceived(channelId(ctx.channel()), new ChannelBufferWrapper(buffer));
+      }
+      finally
+      {
+         // a message still using a pooled frame after the read has retained it
+         if (MessageBufferPool.isPooled(buffer))
+         {
+            buffer.release();
+         }
+      }
    }
 
    @Override
@@ -19,21 +19,46 @@ package org.apache.activemq.core.remoting.impl.netty;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.activemq.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.utils.DataConstants;
 
 /**
  * A Netty decoder specially optimised to to decode messages on the core protocol only
+ * <p/>
+ * When pooling is enabled the frames of the messages sent to the server are taken from the {@link MessageBufferPool},
+ * the message decoded from such a frame keeps it as its buffer.
  */
 public class ActiveMQFrameDecoder2 extends LengthFieldBasedFrameDecoder
 {
+   // room for the consumer ID and delivery count written over the send flag when the message is delivered
+   private static final int DELIVERY_ROOM = DataConstants.SIZE_LONG + DataConstants.SIZE_INT;
+
+   private final boolean pooled;
+
+   private final boolean direct;
+
    public ActiveMQFrameDecoder2()
+   {
+      this(false, false);
+   }
+
+   public ActiveMQFrameDecoder2(final boolean pooled, final boolean direct)
    {
       super(Integer.MAX_VALUE, 0, DataConstants.SIZE_INT);
+      this.pooled = pooled;
+      this.direct = direct;
    }
 
    @Override
    protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length)
    {
+      if (pooled && buffer.getByte(index + DataConstants.SIZE_INT) == PacketImpl.SESS_SEND)
+      {
+         ByteBuf frame = MessageBufferPool.buffer(length + DELIVERY_ROOM, direct);
+         frame.writeBytes(buffer, index, length);
+         return frame.skipBytes(DataConstants.SIZE_INT);
+      }
+
       return super.extractFrame(ctx, buffer, index, length).skipBytes(DataConstants.SIZE_INT);
    }
 }
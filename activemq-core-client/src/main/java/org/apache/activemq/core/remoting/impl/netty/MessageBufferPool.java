@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.remoting.impl.netty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The buffers messages are received in when they are pooled, taken from the pooled arenas of
+ * {@link PartialPooledByteBufAllocator}.
+ * <p/>
+ * The read of a frame holds it until the packet decoded from it is handled. A message that has to outlive the read,
+ * as a queue references it, retains its frame with {@link #retain(ByteBuf)} and gives it back with
+ * {@link #release(ByteBuf)} once nothing references it anymore. Anything else holding on to the frame, such as a
+ * pending write, retains it as well.
+ * <p/>
+ * Leak detection keeps where each frame retained by a message, and not given back yet, was retained. It is meant for
+ * tests as it has a cost on every message.
+ */
+public final class MessageBufferPool
+{
+   private static final AtomicLong retained = new AtomicLong(0);
+
+   private static final Map<ByteBuf, Exception> retainers = Collections.synchronizedMap(new IdentityHashMap<ByteBuf, Exception>());
+
+   private static volatile boolean leakDetection;
+
+   private MessageBufferPool()
+   {
+      // Utility class
+   }
+
+   public static ByteBuf buffer(final int initialCapacity, final boolean direct)
+   {
+      return direct ? PartialPooledByteBufAllocator.POOLED.directBuffer(initialCapacity)
+         : PartialPooledByteBufAllocator.POOLED.heapBuffer(initialCapacity);
+   }
+
+   /**
+    * @return whether {@code buffer} was taken from the pool
+    */
+   public static boolean isPooled(final ByteBuf buffer)
+   {
+      return buffer.alloc() == PartialPooledByteBufAllocator.POOLED;
+   }
+
+   /**
+    * Retains the frame a message keeps after it was read.
+    */
+   public static ByteBuf retain(final ByteBuf buffer)
+   {
+      buffer.retain();
+
+      retained.incrementAndGet();
+
+      if (leakDetection)
+      {
+         retainers.put(buffer, new Exception("Message buffer retained here and never released"));
+      }
+
+      return buffer;
+   }
+
+   /**
+    * Gives back a frame retained by {@link #retain(ByteBuf)}.
+    */
+   public static void release(final ByteBuf buffer)
+   {
+      if (leakDetection)
+      {
+         retainers.remove(buffer);
+      }
+
+      retained.decrementAndGet();
+
+      buffer.release();
+   }
+
+   /**
+    * @return the number of frames retained by messages and not given back yet
+    */
+   public static long getRetainedBuffers()
+   {
+      return retained.get();
+   }
+
+   /**
+    * Starts or stops keeping track of where the frames are retained, only the frames retained while it's enabled are
+    * reported by {@link #getLeaks()}.
+    */
+   public static void setLeakDetection(final boolean enabled)
+   {
+      leakDetection = enabled;
+
+      if (!enabled)
+      {
+         retainers.clear();
+      }
+   }
+
+   public static boolean isLeakDetection()
+   {
+      return leakDetection;
+   }
+
+   /**
+    * @return where each frame retained with leak detection on, and not given back yet, was retained
+    */
+   public static List<Exception> getLeaks()
+   {
+      synchronized (retainers)
+      {
+         return new ArrayList<Exception>(retainers.values());
+      }
+   }
+}
@@ -18,8 +18,11 @@ package org.apache.activemq.core.remoting.impl.netty;
 
 import java.net.SocketAddress;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -29,7 +32,6 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.handler.ssl.SslHandler;
 import org.apache.activemq.api.core.ActiveMQBuffer;
-import org.apache.activemq.api.core.ActiveMQBuffers;
 import org.apache.activemq.api.core.ActiveMQInterruptedException;
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.core.buffers.impl.ChannelBufferWrapper;
@@ -44,7 +46,11 @@ import org.apache.activemq.utils.ConcurrentHashSet;
 public class NettyConnection implements Connection
 {
    // Constants -----------------------------------------------------
-   private static final int BATCHING_BUFFER_SIZE = 8192;
+   /**
+    * Pending bytes after which batched writes are flushed without waiting for {@link #checkFlushBatchBuffer()}, and
+    * after which a flush is issued while draining the write queue.
+    */
+   private static final int BATCHING_BUFFER_SIZE = 64 * 1024;
 
    // Attributes ----------------------------------------------------
 
@@ -58,11 +64,31 @@ public class NettyConnection implements Connection
 
    private final boolean directDeliver;
 
-   private volatile ActiveMQBuffer batchBuffer;
-
    private final Map<String, Object> configuration;
 
-   private final Semaphore writeLock = new Semaphore(1);
+   /**
+    * Writes from any thread are queued here and written by the event loop, which issues a single flush for
+    * everything queued so Netty can hand all the buffers to one gathering write.
+    */
+   private final Queue<PendingWrite> writeQueue = new ConcurrentLinkedQueue<PendingWrite>();
+
+   private final AtomicInteger pendingBytes = new AtomicInteger(0);
+
+   private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+   private final Runnable drainTask = new Runnable()
+   {
+      @Override
+      public void run()
+      {
+         drainWriteQueue();
+      }
+   };
+
+   // only updated from the event loop
+   private volatile long flushCount;
+
+   private volatile long flushedBytes;
 
    private final Set<ReadyListener> readyListeners = new ConcurrentHashSet<ReadyListener>();
 
@@ -185,21 +211,9 @@ public class NettyConnection implements Connection
          return;
       }
 
-      if (writeLock.tryAcquire())
+      if (!writeQueue.isEmpty())
       {
-         try
-         {
-            if (batchBuffer != null && batchBuffer.readable())
-            {
-               channel.writeAndFlush(batchBuffer.byteBuf());
-
-               batchBuffer = createTransportBuffer(BATCHING_BUFFER_SIZE);
-            }
-         }
-         finally
-         {
-            writeLock.release();
-         }
+         scheduleDrain();
       }
    }
 
@@ -215,130 +229,81 @@ public class NettyConnection implements Connection
 
    public void write(ActiveMQBuffer buffer, final boolean flush, final boolean batched, final ChannelFutureListener futureListener)
    {
+      final ByteBuf buf = buffer.byteBuf();
 
-      try
+      // depending on if we need to flush or not we can use a voidPromise or
+      // use a normal promise
+      final ChannelPromise promise;
+      if (flush || futureListener != null)
       {
-         writeLock.acquire();
-
-         try
+         promise = channel.newPromise();
+         if (futureListener != null)
          {
-            if (batchBuffer == null && batchingEnabled && batched && !flush)
-            {
-               // Lazily create batch buffer
+            promise.addListener(futureListener);
+         }
+      }
+      else
+      {
+         promise = channel.voidPromise();
+      }
 
-               batchBuffer = ActiveMQBuffers.dynamicBuffer(BATCHING_BUFFER_SIZE);
-            }
+      writeQueue.offer(new PendingWrite(buf, promise));
 
-            if (batchBuffer != null)
-            {
-               batchBuffer.writeBytes(buffer, 0, buffer.writerIndex());
+      int pending = pendingBytes.addAndGet(buf.readableBytes());
 
-               if (batchBuffer.writerIndex() >= BATCHING_BUFFER_SIZE || !batched || flush)
-               {
-                  // If the batch buffer is full or it's flush param or not batched then flush the buffer
+      // batched writes wait for checkFlushBatchBuffer unless enough data is pending already
+      if (!batchingEnabled || !batched || flush || pending >= BATCHING_BUFFER_SIZE)
+      {
+         scheduleDrain();
+      }
 
-                  buffer = batchBuffer;
-               }
-               else
-               {
-                  return;
-               }
+      // only try to wait if not in the eventloop otherwise we will produce a deadlock
+      if (flush && !channel.eventLoop().inEventLoop())
+      {
+         while (true)
+         {
+            try
+            {
+               boolean ok = promise.await(10000);
 
-               if (!batched || flush)
+               if (!ok)
                {
-                  batchBuffer = null;
+                  ActiveMQClientLogger.LOGGER.timeoutFlushingPacket();
                }
-               else
-               {
-                  // Create a new buffer
 
-                  batchBuffer = ActiveMQBuffers.dynamicBuffer(BATCHING_BUFFER_SIZE);
-               }
-            }
-
-            // depending on if we need to flush or not we can use a voidPromise or
-            // use a normal promise
-            final ByteBuf buf = buffer.byteBuf();
-            final ChannelPromise promise;
-            if (flush || futureListener != null)
-            {
-               promise = channel.newPromise();
+               break;
             }
-            else
+            catch (InterruptedException e)
             {
-               promise = channel.voidPromise();
+               throw new ActiveMQInterruptedException(e);
             }
+         }
+      }
+   }
 
-            EventLoop eventLoop = channel.eventLoop();
-            boolean inEventLoop = eventLoop.inEventLoop();
-            if (!inEventLoop)
-            {
-               if (futureListener != null)
-               {
-                  channel.writeAndFlush(buf, promise).addListener(futureListener);
-               }
-               else
-               {
-                  channel.writeAndFlush(buf, promise);
-               }
-            }
-            else
-            {
-               // create a task which will be picked up by the eventloop and trigger the write.
-               // This is mainly needed as this method is triggered by different threads for the same channel.
-               // if we not do this we may produce out of order writes.
-               final Runnable task = new Runnable()
-               {
-                  @Override
-                  public void run()
-                  {
-                     if (futureListener != null)
-                     {
-                        channel.writeAndFlush(buf, promise).addListener(futureListener);
-                     }
-                     else
-                     {
-                        channel.writeAndFlush(buf, promise);
-                     }
-                  }
-               };
-               // execute the task on the eventloop
-               eventLoop.execute(task);
-            }
+   /**
+    * @return the number of flushes issued for this connection
+    */
+   public long getFlushCount()
+   {
+      return flushCount;
+   }
 
+   /**
+    * @return the number of bytes written for this connection
+    */
+   public long getFlushedBytes()
+   {
+      return flushedBytes;
+   }
 
-            // only try to wait if not in the eventloop otherwise we will produce a deadlock
-            if (flush && !inEventLoop)
-            {
-               while (true)
-               {
-                  try
-                  {
-                     boolean ok = promise.await(10000);
-
-                     if (!ok)
-                     {
-                        ActiveMQClientLogger.LOGGER.timeoutFlushingPacket();
-                     }
-
-                     break;
-                  }
-                  catch (InterruptedException e)
-                  {
-                     throw new ActiveMQInterruptedException(e);
-                  }
-               }
-            }
-         }
-         finally
-         {
-            writeLock.release();
-         }
-      }
-      catch (InterruptedException e)
-      {
-         throw new ActiveMQInterruptedException(e);
-      }
+   /**
+    * @return the average number of bytes handed to the socket on each flush
+    */
+   public double getAverageBytesPerFlush()
+   {
+      long flushes = flushCount;
+      return flushes == 0 ? 0 : (double) flushedBytes / flushes;
    }
 
    public String getRemoteAddress()
@@ -415,6 +380,55 @@ public class NettyConnection implements Connection
 
    // Private -------------------------------------------------------
 
+   /**
+    * Writes are never performed on the caller's thread (even when it is the event loop) so that the order of the
+    * queue is the order on the wire, and so that everything written during one event loop cycle shares a flush.
+    */
+   private void scheduleDrain()
+   {
+      if (!drainScheduled.get() && drainScheduled.compareAndSet(false, true))
+      {
+         channel.eventLoop().execute(drainTask);
+      }
+   }
+
+   private void drainWriteQueue()
+   {
+      // reset before draining, so anything queued after this point schedules another drain
+      drainScheduled.set(false);
+
+      boolean written = false;
+      int unflushed = 0;
+      PendingWrite write;
+      while ((write = writeQueue.poll()) != null)
+      {
+         int size = write.buffer.readableBytes();
+         pendingBytes.addAndGet(-size);
+         channel.write(write.buffer, write.promise);
+         written = true;
+         unflushed += size;
+
+         if (unflushed >= BATCHING_BUFFER_SIZE)
+         {
+            flushWrites(unflushed);
+            written = false;
+            unflushed = 0;
+         }
+      }
+
+      if (written)
+      {
+         flushWrites(unflushed);
+      }
+   }
+
+   private void flushWrites(int bytes)
+   {
+      channel.flush();
+      flushCount++;
+      flushedBytes += bytes;
+   }
+
 
    private void closeSSLAndChannel(SslHandler sslHandler, Channel channel)
    {
@@ -443,4 +457,17 @@ public class NettyConnection implements Connection
    }
    // Inner classes -------------------------------------------------
 
+   private static final class PendingWrite
+   {
+      final ByteBuf buffer;
+
+      final ChannelPromise promise;
+
+      PendingWrite(ByteBuf buffer, ChannelPromise promise)
+      {
+         this.buffer = buffer;
+         this.promise = promise;
+      }
+   }
+
 }
@@ -29,7 +29,8 @@ import io.netty.buffer.UnpooledByteBufAllocator;
  */
 public class PartialPooledByteBufAllocator implements ByteBufAllocator
 {
-   private static final ByteBufAllocator POOLED = new PooledByteBufAllocator(false);
+   // also the arenas of the pooled message buffers, see MessageBufferPool
+   static final ByteBufAllocator POOLED = new PooledByteBufAllocator(false);
    private static final ByteBufAllocator UNPOOLED = new UnpooledByteBufAllocator(false);
 
    public static final PartialPooledByteBufAllocator INSTANCE = new PartialPooledByteBufAllocator();
@@ -19,6 +19,7 @@ package org.apache.activemq.spi.core.remoting;
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.Xid;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.apache.activemq.api.core.ActiveMQException;
@@ -83,6 +84,11 @@ public abstract class SessionContext
 
    public abstract void sendConsumerCredits(ClientConsumer consumer, int credits);
 
+   /**
+    * @return the smoothed round trip time of the blocking calls of this session in nanoseconds, 0 if still unknown
+    */
+   public abstract long getRoundTripTime();
+
    public abstract boolean supportsLargeMessage();
 
    protected void handleReceiveLargeMessage(ConsumerContext consumerID, ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception
@@ -104,6 +110,15 @@ public abstract class SessionContext
       }
    }
 
+   protected void handleReceiveMessages(ConsumerContext consumerID, final List<ClientMessageInternal> messages) throws Exception
+   {
+      ClientSessionInternal session = this.session;
+      if (session != null)
+      {
+         session.handleReceiveMessages(consumerID, messages);
+      }
+   }
+
    protected void handleReceiveContinuation(final ConsumerContext consumerID, byte[] chunk, int flowControlSize, boolean isContinues) throws Exception
    {
       ClientSessionInternal session = this.session;
@@ -137,6 +152,12 @@ public abstract class SessionContext
 
    public abstract void sendFullMessage(MessageInternal msgI, boolean sendBlocking, SendAcknowledgementHandler handler, SimpleString defaultAddress) throws ActiveMQException;
 
+   /**
+    * Sends several regular messages at once, when the server can't take them in a single packet
+    * they are sent one by one as through {@link #sendFullMessage(MessageInternal, boolean, SendAcknowledgementHandler, SimpleString)}.
+    */
+   public abstract void sendFullMessages(List<MessageInternal> messages, boolean sendBlocking, SendAcknowledgementHandler handler, SimpleString defaultAddress) throws ActiveMQException;
+
    /**
     * it should return the number of credits (or bytes) used to send this packet
     *
@@ -213,7 +234,8 @@ public abstract class SessionContext
 
    public abstract boolean configureTransactionTimeout(int seconds) throws ActiveMQException;
 
-   public abstract ClientConsumerInternal createConsumer(SimpleString queueName, SimpleString filterString, int windowSize, int maxRate, int ackBatchSize, boolean browseOnly,
+   public abstract ClientConsumerInternal createConsumer(SimpleString queueName, SimpleString filterString, int windowSize,
+                                                         int minWindowSize, int maxWindowSize, int maxRate, int ackBatchSize, boolean browseOnly,
                                                          Executor executor, Executor flowControlExecutor) throws ActiveMQException;
 
    /**
@@ -18,6 +18,7 @@ package org.apache.activemq.spi.core.remoting;
 
 import org.apache.activemq.api.core.Pair;
 import org.apache.activemq.api.core.TransportConfiguration;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 
 public interface TopologyResponseHandler
@@ -30,7 +31,8 @@ public interface TopologyResponseHandler
                      final String scaleDownGroupName,
                      final String nodeName,
                      final Pair<TransportConfiguration, TransportConfiguration> connectorPair,
-                     final boolean isLast);
+                     final boolean isLast,
+                     final NodeLoad load);
 
    // This is sent when any node on the cluster topology is going down
    void notifyNodeDown(final long eventTime, final String nodeID);
@@ -437,6 +437,28 @@ public class ActiveMQConnectionFactory implements Externalizable, Referenceable,
       serverLocator.setConsumerWindowSize(consumerWindowSize);
    }
 
+   public synchronized int getConsumerMinWindowSize()
+   {
+      return serverLocator.getConsumerMinWindowSize();
+   }
+
+   public synchronized void setConsumerMinWindowSize(final int consumerMinWindowSize)
+   {
+      checkWrite();
+      serverLocator.setConsumerMinWindowSize(consumerMinWindowSize);
+   }
+
+   public synchronized int getConsumerMaxWindowSize()
+   {
+      return serverLocator.getConsumerMaxWindowSize();
+   }
+
+   public synchronized void setConsumerMaxWindowSize(final int consumerMaxWindowSize)
+   {
+      checkWrite();
+      serverLocator.setConsumerMaxWindowSize(consumerMaxWindowSize);
+   }
+
    public synchronized int getConsumerMaxRate()
    {
       return serverLocator.getConsumerMaxRate();
@@ -691,6 +713,28 @@ public class ActiveMQConnectionFactory implements Externalizable, Referenceable,
       serverLocator.setCompressLargeMessage(avoidLargeMessages);
    }
 
+   public synchronized String getBodyCodecClassName()
+   {
+      return serverLocator.getBodyCodecClassName();
+   }
+
+   public synchronized void setBodyCodecClassName(final String bodyCodecClassName)
+   {
+      checkWrite();
+      serverLocator.setBodyCodecClassName(bodyCodecClassName);
+   }
+
+   public synchronized int getMinBodyCompressionSize()
+   {
+      return serverLocator.getMinBodyCompressionSize();
+   }
+
+   public synchronized void setMinBodyCompressionSize(final int minBodyCompressionSize)
+   {
+      checkWrite();
+      serverLocator.setMinBodyCompressionSize(minBodyCompressionSize);
+   }
+
    public void close()
    {
       ServerLocator locator0 = serverLocator;
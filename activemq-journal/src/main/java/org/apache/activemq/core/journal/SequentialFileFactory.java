@@ -19,6 +19,8 @@ package org.apache.activemq.core.journal;
 import java.nio.ByteBuffer;
 import java.util.List;
 
+import org.apache.activemq.core.journal.impl.TimedBuffer;
+
 /**
  *
  * A SequentialFileFactory
@@ -64,6 +66,11 @@ public interface SequentialFileFactory
 
    void deactivateBuffer();
 
+   /**
+    * @return the buffer the writes of the files are grouped in, or null if they are not buffered
+    */
+   TimedBuffer getTimedBuffer();
+
    // To be used in tests only
    ByteBuffer wrapBuffer(byte[] bytes);
 
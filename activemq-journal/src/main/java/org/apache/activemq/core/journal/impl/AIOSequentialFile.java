@@ -312,6 +312,13 @@ public class AIOSequentialFile extends AbstractSequentialFile implements IOExcep
       return buffer;
    }
 
+   @Override
+   protected boolean isEncodeInPlace()
+   {
+      // the native buffers are reused once written
+      return true;
+   }
+
    // Private methods
    // -----------------------------------------------------------------------------------------------------
 
@@ -81,7 +81,17 @@ public final class AIOSequentialFileFactory extends AbstractSequentialFileFactor
                                    final boolean logRates,
                                    final IOCriticalErrorListener listener)
    {
-      super(journalDir, true, bufferSize, bufferTimeout, logRates, listener);
+      this(journalDir, bufferSize, bufferTimeout, false, logRates, listener);
+   }
+
+   public AIOSequentialFileFactory(final String journalDir,
+                                   final int bufferSize,
+                                   final int bufferTimeout,
+                                   final boolean adaptiveBufferTimeout,
+                                   final boolean logRates,
+                                   final IOCriticalErrorListener listener)
+   {
+      super(journalDir, true, bufferSize, bufferTimeout, adaptiveBufferTimeout, logRates, listener);
    }
 
    public SequentialFile createSequentialFile(final String fileName, final int maxIO)
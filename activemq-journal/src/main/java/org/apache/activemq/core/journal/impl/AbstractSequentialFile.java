@@ -358,6 +358,14 @@ public abstract class AbstractSequentialFile implements SequentialFile
       return buffer;
    }
 
+   /**
+    * @see TimedBufferObserver#isEncodeInPlace()
+    */
+   protected boolean isEncodeInPlace()
+   {
+      return false;
+   }
+
    protected class LocalBufferObserver implements TimedBufferObserver
    {
       public void flushBuffer(final ByteBuffer buffer, final boolean requestedSync, final List<IOAsyncTask> callbacks)
@@ -379,6 +387,11 @@ public abstract class AbstractSequentialFile implements SequentialFile
          return AbstractSequentialFile.this.newBuffer(size, limit);
       }
 
+      public boolean isEncodeInPlace()
+      {
+         return AbstractSequentialFile.this.isEncodeInPlace();
+      }
+
       public int getRemainingBytes()
       {
          if (fileSize - position.get() > Integer.MAX_VALUE)
@@ -67,12 +67,23 @@ abstract class AbstractSequentialFileFactory implements SequentialFileFactory
                                         final int bufferTimeout,
                                         final boolean logRates,
                                         final IOCriticalErrorListener criticalErrorListener)
+   {
+      this(journalDir, buffered, bufferSize, bufferTimeout, false, logRates, criticalErrorListener);
+   }
+
+   AbstractSequentialFileFactory(final String journalDir,
+                                        final boolean buffered,
+                                        final int bufferSize,
+                                        final int bufferTimeout,
+                                        final boolean adaptiveBufferTimeout,
+                                        final boolean logRates,
+                                        final IOCriticalErrorListener criticalErrorListener)
    {
       this.journalDir = journalDir;
 
       if (buffered)
       {
-         timedBuffer = new TimedBuffer(bufferSize, bufferTimeout, logRates);
+         timedBuffer = new TimedBuffer(bufferSize, bufferTimeout, logRates, adaptiveBufferTimeout);
       }
       else
       {
@@ -147,6 +158,11 @@ abstract class AbstractSequentialFileFactory implements SequentialFileFactory
       }
    }
 
+   public TimedBuffer getTimedBuffer()
+   {
+      return timedBuffer;
+   }
+
    public void flush()
    {
       if (timedBuffer != null)
@@ -18,6 +18,7 @@ package org.apache.activemq.core.journal.impl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -59,6 +60,13 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
     *  we cache those updates. As soon as we are done we take the right account. */
    private final LinkedList<CompactCommand> pendingCommands = new LinkedList<CompactCommand>();
 
+   /** An incremental compacting only rewrites the oldest files of the journal, and no transaction is pending on them.
+    *  The live records of a transaction are held until its commit is found, and then written as plain records.
+    *  The commit may come on a file after the compacted ones. */
+   private final boolean incremental;
+
+   private final Map<Long, List<RecordInfo>> heldTransactions = new LinkedHashMap<Long, List<RecordInfo>>();
+
    public static SequentialFile readControlFile(final SequentialFileFactory fileFactory,
                                                 final List<String> dataFiles,
                                                 final List<String> newFiles,
@@ -141,8 +149,58 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
                            final JournalFilesRepository filesRepository,
                            final Set<Long> recordsSnapshot,
                            final long firstFileID)
+   {
+      this(fileFactory, journal, filesRepository, recordsSnapshot, firstFileID, false);
+   }
+
+   public JournalCompactor(final SequentialFileFactory fileFactory,
+                           final JournalImpl journal,
+                           final JournalFilesRepository filesRepository,
+                           final Set<Long> recordsSnapshot,
+                           final long firstFileID,
+                           final boolean incremental)
    {
       super(fileFactory, journal, filesRepository, recordsSnapshot, firstFileID);
+      this.incremental = incremental;
+   }
+
+   /**
+    * Reads the files following the compacted ones until the transactions held by an incremental compacting are
+    * resolved. The records of the committed transactions are written at the end of the compacted files.
+    *
+    * @return false if some transaction didn't end on these files
+    */
+   public boolean resolveHeldTransactions(final List<JournalFile> nextFiles) throws Exception
+   {
+      for (JournalFile file : nextFiles)
+      {
+         if (heldTransactions.isEmpty())
+         {
+            break;
+         }
+
+         JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallbackAbstract()
+         {
+            @Override
+            public void onReadCommitRecord(final long transactionID, final int numberOfRecords) throws Exception
+            {
+               List<RecordInfo> held = heldTransactions.remove(transactionID);
+
+               if (held != null)
+               {
+                  writeHeldRecords(held);
+               }
+            }
+
+            @Override
+            public void onReadRollbackRecord(final long transactionID) throws Exception
+            {
+               heldTransactions.remove(transactionID);
+            }
+         });
+      }
+
+      return heldTransactions.isEmpty();
    }
 
    /** This methods informs the Compactor about the existence of a pending (non committed) transaction */
@@ -250,6 +308,12 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
    private boolean checkCompact(final int compactCount) throws Exception
    {
+      if (incremental)
+      {
+         // The files are not split, so the compacted files are never more than the files they replace
+         return false;
+      }
+
       if (compactCount >= COMPACT_SPLIT_LINE && !splitted)
       {
          willNeedToSplit = true;
@@ -310,7 +374,11 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
    public void onReadAddRecordTX(final long transactionID, final RecordInfo info) throws Exception
    {
-      if (pendingTransactions.get(transactionID) != null || lookupRecord(info.id))
+      if (incremental)
+      {
+         holdRecord(transactionID, info);
+      }
+      else if (pendingTransactions.get(transactionID) != null || lookupRecord(info.id))
       {
          JournalTransaction newTransaction = getNewJournalTransaction(transactionID);
 
@@ -332,8 +400,16 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
    public void onReadCommitRecord(final long transactionID, final int numberOfRecords) throws Exception
    {
+      if (incremental)
+      {
+         List<RecordInfo> held = heldTransactions.remove(transactionID);
 
-      if (pendingTransactions.get(transactionID) != null)
+         if (held != null)
+         {
+            writeHeldRecords(held);
+         }
+      }
+      else if (pendingTransactions.get(transactionID) != null)
       {
          // Sanity check, this should never happen
          ActiveMQJournalLogger.LOGGER.inconsistencyDuringCompacting(transactionID);
@@ -410,7 +486,11 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
    public void onReadRollbackRecord(final long transactionID) throws Exception
    {
-      if (pendingTransactions.get(transactionID) != null)
+      if (incremental)
+      {
+         heldTransactions.remove(transactionID);
+      }
+      else if (pendingTransactions.get(transactionID) != null)
       {
          // Sanity check, this should never happen
          throw new IllegalStateException("Inconsistency during compacting: RollbackRecord ID = " + transactionID +
@@ -464,7 +544,11 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
    public void onReadUpdateRecordTX(final long transactionID, final RecordInfo info) throws Exception
    {
-      if (pendingTransactions.get(transactionID) != null || lookupRecord(info.id))
+      if (incremental)
+      {
+         holdRecord(transactionID, info);
+      }
+      else if (pendingTransactions.get(transactionID) != null || lookupRecord(info.id))
       {
          JournalTransaction newTransaction = getNewJournalTransaction(transactionID);
 
@@ -488,6 +572,35 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
       }
    }
 
+   private void holdRecord(final long transactionID, final RecordInfo info)
+   {
+      if (lookupRecord(info.id))
+      {
+         List<RecordInfo> held = heldTransactions.get(transactionID);
+         if (held == null)
+         {
+            held = new ArrayList<RecordInfo>();
+            heldTransactions.put(transactionID, held);
+         }
+         held.add(info);
+      }
+   }
+
+   private void writeHeldRecords(final List<RecordInfo> held) throws Exception
+   {
+      for (RecordInfo info : held)
+      {
+         if (info.isUpdate)
+         {
+            onReadUpdateRecord(info);
+         }
+         else
+         {
+            onReadAddRecord(info);
+         }
+      }
+   }
+
    /**
     * @param transactionID
     * @return
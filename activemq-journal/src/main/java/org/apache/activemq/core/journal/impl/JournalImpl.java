@@ -172,6 +172,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    private final int compactMinFiles;
 
+   // When > 0, compacting rewrites at most this number of files from the head of the journal at a time
+   private volatile int compactMaxFiles;
+
    private final SequentialFileFactory fileFactory;
 
    private final JournalFilesRepository filesRepository;
@@ -1398,6 +1401,19 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
 
    public void scheduleCompactAndBlock(int timeout) throws Exception
+   {
+      scheduleCompactAndBlock(timeout, false);
+   }
+
+   /**
+    * Compacts the files picked by an incremental compacting, whether it is enabled or not.
+    */
+   public void scheduleIncrementalCompactAndBlock(int timeout) throws Exception
+   {
+      scheduleCompactAndBlock(timeout, true);
+   }
+
+   private void scheduleCompactAndBlock(final int timeout, final boolean incremental) throws Exception
    {
       final AtomicInteger errors = new AtomicInteger(0);
 
@@ -1414,7 +1430,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             try
             {
-               JournalImpl.this.compact();
+               if (incremental)
+               {
+                  JournalImpl.this.incrementalCompact();
+               }
+               else
+               {
+                  JournalImpl.this.compact();
+               }
             }
             catch (Throwable e)
             {
@@ -1654,6 +1677,260 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    }
 
+   /**
+    * Compacts a few files at the head of the journal, instead of the whole journal as {@link #compact()} does.
+    * <p/>
+    * The live records of those files are rewritten into new files that take their place, so the order of the
+    * records is kept. The journal is only locked while the files and their records are taken from it and while
+    * the new ones are put back. Records of the other files are never read or written.
+    */
+   protected synchronized void incrementalCompact() throws Exception
+   {
+      if (compactor != null)
+      {
+         throw new IllegalStateException("There is pending compacting operation");
+      }
+
+      compactorLock.writeLock().lock();
+      try
+      {
+         List<JournalFile> dataFilesToProcess = new ArrayList<JournalFile>();
+
+         // the files that follow, a transaction on the compacted files may end on them
+         List<JournalFile> nextDataFiles = new ArrayList<JournalFile>();
+
+         Set<JournalFile> compactedFiles = new HashSet<JournalFile>();
+
+         // the current records of the compacted files, replaced by the new ones when done
+         Map<Long, JournalRecord> compactedRecords = new HashMap<Long, JournalRecord>();
+
+         boolean previousReclaimValue = isAutoReclaim();
+
+         JournalCompactor localCompactor = null;
+
+         try
+         {
+            ActiveMQJournalLogger.LOGGER.debug("Starting incremental compacting operation on journal");
+
+            onCompactStart();
+
+            journalLock.writeLock().lock();
+            try
+            {
+               if (state != JournalState.LOADED)
+               {
+                  return;
+               }
+
+               onCompactLockingTheJournal();
+
+               JournalFile[] dataFiles = getDataFiles();
+
+               int numberOfFiles = getFilesToCompact(dataFiles, getFilesWithoutTransactions(dataFiles));
+
+               if (numberOfFiles == 0)
+               {
+                  trace("Finishing incremental compacting, nothing to process");
+                  return;
+               }
+
+               setAutoReclaim(false);
+
+               for (JournalFile file : dataFiles)
+               {
+                  if (dataFilesToProcess.size() < numberOfFiles)
+                  {
+                     dataFilesToProcess.add(file);
+                     filesRepository.removeDataFile(file);
+                  }
+                  else
+                  {
+                     nextDataFiles.add(file);
+                  }
+               }
+
+               compactedFiles.addAll(dataFilesToProcess);
+
+               for (Map.Entry<Long, JournalRecord> entry : records.entrySet())
+               {
+                  if (compactedFiles.contains(entry.getValue().getAddFile()))
+                  {
+                     compactedRecords.put(entry.getKey(), entry.getValue());
+                  }
+               }
+
+               // Updates and deletes on these records are now replayed when compacting is done
+               records.keySet().removeAll(compactedRecords.keySet());
+
+               compactor = new JournalCompactor(fileFactory,
+                                                this,
+                                                filesRepository,
+                                                compactedRecords.keySet(),
+                                                dataFilesToProcess.get(0).getFileID(),
+                                                true);
+
+               localCompactor = compactor;
+            }
+            finally
+            {
+               journalLock.writeLock().unlock();
+            }
+
+            boolean compacted = false;
+
+            try
+            {
+               for (final JournalFile file : dataFilesToProcess)
+               {
+                  try
+                  {
+                     JournalImpl.readJournalFile(fileFactory, file, localCompactor);
+                  }
+                  catch (Throwable e)
+                  {
+                     ActiveMQJournalLogger.LOGGER.compactReadError(file);
+                     throw new Exception("Error on reading compacting for " + file, e);
+                  }
+               }
+
+               // A transaction ending on the current file is retried by the next compacting
+               if (localCompactor.resolveHeldTransactions(nextDataFiles))
+               {
+                  localCompactor.flush();
+
+                  if (!localCompactor.getNewRecords().keySet().containsAll(compactedRecords.keySet()))
+                  {
+                     throw new IllegalStateException("Some records were not found while compacting");
+                  }
+
+                  // The new files take the IDs of the compacted ones, there can't be more of them
+                  compacted = localCompactor.getNewDataFiles().size() <= dataFilesToProcess.size();
+               }
+            }
+            finally
+            {
+               if (!compacted)
+               {
+                  // Nothing was changed on disk yet, so the journal goes back to the files and the records it had
+                  cancelIncrementalCompact(localCompactor, dataFilesToProcess, compactedRecords);
+               }
+            }
+
+            if (!compacted)
+            {
+               trace("Incremental compacting cancelled, either a transaction on the compacted files didn't end on a " +
+                        "data file or the records didn't fit on fewer files");
+               return;
+            }
+
+            // pointcut for tests
+            onCompactDone();
+
+            List<JournalFile> newDatafiles = localCompactor.getNewDataFiles();
+
+            SequentialFile controlFile = createControlFile(dataFilesToProcess, newDatafiles, null);
+
+            journalLock.writeLock().lock();
+            try
+            {
+               // Need to clear the compactor here, or the replay commands will send commands back (infinite loop)
+               compactor = null;
+
+               onCompactLockingTheJournal();
+
+               for (Map.Entry<Long, JournalRecord> newRecordEntry : localCompactor.getNewRecords().entrySet())
+               {
+                  JournalRecord oldRecord = compactedRecords.get(newRecordEntry.getKey());
+
+                  if (oldRecord != null)
+                  {
+                     oldRecord.transferUpdates(newRecordEntry.getValue(), compactedFiles);
+                  }
+
+                  records.put(newRecordEntry.getKey(), newRecordEntry.getValue());
+               }
+
+               for (int i = newDatafiles.size() - 1; i >= 0; i--)
+               {
+                  filesRepository.addDataFileOnTop(newDatafiles.get(i));
+               }
+
+               // Replay pending commands (updates and deletes)
+               localCompactor.replayPendingCommands();
+            }
+            finally
+            {
+               journalLock.writeLock().unlock();
+            }
+
+            renameFiles(dataFilesToProcess, newDatafiles);
+            deleteControlFile(controlFile);
+
+            ActiveMQJournalLogger.LOGGER.debug("Finished incremental compacting on journal, " +
+                                                  dataFilesToProcess.size() +
+                                                  " files compacted into " +
+                                                  newDatafiles.size());
+         }
+         finally
+         {
+            if (compactor != null)
+            {
+               try
+               {
+                  compactor.flush();
+               }
+               catch (Throwable ignored)
+               {
+               }
+
+               compactor = null;
+            }
+            setAutoReclaim(previousReclaimValue);
+         }
+      }
+      finally
+      {
+         compactorLock.writeLock().unlock();
+      }
+   }
+
+   private void cancelIncrementalCompact(final JournalCompactor localCompactor,
+                                         final List<JournalFile> dataFilesToProcess,
+                                         final Map<Long, JournalRecord> compactedRecords) throws Exception
+   {
+      journalLock.writeLock().lock();
+      try
+      {
+         compactor = null;
+
+         for (int i = dataFilesToProcess.size() - 1; i >= 0; i--)
+         {
+            filesRepository.addDataFileOnTop(dataFilesToProcess.get(i));
+         }
+
+         records.putAll(compactedRecords);
+
+         localCompactor.replayPendingCommands();
+      }
+      finally
+      {
+         journalLock.writeLock().unlock();
+      }
+
+      try
+      {
+         localCompactor.flush();
+      }
+      catch (Throwable ignored)
+      {
+      }
+
+      for (JournalFile file : localCompactor.getNewDataFiles())
+      {
+         file.getFile().delete();
+      }
+   }
+
    /**
     * <p>Load data accordingly to the record layouts</p>
     * <p/>
@@ -2105,25 +2382,63 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return false;
    }
 
-   private boolean needsCompact() throws Exception
+   /**
+    * @return the number of files at the head of the journal an incremental compacting should rewrite, picking the
+    * prefix that frees the most files within {@link #getCompactMaxFiles()}
+    */
+   private int getFilesToCompact(final JournalFile[] dataFiles, final int maxFiles)
    {
-      JournalFile[] dataFiles = getDataFiles();
+      int usableSize = fileSize - JournalImpl.SIZE_HEADER;
 
-      long totalLiveSize = 0;
+      long liveSize = 0;
 
-      for (JournalFile file : dataFiles)
+      int filesToCompact = 0;
+
+      int maxFreedFiles = 0;
+
+      for (int i = 0; i < maxFiles; i++)
       {
-         totalLiveSize += file.getLiveSize();
-      }
+         liveSize += dataFiles[i].getLiveSize();
 
-      long totalBytes = dataFiles.length * (long) fileSize;
+         int numberOfFiles = i + 1;
 
-      long compactMargin = (long) (totalBytes * compactPercentage);
+         if (liveSize >= (long) (numberOfFiles * (long) fileSize * compactPercentage))
+         {
+            continue;
+         }
 
-      boolean needCompact = totalLiveSize < compactMargin && dataFiles.length > compactMinFiles;
+         int newFiles = (int) ((liveSize + usableSize - 1) / usableSize);
 
-      return needCompact;
+         if (numberOfFiles - newFiles > maxFreedFiles)
+         {
+            maxFreedFiles = numberOfFiles - newFiles;
+            filesToCompact = numberOfFiles;
+         }
+      }
 
+      return filesToCompact;
+   }
+
+   /**
+    * @return the number of files at the head of the journal with no records of a pending transaction, up to
+    * {@link #getCompactMaxFiles()}
+    */
+   private int getFilesWithoutTransactions(final JournalFile[] dataFiles)
+   {
+      int maxFiles = Math.min(compactMaxFiles, dataFiles.length);
+
+      for (int i = 0; i < maxFiles; i++)
+      {
+         for (JournalTransaction transaction : transactions.values())
+         {
+            if (transaction.isUsingFile(dataFiles[i]))
+            {
+               return i;
+            }
+         }
+      }
+
+      return maxFiles;
    }
 
    private void checkCompact() throws Exception
@@ -2145,6 +2460,33 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       }
    }
 
+   private boolean needsCompact() throws Exception
+   {
+      JournalFile[] dataFiles = getDataFiles();
+
+      if (compactMaxFiles > 0)
+      {
+         return dataFiles.length > compactMinFiles &&
+            getFilesToCompact(dataFiles, Math.min(compactMaxFiles, dataFiles.length)) > 0;
+      }
+
+      long totalLiveSize = 0;
+
+      for (JournalFile file : dataFiles)
+      {
+         totalLiveSize += file.getLiveSize();
+      }
+
+      long totalBytes = dataFiles.length * (long) fileSize;
+
+      long compactMargin = (long) (totalBytes * compactPercentage);
+
+      boolean needCompact = totalLiveSize < compactMargin && dataFiles.length > compactMinFiles;
+
+      return needCompact;
+
+   }
+
    private void scheduleCompact()
    {
       if (!compactorRunning.compareAndSet(false, true))
@@ -2161,7 +2503,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             try
             {
-               JournalImpl.this.compact();
+               if (compactMaxFiles > 0)
+               {
+                  JournalImpl.this.incrementalCompact();
+               }
+               else
+               {
+                  JournalImpl.this.compact();
+               }
             }
             catch (Throwable e)
             {
@@ -2303,6 +2652,20 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return minFiles;
    }
 
+   public int getCompactMaxFiles()
+   {
+      return compactMaxFiles;
+   }
+
+   /**
+    * Makes compacting incremental: instead of rewriting every file at once, it rewrites at most this number of
+    * files from the head of the journal each time it runs. Disabled when 0.
+    */
+   public void setCompactMaxFiles(final int compactMaxFiles)
+   {
+      this.compactMaxFiles = compactMaxFiles;
+   }
+
    public String getFilePrefix()
    {
       return filesRepository.getFilePrefix();
@@ -18,6 +18,7 @@ package org.apache.activemq.core.journal.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.activemq.api.core.Pair;
 
@@ -46,6 +47,11 @@ public class JournalRecord
       addFile.addSize(size);
    }
 
+   JournalFile getAddFile()
+   {
+      return addFile;
+   }
+
    void addUpdateFile(final JournalFile updateFile, final int size)
    {
       if (updateFiles == null)
@@ -75,6 +81,29 @@ public class JournalRecord
       }
    }
 
+   /**
+    * Moves the updates living outside of the compacted files to the record replacing this one after an
+    * incremental compacting. The counts of those files are not changed, they are still the same updates.
+    */
+   void transferUpdates(final JournalRecord newRecord, final Set<JournalFile> compactedFiles)
+   {
+      if (updateFiles != null)
+      {
+         for (Pair<JournalFile, Integer> updFile : updateFiles)
+         {
+            if (!compactedFiles.contains(updFile.getA()))
+            {
+               if (newRecord.updateFiles == null)
+               {
+                  newRecord.updateFiles = new ArrayList<Pair<JournalFile, Integer>>();
+               }
+
+               newRecord.updateFiles.add(updFile);
+            }
+         }
+      }
+   }
+
    @Override
    public String toString()
    {
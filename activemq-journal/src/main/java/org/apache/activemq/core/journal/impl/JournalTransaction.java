@@ -312,6 +312,14 @@ public class JournalTransaction
       }
    }
 
+   /**
+    * @return true if any record of this transaction lives on this file
+    */
+   public boolean isUsingFile(final JournalFile file)
+   {
+      return pendingFiles != null && pendingFiles.contains(file);
+   }
+
    public void waitCallbacks() throws InterruptedException
    {
       if (callbackList != null)
@@ -72,7 +72,18 @@ public class NIOSequentialFileFactory extends AbstractSequentialFileFactory
                                    final boolean logRates,
                                    final IOCriticalErrorListener listener)
    {
-      super(journalDir, buffered, bufferSize, bufferTimeout, logRates, listener);
+      this(journalDir, buffered, bufferSize, bufferTimeout, false, logRates, listener);
+   }
+
+   public NIOSequentialFileFactory(final String journalDir,
+                                   final boolean buffered,
+                                   final int bufferSize,
+                                   final int bufferTimeout,
+                                   final boolean adaptiveBufferTimeout,
+                                   final boolean logRates,
+                                   final IOCriticalErrorListener listener)
+   {
+      super(journalDir, buffered, bufferSize, bufferTimeout, adaptiveBufferTimeout, logRates, listener);
    }
 
    public SequentialFile createSequentialFile(final String fileName, int maxIO)
@@ -0,0 +1,1113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.journal.impl;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.api.core.ActiveMQExceptionType;
+import org.apache.activemq.core.journal.EncodingSupport;
+import org.apache.activemq.core.journal.IOCompletion;
+import org.apache.activemq.core.journal.JournalLoadInformation;
+import org.apache.activemq.core.journal.LoaderCallback;
+import org.apache.activemq.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.core.journal.RecordInfo;
+import org.apache.activemq.core.journal.SequentialFileFactory;
+import org.apache.activemq.core.journal.TransactionFailureCallback;
+import org.apache.activemq.core.journal.impl.dataformat.ByteArrayEncoding;
+import org.apache.activemq.journal.ActiveMQJournalLogger;
+import org.apache.activemq.utils.ActiveMQThreadFactory;
+
+/**
+ * A journal spreading its records over several independent journals (the stripes), each with its own files, append
+ * lock and possibly its own device.
+ * <p/>
+ * A record always goes to the stripe given by its ID, so the updates and the deletes of a record find it where it
+ * was added. A transaction only writes to the stripes its records went to, and is committed straight on its stripe
+ * when there is only one. A transaction spanning several stripes is committed in three steps:
+ * <ol>
+ * <li>it is prepared on every stripe,</li>
+ * <li>a commit record with the ID of the transaction is added to the stripe of the transaction ID, this is the
+ * point the transaction is committed at,</li>
+ * <li>it is committed on every stripe, and the commit record is deleted once these commits are written.</li>
+ * </ol>
+ * The commit record has the ID of the transaction, so the transaction IDs must not be used as record IDs.
+ * <p/>
+ * On load, a transaction prepared by the first step is committed if its commit record exists and rolled back
+ * otherwise. The transactions prepared through {@link #appendPrepareRecord(long, EncodingSupport, boolean, IOCompletion)}
+ * on several stripes are loaded as a single prepared transaction.
+ * <p/>
+ * The stripes are loaded, and compacted, in parallel.
+ */
+public final class StripedJournal extends JournalBase
+{
+   /**
+    * The record type of the records committing a transaction spanning several stripes, it must not be used by the
+    * records stored in the journal.
+    */
+   public static final byte STRIPED_COMMIT_RECORD = 100;
+
+   // the data of the prepare records written by the first step of a commit, telling them from the prepared
+   // transactions
+   private static final byte[] STRIPED_PREPARE_DATA = {'S', 'T', 'R', 'I', 'P', 'E', 'D'};
+
+   private static final byte[] EMPTY_DATA = new byte[0];
+
+   private final JournalImpl[] stripes;
+
+   private final ConcurrentMap<Long, StripedTransaction> transactions = new ConcurrentHashMap<Long, StripedTransaction>();
+
+   // used to load the stripes in parallel and to go through the steps of the commits spanning several stripes
+   private ExecutorService executor;
+
+   private volatile boolean started;
+
+   // the commits spanning several stripes not done yet, guarded by pendingCommitsLock
+   private int pendingCommits;
+
+   private final Object pendingCommitsLock = new Object();
+
+   public StripedJournal(final JournalImpl... stripes)
+   {
+      super(true, stripes[0].getFileSize());
+
+      this.stripes = stripes;
+   }
+
+   public int getStripes()
+   {
+      return stripes.length;
+   }
+
+   public JournalImpl getStripe(final int stripe)
+   {
+      return stripes[stripe];
+   }
+
+   /**
+    * @return the stripe the records with the given ID go to
+    */
+   public int getStripe(final long id)
+   {
+      return (int) ((id & Long.MAX_VALUE) % stripes.length);
+   }
+
+   // ActiveMQComponent implementation -----------------------------
+
+   public synchronized void start() throws Exception
+   {
+      if (started)
+      {
+         return;
+      }
+
+      executor = Executors.newCachedThreadPool(new ActiveMQThreadFactory("ActiveMQ-striped-journal",
+                                                                         true,
+                                                                         StripedJournal.getThisClassLoader()));
+
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.start();
+      }
+
+      started = true;
+   }
+
+   public synchronized void stop() throws Exception
+   {
+      if (!started)
+      {
+         return;
+      }
+
+      // the steps of the commits spanning several stripes are done before stopping the stripes they append to
+      synchronized (pendingCommitsLock)
+      {
+         long timeout = System.currentTimeMillis() +
+            TimeUnit.SECONDS.toMillis(AbstractSequentialFileFactory.EXECUTOR_TIMEOUT);
+
+         while (pendingCommits > 0 && System.currentTimeMillis() < timeout)
+         {
+            pendingCommitsLock.wait(timeout - System.currentTimeMillis());
+         }
+      }
+
+      executor.shutdown();
+
+      if (!executor.awaitTermination(AbstractSequentialFileFactory.EXECUTOR_TIMEOUT, TimeUnit.SECONDS))
+      {
+         ActiveMQJournalLogger.LOGGER.warn("Timed out waiting for the commits spanning several stripes to complete");
+      }
+
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.stop();
+      }
+
+      transactions.clear();
+
+      started = false;
+   }
+
+   public boolean isStarted()
+   {
+      return started;
+   }
+
+   // Non transactional operations ----------------------------------
+
+   @Override
+   public void appendAddRecord(final long id,
+                               final byte recordType,
+                               final EncodingSupport record,
+                               final boolean sync,
+                               final IOCompletion callback) throws Exception
+   {
+      stripes[getStripe(id)].appendAddRecord(id, recordType, record, sync, callback);
+   }
+
+   @Override
+   public void appendUpdateRecord(final long id,
+                                  final byte recordType,
+                                  final EncodingSupport record,
+                                  final boolean sync,
+                                  final IOCompletion callback) throws Exception
+   {
+      stripes[getStripe(id)].appendUpdateRecord(id, recordType, record, sync, callback);
+   }
+
+   @Override
+   public void appendDeleteRecord(final long id, final boolean sync, final IOCompletion callback) throws Exception
+   {
+      stripes[getStripe(id)].appendDeleteRecord(id, sync, callback);
+   }
+
+   // Transactional operations --------------------------------------
+
+   @Override
+   public void appendAddRecordTransactional(final long txID,
+                                            final long id,
+                                            final byte recordType,
+                                            final EncodingSupport record) throws Exception
+   {
+      int stripe = getStripe(id);
+
+      stripes[stripe].appendAddRecordTransactional(txID, id, recordType, record);
+
+      getTransaction(txID).enlist(stripe);
+   }
+
+   @Override
+   public void appendUpdateRecordTransactional(final long txID,
+                                               final long id,
+                                               final byte recordType,
+                                               final EncodingSupport record) throws Exception
+   {
+      int stripe = getStripe(id);
+
+      stripes[stripe].appendUpdateRecordTransactional(txID, id, recordType, record);
+
+      getTransaction(txID).enlist(stripe);
+   }
+
+   @Override
+   public void appendDeleteRecordTransactional(final long txID, final long id, final EncodingSupport record) throws Exception
+   {
+      int stripe = getStripe(id);
+
+      stripes[stripe].appendDeleteRecordTransactional(txID, id, record);
+
+      getTransaction(txID).enlist(stripe);
+   }
+
+   @Override
+   public void appendPrepareRecord(final long txID,
+                                   final EncodingSupport transactionData,
+                                   final boolean sync,
+                                   final IOCompletion callback) throws Exception
+   {
+      StripedTransaction tx = getTransaction(txID);
+
+      int[] participants = tx.getParticipants();
+
+      if (participants.length == 0)
+      {
+         // a transaction with no record is prepared on the stripe of its ID
+         tx.enlist(getStripe(txID));
+
+         participants = tx.getParticipants();
+      }
+
+      if (participants.length == 1)
+      {
+         stripes[participants[0]].appendPrepareRecord(txID, transactionData, sync, callback);
+      }
+      else
+      {
+         final IOCompletion completion = lineUp(callback, true);
+
+         StepCompletion prepared = new StepCompletion(participants.length, completion)
+         {
+            @Override
+            void completed()
+            {
+               completion.done();
+            }
+         };
+
+         for (int stripe : participants)
+         {
+            stripes[stripe].appendPrepareRecord(txID, transactionData, sync, prepared);
+         }
+      }
+
+      tx.prepared = true;
+   }
+
+   @Override
+   public void appendCommitRecord(final long txID,
+                                  final boolean sync,
+                                  final IOCompletion callback,
+                                  final boolean lineUpContext) throws Exception
+   {
+      StripedTransaction tx = transactions.remove(txID);
+
+      if (tx == null)
+      {
+         throw new IllegalStateException("Cannot find tx with id " + txID);
+      }
+
+      int[] participants = tx.getParticipants();
+
+      if (participants.length == 1)
+      {
+         stripes[participants[0]].appendCommitRecord(txID, sync, callback, lineUpContext);
+      }
+      else
+      {
+         new StripedCommit(tx, participants, lineUp(callback, lineUpContext)).start();
+      }
+   }
+
+   @Override
+   public void appendRollbackRecord(final long txID, final boolean sync, final IOCompletion callback) throws Exception
+   {
+      StripedTransaction tx = transactions.remove(txID);
+
+      if (tx == null)
+      {
+         throw new IllegalStateException("Cannot find tx with id " + txID);
+      }
+
+      int[] participants = tx.getParticipants();
+
+      if (participants.length == 1)
+      {
+         stripes[participants[0]].appendRollbackRecord(txID, sync, callback);
+      }
+      else
+      {
+         final IOCompletion completion = lineUp(callback, true);
+
+         StepCompletion rolledBack = new StepCompletion(participants.length, completion)
+         {
+            @Override
+            void completed()
+            {
+               completion.done();
+            }
+         };
+
+         for (int stripe : participants)
+         {
+            stripes[stripe].appendRollbackRecord(txID, sync, rolledBack);
+         }
+      }
+   }
+
+   public void lineUpContext(final IOCompletion callback)
+   {
+      callback.storeLineUp();
+   }
+
+   // Load ----------------------------------------------------------
+
+   public JournalLoadInformation load(final LoaderCallback reloadManager) throws Exception
+   {
+      List<RecordInfo> committedRecords = new ArrayList<RecordInfo>();
+
+      List<PreparedTransactionInfo> preparedTransactions = new ArrayList<PreparedTransactionInfo>();
+
+      JournalLoadInformation info = load(committedRecords, preparedTransactions, reloadManager);
+
+      for (RecordInfo record : committedRecords)
+      {
+         if (record.isUpdate)
+         {
+            reloadManager.updateRecord(record);
+         }
+         else
+         {
+            reloadManager.addRecord(record);
+         }
+      }
+
+      for (PreparedTransactionInfo preparedTransaction : preparedTransactions)
+      {
+         reloadManager.addPreparedTransaction(preparedTransaction);
+      }
+
+      return info;
+   }
+
+   public JournalLoadInformation load(final List<RecordInfo> committedRecords,
+                                      final List<PreparedTransactionInfo> preparedTransactions,
+                                      final TransactionFailureCallback transactionFailure) throws Exception
+   {
+      final List<List<RecordInfo>> stripeRecords = new ArrayList<List<RecordInfo>>();
+
+      final List<List<PreparedTransactionInfo>> stripeTransactions = new ArrayList<List<PreparedTransactionInfo>>();
+
+      final TransactionFailureCallback failureCallback = new TransactionFailureCallback()
+      {
+         public synchronized void failedTransaction(final long transactionID,
+                                                    final List<RecordInfo> records,
+                                                    final List<RecordInfo> recordsToDelete)
+         {
+            if (transactionFailure != null)
+            {
+               transactionFailure.failedTransaction(transactionID, records, recordsToDelete);
+            }
+         }
+      };
+
+      List<Future<JournalLoadInformation>> loads = new ArrayList<Future<JournalLoadInformation>>();
+
+      for (final JournalImpl stripe : stripes)
+      {
+         final List<RecordInfo> records = new ArrayList<RecordInfo>();
+
+         final List<PreparedTransactionInfo> prepared = new ArrayList<PreparedTransactionInfo>();
+
+         stripeRecords.add(records);
+
+         stripeTransactions.add(prepared);
+
+         loads.add(executor.submit(new Callable<JournalLoadInformation>()
+         {
+            public JournalLoadInformation call() throws Exception
+            {
+               return stripe.load(records, prepared, failureCallback);
+            }
+         }));
+      }
+
+      JournalLoadInformation info = new JournalLoadInformation();
+
+      for (Future<JournalLoadInformation> load : loads)
+      {
+         info = merge(info, load.get());
+      }
+
+      // The commit records, telling the transactions prepared on several stripes that were committed
+      Set<Long> committedTransactions = new HashSet<Long>();
+
+      for (List<RecordInfo> records : stripeRecords)
+      {
+         Iterator<RecordInfo> iterator = records.iterator();
+
+         while (iterator.hasNext())
+         {
+            RecordInfo record = iterator.next();
+
+            if (record.userRecordType == STRIPED_COMMIT_RECORD)
+            {
+               committedTransactions.add(record.id);
+
+               iterator.remove();
+            }
+         }
+      }
+
+      // the parts of the prepared transactions, on each of their stripes
+      Map<Long, List<PreparedTransactionInfo>> prepared = new LinkedHashMap<Long, List<PreparedTransactionInfo>>();
+
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         List<RecordInfo> records = stripeRecords.get(stripe);
+
+         for (PreparedTransactionInfo preparedTransaction : stripeTransactions.get(stripe))
+         {
+            long txID = preparedTransaction.id;
+
+            if (committedTransactions.contains(txID))
+            {
+               // the transaction was committed but not on this stripe yet
+               commit(records, preparedTransaction);
+
+               stripes[stripe].appendCommitRecord(txID, true);
+            }
+            else if (Arrays.equals(STRIPED_PREPARE_DATA, preparedTransaction.extraData))
+            {
+               // the transaction didn't make it to its commit record
+               stripes[stripe].appendRollbackRecord(txID, false);
+            }
+            else
+            {
+               List<PreparedTransactionInfo> parts = prepared.get(txID);
+
+               if (parts == null)
+               {
+                  parts = new ArrayList<PreparedTransactionInfo>();
+
+                  prepared.put(txID, parts);
+               }
+
+               parts.add(preparedTransaction);
+
+               StripedTransaction tx = getTransaction(txID);
+
+               tx.enlist(stripe);
+
+               tx.prepared = true;
+            }
+         }
+
+      }
+
+      committedRecords.addAll(merge(stripeRecords));
+
+      for (List<PreparedTransactionInfo> parts : prepared.values())
+      {
+         PreparedTransactionInfo merged = new PreparedTransactionInfo(parts.get(0).id, parts.get(0).extraData);
+
+         List<List<RecordInfo>> records = new ArrayList<List<RecordInfo>>();
+
+         for (PreparedTransactionInfo part : parts)
+         {
+            records.add(part.records);
+
+            merged.recordsToDelete.addAll(part.recordsToDelete);
+         }
+
+         merged.records.addAll(merge(records));
+
+         preparedTransactions.add(merged);
+      }
+
+      // the commits written above are synced, the commit records are no longer needed
+      for (Long txID : committedTransactions)
+      {
+         stripes[getStripe(txID)].appendDeleteRecord(txID, false);
+      }
+
+      return info;
+   }
+
+   public JournalLoadInformation loadInternalOnly() throws Exception
+   {
+      JournalLoadInformation info = new JournalLoadInformation();
+
+      for (JournalImpl stripe : stripes)
+      {
+         info = merge(info, stripe.loadInternalOnly());
+      }
+
+      return info;
+   }
+
+   public JournalLoadInformation loadSyncOnly(final JournalState state) throws Exception
+   {
+      throw new UnsupportedOperationException("A striped journal can't be replicated");
+   }
+
+   // Journal implementation ----------------------------------------
+
+   public int getAlignment() throws Exception
+   {
+      return stripes[0].getAlignment();
+   }
+
+   public int getNumberOfRecords()
+   {
+      int records = 0;
+
+      for (JournalImpl stripe : stripes)
+      {
+         records += stripe.getNumberOfRecords();
+      }
+
+      return records;
+   }
+
+   public int getUserVersion()
+   {
+      return stripes[0].getUserVersion();
+   }
+
+   public void perfBlast(final int pages)
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.perfBlast(pages);
+      }
+   }
+
+   public void runDirectJournalBlast() throws Exception
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.runDirectJournalBlast();
+      }
+   }
+
+   public Map<Long, JournalFile> createFilesForBackupSync(final long[] fileIds) throws Exception
+   {
+      throw new UnsupportedOperationException("A striped journal can't be replicated");
+   }
+
+   public void synchronizationLock()
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.synchronizationLock();
+      }
+   }
+
+   public void synchronizationUnlock()
+   {
+      for (int i = stripes.length - 1; i >= 0; i--)
+      {
+         stripes[i].synchronizationUnlock();
+      }
+   }
+
+   public void forceMoveNextFile() throws Exception
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.forceMoveNextFile();
+      }
+   }
+
+   public JournalFile[] getDataFiles()
+   {
+      List<JournalFile> files = new ArrayList<JournalFile>();
+
+      for (JournalImpl stripe : stripes)
+      {
+         files.addAll(Arrays.asList(stripe.getDataFiles()));
+      }
+
+      return files.toArray(new JournalFile[files.size()]);
+   }
+
+   /**
+    * The stripes each have their own factory, all of the same type and settings, so the first one stands for them.
+    * It must not be used to reach the files of the other stripes.
+    */
+   public SequentialFileFactory getFileFactory()
+   {
+      return stripes[0].getFileFactory();
+   }
+
+   public void scheduleCompactAndBlock(final int timeout) throws Exception
+   {
+      List<Future<Object>> compacts = new ArrayList<Future<Object>>();
+
+      for (final JournalImpl stripe : stripes)
+      {
+         compacts.add(executor.submit(new Callable<Object>()
+         {
+            public Object call() throws Exception
+            {
+               stripe.scheduleCompactAndBlock(timeout);
+
+               return null;
+            }
+         }));
+      }
+
+      for (Future<Object> compact : compacts)
+      {
+         compact.get();
+      }
+   }
+
+   public void replicationSyncPreserveOldFiles()
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.replicationSyncPreserveOldFiles();
+      }
+   }
+
+   public void replicationSyncFinished()
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.replicationSyncFinished();
+      }
+   }
+
+   @Override
+   void scheduleReclaim()
+   {
+      for (JournalImpl stripe : stripes)
+      {
+         stripe.scheduleReclaim();
+      }
+   }
+
+   // Private -------------------------------------------------------
+
+   private void commitStarted()
+   {
+      synchronized (pendingCommitsLock)
+      {
+         pendingCommits++;
+      }
+   }
+
+   private void commitFinished()
+   {
+      synchronized (pendingCommitsLock)
+      {
+         if (--pendingCommits == 0)
+         {
+            pendingCommitsLock.notifyAll();
+         }
+      }
+   }
+
+   private StripedTransaction getTransaction(final long txID)
+   {
+      StripedTransaction tx = transactions.get(txID);
+
+      if (tx == null)
+      {
+         tx = new StripedTransaction(txID, stripes.length);
+
+         StripedTransaction previous = transactions.putIfAbsent(txID, tx);
+
+         if (previous != null)
+         {
+            tx = previous;
+         }
+      }
+
+      return tx;
+   }
+
+   /**
+    * Lines up the callback once for the several steps or stripes it waits for.
+    */
+   private static IOCompletion lineUp(final IOCompletion callback, final boolean lineUpContext)
+   {
+      if (callback == null)
+      {
+         return DummyCallback.getInstance();
+      }
+
+      if (lineUpContext)
+      {
+         callback.storeLineUp();
+      }
+
+      return callback;
+   }
+
+   /**
+    * Applies a transaction prepared on a stripe to the records loaded from it, as its commit would have.
+    */
+   private static void commit(final List<RecordInfo> records, final PreparedTransactionInfo preparedTransaction)
+   {
+      records.addAll(preparedTransaction.records);
+
+      if (!preparedTransaction.recordsToDelete.isEmpty())
+      {
+         Set<Long> deleted = new HashSet<Long>();
+
+         for (RecordInfo record : preparedTransaction.recordsToDelete)
+         {
+            deleted.add(record.id);
+         }
+
+         Iterator<RecordInfo> iterator = records.iterator();
+
+         while (iterator.hasNext())
+         {
+            if (deleted.contains(iterator.next().id))
+            {
+               iterator.remove();
+            }
+         }
+      }
+   }
+
+   /**
+    * Merges the records loaded from the stripes into a single list, keeping the order of each stripe. The IDs being
+    * generated in sequence, the records of the stripes are interleaved by ID, so that the messages are in the order
+    * they were added to the journal, as much as it can be told.
+    */
+   private static List<RecordInfo> merge(final List<List<RecordInfo>> stripeRecords)
+   {
+      int size = 0;
+
+      for (List<RecordInfo> records : stripeRecords)
+      {
+         size += records.size();
+      }
+
+      List<RecordInfo> merged = new ArrayList<RecordInfo>(size);
+
+      int[] positions = new int[stripeRecords.size()];
+
+      while (merged.size() < size)
+      {
+         int next = -1;
+
+         for (int stripe = 0; stripe < positions.length; stripe++)
+         {
+            List<RecordInfo> records = stripeRecords.get(stripe);
+
+            if (positions[stripe] < records.size() &&
+               (next == -1 || records.get(positions[stripe]).id < stripeRecords.get(next).get(positions[next]).id))
+            {
+               next = stripe;
+            }
+         }
+
+         merged.add(stripeRecords.get(next).get(positions[next]++));
+      }
+
+      return merged;
+   }
+
+   private static JournalLoadInformation merge(final JournalLoadInformation info, final JournalLoadInformation stripe)
+   {
+      return new JournalLoadInformation(info.getNumberOfRecords() + stripe.getNumberOfRecords(),
+                                        Math.max(info.getMaxID(), stripe.getMaxID()));
+   }
+
+   private static ClassLoader getThisClassLoader()
+   {
+      return AccessController.doPrivileged(new PrivilegedAction<ClassLoader>()
+      {
+         public ClassLoader run()
+         {
+            return StripedJournal.class.getClassLoader();
+         }
+      });
+   }
+
+   // Inner classes -------------------------------------------------
+
+   private static final class StripedTransaction
+   {
+      private final long id;
+
+      // guarded by this
+      private final boolean[] participants;
+
+      private volatile boolean prepared;
+
+      private StripedTransaction(final long id, final int stripes)
+      {
+         this.id = id;
+
+         participants = new boolean[stripes];
+      }
+
+      synchronized void enlist(final int stripe)
+      {
+         participants[stripe] = true;
+      }
+
+      synchronized int[] getParticipants()
+      {
+         int count = 0;
+
+         for (boolean participant : participants)
+         {
+            if (participant)
+            {
+               count++;
+            }
+         }
+
+         int[] stripes = new int[count];
+
+         for (int stripe = 0, i = 0; stripe < participants.length; stripe++)
+         {
+            if (participants[stripe])
+            {
+               stripes[i++] = stripe;
+            }
+         }
+
+         return stripes;
+      }
+   }
+
+   /**
+    * Waits for the writes of a step on all the stripes, the first error is reported to the callback of the operation.
+    */
+   private abstract static class StepCompletion implements IOCompletion
+   {
+      private final AtomicInteger pending;
+
+      private final AtomicBoolean failed = new AtomicBoolean(false);
+
+      private final IOCompletion callback;
+
+      StepCompletion(final int writes, final IOCompletion callback)
+      {
+         pending = new AtomicInteger(writes);
+
+         this.callback = callback;
+      }
+
+      abstract void completed();
+
+      public void storeLineUp()
+      {
+      }
+
+      public void done()
+      {
+         if (pending.decrementAndGet() == 0 && !failed.get())
+         {
+            completed();
+         }
+      }
+
+      public void onError(final int errorCode, final String errorMessage)
+      {
+         if (failed.compareAndSet(false, true))
+         {
+            callback.onError(errorCode, errorMessage);
+         }
+      }
+   }
+
+   /**
+    * The steps of the commit of a transaction spanning several stripes, each step is done once the writes of the
+    * previous one completed. They are done on the executor, not to append from the threads completing the writes.
+    */
+   private final class StripedCommit
+   {
+      private final long txID;
+
+      private final boolean prepared;
+
+      private final int[] participants;
+
+      private final IOCompletion callback;
+
+      // whether the callback was told about the outcome of the commit
+      private final AtomicBoolean reported = new AtomicBoolean(false);
+
+      private final AtomicBoolean finished = new AtomicBoolean(false);
+
+      // the errors of the steps end the commit, and are reported to the callback if it wasn't completed yet
+      private final IOCompletion failure = new IOCompletion()
+      {
+         public void storeLineUp()
+         {
+         }
+
+         public void done()
+         {
+         }
+
+         public void onError(final int errorCode, final String errorMessage)
+         {
+            failed(errorCode, errorMessage);
+         }
+      };
+
+      private StripedCommit(final StripedTransaction tx, final int[] participants, final IOCompletion callback)
+      {
+         this.txID = tx.id;
+         this.prepared = tx.prepared;
+         this.participants = participants;
+         this.callback = callback;
+      }
+
+      void start() throws Exception
+      {
+         commitStarted();
+
+         try
+         {
+            if (prepared)
+            {
+               // prepared by the user, the transaction is already on every stripe
+               decide();
+            }
+            else
+            {
+               prepare();
+            }
+         }
+         catch (Exception e)
+         {
+            finish();
+
+            throw e;
+         }
+      }
+
+      private void prepare() throws Exception
+      {
+         StepCompletion prepareCompletion = new StepCompletion(participants.length, failure)
+         {
+            @Override
+            void completed()
+            {
+               next(new Step()
+               {
+                  public void run() throws Exception
+                  {
+                     decide();
+                  }
+               });
+            }
+         };
+
+         for (int stripe : participants)
+         {
+            stripes[stripe].appendPrepareRecord(txID, new ByteArrayEncoding(STRIPED_PREPARE_DATA), true,
+                                                prepareCompletion);
+         }
+      }
+
+      private void decide() throws Exception
+      {
+         StepCompletion decision = new StepCompletion(1, failure)
+         {
+            @Override
+            void completed()
+            {
+               next(new Step()
+               {
+                  public void run() throws Exception
+                  {
+                     commit();
+                  }
+               });
+            }
+         };
+
+         stripes[getStripe(txID)].appendAddRecord(txID, STRIPED_COMMIT_RECORD, new ByteArrayEncoding(EMPTY_DATA),
+                                                  true, decision);
+      }
+
+      private void commit() throws Exception
+      {
+         StepCompletion commits = new StepCompletion(participants.length, failure)
+         {
+            @Override
+            void completed()
+            {
+               next(new Step()
+               {
+                  public void run() throws Exception
+                  {
+                     stripes[getStripe(txID)].appendDeleteRecord(txID, false);
+
+                     finish();
+                  }
+               });
+            }
+         };
+
+         for (int stripe : participants)
+         {
+            stripes[stripe].appendCommitRecord(txID, true, commits, false);
+         }
+
+         // The commit record being written, the transaction is committed. Its records are visible on the stripes
+         // once the commits above are appended
+         if (reported.compareAndSet(false, true))
+         {
+            callback.done();
+         }
+      }
+
+      private void next(final Step step)
+      {
+         executor.execute(new Runnable()
+         {
+            public void run()
+            {
+               try
+               {
+                  step.run();
+               }
+               catch (Exception e)
+               {
+                  ActiveMQJournalLogger.LOGGER.warn("Error committing transaction " + txID + " on several stripes", e);
+
+                  failed(ActiveMQExceptionType.IO_ERROR.getCode(), e.getMessage());
+               }
+            }
+         });
+      }
+
+      private void failed(final int errorCode, final String errorMessage)
+      {
+         finish();
+
+         if (reported.compareAndSet(false, true))
+         {
+            callback.onError(errorCode, errorMessage);
+         }
+      }
+
+      private void finish()
+      {
+         if (finished.compareAndSet(false, true))
+         {
+            commitFinished();
+         }
+      }
+   }
+
+   private interface Step
+   {
+      void run() throws Exception;
+   }
+}
@@ -24,6 +24,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.activemq.api.core.ActiveMQBuffer;
 import org.apache.activemq.api.core.ActiveMQBuffers;
@@ -33,6 +34,21 @@ import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.journal.impl.dataformat.ByteArrayEncoding;
 import org.apache.activemq.journal.ActiveMQJournalLogger;
 
+/**
+ * Groups the records appended to the journal, so they are written (and synced) at once when the buffer is full or
+ * after the timeout.
+ * <p/>
+ * Appending only holds the monitor of this buffer for as long as it takes to encode the record. A flush takes the
+ * records appended so far under that monitor and writes them out of it, while the next records go to another buffer:
+ * either a fresh buffer from the observer, when the records are encoded straight into its buffers (see
+ * {@link TimedBufferObserver#isEncodeInPlace()}), or the second of the two heap buffers appended to in turn. The
+ * flushes themselves are serialized in order.
+ * <p/>
+ * When adaptive, the timeout is only the longest a sync may wait for. The window a sync actually waits for follows
+ * the time the syncs take to complete and the time between the sync requests: a sync requested while the buffer is
+ * idle is flushed right away, while the syncs requested under load wait for the ones following them, up to as long
+ * as a sync takes.
+ */
 public class TimedBuffer
 {
    // Constants -----------------------------------------------------
@@ -40,6 +56,9 @@ public class TimedBuffer
    // The number of tries on sleep before switching to spin
    public static final int MAX_CHECKS_ON_SLEEP = 20;
 
+   // The weight of a new sample on the averages kept by the adaptive timeout and for the batch size
+   private static final int AVERAGE_WEIGHT = 8;
+
    // Attributes ----------------------------------------------------
 
    private TimedBufferObserver bufferObserver;
@@ -53,14 +72,47 @@ public class TimedBuffer
 
    private final int bufferSize;
 
-   private final ActiveMQBuffer buffer;
+   // the buffer the records are appended to, null until the first record when encoding in place
+   private ActiveMQBuffer buffer;
+
+   // the heap buffer being flushed while the records are appended to the other one, when not encoding in place
+   private ActiveMQBuffer spareBuffer;
+
+   // the observer's buffer wrapped by buffer, when encoding in place
+   private ByteBuffer nativeBuffer;
+
+   private boolean encodeInPlace;
 
    private int bufferLimit = 0;
 
+   // the flushes are done holding this lock, and not the monitor of the TimedBuffer, so records can still be appended
+   private final Object flushLock = new Object();
+
+   // the bytes handed to the observer by the flush in progress, that may not be accounted in its remaining bytes yet
+   private volatile int flushingBytes;
+
    private List<IOAsyncTask> callbacks;
 
    private volatile int timeout;
 
+   private volatile boolean adaptive;
+
+   // the average time (in nanoseconds) taken by the syncs to complete, -1 until the first one completes
+   private volatile long syncLatency = -1;
+
+   // the average time (in nanoseconds) between the sync requests, -1 until measured, guarded by this
+   private long syncInterval = -1;
+
+   // guarded by this
+   private long lastSyncRequest;
+
+   // when the oldest sync not flushed yet was requested
+   private volatile long pendingSyncTime;
+
+   private volatile long flushWindow;
+
+   private volatile double averageBatchSize;
+
    // used to measure sync requests. When a sync is requested, it shouldn't take more than timeout to happen
    private volatile boolean pendingSync = false;
 
@@ -112,11 +164,46 @@ public class TimedBuffer
 
       buffer.clear();
 
+      spareBuffer = ActiveMQBuffers.fixedBuffer(bufferSize);
+
+      spareBuffer.clear();
+
       bufferLimit = 0;
 
       callbacks = new ArrayList<IOAsyncTask>();
 
       this.timeout = timeout;
+
+      flushWindow = timeout;
+   }
+
+   public TimedBuffer(final int size, final int timeout, final boolean logRates, final boolean adaptive)
+   {
+      this(size, timeout, logRates);
+
+      this.adaptive = adaptive;
+   }
+
+   public boolean isAdaptive()
+   {
+      return adaptive;
+   }
+
+   /**
+    * @return the time (in nanoseconds) the syncs wait for before being flushed, chosen from the load when adaptive and
+    * the timeout otherwise
+    */
+   public long getFlushWindow()
+   {
+      return flushWindow;
+   }
+
+   /**
+    * @return the average number of records written by each flush
+    */
+   public double getAverageBatchSize()
+   {
+      return averageBatchSize;
    }
 
    // for Debug purposes
@@ -198,14 +285,29 @@ public class TimedBuffer
       started = false;
    }
 
-   public synchronized void setObserver(final TimedBufferObserver observer)
+   public void setObserver(final TimedBufferObserver observer)
    {
-      if (bufferObserver != null)
+      synchronized (flushLock)
       {
-         flush();
-      }
+         if (bufferObserver != null)
+         {
+            flush();
+         }
+
+         synchronized (this)
+         {
+            bufferObserver = observer;
 
-      bufferObserver = observer;
+            if (observer != null && observer.isEncodeInPlace() != encodeInPlace && writerIndex() == 0)
+            {
+               encodeInPlace = observer.isEncodeInPlace();
+
+               buffer = encodeInPlace ? null : ActiveMQBuffers.fixedBuffer(bufferSize);
+
+               spareBuffer = encodeInPlace ? null : ActiveMQBuffers.fixedBuffer(bufferSize);
+            }
+         }
+      }
    }
 
    /**
@@ -213,7 +315,7 @@ public class TimedBuffer
     *
     * @param sizeChecked
     */
-   public synchronized boolean checkSize(final int sizeChecked)
+   public boolean checkSize(final int sizeChecked)
    {
       if (!started)
       {
@@ -226,37 +328,46 @@ public class TimedBuffer
                                             ") on the journal");
       }
 
-      if (bufferLimit == 0 || buffer.writerIndex() + sizeChecked > bufferLimit)
+      while (true)
       {
-         // Either there is not enough space left in the buffer for the sized record
-         // Or a flush has just been performed and we need to re-calcualate bufferLimit
+         synchronized (this)
+         {
+            if (bufferLimit != 0 && writerIndex() + sizeChecked <= bufferLimit)
+            {
+               delayFlush = true;
 
-         flush();
+               return true;
+            }
 
-         delayFlush = true;
+            if (writerIndex() == 0)
+            {
+               // Either a flush has just been performed and we need to re-calculate bufferLimit
+               // Or the file doesn't have enough space left for the sized record
 
-         final int remainingInFile = bufferObserver.getRemainingBytes();
+               delayFlush = true;
 
-         if (sizeChecked > remainingInFile)
-         {
-            return false;
-         }
-         else
-         {
-            // There is enough space in the file for this size
+               final int remainingInFile = getRemainingBytes();
 
-            // Need to re-calculate buffer limit
+               if (sizeChecked > remainingInFile)
+               {
+                  return false;
+               }
+               else
+               {
+                  // There is enough space in the file for this size
+
+                  // Need to re-calculate buffer limit
 
-            bufferLimit = Math.min(remainingInFile, bufferSize);
+                  bufferLimit = Math.min(remainingInFile, bufferSize);
 
-            return true;
+                  return true;
+               }
+            }
          }
-      }
-      else
-      {
-         delayFlush = true;
 
-         return true;
+         // There is not enough space left in the buffer for the sized record, the flush is done outside of the
+         // monitor as any other flush
+         flush(true);
       }
    }
 
@@ -274,12 +385,25 @@ public class TimedBuffer
 
       delayFlush = false;
 
+      if (buffer == null)
+      {
+         // Encoding straight into the buffer that will be written
+         nativeBuffer = bufferObserver.newBuffer(bufferSize, bufferLimit == 0 ? bufferSize : bufferLimit);
+
+         buffer = ActiveMQBuffers.wrappedBuffer(nativeBuffer);
+      }
+
       bytes.encode(buffer);
 
       callbacks.add(callback);
 
       if (sync)
       {
+         if (adaptive)
+         {
+            syncRequested();
+         }
+
          pendingSync = true;
 
          startSpin();
@@ -298,45 +422,106 @@ public class TimedBuffer
     */
    public void flush(final boolean force)
    {
-      synchronized (this)
+      synchronized (flushLock)
       {
-         if (!started)
-         {
-            throw new IllegalStateException("TimedBuffer is not started");
-         }
+         final TimedBufferObserver observer;
+
+         final ActiveMQBuffer stagedBuffer;
 
-         if ((force || !delayFlush) && buffer.writerIndex() > 0)
+         ByteBuffer bufferToFlush;
+
+         final List<IOAsyncTask> callbacksToFlush;
+
+         final boolean syncToFlush;
+
+         final int pos;
+
+         synchronized (this)
          {
-            int pos = buffer.writerIndex();
+            if (!started)
+            {
+               throw new IllegalStateException("TimedBuffer is not started");
+            }
 
-            if (logRates)
+            if (!(force || !delayFlush) || writerIndex() == 0)
             {
-               bytesFlushed.addAndGet(pos);
+               return;
             }
 
-            ByteBuffer bufferToFlush = bufferObserver.newBuffer(bufferSize, pos);
+            observer = bufferObserver;
 
-            // Putting a byteArray on a native buffer is much faster, since it will do in a single native call.
-            // Using bufferToFlush.put(buffer) would make several append calls for each byte
-            // We also transfer the content of this buffer to the native file's buffer
+            pos = buffer.writerIndex();
 
-            bufferToFlush.put(buffer.toByteBuffer().array(), 0, pos);
+            if (encodeInPlace)
+            {
+               stagedBuffer = null;
 
-            bufferObserver.flushBuffer(bufferToFlush, pendingSync, callbacks);
+               bufferToFlush = nativeBuffer;
 
-            stopSpin();
+               bufferToFlush.position(pos);
+
+               nativeBuffer = null;
+
+               buffer = null;
+            }
+            else
+            {
+               stagedBuffer = buffer;
+
+               bufferToFlush = null;
+
+               buffer = spareBuffer;
+
+               spareBuffer = stagedBuffer;
+            }
+
+            syncToFlush = pendingSync;
 
             pendingSync = false;
 
+            stopSpin();
+
             // swap the instance as the previous callback list is being used asynchronously
-            callbacks = new LinkedList<IOAsyncTask>();
+            callbacksToFlush = callbacks;
 
-            buffer.clear();
+            callbacks = new LinkedList<IOAsyncTask>();
 
             bufferLimit = 0;
 
-            flushesDone.incrementAndGet();
+            flushingBytes = pos;
+         }
+
+         if (logRates)
+         {
+            bytesFlushed.addAndGet(pos);
+         }
+
+         averageBatchSize += (callbacksToFlush.size() - averageBatchSize) / AVERAGE_WEIGHT;
+
+         if (adaptive && syncToFlush)
+         {
+            // Done before the callbacks of the records so their own work isn't measured
+            callbacksToFlush.add(0, new SyncLatencyCallback());
+         }
+
+         if (stagedBuffer != null)
+         {
+            bufferToFlush = observer.newBuffer(bufferSize, pos);
+
+            // Putting a byteArray on a native buffer is much faster, since it will do in a single native call.
+            // Using bufferToFlush.put(buffer) would make several append calls for each byte
+            // We also transfer the content of this buffer to the native file's buffer
+
+            bufferToFlush.put(stagedBuffer.toByteBuffer().array(), 0, pos);
+
+            stagedBuffer.clear();
          }
+
+         observer.flushBuffer(bufferToFlush, syncToFlush, callbacksToFlush);
+
+         flushingBytes = 0;
+
+         flushesDone.incrementAndGet();
       }
    }
 
@@ -346,6 +531,59 @@ public class TimedBuffer
 
    // Private -------------------------------------------------------
 
+   private static long average(final long average, final long sample)
+   {
+      return average < 0 ? sample : average + (sample - average) / AVERAGE_WEIGHT;
+   }
+
+   private void syncRequested()
+   {
+      long now = System.nanoTime();
+
+      if (lastSyncRequest != 0)
+      {
+         // Any request arriving long after the previous one means the buffer was idle, however long it was
+         syncInterval = average(syncInterval, Math.min(now - lastSyncRequest, 2 * Math.max(syncLatency, 0)));
+      }
+
+      lastSyncRequest = now;
+
+      if (!pendingSync)
+      {
+         pendingSyncTime = now;
+      }
+   }
+
+   /**
+    * When the next sync request is expected before a sync completes, the syncs wait for the requests arriving until
+    * then: the device would be busy with the previous sync anyway.
+    */
+   private synchronized long calculateFlushWindow()
+   {
+      long latency = syncLatency;
+
+      if (latency < 0 || syncInterval < 0 || syncInterval >= latency)
+      {
+         return 0;
+      }
+
+      return Math.min(timeout, latency - syncInterval);
+   }
+
+   private int writerIndex()
+   {
+      return buffer == null ? 0 : buffer.writerIndex();
+   }
+
+   private int getRemainingBytes()
+   {
+      // The bytes being flushed are read first: whether the observer accounted them already or not, the remaining
+      // bytes can only be underestimated
+      int flushing = flushingBytes;
+
+      return bufferObserver.getRemainingBytes() - flushing;
+   }
+
    // Inner classes -------------------------------------------------
 
    private class LogRatesTimerTask extends TimerTask
@@ -393,6 +631,20 @@ public class TimedBuffer
       }
    }
 
+   private final class SyncLatencyCallback implements IOAsyncTask
+   {
+      private final long start = System.nanoTime();
+
+      public void done()
+      {
+         syncLatency = average(syncLatency, System.nanoTime() - start);
+      }
+
+      public void onError(final int errorCode, final String errorMessage)
+      {
+      }
+   }
+
    private class CheckTimer implements Runnable
    {
       private volatile boolean closed = false;
@@ -411,30 +663,40 @@ public class TimedBuffer
 
          while (!closed)
          {
-            // We flush on the timer if there are pending syncs there and we've waited at least one
-            // timeout since the time of the last flush.
-            // Effectively flushing "resets" the timer
-            // On the timeout verification, notice that we ignore the timeout check if we are using sleep
-
-            if (pendingSync)
+            if (adaptive)
             {
-               if (isUseSleep())
+               if (pendingSync && !flushAdaptive())
                {
-                  // if using sleep, we will always flush
-                  flush();
-                  lastFlushTime = System.nanoTime();
+                  continue;
                }
-               else if (bufferObserver != null && System.nanoTime() > lastFlushTime + timeout)
+            }
+            else
+            {
+               // We flush on the timer if there are pending syncs there and we've waited at least one
+               // timeout since the time of the last flush.
+               // Effectively flushing "resets" the timer
+               // On the timeout verification, notice that we ignore the timeout check if we are using sleep
+
+               if (pendingSync)
                {
-                  // if not using flush we will spin and do the time checks manually
-                  flush();
-                  lastFlushTime = System.nanoTime();
+                  if (isUseSleep())
+                  {
+                     // if using sleep, we will always flush
+                     flush();
+                     lastFlushTime = System.nanoTime();
+                  }
+                  else if (bufferObserver != null && System.nanoTime() > lastFlushTime + timeout)
+                  {
+                     // if not using flush we will spin and do the time checks manually
+                     flush();
+                     lastFlushTime = System.nanoTime();
+                  }
+
                }
 
+               sleepIfPossible();
             }
 
-            sleepIfPossible();
-
             try
             {
                spinLimiter.acquire();
@@ -450,6 +712,31 @@ public class TimedBuffer
          }
       }
 
+      /**
+       * Flushes the pending syncs once the oldest one waited for the flush window, or waits until then.
+       *
+       * @return whether the syncs were flushed
+       */
+      private boolean flushAdaptive()
+      {
+         long window = calculateFlushWindow();
+
+         flushWindow = window;
+
+         long wait = pendingSyncTime + window - System.nanoTime();
+
+         if (wait > 0)
+         {
+            LockSupport.parkNanos(wait);
+
+            return false;
+         }
+
+         flush();
+
+         return true;
+      }
+
       /**
        * We will attempt to use sleep only if the system supports nano-sleep
        * we will on that case verify up to MAX_CHECKS if nano sleep is behaving well.
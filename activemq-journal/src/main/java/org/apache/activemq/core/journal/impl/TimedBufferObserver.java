@@ -41,6 +41,12 @@ public interface TimedBufferObserver
 
    ByteBuffer newBuffer(int size, int limit);
 
+   /**
+    * Whether the records are encoded straight into a buffer from {@link #newBuffer(int, int)} rather than copied into
+    * it when flushed. This is only worth it when the buffers are reused, as every flush needs a new one that big.
+    */
+   boolean isEncodeInPlace();
+
    // Package protected ---------------------------------------------
 
    // Protected -----------------------------------------------------
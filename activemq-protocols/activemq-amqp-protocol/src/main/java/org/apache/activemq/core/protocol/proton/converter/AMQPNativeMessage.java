@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.proton.converter;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.activemq.api.core.Message;
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.core.buffers.impl.ResetLimitWrappedActiveMQBuffer;
+import org.apache.activemq.core.message.impl.MessageImpl;
+import org.apache.activemq.core.server.ServerMessage;
+import org.apache.activemq.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.reader.MessageUtil;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.UnsignedInteger;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.DeliveryAnnotations;
+import org.apache.qpid.proton.amqp.messaging.Header;
+import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
+import org.apache.qpid.proton.amqp.messaging.Properties;
+import org.apache.qpid.proton.codec.DecoderImpl;
+import org.apache.qpid.proton.jms.EncodedMessage;
+import org.apache.qpid.proton.message.ProtonJMessage;
+import org.proton.plug.util.CodecCache;
+
+/**
+ * Stores AMQP messages on the broker in their original encoding.
+ * <p>
+ * The body of the core message holds the AMQP bytes as they were received, and only the sections that come before
+ * the AMQP body (header, properties and application properties) are decoded, as they are all the broker needs for
+ * routing, expiry and filters. AMQP consumers get the bytes back unchanged, while other protocols get the message
+ * converted through {@link ProtonMessageConverter#toCore(ServerMessage)} when they actually read it.
+ */
+public final class AMQPNativeMessage
+{
+   public static final SimpleString AMQP_PROTOCOL = new SimpleString("AMQP");
+
+   private static final SimpleString HDR_MESSAGE_FORMAT = new SimpleString("_HQ_AMQP_FORMAT");
+
+   private static final byte DEFAULT_PRIORITY = 4;
+
+   private AMQPNativeMessage()
+   {
+   }
+
+   public static boolean isNative(ServerMessage message)
+   {
+      return AMQP_PROTOCOL.equals(message.getSimpleStringProperty(MessageImpl.HDR_NATIVE_PROTOCOL));
+   }
+
+   public static ServerMessage create(long messageID, EncodedMessage encoded)
+   {
+      ServerMessageImpl message = new ServerMessageImpl(messageID, encoded.getLength() + 256);
+      message.setType(Message.BYTES_TYPE);
+      message.setTimestamp(System.currentTimeMillis());
+      message.setPriority(DEFAULT_PRIORITY);
+      ((ResetLimitWrappedActiveMQBuffer) message.getBodyBuffer()).setMessage(null);
+      message.getBodyBuffer().writeBytes(encoded.getArray(), encoded.getArrayOffset(), encoded.getLength());
+
+      message.putStringProperty(MessageImpl.HDR_NATIVE_PROTOCOL, AMQP_PROTOCOL);
+      if (encoded.getMessageFormat() != 0)
+      {
+         message.putLongProperty(HDR_MESSAGE_FORMAT, encoded.getMessageFormat());
+      }
+
+      readRoutingSections(message, encoded.getArray(), encoded.getArrayOffset(), encoded.getLength());
+
+      return message;
+   }
+
+   /**
+    * @return the message exactly as it was received from the AMQP producer
+    */
+   public static byte[] getEncodedBytes(ServerMessage message)
+   {
+      synchronized (message)
+      {
+         int length = message.getEndOfBodyPosition() - MessageImpl.BODY_OFFSET;
+         byte[] bytes = new byte[length];
+         message.getBodyBuffer().byteBuf().getBytes(MessageImpl.BODY_OFFSET, bytes);
+         return bytes;
+      }
+   }
+
+   public static EncodedMessage getEncodedMessage(ServerMessage message)
+   {
+      byte[] bytes = getEncodedBytes(message);
+      long format = message.containsProperty(HDR_MESSAGE_FORMAT) ? message.getLongProperty(HDR_MESSAGE_FORMAT) : 0;
+      return new EncodedMessage(format, bytes, 0, bytes.length);
+   }
+
+   /**
+    * Fully decodes the stored message, only needed when the AMQP header has to be updated on redeliveries.
+    */
+   public static ProtonJMessage decode(ServerMessage message, int deliveryCount)
+   {
+      byte[] bytes = getEncodedBytes(message);
+
+      ProtonJMessage protonMessage = (ProtonJMessage) org.apache.qpid.proton.message.Message.Factory.create();
+      protonMessage.decode(bytes, 0, bytes.length);
+
+      if (deliveryCount > 1)
+      {
+         Header header = protonMessage.getHeader();
+         if (header == null)
+         {
+            header = new Header();
+            protonMessage.setHeader(header);
+         }
+         header.setDeliveryCount(new UnsignedInteger(deliveryCount - 1));
+      }
+
+      return protonMessage;
+   }
+
+   private static void readRoutingSections(ServerMessage message, byte[] data, int offset, int length)
+   {
+      DecoderImpl decoder = CodecCache.getDecoder();
+      ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+      decoder.setByteBuffer(buffer);
+
+      try
+      {
+         Long ttl = null;
+         while (buffer.hasRemaining())
+         {
+            Object section = decoder.readObject();
+
+            if (section instanceof Header)
+            {
+               Header header = (Header) section;
+               message.setDurable(Boolean.TRUE.equals(header.getDurable()));
+               if (header.getPriority() != null)
+               {
+                  message.setPriority(header.getPriority().byteValue());
+               }
+               if (header.getTtl() != null)
+               {
+                  ttl = header.getTtl().longValue();
+               }
+            }
+            else if (section instanceof Properties)
+            {
+               readProperties(message, (Properties) section, ttl);
+               ttl = null;
+            }
+            else if (section instanceof ApplicationProperties)
+            {
+               readApplicationProperties(message, ((ApplicationProperties) section).getValue());
+            }
+            else if (!(section instanceof DeliveryAnnotations) && !(section instanceof MessageAnnotations))
+            {
+               // we reached the body (or the footer), nothing else is needed for routing
+               break;
+            }
+         }
+
+         if (ttl != null)
+         {
+            message.setExpiration(message.getTimestamp() + ttl);
+         }
+      }
+      finally
+      {
+         decoder.setByteBuffer(null);
+      }
+   }
+
+   private static void readProperties(ServerMessage message, Properties properties, Long ttl)
+   {
+      if (properties.getCreationTime() != null)
+      {
+         message.setTimestamp(properties.getCreationTime().getTime());
+      }
+
+      if (properties.getAbsoluteExpiryTime() != null)
+      {
+         message.setExpiration(properties.getAbsoluteExpiryTime().getTime());
+      }
+      else if (ttl != null)
+      {
+         message.setExpiration(message.getTimestamp() + ttl);
+      }
+
+      if (properties.getTo() != null)
+      {
+         message.setAddress(new SimpleString(properties.getTo()));
+      }
+
+      if (properties.getGroupId() != null)
+      {
+         message.putStringProperty(Message.HDR_GROUP_ID, new SimpleString(properties.getGroupId()));
+      }
+
+      if (properties.getSubject() != null)
+      {
+         MessageUtil.setJMSType(message, properties.getSubject());
+      }
+
+      if (properties.getCorrelationId() != null)
+      {
+         MessageUtil.setJMSCorrelationID(message, properties.getCorrelationId().toString());
+      }
+   }
+
+   private static void readApplicationProperties(ServerMessage message, Map<?, ?> properties)
+   {
+      if (properties == null)
+      {
+         return;
+      }
+
+      for (Map.Entry<?, ?> entry : properties.entrySet())
+      {
+         Object value = entry.getValue();
+
+         if (value instanceof Binary)
+         {
+            Binary binary = (Binary) value;
+            byte[] bytes = new byte[binary.getLength()];
+            System.arraycopy(binary.getArray(), binary.getArrayOffset(), bytes, 0, bytes.length);
+            value = bytes;
+         }
+         else if (value != null && !isCoreType(value))
+         {
+            // unsigned types, symbols, UUIDs, timestamps... are only needed as text for filters
+            value = value.toString();
+         }
+
+         message.putObjectProperty(new SimpleString(entry.getKey().toString()), value);
+      }
+   }
+
+   private static boolean isCoreType(Object value)
+   {
+      return value instanceof Boolean || value instanceof Byte || value instanceof Short ||
+         value instanceof Integer || value instanceof Long || value instanceof Float ||
+         value instanceof Double || value instanceof String || value instanceof Character;
+   }
+}
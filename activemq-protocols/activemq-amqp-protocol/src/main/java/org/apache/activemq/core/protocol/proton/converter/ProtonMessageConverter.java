@@ -20,6 +20,8 @@ import org.apache.qpid.proton.jms.EncodedMessage;
 import org.apache.qpid.proton.jms.InboundTransformer;
 import org.apache.qpid.proton.jms.JMSMappingInboundTransformer;
 import org.apache.qpid.proton.jms.JMSMappingOutboundTransformer;
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.core.message.impl.MessageImpl;
 import org.apache.activemq.core.protocol.proton.converter.jms.ServerJMSMessage;
 import org.apache.activemq.core.server.ServerMessage;
 import org.apache.activemq.spi.core.protocol.MessageConverter;
@@ -31,8 +33,11 @@ public class ProtonMessageConverter implements MessageConverter
 
    ActiveMQJMSVendor activeMQJMSVendor;
 
+   private final IDGenerator idGenerator;
+
    public ProtonMessageConverter(IDGenerator idGenerator)
    {
+      this.idGenerator = idGenerator;
       activeMQJMSVendor = new ActiveMQJMSVendor(idGenerator);
       inboundTransformer = new JMSMappingInboundTransformer(activeMQJMSVendor);
       outboundTransformer = new JMSMappingOutboundTransformer(activeMQJMSVendor);
@@ -41,12 +46,14 @@ public class ProtonMessageConverter implements MessageConverter
    private final InboundTransformer inboundTransformer;
    private final JMSMappingOutboundTransformer outboundTransformer;
 
+   /**
+    * AMQP messages are stored as they were received, they are only mapped to JMS if a non AMQP consumer reads them.
+    * @see AMQPNativeMessage
+    */
    @Override
    public ServerMessage inbound(Object messageSource) throws Exception
    {
-      ServerJMSMessage jmsMessage = inboundJMSType((EncodedMessage) messageSource);
-
-      return (ServerMessage)jmsMessage.getInnerMessage();
+      return AMQPNativeMessage.create(idGenerator.generateID(), (EncodedMessage) messageSource);
    }
 
    /**
@@ -69,9 +76,44 @@ public class ProtonMessageConverter implements MessageConverter
    @Override
    public Object outbound(ServerMessage messageOutbound, int deliveryCount) throws Exception
    {
+      if (AMQPNativeMessage.isNative(messageOutbound))
+      {
+         return AMQPNativeMessage.decode(messageOutbound, deliveryCount);
+      }
+
+      if (messageOutbound.isBodyCompressed())
+      {
+         // the message is shared with the other queues, which keep the compressed body
+         messageOutbound = messageOutbound.copy();
+         messageOutbound.decompressBody();
+      }
+
       ServerJMSMessage jmsMessage = activeMQJMSVendor.wrapMessage(messageOutbound.getType(), messageOutbound, deliveryCount);
       jmsMessage.decode();
 
       return outboundTransformer.convert(jmsMessage);
    }
+
+   @Override
+   public ServerMessage toCore(ServerMessage nativeMessage) throws Exception
+   {
+      ServerMessage coreMessage = (ServerMessage) inboundJMSType(AMQPNativeMessage.getEncodedMessage(nativeMessage)).getInnerMessage();
+
+      coreMessage.setMessageID(nativeMessage.getMessageID());
+      coreMessage.setAddress(nativeMessage.getAddress());
+      coreMessage.setDurable(nativeMessage.isDurable());
+      coreMessage.setExpiration(nativeMessage.getExpiration());
+      coreMessage.setPriority(nativeMessage.getPriority());
+
+      // keep whatever the broker added since (original address on DLQ / expiry, scheduled delivery...)
+      for (SimpleString name : nativeMessage.getPropertyNames())
+      {
+         if (!name.equals(MessageImpl.HDR_NATIVE_PROTOCOL) && !coreMessage.containsProperty(name))
+         {
+            coreMessage.putObjectProperty(name, nativeMessage.getObjectProperty(name));
+         }
+      }
+
+      return coreMessage;
+   }
 }
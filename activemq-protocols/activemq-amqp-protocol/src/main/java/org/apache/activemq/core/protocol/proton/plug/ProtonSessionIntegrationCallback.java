@@ -30,6 +30,7 @@ import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.client.ActiveMQClient;
 import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.protocol.proton.ProtonProtocolManager;
+import org.apache.activemq.core.protocol.proton.converter.AMQPNativeMessage;
 import org.apache.activemq.core.server.QueueQueryResult;
 import org.apache.activemq.core.server.ServerConsumer;
 import org.apache.activemq.core.server.ServerMessage;
@@ -182,6 +183,20 @@ public class ProtonSessionIntegrationCallback implements AMQPSessionCallback, Se
       return (ProtonJMessage) manager.getConverter().outbound((ServerMessage) message, deliveryCount);
    }
 
+   @Override
+   public byte[] getEncodedMessage(Object message, int deliveryCount) throws Exception
+   {
+      ServerMessage serverMessage = (ServerMessage) message;
+
+      // redeliveries need the AMQP header updated, which means going through encodeMessage
+      if (deliveryCount <= 1 && AMQPNativeMessage.isNative(serverMessage))
+      {
+         return AMQPNativeMessage.getEncodedBytes(serverMessage);
+      }
+
+      return null;
+   }
+
    @Override
    public Binary getCurrentTXID()
    {
@@ -218,6 +233,12 @@ public class ProtonSessionIntegrationCallback implements AMQPSessionCallback, Se
       ((ServerConsumer)brokerConsumer).individualAcknowledge(null, ((ServerMessage)message).getMessageID());
    }
 
+   @Override
+   public void ackUpTo(Object brokerConsumer, Object message) throws Exception
+   {
+      ((ServerConsumer)brokerConsumer).acknowledge(null, ((ServerMessage)message).getMessageID());
+   }
+
    @Override
    public void cancel(Object brokerConsumer, Object message, boolean updateCounts) throws Exception
    {
@@ -279,6 +300,17 @@ public class ProtonSessionIntegrationCallback implements AMQPSessionCallback, Se
    {
    }
 
+   @Override
+   public boolean supportsNativeProtocol(SimpleString protocol)
+   {
+      return AMQPNativeMessage.AMQP_PROTOCOL.equals(protocol);
+   }
+
+   @Override
+   public void afterDeliver(ServerConsumer consumer)
+   {
+   }
+
    @Override
    public int sendMessage(ServerMessage message, ServerConsumer consumer, int deliveryCount)
    {
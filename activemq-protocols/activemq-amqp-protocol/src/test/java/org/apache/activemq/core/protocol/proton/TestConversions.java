@@ -36,6 +36,7 @@ import org.apache.qpid.proton.message.ProtonJMessage;
 import org.apache.qpid.proton.message.impl.MessageImpl;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.core.journal.EncodingSupport;
+import org.apache.activemq.core.protocol.proton.converter.AMQPNativeMessage;
 import org.apache.activemq.core.protocol.proton.converter.ProtonMessageConverter;
 import org.apache.activemq.core.protocol.proton.converter.jms.ServerJMSBytesMessage;
 import org.apache.activemq.core.protocol.proton.converter.jms.ServerJMSMapMessage;
@@ -230,6 +231,49 @@ public class TestConversions extends Assert
 
    }
 
+   @Test
+   public void testNativeStorage() throws Exception
+   {
+      Map<String, Object> mapprop = createPropertiesMap();
+      ApplicationProperties properties = new ApplicationProperties(mapprop);
+      MessageImpl message = (MessageImpl) Message.Factory.create();
+      message.setApplicationProperties(properties);
+      message.setDurable(true);
+      message.setPriority((short) 7);
+      message.setAddress("someAddress");
+      message.setBody(new AmqpValue("this is a test"));
+
+      EncodedMessage encodedMessage = encodeMessage(message);
+
+      ProtonMessageConverter converter = new ProtonMessageConverter(new SimpleIDGenerator(0));
+      ServerMessage serverMessage = converter.inbound(encodedMessage);
+
+      assertTrue(AMQPNativeMessage.isNative(serverMessage));
+      assertTrue(serverMessage.isDurable());
+      assertEquals(7, serverMessage.getPriority());
+      assertEquals(new SimpleString("someAddress"), serverMessage.getAddress());
+      assertEquals(Boolean.TRUE, serverMessage.getBooleanProperty("true"));
+      assertEquals("bar", serverMessage.getStringProperty("foo"));
+
+      // AMQP consumers get the bytes exactly as they were sent
+      byte[] original = new byte[encodedMessage.getLength()];
+      System.arraycopy(encodedMessage.getArray(), encodedMessage.getArrayOffset(), original, 0, original.length);
+      Assert.assertArrayEquals(original, AMQPNativeMessage.getEncodedBytes(serverMessage));
+
+      ProtonJMessage redelivered = (ProtonJMessage) converter.outbound(serverMessage, 3);
+      assertEquals(2, redelivered.getHeader().getDeliveryCount().intValue());
+      assertEquals("this is a test", ((AmqpValue) redelivered.getBody()).getValue());
+
+      // everybody else gets a core message, with the same ID so it can be acked
+      ServerMessage coreMessage = converter.toCore(serverMessage);
+      assertFalse(AMQPNativeMessage.isNative(coreMessage));
+      assertEquals(serverMessage.getMessageID(), coreMessage.getMessageID());
+      ServerJMSTextMessage textMessage = new ServerJMSTextMessage(coreMessage, 0);
+      textMessage.decode();
+      assertEquals("this is a test", textMessage.getText());
+      verifyProperties(textMessage);
+   }
+
    private void simulatePersistence(ServerJMSMessage serverMessage)
    {
       serverMessage.getInnerMessage().setAddress(new SimpleString("jms.queue.SomeAddress"));
@@ -17,71 +17,32 @@
 package org.apache.activemq.core.protocol.openwire;
 
 import java.io.DataInput;
+import java.io.EOFException;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
 import org.apache.activemq.api.core.ActiveMQBuffer;
 import org.apache.activemq.utils.UTF8Util;
 import org.apache.activemq.utils.UTF8Util.StringUtilBuffer;
 
+/**
+ * A {@link DataInput} view over the frame received from Netty, used to unmarshal OpenWire commands without copying
+ * the frame into an intermediate buffer first.
+ */
 public class DataInputWrapper implements DataInput
 {
-   private static final int DEFAULT_CAPACITY = 1024 * 1024;
-   private static final NotEnoughBytesException exception = new NotEnoughBytesException();
-   private ByteBuffer internalBuffer;
-
-   public DataInputWrapper()
-   {
-      this(DEFAULT_CAPACITY);
-   }
+   private ActiveMQBuffer buffer;
 
-   public DataInputWrapper(int capacity)
+   public void setBuffer(ActiveMQBuffer buffer)
    {
-      this.internalBuffer = ByteBuffer.allocateDirect(capacity);
-      this.internalBuffer.mark();
-      this.internalBuffer.limit(0);
+      this.buffer = buffer;
    }
 
-   public void receiveData(byte[] data)
+   private void checkSize(int n) throws EOFException
    {
-      int newSize = data.length;
-      int freeSpace = internalBuffer.capacity() - internalBuffer.limit();
-      if (freeSpace < newSize)
+      if (buffer.readableBytes() < n)
       {
-         internalBuffer.reset();
-         internalBuffer.compact();
-         if (internalBuffer.remaining() < newSize)
-         {
-            //need to enlarge
-         }
-         //make sure mark is at zero and position is at effective limit
-         int pos = internalBuffer.position();
-         internalBuffer.position(0);
-         internalBuffer.mark();
-         internalBuffer.position(pos);
+         throw new EOFException("Needed " + n + " bytes but only " + buffer.readableBytes() + " are left on the frame");
       }
-      else
-      {
-         internalBuffer.position(internalBuffer.limit());
-         internalBuffer.limit(internalBuffer.capacity());
-      }
-      internalBuffer.put(data);
-      internalBuffer.limit(internalBuffer.position());
-      internalBuffer.reset();
-   }
-
-   public void receiveData(ActiveMQBuffer buffer)
-   {
-      int newSize = buffer.readableBytes();
-      byte[] newData = new byte[newSize];
-      buffer.readBytes(newData);
-      this.receiveData(newData);
-   }
-
-   //invoke after each successful unmarshall
-   public void mark()
-   {
-      this.internalBuffer.mark();
    }
 
    @Override
@@ -90,27 +51,18 @@ public class DataInputWrapper implements DataInput
       readFully(b, 0, b.length);
    }
 
-   private void checkSize(int n) throws NotEnoughBytesException
-   {
-      if (internalBuffer.remaining() < n)
-      {
-         throw exception;
-      }
-   }
-
    @Override
    public void readFully(byte[] b, int off, int len) throws IOException
    {
       checkSize(len);
-      internalBuffer.get(b, off, len);
+      buffer.readBytes(b, off, len);
    }
 
    @Override
    public int skipBytes(int n) throws IOException
    {
       checkSize(n);
-      int pos = internalBuffer.position();
-      internalBuffer.position(pos + n);
+      buffer.skipBytes(n);
       return n;
    }
 
@@ -118,71 +70,70 @@ public class DataInputWrapper implements DataInput
    public boolean readBoolean() throws IOException
    {
       checkSize(1);
-      byte b = internalBuffer.get();
-      return b != 0;
+      return buffer.readByte() != 0;
    }
 
    @Override
    public byte readByte() throws IOException
    {
       checkSize(1);
-      return this.internalBuffer.get();
+      return buffer.readByte();
    }
 
    @Override
    public int readUnsignedByte() throws IOException
    {
       checkSize(1);
-      return 0xFF & this.internalBuffer.get();
+      return buffer.readUnsignedByte();
    }
 
    @Override
    public short readShort() throws IOException
    {
       checkSize(2);
-      return this.internalBuffer.getShort();
+      return buffer.readShort();
    }
 
    @Override
    public int readUnsignedShort() throws IOException
    {
       checkSize(2);
-      return 0xFFFF & this.internalBuffer.getShort();
+      return buffer.readUnsignedShort();
    }
 
    @Override
    public char readChar() throws IOException
    {
       checkSize(2);
-      return this.internalBuffer.getChar();
+      return (char) buffer.readShort();
    }
 
    @Override
    public int readInt() throws IOException
    {
       checkSize(4);
-      return this.internalBuffer.getInt();
+      return buffer.readInt();
    }
 
    @Override
    public long readLong() throws IOException
    {
       checkSize(8);
-      return this.internalBuffer.getLong();
+      return buffer.readLong();
    }
 
    @Override
    public float readFloat() throws IOException
    {
       checkSize(4);
-      return this.internalBuffer.getFloat();
+      return buffer.readFloat();
    }
 
    @Override
    public double readDouble() throws IOException
    {
       checkSize(8);
-      return this.internalBuffer.getDouble();
+      return buffer.readDouble();
    }
 
    @Override
@@ -255,7 +206,7 @@ public class DataInputWrapper implements DataInput
 
    public boolean readable()
    {
-      return this.internalBuffer.hasRemaining();
+      return buffer.readable();
    }
 
 }
@@ -203,128 +203,115 @@ public class OpenWireConnection implements RemotingConnection, CommandVisitor
    @Override
    public void bufferReceived(Object connectionID, ActiveMQBuffer buffer)
    {
+      dataInput.setBuffer(buffer);
       try
       {
-         dataInput.receiveData(buffer);
+         // this.setDataReceived();
+         while (dataInput.readable())
+         {
+            processCommand((Command) wireFormat.unmarshal(dataInput));
+         }
+      }
+      catch (IOException e)
+      {
+         ActiveMQServerLogger.LOGGER.error("error decoding", e);
       }
       catch (Throwable t)
       {
-         ActiveMQServerLogger.LOGGER.error("decoding error", t);
-         return;
+         ActiveMQServerLogger.LOGGER.error("error decoding", t);
       }
+      finally
+      {
+         dataInput.setBuffer(null);
+         // the frame is a retained slice of the Netty buffer, see OpenWireFrameDecoder
+         buffer.byteBuf().release();
+      }
+   }
 
-      // this.setDataReceived();
-      while (dataInput.readable())
+   private void processCommand(Command command) throws Exception
+   {
+      boolean responseRequired = command.isResponseRequired();
+      int commandId = command.getCommandId();
+      // the connection handles pings, negotiations directly.
+      // and delegate all other commands to manager.
+      if (command.getClass() == KeepAliveInfo.class)
       {
-         try
+         KeepAliveInfo info = (KeepAliveInfo) command;
+         if (info.isResponseRequired())
          {
-            Object object = null;
-            try
-            {
-               object = wireFormat.unmarshal(dataInput);
-               dataInput.mark();
-            }
-            catch (NotEnoughBytesException e)
-            {
-               //meaning the dataInput hasn't enough bytes for a command.
-               //in that case we just return and waiting for the next
-               //call of bufferReceived()
-               return;
-            }
+            info.setResponseRequired(false);
+            protocolManager.sendReply(this, info);
+         }
+      }
+      else if (command.getClass() == WireFormatInfo.class)
+      {
+         // amq here starts a read/write monitor thread (detect ttl?)
+         negotiate((WireFormatInfo) command);
+      }
+      else if (command.getClass() == ConnectionInfo.class
+            || command.getClass() == ConsumerInfo.class
+            || command.getClass() == RemoveInfo.class
+            || command.getClass() == SessionInfo.class
+            || command.getClass() == ProducerInfo.class
+            || ActiveMQMessage.class.isAssignableFrom(command.getClass())
+            || command.getClass() == MessageAck.class
+            || command.getClass() == TransactionInfo.class
+            || command.getClass() == DestinationInfo.class
+            || command.getClass() == ShutdownInfo.class)
+      {
+         Response response = null;
+
+         if (pendingStop)
+         {
+            response = new ExceptionResponse(this.stopError);
+         }
+         else
+         {
+            response = ((Command) command).visit(this);
 
-            Command command = (Command) object;
-            boolean responseRequired = command.isResponseRequired();
-            int commandId = command.getCommandId();
-            // the connection handles pings, negotiations directly.
-            // and delegate all other commands to manager.
-            if (command.getClass() == KeepAliveInfo.class)
+            if (response instanceof ExceptionResponse)
             {
-               KeepAliveInfo info = (KeepAliveInfo) command;
-               if (info.isResponseRequired())
+               if (!responseRequired)
                {
-                  info.setResponseRequired(false);
-                  protocolManager.sendReply(this, info);
+                  Throwable cause = ((ExceptionResponse)response).getException();
+                  serviceException(cause);
+                  response = null;
                }
             }
-            else if (command.getClass() == WireFormatInfo.class)
-            {
-               // amq here starts a read/write monitor thread (detect ttl?)
-               negotiate((WireFormatInfo) command);
-            }
-            else if (command.getClass() == ConnectionInfo.class
-                  || command.getClass() == ConsumerInfo.class
-                  || command.getClass() == RemoveInfo.class
-                  || command.getClass() == SessionInfo.class
-                  || command.getClass() == ProducerInfo.class
-                  || ActiveMQMessage.class.isAssignableFrom(command.getClass())
-                  || command.getClass() == MessageAck.class
-                  || command.getClass() == TransactionInfo.class
-                  || command.getClass() == DestinationInfo.class
-                  || command.getClass() == ShutdownInfo.class)
-            {
-               Response response = null;
-
-               if (pendingStop)
-               {
-                  response = new ExceptionResponse(this.stopError);
-               }
-               else
-               {
-                  response = ((Command) command).visit(this);
-
-                  if (response instanceof ExceptionResponse)
-                  {
-                     if (!responseRequired)
-                     {
-                        Throwable cause = ((ExceptionResponse)response).getException();
-                        serviceException(cause);
-                        response = null;
-                     }
-                  }
-               }
-
-               if (responseRequired)
-               {
-                  if (response == null)
-                  {
-                     response = new Response();
-                  }
-               }
-
-               // The context may have been flagged so that the response is not
-               // sent.
-               if (context != null)
-               {
-                  if (context.isDontSendReponse())
-                  {
-                     context.setDontSendReponse(false);
-                     response = null;
-                  }
-                  context = null;
-               }
-
-               if (response != null && !protocolManager.isStopping())
-               {
-                  response.setCorrelationId(commandId);
-                  dispatchSync(response);
-               }
+         }
 
-            }
-            else
+         if (responseRequired)
+         {
+            if (response == null)
             {
-               // note!!! wait for negotiation (e.g. use a countdown latch)
-               // before handling any other commands
-               this.protocolManager.handleCommand(this, command);
+               response = new Response();
             }
          }
-         catch (IOException e)
+
+         // The context may have been flagged so that the response is not
+         // sent.
+         if (context != null)
          {
-            ActiveMQServerLogger.LOGGER.error("error decoding", e);
+            if (context.isDontSendReponse())
+            {
+               context.setDontSendReponse(false);
+               response = null;
+            }
+            context = null;
          }
-         catch (Throwable t)
+
+         if (response != null && !protocolManager.isStopping())
          {
-            ActiveMQServerLogger.LOGGER.error("error decoding", t);
+            response.setCorrelationId(commandId);
+            dispatchSync(response);
          }
+
+      }
+      else
+      {
+         // note!!! wait for negotiation (e.g. use a countdown latch)
+         // before handling any other commands
+         this.protocolManager.handleCommand(this, command);
       }
    }
 
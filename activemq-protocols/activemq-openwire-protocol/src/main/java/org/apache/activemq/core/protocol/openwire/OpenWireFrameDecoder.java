@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.openwire;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import org.apache.activemq.utils.DataConstants;
+
+/**
+ * Splits the incoming stream into complete OpenWire commands.
+ * <p>
+ * The size prefix is kept on the frame as the {@link org.apache.activemq.openwire.OpenWireFormat} reads it back,
+ * and the frame is a slice of the cumulated Netty buffer instead of a copy, so commands are unmarshalled straight
+ * from the bytes read from the socket. The slice is retained here and released by
+ * {@link OpenWireConnection#bufferReceived(Object, org.apache.activemq.api.core.ActiveMQBuffer)} once the command
+ * has been unmarshalled.
+ * <p>
+ * A frame declaring more than the max frame size of the wire format is never buffered: the connection is closed as
+ * soon as its size prefix is read, before any authentication took place.
+ */
+public class OpenWireFrameDecoder extends LengthFieldBasedFrameDecoder
+{
+   /**
+    * @param maxFrameSize the largest command accepted, not counting its size prefix
+    */
+   public OpenWireFrameDecoder(long maxFrameSize)
+   {
+      super((int) Math.min(maxFrameSize + DataConstants.SIZE_INT, Integer.MAX_VALUE), 0, DataConstants.SIZE_INT, 0, 0, true);
+   }
+
+   @Override
+   protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception
+   {
+      try
+      {
+         return super.decode(ctx, in);
+      }
+      catch (TooLongFrameException e)
+      {
+         ctx.close();
+         throw e;
+      }
+   }
+
+   @Override
+   protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length)
+   {
+      return buffer.slice(index, length).retain();
+   }
+}
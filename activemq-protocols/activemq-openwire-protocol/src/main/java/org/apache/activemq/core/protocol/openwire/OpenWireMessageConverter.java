@@ -103,6 +103,13 @@ public class OpenWireMessageConverter implements MessageConverter
       return null;
    }
 
+   @Override
+   public ServerMessage toCore(ServerMessage nativeMessage)
+   {
+      // OpenWire messages are always stored as core
+      return nativeMessage;
+   }
+
    //convert an ActiveMQ message to coreMessage
    public static void toCoreMessage(ServerMessageImpl coreMessage, Message messageSend, WireFormat marshaller) throws IOException
    {
@@ -421,6 +428,13 @@ public class OpenWireMessageConverter implements MessageConverter
 
    private static ActiveMQMessage toAMQMessage(ServerMessage coreMessage, WireFormat marshaller) throws IOException
    {
+      if (coreMessage.isBodyCompressed())
+      {
+         // the message is shared with the other queues, which keep the compressed body
+         coreMessage = coreMessage.copy();
+         coreMessage.decompressBody();
+      }
+
       ActiveMQMessage amqMsg = null;
       byte coreType = coreMessage.getType();
       switch (coreType)
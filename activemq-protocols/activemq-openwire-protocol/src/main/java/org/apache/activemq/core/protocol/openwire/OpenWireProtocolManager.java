@@ -89,6 +89,11 @@ public class OpenWireProtocolManager implements ProtocolManager<Interceptor>
    private static final IdGenerator BROKER_ID_GENERATOR = new IdGenerator();
    private static final IdGenerator ID_GENERATOR = new IdGenerator();
 
+   /**
+    * The largest command accepted from a client, the frames declaring more are rejected before being read
+    */
+   public static final long DEFAULT_MAX_FRAME_SIZE = 100 * 1024 * 1024;
+
    private final LongSequenceGenerator messageIdGenerator = new LongSequenceGenerator();
    private final ActiveMQServer server;
 
@@ -128,6 +133,7 @@ public class OpenWireProtocolManager implements ProtocolManager<Interceptor>
       this.wireFactory = new OpenWireFormatFactory();
       // preferred prop, should be done via config
       wireFactory.setCacheEnabled(false);
+      wireFactory.setMaxFrameSize(DEFAULT_MAX_FRAME_SIZE);
       brokerState = new BrokerState();
       advisoryProducerId.setConnectionId(ID_GENERATOR.generateId());
    }
@@ -178,8 +184,7 @@ public class OpenWireProtocolManager implements ProtocolManager<Interceptor>
    @Override
    public void addChannelHandlers(ChannelPipeline pipeline)
    {
-      // TODO Auto-generated method stub
-
+      pipeline.addLast("openwire-decoder", new OpenWireFrameDecoder(wireFactory.getMaxFrameSize()));
    }
 
    @Override
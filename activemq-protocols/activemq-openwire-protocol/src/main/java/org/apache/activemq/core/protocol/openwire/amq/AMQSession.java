@@ -168,6 +168,17 @@ public class AMQSession implements SessionCallback
 
    }
 
+   @Override
+   public boolean supportsNativeProtocol(SimpleString protocol)
+   {
+      return false;
+   }
+
+   @Override
+   public void afterDeliver(ServerConsumer consumerID)
+   {
+   }
+
    @Override
    public int sendMessage(ServerMessage message, ServerConsumer consumerID, int deliveryCount)
    {
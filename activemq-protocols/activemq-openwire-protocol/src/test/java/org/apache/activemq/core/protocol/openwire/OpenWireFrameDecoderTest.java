@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.openwire;
+
+import java.io.EOFException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import org.apache.activemq.api.core.ActiveMQBuffers;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OpenWireFrameDecoderTest extends Assert
+{
+   private static final int MAX_FRAME_SIZE = 1024;
+
+   @Test
+   public void testFrameSplitAcrossReads()
+   {
+      EmbeddedChannel channel = new EmbeddedChannel(new OpenWireFrameDecoder(MAX_FRAME_SIZE));
+
+      ByteBuf frame = frame(100, (byte) 1);
+
+      assertFalse(channel.writeInbound(frame.readBytes(2)));
+      assertFalse(channel.writeInbound(frame.readBytes(50)));
+      assertTrue(channel.writeInbound(frame.readBytes(frame.readableBytes())));
+
+      assertFrame((ByteBuf) channel.readInbound(), 100, (byte) 1);
+      assertNull(channel.readInbound());
+
+      frame.release();
+      assertFalse(channel.finish());
+   }
+
+   @Test
+   public void testFramesInOneBuffer()
+   {
+      EmbeddedChannel channel = new EmbeddedChannel(new OpenWireFrameDecoder(MAX_FRAME_SIZE));
+
+      ByteBuf frames = Unpooled.buffer();
+      frames.writeBytes(frame(10, (byte) 1));
+      frames.writeBytes(frame(MAX_FRAME_SIZE, (byte) 2));
+      frames.writeBytes(frame(0, (byte) 3));
+      // the start of a fourth frame
+      frames.writeBytes(frame(10, (byte) 4), 6);
+
+      assertTrue(channel.writeInbound(frames));
+
+      assertFrame((ByteBuf) channel.readInbound(), 10, (byte) 1);
+      assertFrame((ByteBuf) channel.readInbound(), MAX_FRAME_SIZE, (byte) 2);
+      assertFrame((ByteBuf) channel.readInbound(), 0, (byte) 3);
+      assertNull(channel.readInbound());
+   }
+
+   @Test
+   public void testFrameOverLimitRejected()
+   {
+      EmbeddedChannel channel = new EmbeddedChannel(new OpenWireFrameDecoder(MAX_FRAME_SIZE));
+
+      ByteBuf header = Unpooled.buffer();
+      header.writeInt(Integer.MAX_VALUE - 4);
+
+      try
+      {
+         channel.writeInbound(header);
+         fail("the frame should have been rejected");
+      }
+      catch (TooLongFrameException expected)
+      {
+      }
+
+      assertFalse(channel.isOpen());
+      assertNull(channel.readInbound());
+   }
+
+   @Test
+   public void testReadPastEndOfFrame() throws Exception
+   {
+      DataInputWrapper input = new DataInputWrapper();
+
+      input.setBuffer(ActiveMQBuffers.wrappedBuffer(new byte[]{0, 0, 0, 7, 1, 2}));
+
+      assertEquals(7, input.readInt());
+
+      try
+      {
+         input.readInt();
+         fail("only two bytes are left");
+      }
+      catch (EOFException expected)
+      {
+      }
+
+      // nothing was consumed by the failed read
+      assertEquals(0x0102, input.readShort());
+      assertFalse(input.readable());
+
+      // a string declaring more bytes than the frame holds
+      input.setBuffer(ActiveMQBuffers.wrappedBuffer(new byte[]{0, 10, 'a', 'b'}));
+
+      try
+      {
+         input.readUTF();
+         fail("the string is truncated");
+      }
+      catch (EOFException expected)
+      {
+      }
+   }
+
+   private static ByteBuf frame(int size, byte value)
+   {
+      ByteBuf frame = Unpooled.buffer(size + 4);
+      frame.writeInt(size);
+      for (int i = 0; i < size; i++)
+      {
+         frame.writeByte(value);
+      }
+      return frame;
+   }
+
+   private static void assertFrame(ByteBuf frame, int size, byte value)
+   {
+      assertNotNull(frame);
+
+      // the size prefix is kept on the frame
+      assertEquals(size + 4, frame.readableBytes());
+      assertEquals(size, frame.readInt());
+
+      while (frame.isReadable())
+      {
+         assertEquals(value, frame.readByte());
+      }
+
+      frame.release();
+   }
+}
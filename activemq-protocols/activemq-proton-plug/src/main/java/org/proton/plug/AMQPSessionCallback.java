@@ -48,6 +48,12 @@ public interface AMQPSessionCallback
    // This one can be a lot improved
    ProtonJMessage encodeMessage(Object message, int deliveryCount) throws Exception;
 
+   /**
+    * @return the message bytes if the broker kept the message in its AMQP encoding and they can be sent as they are,
+    * or null if the message has to go through {@link #encodeMessage(Object, int)}
+    */
+   byte[] getEncodedMessage(Object message, int deliveryCount) throws Exception;
+
    Binary getCurrentTXID();
 
    String tempQueueName();
@@ -61,6 +67,11 @@ public interface AMQPSessionCallback
 
    void ack(Object brokerConsumer, Object message) throws Exception;
 
+   /**
+    * Acknowledges, as a single operation, every message delivered to the consumer up to and including this one.
+    */
+   void ackUpTo(Object brokerConsumer, Object message) throws Exception;
+
    /**
     * @param brokerConsumer
     * @param message
@@ -16,8 +16,11 @@
  */
 package org.proton.plug.context;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.qpid.proton.engine.Connection;
@@ -31,6 +34,7 @@ import org.proton.plug.SASLResult;
 import org.proton.plug.exceptions.ActiveMQAMQPException;
 import org.proton.plug.handler.ProtonHandler;
 import org.proton.plug.handler.impl.DefaultEventHandler;
+import org.proton.plug.logger.ActiveMQAMQPProtocolLogger;
 import org.proton.plug.util.ByteUtil;
 import org.proton.plug.util.DebugInfo;
 
@@ -49,6 +53,14 @@ public abstract class AbstractConnectionContext extends ProtonInitializable impl
 
    protected LocalListener listener = new LocalListener();
 
+   /**
+    * Senders that received dispositions during the current engine pass. They are settled together once all
+    * the events of the pass were dispatched.
+    */
+   private final Set<AbstractProtonContextSender> pendingDispositions = Collections.newSetFromMap(new ConcurrentHashMap<AbstractProtonContextSender, Boolean>());
+
+   private final AtomicInteger flushRequests = new AtomicInteger(0);
+
    public AbstractConnectionContext(AMQPConnectionCallback connectionCallback)
    {
       this.connectionCallback = connectionCallback;
@@ -105,9 +117,58 @@ public abstract class AbstractConnectionContext extends ProtonInitializable impl
       handler.outputDone(bytes);
    }
 
+   /**
+    * Concurrent flush requests are combined: if another thread is already flushing, this call returns
+    * immediately and that thread performs one more engine pass, covering every request made meanwhile.
+    */
    public void flush()
    {
-      handler.flush();
+      if (flushRequests.getAndIncrement() != 0)
+      {
+         return;
+      }
+
+      int requests = 1;
+      try
+      {
+         do
+         {
+            handler.flush();
+         }
+         while ((requests = flushRequests.addAndGet(-requests)) != 0);
+      }
+      finally
+      {
+         if (requests != 0)
+         {
+            // the engine pass failed: don't leave the requests pending, or no one would ever flush this connection again
+            flushRequests.set(0);
+         }
+      }
+   }
+
+   /**
+    * Called by senders while dispatching a disposition, see {@link AbstractProtonContextSender#flushDispositions()}
+    */
+   public void scheduleDispositions(AbstractProtonContextSender sender)
+   {
+      pendingDispositions.add(sender);
+   }
+
+   protected void flushDispositions()
+   {
+      for (AbstractProtonContextSender sender : pendingDispositions)
+      {
+         pendingDispositions.remove(sender);
+         try
+         {
+            sender.flushDispositions();
+         }
+         catch (ActiveMQAMQPException e)
+         {
+            ActiveMQAMQPProtocolLogger.LOGGER.errorFlushingDispositions(e, sender);
+         }
+      }
    }
 
    public void close()
@@ -169,6 +230,8 @@ public abstract class AbstractConnectionContext extends ProtonInitializable impl
       @Override
       public void onTransport(Transport transport)
       {
+         // end of the engine pass: acks and settlements are done in batch and go out on the same write
+         flushDispositions();
          flushBytes();
       }
 
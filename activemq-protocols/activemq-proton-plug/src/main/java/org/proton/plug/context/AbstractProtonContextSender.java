@@ -95,7 +95,41 @@ public abstract class AbstractProtonContextSender extends ProtonInitializable im
       return sender;
    }
 
+   /**
+    * Called at the end of an engine pass for senders that asked for it through
+    * {@link AbstractConnectionContext#scheduleDispositions(AbstractProtonContextSender)}
+    */
+   protected void flushDispositions() throws ActiveMQAMQPException
+   {
+   }
+
+   /**
+    * Called holding the connection lock right after a delivery was sent
+    */
+   protected void onDeliverySent(Delivery delivery, boolean preSettle)
+   {
+   }
+
    protected int performSend(ProtonJMessage serverMessage, Object context)
+   {
+      ByteBuf nettyBuffer = PooledByteBufAllocator.DEFAULT.heapBuffer(1024);
+      try
+      {
+         serverMessage.encode(new NettyWritable(nettyBuffer));
+
+         // this will avoid a copy.. patch provided by Norman using buffer.array()
+         return performSend(nettyBuffer.array(), nettyBuffer.arrayOffset() + nettyBuffer.readerIndex(), nettyBuffer.readableBytes(), context);
+      }
+      finally
+      {
+         nettyBuffer.release();
+      }
+   }
+
+   /**
+    * Sends a message that is already AMQP encoded
+    */
+   protected int performSend(byte[] encoded, int offset, int length, Object context)
    {
       if (!creditsSemaphore.tryAcquire())
       {
@@ -117,39 +151,28 @@ public abstract class AbstractProtonContextSender extends ProtonInitializable im
       //we only need a tag if we are going to ack later
       byte[] tag = preSettle ? new byte[0] : protonSession.getTag();
 
-      ByteBuf nettyBuffer = PooledByteBufAllocator.DEFAULT.heapBuffer(1024);
-      try
+      synchronized (connection.getLock())
       {
-         serverMessage.encode(new NettyWritable(nettyBuffer));
+         final Delivery delivery;
+         delivery = sender.delivery(tag, 0, tag.length);
+         delivery.setContext(context);
 
-         int size = nettyBuffer.writerIndex();
+         sender.send(encoded, offset, length);
 
-         synchronized (connection.getLock())
+         if (preSettle)
          {
-            final Delivery delivery;
-            delivery = sender.delivery(tag, 0, tag.length);
-            delivery.setContext(context);
-
-            // this will avoid a copy.. patch provided by Norman using buffer.array()
-            sender.send(nettyBuffer.array(), nettyBuffer.arrayOffset() + nettyBuffer.readerIndex(), nettyBuffer.readableBytes());
-
-            if (preSettle)
-            {
-               delivery.settle();
-            }
-            else
-            {
-               sender.advance();
-            }
+            delivery.settle();
+         }
+         else
+         {
+            sender.advance();
          }
 
-         connection.flush();
-
-         return size;
-      }
-      finally
-      {
-         nettyBuffer.release();
+         onDeliverySent(delivery, preSettle);
       }
+
+      connection.flush();
+
+      return length;
    }
 }
@@ -16,7 +16,14 @@
  */
 package org.proton.plug.context.server;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.qpid.proton.amqp.DescribedType;
 import org.apache.qpid.proton.amqp.Symbol;
@@ -35,6 +42,7 @@ import org.proton.plug.context.AbstractProtonContextSender;
 import org.proton.plug.context.AbstractProtonSessionContext;
 import org.proton.plug.exceptions.ActiveMQAMQPException;
 import org.proton.plug.exceptions.ActiveMQAMQPInternalErrorException;
+import org.proton.plug.logger.ActiveMQAMQPProtocolLogger;
 import org.proton.plug.logger.ActiveMQAMQPProtocolMessageBundle;
 import org.proton.plug.context.ProtonPlugSender;
 import org.apache.qpid.proton.amqp.messaging.Source;
@@ -47,6 +55,12 @@ public class ProtonServerSenderContext extends AbstractProtonContextSender imple
 
    private Object brokerConsumer;
 
+   // deliveries sent and not settled yet, in sending order. guarded by the connection lock
+   private final Set<Delivery> unsettled = new LinkedHashSet<>();
+
+   // deliveries accepted by the client during the current engine pass
+   private final List<Delivery> accepted = new ArrayList<>();
+
    public ProtonServerSenderContext(AbstractConnectionContext connection, Sender sender, AbstractProtonSessionContext protonSession, AMQPSessionCallback server)
    {
       super(connection, sender, protonSession, server);
@@ -182,64 +196,175 @@ public class ProtonServerSenderContext extends AbstractProtonContextSender imple
    {
       Object message = delivery.getContext();
 
-      boolean preSettle = sender.getRemoteSenderSettleMode() == SenderSettleMode.SETTLED;
-
-
       DeliveryState remoteState = delivery.getRemoteState();
 
       if (remoteState != null)
       {
          if (remoteState instanceof Accepted)
          {
-            //we have to individual ack as we can't guarantee we will get the delivery updates (including acks) in order
-            // from dealer, a perf hit but a must
+            // accepted deliveries are acked and settled in batch once the engine pass is over
+            accepted.add(delivery);
+            connection.scheduleDispositions(this);
+            return;
+         }
+         else if (remoteState instanceof Released)
+         {
             try
             {
-               sessionSPI.ack(brokerConsumer, message);
+               sessionSPI.cancel(brokerConsumer, message, false);
             }
             catch (Exception e)
             {
-               throw ActiveMQAMQPProtocolMessageBundle.BUNDLE.errorAcknowledgingMessage(message.toString(), e.getMessage());
+               throw ActiveMQAMQPProtocolMessageBundle.BUNDLE.errorCancellingMessage(message.toString(), e.getMessage());
             }
          }
-         else if (remoteState instanceof Released)
+         else if (remoteState instanceof Rejected || remoteState instanceof Modified)
          {
             try
             {
-               sessionSPI.cancel(brokerConsumer, message, false);
+               sessionSPI.cancel(brokerConsumer, message, true);
             }
             catch (Exception e)
             {
                throw ActiveMQAMQPProtocolMessageBundle.BUNDLE.errorCancellingMessage(message.toString(), e.getMessage());
             }
          }
-         else if (remoteState instanceof Rejected || remoteState instanceof Modified)
+
+         settle(Collections.singletonList(delivery));
+      }
+      else
+      {
+         //todo not sure if we need to do anything here
+      }
+   }
+
+   @Override
+   protected void onDeliverySent(Delivery delivery, boolean preSettle)
+   {
+      if (!preSettle)
+      {
+         unsettled.add(delivery);
+      }
+   }
+
+   /**
+    * The broker consumer holds its delivered messages in the same order they were sent here, so the longest run of
+    * accepted deliveries at the head of the unsettled ones is acked with a single cumulative ack. Anything accepted
+    * out of order is still acked individually.
+    * <p>
+    * The deliveries are settled even when their ack fails, as the client is done with them: the messages that
+    * couldn't be acked are sent back to their queue instead.
+    */
+   @Override
+   protected void flushDispositions() throws ActiveMQAMQPException
+   {
+      if (accepted.isEmpty())
+      {
+         return;
+      }
+
+      List<Delivery> deliveries = new ArrayList<>(accepted);
+      accepted.clear();
+
+      List<Delivery> inOrder = new ArrayList<>();
+      List<Delivery> outOfOrder = new ArrayList<>();
+
+      synchronized (connection.getLock())
+      {
+         Set<Delivery> pending = new HashSet<>(deliveries);
+
+         Iterator<Delivery> iterator = unsettled.iterator();
+         while (iterator.hasNext())
+         {
+            Delivery delivery = iterator.next();
+            if (!pending.remove(delivery))
+            {
+               break;
+            }
+            inOrder.add(delivery);
+            iterator.remove();
+         }
+
+         for (Delivery delivery : deliveries)
          {
+            if (pending.contains(delivery))
+            {
+               outOfOrder.add(delivery);
+               unsettled.remove(delivery);
+            }
+         }
+      }
+
+      try
+      {
+         if (!inOrder.isEmpty())
+         {
+            Object lastInOrder = inOrder.get(inOrder.size() - 1).getContext();
             try
             {
-               sessionSPI.cancel(brokerConsumer, message, true);
+               sessionSPI.ackUpTo(brokerConsumer, lastInOrder);
             }
             catch (Exception e)
             {
-               throw ActiveMQAMQPProtocolMessageBundle.BUNDLE.errorCancellingMessage(message.toString(), e.getMessage());
+               // the cumulative ack was rolled back, putting the messages it reached back on their queue: ack the
+               // others one by one
+               ActiveMQAMQPProtocolLogger.LOGGER.errorAcknowledgingUpTo(e, String.valueOf(lastInOrder));
+               outOfOrder.addAll(0, inOrder);
             }
          }
-         //todo add tag caching
-         if (!preSettle)
+
+         for (Delivery delivery : outOfOrder)
          {
-            protonSession.replaceTag(delivery.getTag());
+            ack(delivery.getContext());
          }
+      }
+      finally
+      {
+         settle(deliveries);
+      }
+   }
 
-         synchronized (connection.getLock())
+   private void ack(Object message)
+   {
+      try
+      {
+         sessionSPI.ack(brokerConsumer, message);
+      }
+      catch (Exception e)
+      {
+         ActiveMQAMQPProtocolLogger.LOGGER.errorAcknowledgingMessage(e, String.valueOf(message));
+         try
          {
-            delivery.settle();
-            sender.offer(1);
+            sessionSPI.cancel(brokerConsumer, message, true);
+         }
+         catch (Exception ignored)
+         {
+            // the consumer doesn't hold the message anymore, it went back to its queue with a failed cumulative ack
          }
+      }
+   }
 
+   private void settle(List<Delivery> deliveries)
+   {
+      boolean preSettle = sender.getRemoteSenderSettleMode() == SenderSettleMode.SETTLED;
+
+      //todo add tag caching
+      if (!preSettle)
+      {
+         for (Delivery delivery : deliveries)
+         {
+            protonSession.replaceTag(delivery.getTag());
+         }
       }
-      else
+
+      synchronized (connection.getLock())
       {
-         //todo not sure if we need to do anything here
+         for (Delivery delivery : deliveries)
+         {
+            unsettled.remove(delivery);
+            delivery.settle();
+         }
+         sender.offer(deliveries.size());
       }
    }
 
@@ -266,6 +391,12 @@ public class ProtonServerSenderContext extends AbstractProtonContextSender imple
       ProtonJMessage serverMessage;
       try
       {
+         byte[] encoded = sessionSPI.getEncodedMessage(message, deliveryCount);
+         if (encoded != null)
+         {
+            return performSend(encoded, 0, encoded.length, message);
+         }
+
          // This can be done a lot better here
          serverMessage = sessionSPI.encodeMessage(message, deliveryCount);
       }
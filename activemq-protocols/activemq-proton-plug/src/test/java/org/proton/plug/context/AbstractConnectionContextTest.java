@@ -21,6 +21,7 @@ import io.netty.buffer.ByteBuf;
 import org.apache.qpid.proton.engine.Connection;
 import org.apache.qpid.proton.engine.Link;
 import org.apache.qpid.proton.engine.Session;
+import org.junit.Assert;
 import org.junit.Test;
 import org.proton.plug.AMQPConnectionCallback;
 import org.proton.plug.AMQPConnectionContext;
@@ -28,6 +29,7 @@ import org.proton.plug.AMQPSessionCallback;
 import org.proton.plug.ServerSASL;
 import org.proton.plug.exceptions.ActiveMQAMQPException;
 import org.proton.plug.handler.EventHandler;
+import org.proton.plug.handler.impl.ProtonHandlerImpl;
 
 public class AbstractConnectionContextTest
 {
@@ -47,6 +49,48 @@ public class AbstractConnectionContextTest
       listener.onRemoteClose(link);
    }
 
+   @Test
+   public void testFlushAfterFailedFlush() throws Exception
+   {
+      TestConnectionContext connectionContext = new TestConnectionContext(new TestConnectionCallback());
+      FailingHandler failingHandler = new FailingHandler();
+      connectionContext.setHandler(failingHandler);
+
+      failingHandler.fail = true;
+      try
+      {
+         connectionContext.flush();
+         Assert.fail("the flush should have failed");
+      }
+      catch (IllegalStateException expected)
+      {
+      }
+
+      // the failed flush must not leave the connection believing a flush is still in progress
+      failingHandler.fail = false;
+      connectionContext.flush();
+      connectionContext.flush();
+
+      Assert.assertEquals(3, failingHandler.flushes);
+   }
+
+   private class FailingHandler extends ProtonHandlerImpl
+   {
+      volatile boolean fail;
+
+      int flushes;
+
+      @Override
+      public void flush()
+      {
+         flushes++;
+         if (fail)
+         {
+            throw new IllegalStateException("flush failure");
+         }
+      }
+   }
+
    private class TestConnectionContext extends AbstractConnectionContext
    {
 
@@ -71,6 +115,11 @@ public class AbstractConnectionContextTest
       {
          return listener;
       }
+
+      public void setHandler(ProtonHandlerImpl handler)
+      {
+         this.handler = handler;
+      }
    }
 
    private class TestConnectionCallback implements AMQPConnectionCallback
@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.proton.plug.context.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.amqp.messaging.Source;
+import org.apache.qpid.proton.amqp.messaging.Target;
+import org.apache.qpid.proton.engine.Connection;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.EndpointState;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.engine.Session;
+import org.apache.qpid.proton.engine.Transport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.proton.plug.test.minimalserver.MinimalConnectionSPI;
+import org.proton.plug.test.minimalserver.MinimalSessionSPI;
+
+/**
+ * Checks how the deliveries accepted by a client are acked and settled in batch, using a client and a server engine
+ * connected in memory.
+ */
+public class ProtonServerSenderContextTest
+{
+   private Transport clientTransport;
+
+   private Transport serverTransport;
+
+   private Receiver receiver;
+
+   private Sender sender;
+
+   private RecordingSessionSPI sessionSPI;
+
+   private ProtonServerSenderContext senderContext;
+
+   private final List<Delivery> serverDeliveries = new ArrayList<>();
+
+   private final List<Delivery> clientDeliveries = new ArrayList<>();
+
+   @Before
+   public void setUp() throws Exception
+   {
+      Connection clientConnection = Proton.connection();
+      clientTransport = Proton.transport();
+      clientTransport.bind(clientConnection);
+
+      Connection serverConnection = Proton.connection();
+      serverTransport = Proton.transport();
+      serverTransport.bind(serverConnection);
+
+      clientConnection.open();
+      Session clientSession = clientConnection.session();
+      clientSession.open();
+      receiver = clientSession.receiver("receiver");
+      receiver.setSource(new Source());
+      receiver.setTarget(new Target());
+      receiver.open();
+      receiver.flow(10);
+
+      pump();
+
+      serverConnection.open();
+      Session serverSession = serverConnection.sessionHead(EnumSet.of(EndpointState.UNINITIALIZED), EnumSet.of(EndpointState.ACTIVE));
+      serverSession.open();
+      sender = (Sender) serverConnection.linkHead(EnumSet.of(EndpointState.UNINITIALIZED), EnumSet.of(EndpointState.ACTIVE));
+      sender.setSource(sender.getRemoteSource());
+      sender.setTarget(sender.getRemoteTarget());
+      sender.open();
+
+      pump();
+
+      ProtonServerConnectionContext connectionContext = new ProtonServerConnectionContext(new MinimalConnectionSPI(null));
+      sessionSPI = new RecordingSessionSPI();
+      ProtonServerSessionContext sessionContext = new ProtonServerSessionContext(sessionSPI, connectionContext, serverSession);
+      senderContext = new ProtonServerSenderContext(connectionContext, sender, sessionContext, sessionSPI);
+
+      for (int i = 0; i < 4; i++)
+      {
+         Delivery delivery = sender.delivery(new byte[]{(byte) i});
+         delivery.setContext("message" + i);
+         sender.send(new byte[]{(byte) i}, 0, 1);
+         sender.advance();
+         senderContext.onDeliverySent(delivery, false);
+         serverDeliveries.add(delivery);
+      }
+
+      pump();
+
+      byte[] buffer = new byte[10];
+      for (int i = 0; i < 4; i++)
+      {
+         Delivery delivery = receiver.current();
+         receiver.recv(buffer, 0, buffer.length);
+         receiver.advance();
+         clientDeliveries.add(delivery);
+      }
+   }
+
+   @Test
+   public void testAcceptedInOrderAreAckedAtOnce() throws Exception
+   {
+      accept(0, 1, 2);
+
+      Assert.assertEquals(Collections.singletonList("message2"), sessionSPI.ackedUpTo);
+      Assert.assertTrue(sessionSPI.acked.isEmpty());
+      Assert.assertTrue(sessionSPI.cancelled.isEmpty());
+      assertSettled(0, 1, 2);
+      Assert.assertFalse(serverDeliveries.get(3).isSettled());
+   }
+
+   @Test
+   public void testAcceptedOutOfOrderAreAckedIndividually() throws Exception
+   {
+      accept(1, 3);
+
+      Assert.assertTrue(sessionSPI.ackedUpTo.isEmpty());
+      Assert.assertEquals(Arrays.asList("message1", "message3"), sessionSPI.acked);
+      assertSettled(1, 3);
+      Assert.assertFalse(serverDeliveries.get(0).isSettled());
+
+      // once the head is accepted, it's acked cumulatively up to the next delivery still pending
+      accept(0);
+
+      Assert.assertEquals(Collections.singletonList("message0"), sessionSPI.ackedUpTo);
+      assertSettled(0);
+   }
+
+   @Test
+   public void testFailedAcksAreCancelledAndSettled() throws Exception
+   {
+      sessionSPI.failAckUpTo = true;
+      sessionSPI.failing.add("message1");
+
+      accept(0, 1, 2);
+
+      // the cumulative ack failed, so they were acked one by one and the one failing went back to its queue
+      Assert.assertEquals(Arrays.asList("message0", "message2"), sessionSPI.acked);
+      Assert.assertEquals(Collections.singletonList("message1"), sessionSPI.cancelled);
+      assertSettled(0, 1, 2);
+
+      // the failures didn't break the next batch
+      sessionSPI.failAckUpTo = false;
+
+      accept(3);
+
+      Assert.assertEquals(Collections.singletonList("message3"), sessionSPI.ackedUpTo);
+      assertSettled(3);
+   }
+
+   private void accept(int... indexes) throws Exception
+   {
+      for (int index : indexes)
+      {
+         clientDeliveries.get(index).disposition(Accepted.getInstance());
+      }
+
+      pump();
+
+      for (int index : indexes)
+      {
+         senderContext.onMessage(serverDeliveries.get(index));
+      }
+
+      senderContext.flushDispositions();
+   }
+
+   private void assertSettled(int... indexes)
+   {
+      for (int index : indexes)
+      {
+         Assert.assertTrue("delivery " + index + " not settled", serverDeliveries.get(index).isSettled());
+      }
+   }
+
+   private void pump()
+   {
+      boolean moved;
+      do
+      {
+         moved = transfer(clientTransport, serverTransport);
+         moved |= transfer(serverTransport, clientTransport);
+      }
+      while (moved);
+   }
+
+   private static boolean transfer(Transport from, Transport to)
+   {
+      ByteBuffer head = from.head();
+      int size = Math.min(head.remaining(), to.capacity());
+      if (size <= 0)
+      {
+         return false;
+      }
+
+      ByteBuffer tail = to.tail();
+      for (int i = 0; i < size; i++)
+      {
+         tail.put(head.get());
+      }
+      to.process();
+      from.pop(size);
+      return true;
+   }
+
+   private static class RecordingSessionSPI extends MinimalSessionSPI
+   {
+      final List<Object> ackedUpTo = new ArrayList<>();
+
+      final List<Object> acked = new ArrayList<>();
+
+      final List<Object> cancelled = new ArrayList<>();
+
+      final Set<Object> failing = new HashSet<>();
+
+      boolean failAckUpTo;
+
+      @Override
+      public void ackUpTo(Object brokerConsumer, Object message)
+      {
+         if (failAckUpTo)
+         {
+            throw new IllegalStateException("ack failure");
+         }
+         ackedUpTo.add(message);
+      }
+
+      @Override
+      public void ack(Object brokerConsumer, Object message)
+      {
+         if (failing.contains(message))
+         {
+            throw new IllegalStateException("ack failure");
+         }
+         acked.add(message);
+      }
+
+      @Override
+      public void cancel(Object brokerConsumer, Object message, boolean updateCounts)
+      {
+         cancelled.add(message);
+      }
+   }
+}
@@ -100,6 +100,12 @@ public class MinimalSessionSPI implements AMQPSessionCallback
       return (ProtonServerMessage) message;
    }
 
+   @Override
+   public byte[] getEncodedMessage(Object message, int deliveryCount)
+   {
+      return null;
+   }
+
    @Override
    public Binary getCurrentTXID()
    {
@@ -128,6 +134,12 @@ public class MinimalSessionSPI implements AMQPSessionCallback
 
    }
 
+   @Override
+   public void ackUpTo(Object brokerConsumer, Object message)
+   {
+
+   }
+
    @Override
    public void cancel(Object brokerConsumer, Object message, boolean updateCounts)
    {
@@ -35,10 +35,16 @@ public class SimpleBytes
    public String getString()
    {
       if (index == 0) return "";
-      byte[] realData = new byte[index];
-      System.arraycopy(contents, 0, realData, 0, realData.length);
+      return new String(contents, 0, index, StandardCharsets.UTF_8);
+   }
 
-      return new String(realData, StandardCharsets.UTF_8);
+   /**
+    * Same as {@link #getString()}, sharing the String of the usual STOMP header names.
+    */
+   public String getHeaderName()
+   {
+      if (index == 0) return "";
+      return StompDecoder.headerName(contents, 0, index);
    }
 
    public void reset()
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.core.protocol.stomp;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -135,6 +136,49 @@ public class StompDecoder
 
    public static final String CONTENT_LENGTH_HEADER_NAME = "content-length";
 
+   /**
+    * Header names sent on (almost) every frame, decoded without allocating a new String each time.
+    */
+   private static final String[] KNOWN_HEADER_NAMES = {
+      Stomp.Headers.RECEIPT_REQUESTED,
+      Stomp.Headers.TRANSACTION,
+      Stomp.Headers.CONTENT_LENGTH,
+      Stomp.Headers.CONTENT_TYPE,
+      Stomp.Headers.ACCEPT_VERSION,
+      Stomp.Headers.Send.DESTINATION,
+      Stomp.Headers.Send.CORRELATION_ID,
+      Stomp.Headers.Send.REPLY_TO,
+      Stomp.Headers.Send.EXPIRATION_TIME,
+      Stomp.Headers.Send.PRIORITY,
+      Stomp.Headers.Send.TYPE,
+      Stomp.Headers.Message.MESSAGE_ID,
+      Stomp.Headers.Message.SUBSCRIPTION,
+      Stomp.Headers.Message.ACK,
+      Stomp.Headers.Message.REDELIVERED,
+      Stomp.Headers.Message.TIMESTAMP,
+      Stomp.Headers.Subscribe.ID,
+      Stomp.Headers.Subscribe.SELECTOR,
+      Stomp.Headers.Subscribe.DURABLE_SUBSCRIBER_NAME,
+      Stomp.Headers.Subscribe.NO_LOCAL,
+      Stomp.Headers.Connect.LOGIN,
+      Stomp.Headers.Connect.PASSCODE,
+      Stomp.Headers.Connect.CLIENT_ID,
+      Stomp.Headers.Connect.REQUEST_ID,
+      Stomp.Headers.Connect.HOST,
+      Stomp.Headers.Connected.HEART_BEAT,
+      "persistent"
+   };
+
+   private static final byte[][] KNOWN_HEADER_NAME_BYTES = new byte[KNOWN_HEADER_NAMES.length][];
+
+   static
+   {
+      for (int i = 0; i < KNOWN_HEADER_NAMES.length; i++)
+      {
+         KNOWN_HEADER_NAME_BYTES[i] = KNOWN_HEADER_NAMES[i].getBytes(StandardCharsets.UTF_8);
+      }
+   }
+
    public byte[] workingBuffer = new byte[1024];
 
    public int pos;
@@ -187,7 +231,7 @@ public class StompDecoder
     * unsupported EOLs ("\r\n" valid for 1.2 only). The StompConnection will switch
     * to proper version decoders on catching such exceptions.
     */
-   public synchronized StompFrame decode(final ActiveMQBuffer buffer) throws ActiveMQStompException
+   public StompFrame decode(final ActiveMQBuffer buffer) throws ActiveMQStompException
    {
       int readable = buffer.readableBytes();
 
@@ -311,11 +355,7 @@ public class StompDecoder
             {
                if (inHeaderName)
                {
-                  byte[] data = new byte[pos - headerBytesCopyStart - 1];
-
-                  System.arraycopy(workingBuffer, headerBytesCopyStart, data, 0, data.length);
-
-                  headerName = new String(data);
+                  headerName = headerName(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
 
                   inHeaderName = false;
 
@@ -338,17 +378,13 @@ public class StompDecoder
                   break outer;
                }
 
-               byte[] data = new byte[pos - headerBytesCopyStart - 1];
-
-               System.arraycopy(workingBuffer, headerBytesCopyStart, data, 0, data.length);
-
-               String headerValue = new String(data);
+               String headerValue = new String(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1, StandardCharsets.UTF_8);
 
                headers.put(headerName, headerValue);
 
                if (headerName.equals(CONTENT_LENGTH_HEADER_NAME))
                {
-                  contentLength = Integer.parseInt(headerValue.toString());
+                  contentLength = Integer.parseInt(headerValue);
                }
 
                whiteSpaceOnly = true;
@@ -664,6 +700,34 @@ public class StompDecoder
       bodyStart = -1;
    }
 
+   /**
+    * Decodes a header name, returning the shared constant for the usual STOMP headers.
+    */
+   public static String headerName(final byte[] bytes, final int offset, final int length)
+   {
+      for (int i = 0; i < KNOWN_HEADER_NAME_BYTES.length; i++)
+      {
+         byte[] known = KNOWN_HEADER_NAME_BYTES[i];
+         if (known.length == length && matches(known, bytes, offset))
+         {
+            return KNOWN_HEADER_NAMES[i];
+         }
+      }
+      return new String(bytes, offset, length, StandardCharsets.UTF_8);
+   }
+
+   private static boolean matches(final byte[] known, final byte[] bytes, final int offset)
+   {
+      for (int i = 0; i < known.length; i++)
+      {
+         if (known[i] != bytes[offset + i])
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
    public void resizeWorking(final int newSize)
    {
       byte[] oldBuffer = workingBuffer;
@@ -100,6 +100,15 @@ public class StompSession implements SessionCallback
    {
    }
 
+   public boolean supportsNativeProtocol(SimpleString protocol)
+   {
+      return false;
+   }
+
+   public void afterDeliver(ServerConsumer consumer)
+   {
+   }
+
    public int sendMessage(ServerMessage serverMessage, ServerConsumer consumer, int deliveryCount)
    {
       LargeServerMessageImpl largeMessage = null;
@@ -342,6 +342,13 @@ public abstract class VersionedStompFrameHandler
    public StompFrame createMessageFrame(ServerMessage serverMessage,
                                         StompSubscription subscription, int deliveryCount) throws Exception
    {
+      if (serverMessage.isBodyCompressed())
+      {
+         // the message is shared with the other queues, which keep the compressed body
+         serverMessage = serverMessage.copy();
+         serverMessage.decompressBody();
+      }
+
       StompFrame frame = createStompFrame(Stomp.Responses.MESSAGE);
 
       if (subscription.getID() != null)
@@ -733,7 +733,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                {
                   if (inHeaderName)
                   {
-                     headerName = holder.getString();
+                     headerName = holder.getHeaderName();
 
                      holder.reset();
 
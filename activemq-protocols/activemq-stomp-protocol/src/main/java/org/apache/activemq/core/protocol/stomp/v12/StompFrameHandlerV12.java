@@ -169,7 +169,7 @@ public class StompFrameHandlerV12 extends StompFrameHandlerV11 implements FrameE
                {
                   if (inHeaderName)
                   {
-                     headerName = holder.getString();
+                     headerName = holder.getHeaderName();
 
                      holder.reset();
 
@@ -725,6 +725,66 @@ public class ActiveMQResourceAdapter implements ResourceAdapter, Serializable
       raProperties.setCompressLargeMessage(compressLargeMessage);
    }
 
+   /**
+    * Get body codec class name
+    *
+    * @return The value
+    */
+   public String getBodyCodecClassName()
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getBodyCodecClassName()");
+      }
+
+      return raProperties.getBodyCodecClassName();
+   }
+
+   /**
+    * Set body codec class name
+    *
+    * @param bodyCodecClassName The value
+    */
+   public void setBodyCodecClassName(final String bodyCodecClassName)
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setBodyCodecClassName(" + bodyCodecClassName + ")");
+      }
+
+      raProperties.setBodyCodecClassName(bodyCodecClassName);
+   }
+
+   /**
+    * Get min body compression size
+    *
+    * @return The value
+    */
+   public Integer getMinBodyCompressionSize()
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getMinBodyCompressionSize()");
+      }
+
+      return raProperties.getMinBodyCompressionSize();
+   }
+
+   /**
+    * Set min body compression size
+    *
+    * @param minBodyCompressionSize The value
+    */
+   public void setMinBodyCompressionSize(final Integer minBodyCompressionSize)
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setMinBodyCompressionSize(" + minBodyCompressionSize + ")");
+      }
+
+      raProperties.setMinBodyCompressionSize(minBodyCompressionSize);
+   }
+
    /**
     * Get call timeout
     *
@@ -875,6 +935,66 @@ public class ActiveMQResourceAdapter implements ResourceAdapter, Serializable
       raProperties.setConsumerWindowSize(consumerWindowSize);
    }
 
+   /**
+    * Get consumer min window size
+    *
+    * @return The value
+    */
+   public Integer getConsumerMinWindowSize()
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getConsumerMinWindowSize()");
+      }
+
+      return raProperties.getConsumerMinWindowSize();
+   }
+
+   /**
+    * Set consumer min window size
+    *
+    * @param consumerMinWindowSize The value
+    */
+   public void setConsumerMinWindowSize(final Integer consumerMinWindowSize)
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setConsumerMinWindowSize(" + consumerMinWindowSize + ")");
+      }
+
+      raProperties.setConsumerMinWindowSize(consumerMinWindowSize);
+   }
+
+   /**
+    * Get consumer max window size
+    *
+    * @return The value
+    */
+   public Integer getConsumerMaxWindowSize()
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getConsumerMaxWindowSize()");
+      }
+
+      return raProperties.getConsumerMaxWindowSize();
+   }
+
+   /**
+    * Set consumer max window size
+    *
+    * @param consumerMaxWindowSize The value
+    */
+   public void setConsumerMaxWindowSize(final Integer consumerMaxWindowSize)
+   {
+      if (ActiveMQResourceAdapter.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setConsumerMaxWindowSize(" + consumerMaxWindowSize + ")");
+      }
+
+      raProperties.setConsumerMaxWindowSize(consumerMaxWindowSize);
+   }
+
    /**
     * Get consumer max rate
     *
@@ -2211,6 +2331,24 @@ public class ActiveMQResourceAdapter implements ResourceAdapter, Serializable
       {
          cf.setConsumerWindowSize(val2);
       }
+      val2 = overrideProperties.getConsumerMinWindowSize() != null ? overrideProperties.getConsumerMinWindowSize()
+         : raProperties.getConsumerMinWindowSize();
+      if (val2 != null)
+      {
+         cf.setConsumerMinWindowSize(val2);
+      }
+      val2 = overrideProperties.getConsumerMaxWindowSize() != null ? overrideProperties.getConsumerMaxWindowSize()
+         : raProperties.getConsumerMaxWindowSize();
+      if (val2 != null)
+      {
+         cf.setConsumerMaxWindowSize(val2);
+      }
+      val2 = overrideProperties.getMinBodyCompressionSize() != null ? overrideProperties.getMinBodyCompressionSize()
+         : raProperties.getMinBodyCompressionSize();
+      if (val2 != null)
+      {
+         cf.setMinBodyCompressionSize(val2);
+      }
       val2 = overrideProperties.getDupsOKBatchSize() != null ? overrideProperties.getDupsOKBatchSize()
          : raProperties.getDupsOKBatchSize();
       if (val2 != null)
@@ -2341,6 +2479,12 @@ public class ActiveMQResourceAdapter implements ResourceAdapter, Serializable
       {
          cf.setConnectionLoadBalancingPolicyClassName(val5);
       }
+      val5 = overrideProperties.getBodyCodecClassName() != null ? overrideProperties.getBodyCodecClassName()
+         : raProperties.getBodyCodecClassName();
+      if (val5 != null)
+      {
+         cf.setBodyCodecClassName(val5);
+      }
    }
 
    public void setManagedConnectionFactory(ActiveMQRAManagedConnectionFactory activeMQRAManagedConnectionFactory)
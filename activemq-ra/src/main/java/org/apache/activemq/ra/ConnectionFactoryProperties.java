@@ -74,8 +74,16 @@ public class ConnectionFactoryProperties
 
    private Boolean compressLargeMessage;
 
+   private String bodyCodecClassName;
+
+   private Integer minBodyCompressionSize;
+
    private Integer consumerWindowSize;
 
+   private Integer consumerMinWindowSize;
+
+   private Integer consumerMaxWindowSize;
+
    private Integer producerWindowSize;
 
    private Integer consumerMaxRate;
@@ -176,6 +184,44 @@ public class ConnectionFactoryProperties
       this.compressLargeMessage = compressLargeMessage;
    }
 
+   public String getBodyCodecClassName()
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getBodyCodecClassName()");
+      }
+      return bodyCodecClassName;
+   }
+
+   public void setBodyCodecClassName(final String bodyCodecClassName)
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setBodyCodecClassName(" + bodyCodecClassName + ")");
+      }
+      hasBeenUpdated = true;
+      this.bodyCodecClassName = bodyCodecClassName;
+   }
+
+   public Integer getMinBodyCompressionSize()
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getMinBodyCompressionSize()");
+      }
+      return minBodyCompressionSize;
+   }
+
+   public void setMinBodyCompressionSize(final Integer minBodyCompressionSize)
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setMinBodyCompressionSize(" + minBodyCompressionSize + ")");
+      }
+      hasBeenUpdated = true;
+      this.minBodyCompressionSize = minBodyCompressionSize;
+   }
+
    public String getConnectionLoadBalancingPolicyClassName()
    {
       if (ConnectionFactoryProperties.trace)
@@ -442,6 +488,44 @@ public class ConnectionFactoryProperties
       this.consumerWindowSize = consumerWindowSize;
    }
 
+   public Integer getConsumerMinWindowSize()
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getConsumerMinWindowSize()");
+      }
+      return consumerMinWindowSize;
+   }
+
+   public void setConsumerMinWindowSize(final Integer consumerMinWindowSize)
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setConsumerMinWindowSize(" + consumerMinWindowSize + ")");
+      }
+      hasBeenUpdated = true;
+      this.consumerMinWindowSize = consumerMinWindowSize;
+   }
+
+   public Integer getConsumerMaxWindowSize()
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("getConsumerMaxWindowSize()");
+      }
+      return consumerMaxWindowSize;
+   }
+
+   public void setConsumerMaxWindowSize(final Integer consumerMaxWindowSize)
+   {
+      if (ConnectionFactoryProperties.trace)
+      {
+         ActiveMQRALogger.LOGGER.trace("setConsumerMaxWindowSize(" + consumerMaxWindowSize + ")");
+      }
+      hasBeenUpdated = true;
+      this.consumerMaxWindowSize = consumerMaxWindowSize;
+   }
+
    public Integer getConsumerMaxRate()
    {
       if (ConnectionFactoryProperties.trace)
@@ -71,6 +71,10 @@ public final class ClusterConnectionConfiguration implements Serializable
 
    private int clusterNotificationAttempts = ActiveMQDefaultConfiguration.getDefaultClusterNotificationAttempts();
 
+   private long loadUpdatePeriod = ActiveMQDefaultConfiguration.getDefaultClusterLoadUpdatePeriod();
+
+   private boolean loadAwareDistribution = ActiveMQDefaultConfiguration.isDefaultClusterLoadAwareDistribution();
+
    public ClusterConnectionConfiguration()
    {
    }
@@ -378,6 +382,34 @@ public final class ClusterConnectionConfiguration implements Serializable
       return this;
    }
 
+   /*
+   * returns how often the load of the node is sent to the cluster, -1 if never
+   * */
+   public long getLoadUpdatePeriod()
+   {
+      return loadUpdatePeriod;
+   }
+
+   public ClusterConnectionConfiguration setLoadUpdatePeriod(long loadUpdatePeriod)
+   {
+      this.loadUpdatePeriod = loadUpdatePeriod;
+      return this;
+   }
+
+   /*
+   * returns whether the messages are distributed according to the backlog and consumption rate of the queues
+   * */
+   public boolean isLoadAwareDistribution()
+   {
+      return loadAwareDistribution;
+   }
+
+   public ClusterConnectionConfiguration setLoadAwareDistribution(boolean loadAwareDistribution)
+   {
+      this.loadAwareDistribution = loadAwareDistribution;
+      return this;
+   }
+
    @Override
    public int hashCode()
    {
@@ -396,6 +428,8 @@ public final class ClusterConnectionConfiguration implements Serializable
       result = prime * result + ((discoveryGroupName == null) ? 0 : discoveryGroupName.hashCode());
       result = prime * result + (duplicateDetection ? 1231 : 1237);
       result = prime * result + (forwardWhenNoConsumers ? 1231 : 1237);
+      result = prime * result + (loadAwareDistribution ? 1231 : 1237);
+      result = prime * result + (int)(loadUpdatePeriod ^ (loadUpdatePeriod >>> 32));
       result = prime * result + maxHops;
       result = prime * result + (int)(maxRetryInterval ^ (maxRetryInterval >>> 32));
       result = prime * result + minLargeMessageSize;
@@ -439,6 +473,10 @@ public final class ClusterConnectionConfiguration implements Serializable
          return false;
       if (clusterNotificationInterval != other.clusterNotificationInterval)
          return false;
+      if (loadUpdatePeriod != other.loadUpdatePeriod)
+         return false;
+      if (loadAwareDistribution != other.loadAwareDistribution)
+         return false;
       if (confirmationWindowSize != other.confirmationWindowSize)
          return false;
       if (connectionTTL != other.connectionTTL)
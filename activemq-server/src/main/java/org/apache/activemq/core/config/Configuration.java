@@ -500,6 +500,18 @@ public interface Configuration
     */
    Configuration setJournalCompactMinFiles(int minFiles);
 
+   /**
+    * Returns the maximal number of journal files compacted at a time. When greater than 0, compacting is
+    * incremental: it rewrites the files at the head of the journal, a few at a time, instead of all of them at once.<br>
+    * Default value is {@value org.apache.activemq.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_MAX_FILES}.
+    */
+   int getJournalCompactMaxFiles();
+
+   /**
+    * Sets the maximal number of journal files compacted at a time.
+    */
+   Configuration setJournalCompactMaxFiles(int maxFiles);
+
    /**
     * Returns the percentage of live data before compacting the journal. <br>
     * Default value is {@value org.apache.activemq.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_PERCENTAGE}.
@@ -582,6 +594,33 @@ public interface Configuration
     */
    Configuration setJournalBufferTimeout_NIO(int journalBufferTimeout);
 
+   /**
+    * Returns whether the journal chooses when to flush its buffer from the time the syncs take and the rate they are
+    * requested at, the buffer timeout being the longest a sync waits for.
+    * <br>
+    * Default value is {@link org.apache.activemq.api.config.ActiveMQDefaultConfiguration#isDefaultJournalAdaptiveBufferTimeout()}.
+    */
+   boolean isJournalAdaptiveBufferTimeout();
+
+   /**
+    * Sets whether the journal chooses when to flush its buffer from the time the syncs take and the rate they are
+    * requested at.
+    */
+   Configuration setJournalAdaptiveBufferTimeout(boolean adaptive);
+
+   /**
+    * Returns the number of journals the messages are spread over, the first one being in the journal directory and
+    * the following ones in its {@code stripe-<i>} sub directories.
+    * <br>
+    * Default value is {@link org.apache.activemq.api.config.ActiveMQDefaultConfiguration#getDefaultJournalStripes()}.
+    */
+   int getJournalStripes();
+
+   /**
+    * Sets the number of journals the messages are spread over.
+    */
+   Configuration setJournalStripes(int stripes);
+
    /**
     * Returns the buffer size (in bytes) for NIO.
     * <br>
@@ -638,6 +677,31 @@ public interface Configuration
 
    Configuration setMemoryMeasureInterval(long memoryMeasureInterval);
 
+   /**
+    * Whether the core messages sent to the server are received in pooled buffers, given back to the pool once the
+    * messages are no longer referenced, instead of a new buffer for each message.
+    * <p/>
+    * Default value is {@link org.apache.activemq.api.config.ActiveMQDefaultConfiguration#isDefaultPooledMessageBuffers()}.
+    */
+   boolean isPooledMessageBuffers();
+
+   /**
+    * Sets whether the core messages sent to the server are received in pooled buffers.
+    */
+   Configuration setPooledMessageBuffers(boolean pooled);
+
+   /**
+    * Whether the pooled message buffers are taken from direct memory rather than the heap.
+    * <p/>
+    * Default value is {@link org.apache.activemq.api.config.ActiveMQDefaultConfiguration#isDefaultDirectMessageBuffers()}.
+    */
+   boolean isDirectMessageBuffers();
+
+   /**
+    * Sets whether the pooled message buffers are taken from direct memory rather than the heap.
+    */
+   Configuration setDirectMessageBuffers(boolean direct);
+
    boolean isRunSyncSpeedTest();
 
    Configuration setRunSyncSpeedTest(boolean run);
@@ -655,6 +719,19 @@ public interface Configuration
     */
    Configuration setPagingDirectory(String dir);
 
+   /**
+    * Returns the maximum number of bytes the messages of all the addresses can take in memory, {@code -1} for no
+    * limit. <br>
+    * Once it is exceeded the largest addresses start paging, or apply their address-full-policy. <br>
+    * Default value is {@value org.apache.activemq.api.config.ActiveMQDefaultConfiguration#DEFAULT_GLOBAL_MAX_SIZE}.
+    */
+   long getGlobalMaxSize();
+
+   /**
+    * Sets the maximum number of bytes the messages of all the addresses can take in memory.
+    */
+   Configuration setGlobalMaxSize(long globalMaxSize);
+
    // Large Messages Properties ------------------------------------------------------------
 
    /**
@@ -731,6 +808,17 @@ public interface Configuration
     */
    Configuration setMessageCounterMaxDayHistory(int maxDayHistory);
 
+   /**
+    * Returns whether the broker metrics (counters and latency histograms) are recorded. <br>
+    * Default value is {@value org.apache.activemq.api.config.ActiveMQDefaultConfiguration#DEFAULT_METRICS_ENABLED}.
+    */
+   boolean isMetricsEnabled();
+
+   /**
+    * Sets whether the broker metrics are recorded.
+    */
+   Configuration setMetricsEnabled(boolean enabled);
+
    /**
     * Returns the frequency (in milliseconds) to scan transactions to detect which transactions have
     * timed out. <br>
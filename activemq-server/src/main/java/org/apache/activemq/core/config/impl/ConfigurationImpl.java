@@ -119,6 +119,8 @@ public class ConfigurationImpl implements Configuration, Serializable
 
    private String pagingDirectory = ActiveMQDefaultConfiguration.getDefaultPagingDir();
 
+   private long globalMaxSize = ActiveMQDefaultConfiguration.getDefaultGlobalMaxSize();
+
    // File related attributes -----------------------------------------------------------
 
    private int maxConcurrentPageIO = ActiveMQDefaultConfiguration.getDefaultMaxConcurrentPageIo();
@@ -141,6 +143,8 @@ public class ConfigurationImpl implements Configuration, Serializable
 
    protected int journalCompactMinFiles = ActiveMQDefaultConfiguration.getDefaultJournalCompactMinFiles();
 
+   protected int journalCompactMaxFiles = ActiveMQDefaultConfiguration.getDefaultJournalCompactMaxFiles();
+
    protected int journalCompactPercentage = ActiveMQDefaultConfiguration.getDefaultJournalCompactPercentage();
 
    protected int journalFileSize = ActiveMQDefaultConfiguration.getDefaultJournalFileSize();
@@ -161,6 +165,10 @@ public class ConfigurationImpl implements Configuration, Serializable
 
    protected int journalBufferSize_NIO = ActiveMQDefaultConfiguration.getDefaultJournalBufferSizeNio();
 
+   protected boolean journalAdaptiveBufferTimeout = ActiveMQDefaultConfiguration.isDefaultJournalAdaptiveBufferTimeout();
+
+   protected int journalStripes = ActiveMQDefaultConfiguration.getDefaultJournalStripes();
+
    protected boolean logJournalWriteRate = ActiveMQDefaultConfiguration.isDefaultJournalLogWriteRate();
 
    protected int journalPerfBlastPages = ActiveMQDefaultConfiguration.getDefaultJournalPerfBlastPages();
@@ -175,6 +183,8 @@ public class ConfigurationImpl implements Configuration, Serializable
 
    private int messageCounterMaxDayHistory = ActiveMQDefaultConfiguration.getDefaultMessageCounterMaxDayHistory();
 
+   private boolean metricsEnabled = ActiveMQDefaultConfiguration.isDefaultMetricsEnabled();
+
    private long transactionTimeout = ActiveMQDefaultConfiguration.getDefaultTransactionTimeout();
 
    private long transactionTimeoutScanPeriod = ActiveMQDefaultConfiguration.getDefaultTransactionTimeoutScanPeriod();
@@ -196,6 +206,10 @@ public class ConfigurationImpl implements Configuration, Serializable
 
    private long memoryMeasureInterval = ActiveMQDefaultConfiguration.getDefaultMemoryMeasureInterval();
 
+   private boolean pooledMessageBuffers = ActiveMQDefaultConfiguration.isDefaultPooledMessageBuffers();
+
+   private boolean directMessageBuffers = ActiveMQDefaultConfiguration.isDefaultDirectMessageBuffers();
+
    protected GroupingHandlerConfiguration groupingHandlerConfiguration;
 
    private Map<String, AddressSettings> addressesSettings = new HashMap<String, AddressSettings>();
@@ -568,6 +582,17 @@ public class ConfigurationImpl implements Configuration, Serializable
       return pagingDirectory;
    }
 
+   public long getGlobalMaxSize()
+   {
+      return globalMaxSize;
+   }
+
+   public ConfigurationImpl setGlobalMaxSize(final long globalMaxSize)
+   {
+      this.globalMaxSize = globalMaxSize;
+      return this;
+   }
+
    public ConfigurationImpl setJournalType(final JournalType type)
    {
       journalType = type;
@@ -827,6 +852,17 @@ public class ConfigurationImpl implements Configuration, Serializable
       return this;
    }
 
+   public boolean isMetricsEnabled()
+   {
+      return metricsEnabled;
+   }
+
+   public ConfigurationImpl setMetricsEnabled(final boolean enabled)
+   {
+      metricsEnabled = enabled;
+      return this;
+   }
+
    public SimpleString getManagementAddress()
    {
       return managementAddress;
@@ -898,6 +934,17 @@ public class ConfigurationImpl implements Configuration, Serializable
       return this;
    }
 
+   public int getJournalCompactMaxFiles()
+   {
+      return journalCompactMaxFiles;
+   }
+
+   public ConfigurationImpl setJournalCompactMaxFiles(final int maxFiles)
+   {
+      journalCompactMaxFiles = maxFiles;
+      return this;
+   }
+
    public ConfigurationImpl setJournalCompactPercentage(final int percentage)
    {
       journalCompactPercentage = percentage;
@@ -937,6 +984,28 @@ public class ConfigurationImpl implements Configuration, Serializable
       return this;
    }
 
+   public boolean isPooledMessageBuffers()
+   {
+      return pooledMessageBuffers;
+   }
+
+   public ConfigurationImpl setPooledMessageBuffers(final boolean pooled)
+   {
+      pooledMessageBuffers = pooled;
+      return this;
+   }
+
+   public boolean isDirectMessageBuffers()
+   {
+      return directMessageBuffers;
+   }
+
+   public ConfigurationImpl setDirectMessageBuffers(final boolean direct)
+   {
+      directMessageBuffers = direct;
+      return this;
+   }
+
    public int getJournalMaxIO_AIO()
    {
       return journalMaxIO_AIO;
@@ -992,6 +1061,28 @@ public class ConfigurationImpl implements Configuration, Serializable
       return this;
    }
 
+   public boolean isJournalAdaptiveBufferTimeout()
+   {
+      return journalAdaptiveBufferTimeout;
+   }
+
+   public ConfigurationImpl setJournalAdaptiveBufferTimeout(final boolean adaptive)
+   {
+      journalAdaptiveBufferTimeout = adaptive;
+      return this;
+   }
+
+   public int getJournalStripes()
+   {
+      return journalStripes;
+   }
+
+   public ConfigurationImpl setJournalStripes(final int stripes)
+   {
+      journalStripes = stripes;
+      return this;
+   }
+
    public int getJournalBufferSize_NIO()
    {
       return journalBufferSize_NIO;
@@ -1172,7 +1263,10 @@ public class ConfigurationImpl implements Configuration, Serializable
       result = prime * result + journalBufferSize_NIO;
       result = prime * result + journalBufferTimeout_AIO;
       result = prime * result + journalBufferTimeout_NIO;
+      result = prime * result + (journalAdaptiveBufferTimeout ? 1231 : 1237);
+      result = prime * result + journalStripes;
       result = prime * result + journalCompactMinFiles;
+      result = prime * result + journalCompactMaxFiles;
       result = prime * result + journalCompactPercentage;
       result = prime * result + ((journalDirectory == null) ? 0 : journalDirectory.hashCode());
       result = prime * result + journalFileSize;
@@ -1192,10 +1286,13 @@ public class ConfigurationImpl implements Configuration, Serializable
       result = prime * result + (maskPassword ? 1231 : 1237);
       result = prime * result + maxConcurrentPageIO;
       result = prime * result + (int)(memoryMeasureInterval ^ (memoryMeasureInterval >>> 32));
+      result = prime * result + (pooledMessageBuffers ? 1231 : 1237);
+      result = prime * result + (directMessageBuffers ? 1231 : 1237);
       result = prime * result + memoryWarningThreshold;
       result = prime * result + (messageCounterEnabled ? 1231 : 1237);
       result = prime * result + messageCounterMaxDayHistory;
       result = prime * result + (int)(messageCounterSamplePeriod ^ (messageCounterSamplePeriod >>> 32));
+      result = prime * result + (metricsEnabled ? 1231 : 1237);
       result = prime * result + (int)(messageExpiryScanPeriod ^ (messageExpiryScanPeriod >>> 32));
       result = prime * result + messageExpiryThreadPriority;
       result = prime * result + ((name == null) ? 0 : name.hashCode());
@@ -1203,6 +1300,7 @@ public class ConfigurationImpl implements Configuration, Serializable
                prime * result +
                         ((outgoingInterceptorClassNames == null) ? 0 : outgoingInterceptorClassNames.hashCode());
       result = prime * result + ((pagingDirectory == null) ? 0 : pagingDirectory.hashCode());
+      result = prime * result + (int)(globalMaxSize ^ (globalMaxSize >>> 32));
       result = prime * result + (persistDeliveryCountBeforeDelivery ? 1231 : 1237);
       result = prime * result + (persistIDCache ? 1231 : 1237);
       result = prime * result + (persistenceEnabled ? 1231 : 1237);
@@ -1362,8 +1460,14 @@ public class ConfigurationImpl implements Configuration, Serializable
          return false;
       if (journalBufferTimeout_NIO != other.journalBufferTimeout_NIO)
          return false;
+      if (journalAdaptiveBufferTimeout != other.journalAdaptiveBufferTimeout)
+         return false;
+      if (journalStripes != other.journalStripes)
+         return false;
       if (journalCompactMinFiles != other.journalCompactMinFiles)
          return false;
+      if (journalCompactMaxFiles != other.journalCompactMaxFiles)
+         return false;
       if (journalCompactPercentage != other.journalCompactPercentage)
          return false;
       if (journalDirectory == null)
@@ -1418,6 +1522,10 @@ public class ConfigurationImpl implements Configuration, Serializable
          return false;
       if (memoryMeasureInterval != other.memoryMeasureInterval)
          return false;
+      if (pooledMessageBuffers != other.pooledMessageBuffers)
+         return false;
+      if (directMessageBuffers != other.directMessageBuffers)
+         return false;
       if (memoryWarningThreshold != other.memoryWarningThreshold)
          return false;
       if (messageCounterEnabled != other.messageCounterEnabled)
@@ -1426,6 +1534,8 @@ public class ConfigurationImpl implements Configuration, Serializable
          return false;
       if (messageCounterSamplePeriod != other.messageCounterSamplePeriod)
          return false;
+      if (metricsEnabled != other.metricsEnabled)
+         return false;
       if (messageExpiryScanPeriod != other.messageExpiryScanPeriod)
          return false;
       if (messageExpiryThreadPriority != other.messageExpiryThreadPriority)
@@ -1452,6 +1562,8 @@ public class ConfigurationImpl implements Configuration, Serializable
       }
       else if (!pagingDirectory.equals(other.pagingDirectory))
          return false;
+      if (globalMaxSize != other.globalMaxSize)
+         return false;
       if (persistDeliveryCountBeforeDelivery != other.persistDeliveryCountBeforeDelivery)
          return false;
       if (persistIDCache != other.persistIDCache)
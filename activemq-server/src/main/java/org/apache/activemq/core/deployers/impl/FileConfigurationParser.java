@@ -129,6 +129,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
 
    private static final String PAGE_MAX_CACHE_SIZE_NODE_NAME = "page-max-cache-size";
 
+   private static final String COMPRESS_PAGES_NODE_NAME = "compress-pages";
+
+   private static final String GROUP_BUCKETS_NODE_NAME = "group-buckets";
+
    private static final String MESSAGE_COUNTER_HISTORY_DAY_LIMIT_NODE_NAME = "message-counter-history-day-limit";
 
    private static final String LVQ_NODE_NAME = "last-value-queue";
@@ -485,6 +489,11 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
                                           config.getPagingDirectory(),
                                           Validators.NOT_NULL_OR_EMPTY));
 
+      config.setGlobalMaxSize(getLong(e,
+                                      "global-max-size",
+                                      config.getGlobalMaxSize(),
+                                      Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setCreateJournalDir(getBoolean(e, "create-journal-dir", config.isCreateJournalDir()));
 
       String s = getString(e,
@@ -563,11 +572,20 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
          config.setJournalMaxIO_NIO(journalMaxIO);
       }
 
+      config.setJournalAdaptiveBufferTimeout(getBoolean(e,
+                                                        "journal-adaptive-buffer-timeout",
+                                                        config.isJournalAdaptiveBufferTimeout()));
+
+      config.setJournalStripes(getInteger(e, "journal-stripes", config.getJournalStripes(), Validators.GT_ZERO));
+
       config.setJournalMinFiles(getInteger(e, "journal-min-files", config.getJournalMinFiles(), Validators.GT_ZERO));
 
       config.setJournalCompactMinFiles(getInteger(e, "journal-compact-min-files", config.getJournalCompactMinFiles(),
                                                   Validators.GE_ZERO));
 
+      config.setJournalCompactMaxFiles(getInteger(e, "journal-compact-max-files", config.getJournalCompactMaxFiles(),
+                                                  Validators.GE_ZERO));
+
       config.setJournalCompactPercentage(getInteger(e,
                                                     "journal-compact-percentage",
                                                     config.getJournalCompactPercentage(),
@@ -596,6 +614,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
                                                        config.getMessageCounterMaxDayHistory(),
                                                        Validators.GT_ZERO));
 
+      config.setMetricsEnabled(getBoolean(e, "metrics-enabled", config.isMetricsEnabled()));
+
       config.setServerDumpInterval(getLong(e, "server-dump-interval", config.getServerDumpInterval(),
                                            Validators.MINUS_ONE_OR_GT_ZERO)); // in milliseconds
 
@@ -609,6 +629,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
                                               config.getMemoryMeasureInterval(),
                                               Validators.MINUS_ONE_OR_GT_ZERO)); // in
 
+      config.setPooledMessageBuffers(getBoolean(e, "pooled-message-buffers", config.isPooledMessageBuffers()));
+
+      config.setDirectMessageBuffers(getBoolean(e, "direct-message-buffers", config.isDirectMessageBuffers()));
+
       parseAddressSettings(e, config);
 
       parseQueues(e, config);
@@ -841,6 +865,16 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
          {
             addressSettings.setPageCacheMaxSize(XMLUtil.parseInt(child));
          }
+         else if (COMPRESS_PAGES_NODE_NAME.equalsIgnoreCase(name))
+         {
+            addressSettings.setCompressPages(XMLUtil.parseBoolean(child));
+         }
+         else if (GROUP_BUCKETS_NODE_NAME.equalsIgnoreCase(name))
+         {
+            int groupBuckets = XMLUtil.parseInt(child);
+            Validators.GE_ZERO.validate(GROUP_BUCKETS_NODE_NAME, groupBuckets);
+            addressSettings.setGroupBuckets(groupBuckets);
+         }
          else if (MESSAGE_COUNTER_HISTORY_DAY_LIMIT_NODE_NAME.equalsIgnoreCase(name))
          {
             addressSettings.setMessageCounterHistoryDayLimit(XMLUtil.parseInt(child));
@@ -1421,6 +1455,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
 
       int clusterNotificationAttempts = getInteger(e, "notification-attempts", ActiveMQDefaultConfiguration.getDefaultClusterNotificationAttempts(), Validators.GT_ZERO);
 
+      long loadUpdatePeriod = getLong(e, "load-update-period", ActiveMQDefaultConfiguration.getDefaultClusterLoadUpdatePeriod(), Validators.MINUS_ONE_OR_GT_ZERO);
+
+      boolean loadAwareDistribution = getBoolean(e, "load-aware-distribution", ActiveMQDefaultConfiguration.isDefaultClusterLoadAwareDistribution());
+
       String scaleDownConnector = e.getAttribute("scale-down-connector");
 
       String discoveryGroupName = null;
@@ -1470,7 +1508,9 @@ public final class FileConfigurationParser extends XMLConfigurationUtil
          .setConfirmationWindowSize(confirmationWindowSize)
          .setAllowDirectConnectionsOnly(allowDirectConnectionsOnly)
          .setClusterNotificationInterval(clusterNotificationInterval)
-         .setClusterNotificationAttempts(clusterNotificationAttempts);
+         .setClusterNotificationAttempts(clusterNotificationAttempts)
+         .setLoadUpdatePeriod(loadUpdatePeriod)
+         .setLoadAwareDistribution(loadAwareDistribution);
 
       if (discoveryGroupName == null)
       {
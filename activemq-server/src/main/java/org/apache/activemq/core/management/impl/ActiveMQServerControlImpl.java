@@ -51,8 +51,10 @@ import org.apache.activemq.api.core.management.QueueControl;
 import org.apache.activemq.core.config.BridgeConfiguration;
 import org.apache.activemq.core.config.Configuration;
 import org.apache.activemq.core.config.DivertConfiguration;
+import org.apache.activemq.core.journal.impl.TimedBuffer;
 import org.apache.activemq.core.messagecounter.MessageCounterManager;
 import org.apache.activemq.core.messagecounter.impl.MessageCounterManagerImpl;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.persistence.config.PersistedAddressSetting;
 import org.apache.activemq.core.persistence.config.PersistedRoles;
@@ -291,6 +293,79 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public boolean isJournalAdaptiveBufferTimeout()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         return configuration.isJournalAdaptiveBufferTimeout();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public long getJournalFlushWindow()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         List<TimedBuffer> buffers = server.getStorageManager().getMessageJournalBuffers();
+
+         if (buffers.isEmpty())
+         {
+            return 0;
+         }
+
+         long flushWindow = 0;
+
+         for (TimedBuffer buffer : buffers)
+         {
+            flushWindow += buffer.getFlushWindow();
+         }
+
+         return flushWindow / buffers.size();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public double getJournalAverageBatchSize()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         List<TimedBuffer> buffers = server.getStorageManager().getMessageJournalBuffers();
+
+         if (buffers.isEmpty())
+         {
+            return 0;
+         }
+
+         double batchSize = 0;
+
+         for (TimedBuffer buffer : buffers)
+         {
+            batchSize += buffer.getAverageBatchSize();
+         }
+
+         return batchSize / buffers.size();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
    public void setFailoverOnServerShutdown(boolean failoverOnServerShutdown)
    {
       checkStarted();
@@ -470,6 +545,36 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public long getGlobalMaxSize()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         return configuration.getGlobalMaxSize();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public long getGlobalSize()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         return server.getPagingManager().getGlobalSize();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
    public int getScheduledThreadPoolMaxSize()
    {
       checkStarted();
@@ -860,6 +965,63 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public boolean isMetricsEnabled()
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         return configuration.isMetricsEnabled();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public String listMetricsAsJSON() throws Exception
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         MetricsRegistry metricsRegistry = server.getManagementService().getMetricsRegistry();
+
+         if (metricsRegistry == null)
+         {
+            return new JSONObject().toString();
+         }
+
+         return new JSONObject(metricsRegistry.toMap()).toString();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public void resetMetrics() throws Exception
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         MetricsRegistry metricsRegistry = server.getManagementService().getMetricsRegistry();
+
+         if (metricsRegistry != null)
+         {
+            metricsRegistry.reset();
+         }
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
    public synchronized long getMessageCounterSamplePeriod()
    {
       checkStarted();
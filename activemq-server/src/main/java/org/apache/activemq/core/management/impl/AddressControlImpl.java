@@ -203,6 +203,19 @@ public class AddressControlImpl extends AbstractControl implements AddressContro
       }
    }
 
+   public double getPageCompressionRatio() throws Exception
+   {
+      clearIO();
+      try
+      {
+         return pagingManager.getPageStore(address).getPageCompressionRatio();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
    public long getNumberOfMessages() throws Exception
    {
       clearIO();
@@ -376,6 +376,49 @@ public class QueueControlImpl extends AbstractControl implements QueueControl
       }
    }
 
+   public Map<String, Object>[] listScheduledMessages(final int offset, final int limit) throws Exception
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         List<MessageReference> refs = queue.getScheduledMessages();
+         return convertMessagesToMaps(page(refs, offset, limit));
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   public String listScheduledMessagesAsJSON(final int offset, final int limit) throws Exception
+   {
+      checkStarted();
+
+      clearIO();
+      try
+      {
+         JSONWriter writer = new JSONWriter(null);
+         for (MessageReference ref : page(queue.getScheduledMessages(), offset, limit))
+         {
+            writer.handle(ref.getMessage());
+         }
+         return writer.toString();
+      }
+      finally
+      {
+         blockOnIO();
+      }
+   }
+
+   private static List<MessageReference> page(final List<MessageReference> refs, final int offset, final int limit)
+   {
+      int from = Math.min(Math.max(offset, 0), refs.size());
+      int to = limit < 0 ? refs.size() : (int) Math.min((long) from + limit, refs.size());
+      return refs.subList(from, to);
+   }
+
    /**
     * @param refs
     * @return
@@ -433,33 +476,26 @@ public class QueueControlImpl extends AbstractControl implements QueueControl
    }
 
    public Map<String, Object>[] listMessages(final String filterStr) throws Exception
+   {
+      return listMessages(filterStr, 0, -1);
+   }
+
+   public Map<String, Object>[] listMessages(final String filterStr, final int offset, final int limit) throws Exception
    {
       checkStarted();
 
       clearIO();
       try
       {
-         Filter filter = FilterImpl.createFilter(filterStr);
-         List<Map<String, Object>> messages = new ArrayList<Map<String, Object>>();
-         queue.flushExecutor();
-         LinkedListIterator<MessageReference> iterator = queue.totalIterator();
-         try
+         final List<Map<String, Object>> messages = new ArrayList<Map<String, Object>>();
+         browse(FilterImpl.createFilter(filterStr), offset, limit, new MessageHandler()
          {
-            while (iterator.hasNext())
+            public void handle(final Message message)
             {
-               MessageReference ref = iterator.next();
-               if (filter == null || filter.match(ref.getMessage()))
-               {
-                  Message message = ref.getMessage();
-                  messages.add(message.toMap());
-               }
+               messages.add(message.toMap());
             }
-            return messages.toArray(new Map[messages.size()]);
-         }
-         finally
-         {
-            iterator.close();
-         }
+         });
+         return messages.toArray(new Map[messages.size()]);
       }
       catch (ActiveMQException e)
       {
@@ -472,13 +508,27 @@ public class QueueControlImpl extends AbstractControl implements QueueControl
    }
 
    public String listMessagesAsJSON(final String filter) throws Exception
+   {
+      return listMessagesAsJSON(filter, 0, -1, null);
+   }
+
+   public String listMessagesAsJSON(final String filterStr,
+                                    final int offset,
+                                    final int limit,
+                                    final String properties) throws Exception
    {
       checkStarted();
 
       clearIO();
       try
       {
-         return QueueControlImpl.toJSON(listMessages(filter));
+         JSONWriter writer = new JSONWriter(properties);
+         browse(FilterImpl.createFilter(filterStr), offset, limit, writer);
+         return writer.toString();
+      }
+      catch (ActiveMQException e)
+      {
+         throw new IllegalStateException(e.getMessage());
       }
       finally
       {
@@ -486,6 +536,44 @@ public class QueueControlImpl extends AbstractControl implements QueueControl
       }
    }
 
+   /**
+    * Walks the messages of the queue, paged messages included, handing the page of the messages matching the filter
+    * to the handler one at a time.
+    *
+    * @param limit the maximum number of messages to handle, all of them if negative
+    */
+   private void browse(final Filter filter, final int offset, final int limit, final MessageHandler handler) throws Exception
+   {
+      queue.flushExecutor();
+      LinkedListIterator<MessageReference> iterator = queue.totalIterator();
+      try
+      {
+         int skipped = 0;
+         int handled = 0;
+         while ((limit < 0 || handled < limit) && iterator.hasNext())
+         {
+            MessageReference ref = iterator.next();
+            Message message = ref.getMessage();
+            if (filter == null || filter.match(message))
+            {
+               if (skipped < offset)
+               {
+                  skipped++;
+               }
+               else
+               {
+                  handler.handle(message);
+                  handled++;
+               }
+            }
+         }
+      }
+      finally
+      {
+         iterator.close();
+      }
+   }
+
    public String getFirstMessageAsJSON() throws Exception
    {
       checkStarted();
@@ -1005,4 +1093,68 @@ public class QueueControlImpl extends AbstractControl implements QueueControl
 
 
    // Inner classes -------------------------------------------------
+
+   private interface MessageHandler
+   {
+      void handle(Message message) throws Exception;
+   }
+
+   /**
+    * Writes the messages as a JSON array as they are handed over, instead of holding all of them as maps first.
+    */
+   private static final class JSONWriter implements MessageHandler
+   {
+      private final StringBuilder json = new StringBuilder("[");
+
+      /**
+       * the properties written for each message, null for all of them
+       */
+      private final String[] properties;
+
+      private boolean first = true;
+
+      JSONWriter(final String properties)
+      {
+         if (properties == null || properties.trim().isEmpty())
+         {
+            this.properties = null;
+         }
+         else
+         {
+            this.properties = properties.trim().split("\\s*,\\s*");
+         }
+      }
+
+      public void handle(final Message message)
+      {
+         Map<String, Object> map = message.toMap();
+
+         if (properties != null)
+         {
+            Map<String, Object> projection = new HashMap<String, Object>();
+            for (String property : properties)
+            {
+               if (map.containsKey(property))
+               {
+                  projection.put(property, map.get(property));
+               }
+            }
+            map = projection;
+         }
+
+         if (!first)
+         {
+            json.append(',');
+         }
+         first = false;
+
+         json.append(new JSONObject(map).toString());
+      }
+
+      @Override
+      public String toString()
+      {
+         return json.toString() + "]";
+      }
+   }
 }
@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of a latency, in nanoseconds.
+ * <p>
+ * Each power of two is split into {@link #SUB_BUCKETS} linear buckets, as HdrHistogram does, so any value is counted
+ * in a bucket within about 3% of it, from nanoseconds up to days, with a fixed number of buckets. Recording a value is
+ * a couple of shifts and an atomic increment, the percentiles are only computed when the metrics are pulled.
+ * <p>
+ * As in {@link StripedCounter}, each thread counts in the buckets of its stripe, the stripes being a cache line apart,
+ * and the stripes are summed when the metrics are pulled. There are fewer stripes than for a counter as each one holds
+ * all the buckets.
+ */
+public final class LatencyHistogram
+{
+   private static final int SUB_BUCKET_BITS = 5;
+
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+   /**
+    * the values below {@link #SUB_BUCKETS} have a bucket each, then each power of two up to 2^62 has its sub buckets
+    */
+   private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+   private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+   private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+   private static final int STRIPES = StripedCounter.stripes(8);
+
+   /**
+    * the longs from a stripe to the next, the buckets then a cache line of padding
+    */
+   private static final int STRIPE_LENGTH = BUCKETS + StripedCounter.PADDING;
+
+   private final AtomicLongArray counts = new AtomicLongArray(STRIPES * STRIPE_LENGTH);
+
+   private final StripedCounter total = new StripedCounter();
+
+   private final AtomicLong max = new AtomicLong();
+
+   public void record(final long nanos)
+   {
+      long value = nanos < 0 ? 0 : nanos;
+
+      counts.incrementAndGet(StripedCounter.stripe(STRIPES) * STRIPE_LENGTH + bucket(value));
+
+      total.add(value);
+
+      long currentMax = max.get();
+      while (value > currentMax && !max.compareAndSet(currentMax, value))
+      {
+         currentMax = max.get();
+      }
+   }
+
+   /**
+    * Records the time elapsed since {@code startNanos}, as returned by {@link System#nanoTime()}.
+    */
+   public void recordSince(final long startNanos)
+   {
+      record(System.nanoTime() - startNanos);
+   }
+
+   public long getCount()
+   {
+      long count = 0;
+      for (long bucketCount : snapshot())
+      {
+         count += bucketCount;
+      }
+      return count;
+   }
+
+   public long getMax()
+   {
+      return max.get();
+   }
+
+   public double getMean()
+   {
+      long count = getCount();
+      return count == 0 ? 0 : (double) total.sum() / count;
+   }
+
+   /**
+    * @return the highest value of the bucket holding the given percentile, 0 if nothing was recorded
+    */
+   public long getValueAtPercentile(final double percentile)
+   {
+      return valuesAtPercentiles(snapshot(), new double[]{percentile})[0];
+   }
+
+   /**
+    * @return the count, mean, max and main percentiles of the latency
+    */
+   public Map<String, Object> toMap()
+   {
+      long[] snapshot = snapshot();
+
+      long count = 0;
+      for (long bucketCount : snapshot)
+      {
+         count += bucketCount;
+      }
+
+      long[] values = valuesAtPercentiles(snapshot, PERCENTILES);
+
+      Map<String, Object> map = new LinkedHashMap<String, Object>();
+      map.put("count", count);
+      map.put("mean", count == 0 ? 0 : total.sum() / count);
+      map.put("max", max.get());
+      for (int i = 0; i < PERCENTILES.length; i++)
+      {
+         map.put(PERCENTILE_NAMES[i], values[i]);
+      }
+      return map;
+   }
+
+   public void reset()
+   {
+      for (int i = 0; i < counts.length(); i++)
+      {
+         counts.set(i, 0);
+      }
+      total.reset();
+      max.set(0);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "LatencyHistogram" + toMap();
+   }
+
+   static int bucket(final long value)
+   {
+      if (value < SUB_BUCKETS)
+      {
+         return (int) value;
+      }
+
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   /**
+    * @return the highest value counted in the bucket
+    */
+   static long highestValue(final int bucket)
+   {
+      if (bucket < SUB_BUCKETS)
+      {
+         return bucket;
+      }
+
+      int shift = bucket / SUB_BUCKETS - 1;
+
+      long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+      return lowest + (1L << shift) - 1;
+   }
+
+   private long[] snapshot()
+   {
+      long[] snapshot = new long[BUCKETS];
+      for (int stripe = 0; stripe < STRIPES; stripe++)
+      {
+         for (int i = 0; i < BUCKETS; i++)
+         {
+            snapshot[i] += counts.get(stripe * STRIPE_LENGTH + i);
+         }
+      }
+      return snapshot;
+   }
+
+   /**
+    * @param percentiles in ascending order
+    */
+   private static long[] valuesAtPercentiles(final long[] snapshot, final double[] percentiles)
+   {
+      long count = 0;
+      for (long bucketCount : snapshot)
+      {
+         count += bucketCount;
+      }
+
+      long[] values = new long[percentiles.length];
+
+      if (count == 0)
+      {
+         return values;
+      }
+
+      int percentile = 0;
+      long seen = 0;
+
+      for (int i = 0; i < snapshot.length && percentile < percentiles.length; i++)
+      {
+         seen += snapshot[i];
+
+         while (percentile < percentiles.length && seen > 0 && seen >= Math.ceil(count * percentiles[percentile] / 100))
+         {
+            values[percentile++] = highestValue(i);
+         }
+      }
+
+      return values;
+   }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The counters and latency histograms of a server, by name.
+ * <p>
+ * The components look their metrics up once, when they're created, and then update them directly: the registry is
+ * only involved again when the metrics are pulled through management. The latencies are in nanoseconds.
+ */
+public final class MetricsRegistry
+{
+   /**
+    * the time taken to route a message to its queues
+    */
+   public static final String ROUTE_TIME = "route-time";
+
+   /**
+    * the time the completions of the storage operations wait for the journal to be synced
+    */
+   public static final String JOURNAL_SYNC_TIME = "journal-sync-time";
+
+   /**
+    * the time a message waits in a queue before being delivered to a consumer
+    */
+   public static final String QUEUE_TIME = "queue-time";
+
+   /**
+    * the time taken by each depage run of a queue
+    */
+   public static final String DEPAGE_TIME = "depage-time";
+
+   public static final String DEPAGED_MESSAGES = "depaged-messages";
+
+   private final ConcurrentMap<String, StripedCounter> counters = new ConcurrentHashMap<String, StripedCounter>();
+
+   private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+   /**
+    * @return the name of the counter of the bytes read by an acceptor
+    */
+   public static String getAcceptorBytesIn(final String acceptorName)
+   {
+      return "acceptor." + acceptorName + ".bytes-in";
+   }
+
+   /**
+    * @return the name of the counter of the bytes written by an acceptor
+    */
+   public static String getAcceptorBytesOut(final String acceptorName)
+   {
+      return "acceptor." + acceptorName + ".bytes-out";
+   }
+
+   public StripedCounter getCounter(final String name)
+   {
+      StripedCounter counter = counters.get(name);
+
+      if (counter == null)
+      {
+         counter = new StripedCounter();
+
+         StripedCounter existing = counters.putIfAbsent(name, counter);
+
+         if (existing != null)
+         {
+            counter = existing;
+         }
+      }
+
+      return counter;
+   }
+
+   public LatencyHistogram getHistogram(final String name)
+   {
+      LatencyHistogram histogram = histograms.get(name);
+
+      if (histogram == null)
+      {
+         histogram = new LatencyHistogram();
+
+         LatencyHistogram existing = histograms.putIfAbsent(name, histogram);
+
+         if (existing != null)
+         {
+            histogram = existing;
+         }
+      }
+
+      return histogram;
+   }
+
+   /**
+    * @return the value of each counter and the summary of each histogram, sorted by name
+    */
+   public Map<String, Object> toMap()
+   {
+      Map<String, Object> map = new TreeMap<String, Object>();
+
+      for (Map.Entry<String, StripedCounter> counter : counters.entrySet())
+      {
+         map.put(counter.getKey(), counter.getValue().sum());
+      }
+
+      for (Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet())
+      {
+         map.put(histogram.getKey(), histogram.getValue().toMap());
+      }
+
+      return map;
+   }
+
+   public void reset()
+   {
+      for (StripedCounter counter : counters.values())
+      {
+         counter.reset();
+      }
+
+      for (LatencyHistogram histogram : histograms.values())
+      {
+         histogram.reset();
+      }
+   }
+
+   @Override
+   public String toString()
+   {
+      return "MetricsRegistry" + toMap();
+   }
+}
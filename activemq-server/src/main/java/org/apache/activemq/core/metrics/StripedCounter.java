@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter updated from many threads at once.
+ * <p>
+ * The count is spread over several cells, each thread adding to the cell of its ID, so threads updating the counter
+ * at the same time seldom touch the same cell. The cells are a cache line apart, so they don't share their lines
+ * either. Reading the count sums the cells, which is only done when the metrics are pulled.
+ */
+public final class StripedCounter
+{
+   private static final int STRIPES = stripes(64);
+
+   /**
+    * the longs per cache line, each cell being on a line of its own
+    */
+   static final int PADDING = 8;
+
+   private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+   public void increment()
+   {
+      add(1);
+   }
+
+   public void add(final long delta)
+   {
+      cells.getAndAdd(stripe(STRIPES) * PADDING, delta);
+   }
+
+   public long sum()
+   {
+      long sum = 0;
+      for (int i = 0; i < STRIPES; i++)
+      {
+         sum += cells.get(i * PADDING);
+      }
+      return sum;
+   }
+
+   public void reset()
+   {
+      for (int i = 0; i < STRIPES; i++)
+      {
+         cells.set(i * PADDING, 0);
+      }
+   }
+
+   @Override
+   public String toString()
+   {
+      return Long.toString(sum());
+   }
+
+   /**
+    * @return the power of two above twice the processors, up to {@code max}
+    */
+   static int stripes(final int max)
+   {
+      int processors = Runtime.getRuntime().availableProcessors();
+      int stripes = 1;
+      while (stripes < processors * 2 && stripes < max)
+      {
+         stripes <<= 1;
+      }
+      return stripes;
+   }
+
+   /**
+    * @return the stripe of the current thread, {@code stripes} being a power of two
+    */
+   static int stripe(final int stripes)
+   {
+      return (int) Thread.currentThread().getId() & (stripes - 1);
+   }
+}
@@ -75,6 +75,25 @@ public interface PagingManager extends ActiveMQComponent, HierarchicalRepository
 
    void resumeCleanup();
 
+   /**
+    * Accounts for the memory taken or released by the messages of a store against the global-max-size. While it is
+    * exceeded the largest stores still taking messages into memory are told to page, or to apply their
+    * address-full-policy.
+    */
+   void addSize(PagingStore store, int size);
+
+   /**
+    * @return the bytes the messages of all the stores take in memory
+    */
+   long getGlobalSize();
+
+   /**
+    * @return the global-max-size, {@code -1} if there is no limit
+    */
+   long getGlobalMaxSize();
+
+   boolean isGlobalFull();
+
    /**
     * Lock the manager. This method should not be called during normal PagingManager usage.
     */
@@ -65,6 +65,11 @@ public interface PagingStore extends ActiveMQComponent
 
    long getMaxSize();
 
+   /**
+    * @return how many times bigger the messages written to compressed pages are than the blocks written for them
+    */
+   double getPageCompressionRatio();
+
    void applySetting(AddressSettings addressSettings);
 
    boolean isPaging();
@@ -126,6 +131,25 @@ public interface PagingStore extends ActiveMQComponent
 
    boolean checkMemory(Runnable runnable);
 
+   /**
+    * Called by the {@link PagingManager} when the global-max-size is exceeded and this is the largest store still
+    * taking messages into memory. The store starts paging, or applies its address-full-policy until
+    * {@link #releaseGlobalMaxSize()}.
+    */
+   void applyGlobalMaxSize();
+
+   /**
+    * Called by the {@link PagingManager} once the global size is back under the global-max-size. Stores already
+    * paging keep paging until their pages are consumed.
+    */
+   void releaseGlobalMaxSize();
+
+   /**
+    * @return {@code true} if messages sent to the address are held out of memory, because the store is paging or
+    * applying its address-full-policy
+    */
+   boolean isHoldingMessages();
+
    /**
     * Write lock the PagingStore.
     *
@@ -49,6 +49,23 @@ public final class Page implements Comparable<Page>
 
    private static final byte END_BYTE = (byte) '}';
 
+   /**
+    * A compressed block of records: the start byte, the compressed and the original sizes, the compressed records
+    * and the end byte.
+    */
+   public static final int SIZE_BLOCK_RECORD = DataConstants.SIZE_BYTE + DataConstants.SIZE_INT +
+      DataConstants.SIZE_INT +
+      DataConstants.SIZE_BYTE;
+
+   private static final byte START_BLOCK_BYTE = (byte) '[';
+
+   private static final byte END_BLOCK_BYTE = (byte) ']';
+
+   /**
+    * Records are compressed together once they reach this size, or before the page is synced or closed.
+    */
+   private static final int BLOCK_SIZE = 64 * 1024;
+
    // Attributes ----------------------------------------------------
 
    private final int pageId;
@@ -77,6 +94,16 @@ public final class Page implements Comparable<Page>
     */
    private Set<PageSubscriptionCounter> pendingCounters;
 
+   /**
+    * Set when the records written to this page are compressed, null for the plain format
+    */
+   private PageCompression compression;
+
+   /**
+    * The records written since the last block, while compressing
+    */
+   private ActiveMQBuffer pendingBlock;
+
    public Page(final SimpleString storeName,
                final StorageManager storageManager,
                final SequentialFileFactory factory,
@@ -100,6 +127,19 @@ public final class Page implements Comparable<Page>
       this.pageCache = pageCache;
    }
 
+   /**
+    * Compresses the records written from now on, pages mixing plain records and compressed blocks are read as any
+    * other page.
+    *
+    * @param compression null to write plain records
+    */
+   public synchronized void setCompression(final PageCompression compression) throws Exception
+   {
+      writeBlock();
+
+      this.compression = compression;
+   }
+
    public synchronized List<PagedMessage> read(StorageManager storage) throws Exception
    {
       if (isDebug)
@@ -129,64 +169,120 @@ public final class Page implements Comparable<Page>
          fileBuffer = ActiveMQBuffers.wrappedBuffer(directBuffer);
          fileBuffer.writerIndex(fileBuffer.capacity());
 
-         while (fileBuffer.readable())
+         readRecords(fileBuffer, storage, messages);
+      }
+      finally
+      {
+         if (fileBuffer != null)
          {
-            final int position = fileBuffer.readerIndex();
+            fileBuffer.byteBuf().unwrap().release();
+         }
+         storage.freeDirectBuffer(directBuffer);
+      }
+
+      numberOfMessages.set(messages.size());
 
-            byte byteRead = fileBuffer.readByte();
+      return messages;
+   }
+
+   private void readRecords(final ActiveMQBuffer fileBuffer, final StorageManager storage,
+                            final List<PagedMessage> messages) throws Exception
+   {
+      while (fileBuffer.readable())
+      {
+         final int position = fileBuffer.readerIndex();
+
+         byte byteRead = fileBuffer.readByte();
 
-            if (byteRead == Page.START_BYTE)
+         if (byteRead == Page.START_BYTE)
+         {
+            if (fileBuffer.readerIndex() + DataConstants.SIZE_INT < fileBuffer.capacity())
             {
-               if (fileBuffer.readerIndex() + DataConstants.SIZE_INT < fileBuffer.capacity())
+               int messageSize = fileBuffer.readInt();
+               int oldPos = fileBuffer.readerIndex();
+               if (fileBuffer.readerIndex() + messageSize < fileBuffer.capacity() &&
+                  fileBuffer.getByte(oldPos + messageSize) == Page.END_BYTE)
                {
-                  int messageSize = fileBuffer.readInt();
-                  int oldPos = fileBuffer.readerIndex();
-                  if (fileBuffer.readerIndex() + messageSize < fileBuffer.capacity() &&
-                     fileBuffer.getByte(oldPos + messageSize) == Page.END_BYTE)
+                  PagedMessage msg = new PagedMessageImpl();
+                  msg.decode(fileBuffer);
+                  byte b = fileBuffer.readByte();
+                  if (b != Page.END_BYTE)
                   {
-                     PagedMessage msg = new PagedMessageImpl();
-                     msg.decode(fileBuffer);
-                     byte b = fileBuffer.readByte();
-                     if (b != Page.END_BYTE)
-                     {
-                        // Sanity Check: This would only happen if there is a bug on decode or any internal code, as
-                        // this
-                        // constraint was already checked
-                        throw new IllegalStateException("Internal error, it wasn't possible to locate END_BYTE " + b);
-                     }
-                     msg.initMessage(storage);
-                     if (isTrace)
-                     {
-                        ActiveMQServerLogger.LOGGER.trace("Reading message " + msg + " on pageId=" + this.pageId + " for address=" + storeName);
-                     }
-                     messages.add(msg);
+                     // Sanity Check: This would only happen if there is a bug on decode or any internal code, as
+                     // this
+                     // constraint was already checked
+                     throw new IllegalStateException("Internal error, it wasn't possible to locate END_BYTE " + b);
                   }
-                  else
+                  msg.initMessage(storage);
+                  if (isTrace)
                   {
-                     markFileAsSuspect(file.getFileName(), position, messages.size());
-                     break;
+                     ActiveMQServerLogger.LOGGER.trace("Reading message " + msg + " on pageId=" + this.pageId + " for address=" + storeName);
                   }
+                  messages.add(msg);
+               }
+               else
+               {
+                  markFileAsSuspect(file.getFileName(), position, messages.size());
+                  break;
                }
             }
-            else
+         }
+         else if (byteRead == Page.START_BLOCK_BYTE)
+         {
+            if (!readBlock(fileBuffer, storage, messages))
             {
                markFileAsSuspect(file.getFileName(), position, messages.size());
                break;
             }
          }
-      }
-      finally
-      {
-         if (fileBuffer != null)
+         else
          {
-            fileBuffer.byteBuf().unwrap().release();
+            markFileAsSuspect(file.getFileName(), position, messages.size());
+            break;
          }
-         storage.freeDirectBuffer(directBuffer);
       }
+   }
 
-      numberOfMessages.set(messages.size());
+   /**
+    * @return false if the block is incomplete or corrupted
+    */
+   private boolean readBlock(final ActiveMQBuffer fileBuffer, final StorageManager storage,
+                             final List<PagedMessage> messages) throws Exception
+   {
+      if (fileBuffer.readerIndex() + 2 * DataConstants.SIZE_INT >= fileBuffer.capacity())
+      {
+         return false;
+      }
 
-      return messages;
+      int compressedSize = fileBuffer.readInt();
+      int originalSize = fileBuffer.readInt();
+
+      // the sizes are checked before allocating anything, a corrupted header could declare up to 2GB
+      if (compressedSize < 0 || originalSize < 0 || originalSize > PageCompression.maxDecompressedLength(compressedSize) ||
+         fileBuffer.readerIndex() + compressedSize >= fileBuffer.capacity() ||
+         fileBuffer.getByte(fileBuffer.readerIndex() + compressedSize) != Page.END_BLOCK_BYTE)
+      {
+         return false;
+      }
+
+      byte[] compressed = new byte[compressedSize];
+      fileBuffer.readBytes(compressed);
+      fileBuffer.readByte();
+
+      byte[] records = new byte[originalSize];
+
+      try
+      {
+         PageCompression.decompress(compressed, records);
+      }
+      catch (IllegalArgumentException e)
+      {
+         return false;
+      }
+
+      readRecords(ActiveMQBuffers.wrappedBuffer(records), storage, messages);
+
+      return true;
    }
 
    public synchronized void write(final PagedMessage message) throws Exception
@@ -197,22 +293,35 @@ public final class Page implements Comparable<Page>
          return;
       }
 
-      ByteBuffer buffer = fileFactory.newBuffer(message.getEncodeSize() + Page.SIZE_RECORD);
+      if (compression != null)
+      {
+         if (pendingBlock == null)
+         {
+            pendingBlock = ActiveMQBuffers.dynamicBuffer(BLOCK_SIZE);
+         }
 
-      ActiveMQBuffer wrap = ActiveMQBuffers.wrappedBuffer(buffer);
-      wrap.clear();
+         writeRecord(pendingBlock, message);
 
-      wrap.writeByte(Page.START_BYTE);
-      wrap.writeInt(0);
-      int startIndex = wrap.writerIndex();
-      message.encode(wrap);
-      int endIndex = wrap.writerIndex();
-      wrap.setInt(1, endIndex - startIndex); // The encoded length
-      wrap.writeByte(Page.END_BYTE);
+         if (pendingBlock.writerIndex() >= BLOCK_SIZE)
+         {
+            writeBlock();
+         }
+      }
+      else
+      {
+         ByteBuffer buffer = fileFactory.newBuffer(message.getEncodeSize() + Page.SIZE_RECORD);
 
-      buffer.rewind();
+         ActiveMQBuffer wrap = ActiveMQBuffers.wrappedBuffer(buffer);
+         wrap.clear();
 
-      file.writeDirect(buffer, false);
+         writeRecord(wrap, message);
+
+         buffer.rewind();
+
+         file.writeDirect(buffer, false);
+
+         size.addAndGet(buffer.limit());
+      }
 
       if (pageCache != null)
       {
@@ -220,13 +329,77 @@ public final class Page implements Comparable<Page>
       }
 
       numberOfMessages.incrementAndGet();
-      size.addAndGet(buffer.limit());
 
       storageManager.pageWrite(message, pageId);
    }
 
+   private static void writeRecord(final ActiveMQBuffer buffer, final PagedMessage message)
+   {
+      buffer.writeByte(Page.START_BYTE);
+      buffer.writeInt(0);
+      int startIndex = buffer.writerIndex();
+      message.encode(buffer);
+      int endIndex = buffer.writerIndex();
+      buffer.setInt(startIndex - DataConstants.SIZE_INT, endIndex - startIndex); // The encoded length
+      buffer.writeByte(Page.END_BYTE);
+   }
+
+   /**
+    * Writes the pending records to the file, as a compressed block when that makes them any smaller.
+    */
+   private synchronized void writeBlock() throws Exception
+   {
+      if (pendingBlock == null || !pendingBlock.readable())
+      {
+         return;
+      }
+
+      // the records were already counted as paged, they can't be dropped quietly
+      if (!file.isOpen())
+      {
+         throw ActiveMQMessageBundle.BUNDLE.pageClosedWithPendingRecords(file.getFileName(), pendingBlock.writerIndex());
+      }
+
+      int length = pendingBlock.writerIndex();
+
+      byte[] records = pendingBlock.byteBuf().array();
+
+      int offset = pendingBlock.byteBuf().arrayOffset();
+
+      byte[] compressed = new byte[compression.maxCompressedLength(length)];
+
+      int compressedLength = compression.compress(records, offset, length, compressed);
+
+      ByteBuffer buffer;
+
+      if (compressedLength < 0)
+      {
+         buffer = fileFactory.newBuffer(length);
+         buffer.put(records, offset, length);
+      }
+      else
+      {
+         buffer = fileFactory.newBuffer(compressedLength + Page.SIZE_BLOCK_RECORD);
+         buffer.put(Page.START_BLOCK_BYTE);
+         buffer.putInt(compressedLength);
+         buffer.putInt(length);
+         buffer.put(compressed, 0, compressedLength);
+         buffer.put(Page.END_BLOCK_BYTE);
+      }
+
+      buffer.rewind();
+
+      file.writeDirect(buffer, false);
+
+      size.addAndGet(buffer.limit());
+
+      pendingBlock.clear();
+   }
+
    public void sync() throws Exception
    {
+      writeBlock();
+
       file.sync();
    }
 
@@ -242,6 +415,8 @@ public final class Page implements Comparable<Page>
 
    public synchronized void close() throws Exception
    {
+      writeBlock();
+
       if (storageManager != null)
       {
          storageManager.pageClosed(storeName, pageId);
@@ -347,6 +522,7 @@ public final class Page implements Comparable<Page>
       {
          if (file != null && file.isOpen())
          {
+            writeBlock();
             file.close();
          }
       }
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.paging.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.api.core.client.compression.BodyCodec;
+import org.apache.activemq.api.core.client.compression.BodyCodecs;
+import org.apache.activemq.api.core.client.compression.LZBodyCodec;
+
+/**
+ * Compresses the blocks of messages a {@link Page} writes, keeping count of the bytes saved on the pages of a store.
+ * <p>
+ * There is a single codec for the page files, so any page can be read whatever the settings of its address were
+ * when it was written.
+ */
+public final class PageCompression
+{
+   private static final BodyCodec CODEC = new LZBodyCodec();
+
+   private final AtomicLong uncompressedBytes = new AtomicLong(0);
+
+   private final AtomicLong compressedBytes = new AtomicLong(0);
+
+   /**
+    * @return the size of the buffer {@link #compress(byte[], int, int, byte[])} needs for {@code length} bytes
+    */
+   public int maxCompressedLength(final int length)
+   {
+      return CODEC.maxCompressedLength(length);
+   }
+
+   /**
+    * @return the number of bytes written to {@code dest}, or -1 if the block didn't get any smaller and should be
+    * written as it is
+    */
+   public int compress(final byte[] src, final int srcOffset, final int length, final byte[] dest)
+   {
+      int compressedLength = CODEC.compress(src, srcOffset, length, dest, 0);
+
+      uncompressedBytes.addAndGet(length);
+
+      if (compressedLength >= length)
+      {
+         compressedBytes.addAndGet(length);
+         return -1;
+      }
+
+      compressedBytes.addAndGet(compressedLength);
+
+      return compressedLength;
+   }
+
+   /**
+    * @return the most {@code compressedLength} bytes can be decompressed into
+    */
+   public static long maxDecompressedLength(final int compressedLength)
+   {
+      return (long) compressedLength * BodyCodecs.MAX_EXPANSION + 16;
+   }
+
+   /**
+    * @throws IllegalArgumentException if {@code src} isn't a compressed block
+    */
+   public static void decompress(final byte[] src, final byte[] dest)
+   {
+      CODEC.decompress(src, 0, src.length, dest, 0, dest.length);
+   }
+
+   /**
+    * @return how many times bigger the messages are than what was written for them, 1 until something is written
+    */
+   public double getRatio()
+   {
+      long compressed = compressedBytes.get();
+
+      return compressed == 0 ? 1 : (double) uncompressedBytes.get() / compressed;
+   }
+}
@@ -16,11 +16,14 @@
  */
 package org.apache.activemq.core.paging.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.activemq.api.core.SimpleString;
@@ -55,6 +58,19 @@ public final class PagingManagerImpl implements PagingManager
    private final ConcurrentMap</*TransactionID*/Long, PageTransactionInfo> transactions =
       new ConcurrentHashMap<Long, PageTransactionInfo>();
 
+   private final long globalMaxSize;
+
+   // Bytes consumed by the messages of all the stores on the memory
+   private final AtomicLong globalSizeBytes = new AtomicLong();
+
+   private final AtomicBoolean globalFull = new AtomicBoolean();
+
+   // only one thread looks for the largest store at a time, the others carry on with their messages
+   private final AtomicBoolean applyingGlobalMaxSize = new AtomicBoolean();
+
+   // Bytes of the stores holding messages out of memory when the global-max-size was last applied, these only drain
+   private volatile long heldBackSize;
+
    // Static
    // --------------------------------------------------------------------------------------------------------------------------
 
@@ -65,9 +81,17 @@ public final class PagingManagerImpl implements PagingManager
 
    public PagingManagerImpl(final PagingStoreFactory pagingSPI,
                             final HierarchicalRepository<AddressSettings> addressSettingsRepository)
+   {
+      this(pagingSPI, addressSettingsRepository, -1);
+   }
+
+   public PagingManagerImpl(final PagingStoreFactory pagingSPI,
+                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                            final long globalMaxSize)
    {
       pagingStoreFactory = pagingSPI;
       this.addressSettingsRepository = addressSettingsRepository;
+      this.globalMaxSize = globalMaxSize;
       addressSettingsRepository.registerListener(this);
    }
 
@@ -130,6 +154,158 @@ public final class PagingManagerImpl implements PagingManager
       }
    }
 
+   public void addSize(final PagingStore store, final int size)
+   {
+      long globalSize = globalSizeBytes.addAndGet(size);
+
+      if (globalMaxSize < 0)
+      {
+         return;
+      }
+
+      if (globalSize > globalMaxSize)
+      {
+         if (size > 0)
+         {
+            globalFull.set(true);
+
+            // messages taken by a store already held back, e.g. paged messages being delivered, hold back no other,
+            // and neither do messages the held back stores already made room for
+            if (!store.isHoldingMessages() && globalSize - heldBackSize > globalMaxSize)
+            {
+               applyGlobalMaxSize();
+            }
+         }
+      }
+      else if (globalFull.get())
+      {
+         releaseGlobalMaxSize();
+      }
+   }
+
+   public long getGlobalSize()
+   {
+      return globalSizeBytes.get();
+   }
+
+   public long getGlobalMaxSize()
+   {
+      return globalMaxSize;
+   }
+
+   public boolean isGlobalFull()
+   {
+      return globalFull.get();
+   }
+
+   /**
+    * Pushes the largest stores still taking messages into memory to page, or to apply their address-full-policy,
+    * until the stores left taking messages fit in the global-max-size.
+    * <p>
+    * The in-memory messages of the held back stores are only released as they are consumed, so the global size stays
+    * over the limit for a while. The stores are only scanned again once the other stores take more than the room the
+    * held back stores are projected to free.
+    */
+   private void applyGlobalMaxSize()
+   {
+      if (!applyingGlobalMaxSize.compareAndSet(false, true))
+      {
+         return;
+      }
+
+      try
+      {
+         List<PagingStore> candidates = new ArrayList<PagingStore>();
+         long heldBack = 0;
+
+         for (PagingStore store : stores.values())
+         {
+            if (store.isHoldingMessages())
+            {
+               heldBack += store.getAddressSize();
+            }
+            else
+            {
+               candidates.add(store);
+            }
+         }
+
+         // the sizes keep changing, so they are read once rather than sorting on them
+         long[] sizes = new long[candidates.size()];
+
+         for (int i = 0; i < sizes.length; i++)
+         {
+            sizes[i] = candidates.get(i).getAddressSize();
+         }
+
+         boolean applied = false;
+
+         while (globalSizeBytes.get() - heldBack > globalMaxSize)
+         {
+            int largest = -1;
+
+            for (int i = 0; i < sizes.length; i++)
+            {
+               if (sizes[i] > 0 && (largest < 0 || sizes[i] > sizes[largest]))
+               {
+                  largest = i;
+               }
+            }
+
+            if (largest < 0)
+            {
+               break;
+            }
+
+            PagingStore store = candidates.get(largest);
+
+            ActiveMQServerLogger.LOGGER.globalMaxSizeExceeded(store.getStoreName(),
+                                                              store.getAddressFullMessagePolicy().toString(),
+                                                              sizes[largest],
+                                                              globalSizeBytes.get(),
+                                                              globalMaxSize);
+            store.applyGlobalMaxSize();
+
+            heldBack += sizes[largest];
+            sizes[largest] = 0;
+            applied = true;
+         }
+
+         heldBackSize = heldBack;
+
+         if (applied)
+         {
+            // the global size could have dropped while the stores were held back, it can't miss being released
+            globalFull.set(true);
+            if (globalSizeBytes.get() <= globalMaxSize)
+            {
+               releaseGlobalMaxSize();
+            }
+         }
+      }
+      finally
+      {
+         applyingGlobalMaxSize.set(false);
+      }
+   }
+
+   private void releaseGlobalMaxSize()
+   {
+      if (!globalFull.compareAndSet(true, false))
+      {
+         return;
+      }
+
+      heldBackSize = 0;
+
+      ActiveMQServerLogger.LOGGER.globalMaxSizeReleased(globalSizeBytes.get(), globalMaxSize);
+
+      for (PagingStore store : stores.values())
+      {
+         store.releaseGlobalMaxSize();
+      }
+   }
+
    public SimpleString[] getStoreNames()
    {
       Set<SimpleString> names = stores.keySet();
@@ -120,6 +120,13 @@ public class PagingStoreImpl implements PagingStore
 
    private volatile AtomicBoolean blocking = new AtomicBoolean(false);
 
+   // set by the paging manager while the global-max-size is exceeded, for policies other than PAGE
+   private volatile boolean overGlobalMaxSize;
+
+   private volatile boolean compressPages;
+
+   private final PageCompression pageCompression = new PageCompression();
+
    private static final boolean isTrace = ActiveMQServerLogger.LOGGER.isTraceEnabled();
 
    public PagingStoreImpl(final SimpleString address,
@@ -194,6 +201,8 @@ public class PagingStoreImpl implements PagingStore
 
       addressFullMessagePolicy = addressSettings.getAddressFullMessagePolicy();
 
+      compressPages = addressSettings.isCompressPages();
+
       if (cursorProvider != null)
       {
          cursorProvider.setCacheMaxSize(addressSettings.getPageCacheMaxSize());
@@ -249,6 +258,11 @@ public class PagingStoreImpl implements PagingStore
       return sizeInBytes.get();
    }
 
+   public double getPageCompressionRatio()
+   {
+      return pageCompression.getRatio();
+   }
+
    public long getMaxSize()
    {
       return maxSize;
@@ -453,6 +467,7 @@ public class PagingStoreImpl implements PagingStore
                {
                   currentPage = createPage(currentPageId);
                   currentPage.open();
+                  currentPage.setCompression(compressPages ? pageCompression : null);
 
                   List<PagedMessage> messages = currentPage.read(storageManager);
 
@@ -730,9 +745,9 @@ public class PagingStoreImpl implements PagingStore
 
    public boolean checkMemory(final Runnable runWhenAvailable)
    {
-      if (addressFullMessagePolicy == AddressFullMessagePolicy.BLOCK && maxSize != -1)
+      if (addressFullMessagePolicy == AddressFullMessagePolicy.BLOCK)
       {
-         if (sizeInBytes.get() > maxSize)
+         if (isOverMaxSize())
          {
             OurRunnable ourRunnable = new OurRunnable(runWhenAvailable);
 
@@ -742,7 +757,7 @@ public class PagingStoreImpl implements PagingStore
             // has been added, but the check to execute was done before the element was added
             // NOTE! We do not fix this race by locking the whole thing, doing this check provides
             // MUCH better performance in a highly concurrent environment
-            if (sizeInBytes.get() <= maxSize)
+            if (!isOverMaxSize())
             {
                // run it now
                ourRunnable.run();
@@ -756,9 +771,9 @@ public class PagingStoreImpl implements PagingStore
             return true;
          }
       }
-      else if (addressFullMessagePolicy == AddressFullMessagePolicy.FAIL && maxSize != -1)
+      else if (addressFullMessagePolicy == AddressFullMessagePolicy.FAIL)
       {
-         if (sizeInBytes.get() > maxSize)
+         if (isOverMaxSize())
          {
             return false;
          }
@@ -773,25 +788,12 @@ public class PagingStoreImpl implements PagingStore
    {
       if (addressFullMessagePolicy == AddressFullMessagePolicy.BLOCK)
       {
-         if (maxSize != -1)
-         {
-            long newSize = sizeInBytes.addAndGet(size);
+         sizeInBytes.addAndGet(size);
 
-            if (newSize <= maxSize)
-            {
-               if (!onMemoryFreedRunnables.isEmpty())
-               {
-                  executor.execute(memoryFreedRunnablesExecutor);
-                  if (blocking.get())
-                  {
-                     ActiveMQServerLogger.LOGGER.unblockingMessageProduction(address, sizeInBytes.get(), maxSize);
-                     blocking.set(false);
-                  }
-               }
-            }
+         if (maxSize != -1 && !isOverMaxSize())
+         {
+            releaseBlockedProducers();
          }
-
-         return;
       }
       else if (addressFullMessagePolicy == AddressFullMessagePolicy.PAGE)
       {
@@ -807,14 +809,67 @@ public class PagingStoreImpl implements PagingStore
                }
             }
          }
-
-         return;
       }
       else if (addressFullMessagePolicy == AddressFullMessagePolicy.DROP || addressFullMessagePolicy == AddressFullMessagePolicy.FAIL)
       {
          sizeInBytes.addAndGet(size);
       }
 
+      pagingManager.addSize(this, size);
+   }
+
+   public void applyGlobalMaxSize()
+   {
+      if (addressFullMessagePolicy == AddressFullMessagePolicy.PAGE)
+      {
+         startPaging();
+      }
+      else
+      {
+         overGlobalMaxSize = true;
+      }
+   }
+
+   public void releaseGlobalMaxSize()
+   {
+      if (!overGlobalMaxSize)
+      {
+         return;
+      }
+
+      overGlobalMaxSize = false;
+
+      if (!isOverMaxSize())
+      {
+         releaseBlockedProducers();
+      }
+   }
+
+   public boolean isHoldingMessages()
+   {
+      if (addressFullMessagePolicy == AddressFullMessagePolicy.PAGE)
+      {
+         return paging;
+      }
+      return isOverMaxSize();
+   }
+
+   private boolean isOverMaxSize()
+   {
+      return overGlobalMaxSize || maxSize != -1 && sizeInBytes.get() > maxSize;
+   }
+
+   private void releaseBlockedProducers()
+   {
+      if (!onMemoryFreedRunnables.isEmpty())
+      {
+         executor.execute(memoryFreedRunnablesExecutor);
+         if (blocking.get())
+         {
+            ActiveMQServerLogger.LOGGER.unblockingMessageProduction(address, sizeInBytes.get(), maxSize);
+            blocking.set(false);
+         }
+      }
    }
 
    @Override
@@ -899,6 +954,9 @@ public class PagingStoreImpl implements PagingStore
                message.forceAddress(address);
             }
 
+            // the live page cache keeps the message, which no queue references
+            message.unpoolBuffer();
+
             final long transactionID = tx == null ? -1 : tx.getID();
             PagedMessage pagedMessage = new PagedMessageImpl(message, routeQueues(tx, listCtx), transactionID);
 
@@ -1167,6 +1225,8 @@ public class PagingStoreImpl implements PagingStore
 
          currentPage.open();
 
+         currentPage.setCompression(compressPages ? pageCompression : null);
+
          currentPageId = tmpCurrentPageId;
 
          if (currentPageId < firstPageId)
@@ -1201,7 +1261,7 @@ public class PagingStoreImpl implements PagingStore
    // To be used on isDropMessagesWhenFull
    public boolean isFull()
    {
-      return maxSize > 0 && getAddressSize() > maxSize;
+      return overGlobalMaxSize || maxSize > 0 && getAddressSize() > maxSize;
    }
 
    @Override
@@ -1224,6 +1284,12 @@ public class PagingStoreImpl implements PagingStore
       lock.writeLock().lock();
       try
       {
+         if (currentPage != null)
+         {
+            // a compressed page may still hold records which are not on the file
+            currentPage.sync();
+         }
+
          for (Integer id : pageIds)
          {
             SequentialFile sFile = fileFactory.createSequentialFile(createFileName(id), 1);
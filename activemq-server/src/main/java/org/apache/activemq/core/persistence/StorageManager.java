@@ -29,6 +29,7 @@ import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.journal.Journal;
 import org.apache.activemq.core.journal.JournalLoadInformation;
 import org.apache.activemq.core.journal.SequentialFile;
+import org.apache.activemq.core.journal.impl.TimedBuffer;
 import org.apache.activemq.core.message.impl.MessageInternal;
 import org.apache.activemq.core.paging.PageTransactionInfo;
 import org.apache.activemq.core.paging.PagedMessage;
@@ -341,6 +342,12 @@ public interface StorageManager extends IDGenerator, ActiveMQComponent
     */
    Journal getMessageJournal();
 
+   /**
+    * @return the buffers the writes of the message journal are grouped in, one for each journal stripe, or an empty
+    * list if they are not buffered
+    */
+   List<TimedBuffer> getMessageJournalBuffers();
+
    /**
     * @see org.apache.activemq.core.persistence.impl.journal.JournalStorageManager#startReplication(org.apache.activemq.core.replication.ReplicationManager, org.apache.activemq.core.paging.PagingManager, String, boolean)
     */
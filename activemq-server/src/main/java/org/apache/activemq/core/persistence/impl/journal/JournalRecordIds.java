@@ -79,4 +79,7 @@ public final class JournalRecordIds
    public static final byte PAGE_CURSOR_COMPLETE = 42;
 
    public static final byte PAGE_CURSOR_PENDING_COUNTER = 43;
+
+   // 100 is used by the striped journal to commit the transactions spanning several stripes, see
+   // org.apache.activemq.core.journal.impl.StripedJournal#STRIPED_COMMIT_RECORD
 }
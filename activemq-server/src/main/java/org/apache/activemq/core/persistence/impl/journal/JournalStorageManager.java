@@ -17,8 +17,11 @@
 package org.apache.activemq.core.persistence.impl.journal;
 
 import javax.transaction.xa.Xid;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.DigestInputStream;
@@ -68,8 +71,13 @@ import org.apache.activemq.core.journal.TransactionFailureCallback;
 import org.apache.activemq.core.journal.impl.AIOSequentialFileFactory;
 import org.apache.activemq.core.journal.impl.JournalFile;
 import org.apache.activemq.core.journal.impl.JournalImpl;
+import org.apache.activemq.core.journal.impl.JournalReaderCallbackAbstract;
+import org.apache.activemq.core.journal.impl.StripedJournal;
 import org.apache.activemq.core.journal.impl.NIOSequentialFileFactory;
+import org.apache.activemq.core.journal.impl.TimedBuffer;
 import org.apache.activemq.core.message.impl.MessageInternal;
+import org.apache.activemq.core.metrics.LatencyHistogram;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.PageTransactionInfo;
 import org.apache.activemq.core.paging.PagedMessage;
 import org.apache.activemq.core.paging.PagingManager;
@@ -143,6 +151,11 @@ public class JournalStorageManager implements StorageManager
 {
    private static final long CHECKPOINT_BATCH_SIZE = Integer.MAX_VALUE;
 
+   /**
+    * The file in the journal directory holding the number of stripes the message journal was written with
+    */
+   private static final String JOURNAL_STRIPES_FILE = "journal-stripes";
+
    private final Semaphore pageMaxConcurrentIO;
 
    private final BatchingIDGenerator idGenerator;
@@ -174,6 +187,11 @@ public class JournalStorageManager implements StorageManager
 
    private final SequentialFileFactory journalFF;
 
+   /**
+    * The factories of the journal stripes, the first one being {@link #journalFF}
+    */
+   private final SequentialFileFactory[] journalStripeFFs;
+
    private Journal messageJournal;
 
    private Journal bindingsJournal;
@@ -191,6 +209,11 @@ public class JournalStorageManager implements StorageManager
     */
    private final ExecutorFactory executorFactory;
 
+   /**
+    * Handed to the Operation Contexts, null when the metrics are disabled
+    */
+   private volatile LatencyHistogram syncTime;
+
    private final Executor executor;
 
    private ExecutorService singleThreadExecutor;
@@ -209,6 +232,10 @@ public class JournalStorageManager implements StorageManager
 
    private final String journalDir;
 
+   private final String[] journalStripeDirs;
+
+   private final int journalFileSize;
+
    private final String largeMessagesDirectory;
 
    private boolean journalLoaded = false;
@@ -251,14 +278,16 @@ public class JournalStorageManager implements StorageManager
 
       SequentialFileFactory bindingsFF = new NIOSequentialFileFactory(bindingsDir, criticalErrorListener);
 
-      Journal localBindings = new JournalImpl(1024 * 1024,
-                                              2,
-                                              config.getJournalCompactMinFiles(),
-                                              config.getJournalCompactPercentage(),
-                                              bindingsFF,
-                                              "activemq-bindings",
-                                              "bindings",
-                                              1);
+      JournalImpl localBindings = new JournalImpl(1024 * 1024,
+                                                  2,
+                                                  config.getJournalCompactMinFiles(),
+                                                  config.getJournalCompactPercentage(),
+                                                  bindingsFF,
+                                                  "activemq-bindings",
+                                                  "bindings",
+                                                  1);
+
+      localBindings.setCompactMaxFiles(config.getJournalCompactMaxFiles());
 
       bindingsJournal = localBindings;
       originalBindingsJournal = localBindings;
@@ -277,39 +306,52 @@ public class JournalStorageManager implements StorageManager
       if (config.getJournalType() == JournalType.ASYNCIO)
       {
          ActiveMQServerLogger.LOGGER.journalUseAIO();
-
-         journalFF = new AIOSequentialFileFactory(journalDir,
-                                                  config.getJournalBufferSize_AIO(),
-                                                  config.getJournalBufferTimeout_AIO(),
-                                                  config.isLogJournalWriteRate(),
-                                                  criticalErrorListener);
       }
       else if (config.getJournalType() == JournalType.NIO)
       {
          ActiveMQServerLogger.LOGGER.journalUseNIO();
-         journalFF = new NIOSequentialFileFactory(journalDir,
-                                                  true,
-                                                  config.getJournalBufferSize_NIO(),
-                                                  config.getJournalBufferTimeout_NIO(),
-                                                  config.isLogJournalWriteRate(),
-                                                  criticalErrorListener);
       }
       else
       {
          throw ActiveMQMessageBundle.BUNDLE.invalidJournalType2(config.getJournalType());
       }
 
+      journalFF = createJournalFactory(config, journalDir, criticalErrorListener);
+
       idGenerator = new BatchingIDGenerator(0, JournalStorageManager.CHECKPOINT_BATCH_SIZE, this);
 
-      Journal localMessage = new JournalImpl(config.getJournalFileSize(),
-                                             config.getJournalMinFiles(),
-                                             config.getJournalCompactMinFiles(),
-                                             config.getJournalCompactPercentage(),
-                                             journalFF,
-                                             "activemq-data",
-                                             "amq",
-                                             config.getJournalType() == JournalType.ASYNCIO ? config.getJournalMaxIO_AIO()
-                                                : config.getJournalMaxIO_NIO());
+      Journal localMessage;
+
+      journalStripeDirs = new String[config.getJournalStripes() - 1];
+
+      journalStripeFFs = new SequentialFileFactory[journalStripeDirs.length + 1];
+
+      journalStripeFFs[0] = journalFF;
+
+      journalFileSize = config.getJournalFileSize();
+
+      if (journalStripeDirs.length == 0)
+      {
+         localMessage = createMessageJournal(config, journalFF);
+      }
+      else
+      {
+         // the messages are spread over several journals, the first one in the journal directory
+         JournalImpl[] stripes = new JournalImpl[journalStripeDirs.length + 1];
+
+         stripes[0] = createMessageJournal(config, journalFF);
+
+         for (int i = 1; i < stripes.length; i++)
+         {
+            journalStripeDirs[i - 1] = getStripeDirectory(journalDir, i);
+
+            journalStripeFFs[i] = createJournalFactory(config, journalStripeDirs[i - 1], criticalErrorListener);
+
+            stripes[i] = createMessageJournal(config, journalStripeFFs[i]);
+         }
+
+         localMessage = new StripedJournal(stripes);
+      }
 
       messageJournal = localMessage;
       originalMessageJournal = localMessage;
@@ -744,7 +786,7 @@ public class JournalStorageManager implements StorageManager
 
    public OperationContext getContext()
    {
-      return OperationContextImpl.getContext(executorFactory);
+      return OperationContextImpl.getContext(executorFactory, syncTime);
    }
 
    public void setContext(final OperationContext context)
@@ -764,7 +806,7 @@ public class JournalStorageManager implements StorageManager
 
    public OperationContext newContext(final Executor executor1)
    {
-      return new OperationContextImpl(executor1);
+      return new OperationContextImpl(executor1, syncTime);
    }
 
    public void afterCompleteOperations(final IOAsyncTask run)
@@ -2245,8 +2287,15 @@ public class JournalStorageManager implements StorageManager
 
       checkAndCreateDir(journalDir, createJournalDir);
 
+      for (String journalStripeDir : journalStripeDirs)
+      {
+         checkAndCreateDir(journalStripeDir, createJournalDir);
+      }
+
       checkAndCreateDir(largeMessagesDirectory, createJournalDir);
 
+      checkJournalStripes();
+
       cleanupIncompleteFiles();
 
       singleThreadExecutor = Executors.newSingleThreadExecutor(new ActiveMQThreadFactory("ActiveMQ-IO-SingleThread",
@@ -2389,11 +2438,36 @@ public class JournalStorageManager implements StorageManager
 
    // Public -----------------------------------------------------------------------------------
 
+   /**
+    * Records the time the operation contexts wait for the journal syncs on the metrics, if not null.
+    */
+   public void setMetricsRegistry(final MetricsRegistry metricsRegistry)
+   {
+      syncTime = metricsRegistry == null ? null : metricsRegistry.getHistogram(MetricsRegistry.JOURNAL_SYNC_TIME);
+   }
+
    public Journal getMessageJournal()
    {
       return messageJournal;
    }
 
+   public List<TimedBuffer> getMessageJournalBuffers()
+   {
+      List<TimedBuffer> buffers = new ArrayList<TimedBuffer>(journalStripeFFs.length);
+
+      for (SequentialFileFactory factory : journalStripeFFs)
+      {
+         TimedBuffer buffer = factory.getTimedBuffer();
+
+         if (buffer != null)
+         {
+            buffers.add(buffer);
+         }
+      }
+
+      return buffers;
+   }
+
    public Journal getBindingsJournal()
    {
       return bindingsJournal;
@@ -2523,6 +2597,176 @@ public class JournalStorageManager implements StorageManager
 
    // Private ----------------------------------------------------------------------------------
 
+   private static SequentialFileFactory createJournalFactory(final Configuration config,
+                                                             final String dir,
+                                                             final IOCriticalErrorListener criticalErrorListener)
+   {
+      if (config.getJournalType() == JournalType.ASYNCIO)
+      {
+         return new AIOSequentialFileFactory(dir,
+                                             config.getJournalBufferSize_AIO(),
+                                             config.getJournalBufferTimeout_AIO(),
+                                             config.isJournalAdaptiveBufferTimeout(),
+                                             config.isLogJournalWriteRate(),
+                                             criticalErrorListener);
+      }
+      else
+      {
+         return new NIOSequentialFileFactory(dir,
+                                             true,
+                                             config.getJournalBufferSize_NIO(),
+                                             config.getJournalBufferTimeout_NIO(),
+                                             config.isJournalAdaptiveBufferTimeout(),
+                                             config.isLogJournalWriteRate(),
+                                             criticalErrorListener);
+      }
+   }
+
+   private static JournalImpl createMessageJournal(final Configuration config, final SequentialFileFactory factory)
+   {
+      JournalImpl journal = new JournalImpl(config.getJournalFileSize(),
+                                            config.getJournalMinFiles(),
+                                            config.getJournalCompactMinFiles(),
+                                            config.getJournalCompactPercentage(),
+                                            factory,
+                                            "activemq-data",
+                                            "amq",
+                                            config.getJournalType() == JournalType.ASYNCIO ? config.getJournalMaxIO_AIO()
+                                               : config.getJournalMaxIO_NIO());
+
+      journal.setCompactMaxFiles(config.getJournalCompactMaxFiles());
+
+      return journal;
+   }
+
+   private static String getStripeDirectory(final String journalDir, final int stripe)
+   {
+      return new File(journalDir, "stripe-" + stripe).getPath();
+   }
+
+   /**
+    * A record goes to the stripe given by its ID, so the records written with another number of stripes can't be
+    * found anymore. The number is kept in the journal directory, a journal without it having a single stripe, and
+    * it can only change while the journal holds no records.
+    */
+   private void checkJournalStripes() throws Exception
+   {
+      int stripes = journalStripeDirs.length + 1;
+
+      File file = new File(journalDir, JOURNAL_STRIPES_FILE);
+
+      int stored = file.exists() ? readJournalStripes(file) : 1;
+
+      if (stored != stripes && hasMessageRecords(stored))
+      {
+         throw ActiveMQMessageBundle.BUNDLE.journalStripesChanged(journalDir, stored, stripes);
+      }
+
+      if (stored != stripes || !file.exists())
+      {
+         writeJournalStripes(file, stripes);
+      }
+   }
+
+   private static int readJournalStripes(final File file) throws Exception
+   {
+      BufferedReader reader = new BufferedReader(new FileReader(file));
+      try
+      {
+         String line = reader.readLine();
+
+         int stripes = line == null ? 0 : Integer.parseInt(line.trim());
+
+         if (stripes < 1)
+         {
+            throw new IllegalStateException("Invalid number of journal stripes in " + file + ": " + line);
+         }
+
+         return stripes;
+      }
+      finally
+      {
+         reader.close();
+      }
+   }
+
+   private static void writeJournalStripes(final File file, final int stripes) throws Exception
+   {
+      FileOutputStream out = new FileOutputStream(file);
+      try
+      {
+         out.write((stripes + "\n").getBytes("UTF-8"));
+         out.getFD().sync();
+      }
+      finally
+      {
+         out.close();
+      }
+   }
+
+   /**
+    * @return whether any record is left in the message journal as written with the given number of stripes
+    */
+   private boolean hasMessageRecords(final int stripes) throws Exception
+   {
+      final Set<Long> records = new HashSet<Long>();
+
+      JournalReaderCallbackAbstract callback = new JournalReaderCallbackAbstract()
+      {
+         @Override
+         public void onReadAddRecord(final RecordInfo info) throws Exception
+         {
+            records.add(info.id);
+         }
+
+         @Override
+         public void onReadUpdateRecord(final RecordInfo info) throws Exception
+         {
+            records.add(info.id);
+         }
+
+         @Override
+         public void onReadDeleteRecord(final long recordID) throws Exception
+         {
+            records.remove(recordID);
+         }
+
+         // transactional records are kept whatever the outcome, which errs on the side of refusing the change
+         @Override
+         public void onReadAddRecordTX(final long transactionID, final RecordInfo info) throws Exception
+         {
+            records.add(info.id);
+         }
+
+         @Override
+         public void onReadUpdateRecordTX(final long transactionID, final RecordInfo info) throws Exception
+         {
+            records.add(info.id);
+         }
+      };
+
+      for (int i = 0; i < stripes; i++)
+      {
+         String dir = i == 0 ? journalDir : getStripeDirectory(journalDir, i);
+
+         if (!new File(dir).exists())
+         {
+            continue;
+         }
+
+         SequentialFileFactory factory = new NIOSequentialFileFactory(dir, false, null);
+
+         JournalImpl journal = new JournalImpl(journalFileSize, 2, 0, 0, factory, "activemq-data", "amq", 1);
+
+         for (JournalFile file : journal.orderFiles())
+         {
+            JournalImpl.readJournalFile(factory, file, callback);
+         }
+      }
+
+      return !records.isEmpty();
+   }
+
    private void checkAndCreateDir(final String dir, final boolean create)
    {
       File f = new File(dir);
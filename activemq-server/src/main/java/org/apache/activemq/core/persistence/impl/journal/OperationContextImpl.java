@@ -27,6 +27,7 @@ import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.ActiveMQExceptionType;
 import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.journal.impl.SimpleWaitIOCallback;
+import org.apache.activemq.core.metrics.LatencyHistogram;
 import org.apache.activemq.core.persistence.OperationContext;
 import org.apache.activemq.core.server.ActiveMQServerLogger;
 import org.apache.activemq.utils.ExecutorFactory;
@@ -57,6 +58,14 @@ public class OperationContextImpl implements OperationContext
    }
 
    public static OperationContext getContext(final ExecutorFactory executorFactory)
+   {
+      return getContext(executorFactory, null);
+   }
+
+   /**
+    * @param syncTime where the time spent waiting on the storage is recorded, can be <code>null</code>
+    */
+   public static OperationContext getContext(final ExecutorFactory executorFactory, final LatencyHistogram syncTime)
    {
       OperationContext token = OperationContextImpl.threadLocalContext.get();
       if (token == null)
@@ -67,7 +76,7 @@ public class OperationContextImpl implements OperationContext
          }
          else
          {
-            token = new OperationContextImpl(executorFactory.getExecutor());
+            token = new OperationContextImpl(executorFactory.getExecutor(), syncTime);
             OperationContextImpl.threadLocalContext.set(token);
          }
       }
@@ -101,10 +110,25 @@ public class OperationContextImpl implements OperationContext
 
    private final AtomicInteger executorsPending = new AtomicInteger(0);
 
+   /**
+    * null when the metrics are disabled
+    */
+   private final LatencyHistogram syncTime;
+
    public OperationContextImpl(final Executor executor)
+   {
+      this(executor, null);
+   }
+
+   /**
+    * @param syncTime where the time the tasks wait for their operations to be synced is recorded, can be
+    *                 <code>null</code>
+    */
+   public OperationContextImpl(final Executor executor, final LatencyHistogram syncTime)
    {
       super();
       this.executor = executor;
+      this.syncTime = syncTime;
    }
 
    public void pageSyncLineUp()
@@ -202,6 +226,11 @@ public class OperationContextImpl implements OperationContext
             TaskHolder holder = iter.next();
             if (stored >= holder.storeLined && replicated >= holder.replicationLined && paged >= holder.pageLined)
             {
+               if (syncTime != null)
+               {
+                  syncTime.recordSince(holder.lineUpTime);
+               }
+
                // If set, we use an executor to avoid the server being single threaded
                execute(holder.task);
 
@@ -296,6 +325,11 @@ public class OperationContextImpl implements OperationContext
       final int replicationLined;
       final int pageLined;
 
+      /**
+       * when the task started waiting for the operations lined up before it, only set with the metrics enabled
+       */
+      final long lineUpTime;
+
       final IOAsyncTask task;
 
       TaskHolder(final IOAsyncTask task)
@@ -303,6 +337,7 @@ public class OperationContextImpl implements OperationContext
          storeLined = storeLineUp.intValue();
          replicationLined = replicationLineUp.intValue();
          pageLined = pageLineUp.intValue();
+         lineUpTime = syncTime == null ? 0 : System.nanoTime();
          this.task = task;
       }
    }
@@ -31,6 +31,7 @@ import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.journal.Journal;
 import org.apache.activemq.core.journal.JournalLoadInformation;
 import org.apache.activemq.core.journal.SequentialFile;
+import org.apache.activemq.core.journal.impl.TimedBuffer;
 import org.apache.activemq.core.message.impl.MessageInternal;
 import org.apache.activemq.core.paging.PageTransactionInfo;
 import org.apache.activemq.core.paging.PagedMessage;
@@ -549,6 +550,12 @@ public class NullStorageManager implements StorageManager
       return null;
    }
 
+   @Override
+   public List<TimedBuffer> getMessageJournalBuffers()
+   {
+      return Collections.emptyList();
+   }
+
    @Override
    public void startReplication(final ReplicationManager replicationManager, final PagingManager pagingManager,
                                 final String nodeID, final boolean autoFailBack) throws Exception
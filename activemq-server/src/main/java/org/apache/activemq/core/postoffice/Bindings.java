@@ -33,6 +33,14 @@ public interface Bindings extends UnproposalListener
 
    void setRouteWhenNoConsumers(boolean takePriorityIntoAccount);
 
+   void setLoadAwareDistribution(boolean loadAwareDistribution);
+
+   /**
+    * Updates the backlog and the rate (in messages per second) at which the messages are consumed from the queue of a
+    * binding, as reported by the node of the queue.
+    */
+   void updateLoad(long bindingID, long messageCount, float consumeRate);
+
    boolean redistribute(ServerMessage message, Queue originatingQueue, RoutingContext context) throws Exception;
 
    void route(ServerMessage message, RoutingContext context) throws Exception;
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
@@ -48,6 +49,12 @@ public final class BindingsImpl implements Bindings
    // This is public as we use on test assertions
    public static final int MAX_GROUP_RETRY = 10;
 
+   /**
+    * The rate a queue that has consumers but didn't consume anything recently is considered to consume at, so its
+    * backlog is still taken into account.
+    */
+   private static final float MIN_CONSUME_RATE = 1;
+
    private static boolean isTrace = ActiveMQServerLogger.LOGGER.isTraceEnabled();
 
    private final ConcurrentMap<SimpleString, List<Binding>> routingNameBindingMap = new ConcurrentHashMap<SimpleString, List<Binding>>();
@@ -60,6 +67,10 @@ public final class BindingsImpl implements Bindings
 
    private volatile boolean routeWhenNoConsumers;
 
+   private volatile boolean loadAwareDistribution;
+
+   private final Map<Long, BindingLoad> loads = new ConcurrentHashMap<Long, BindingLoad>();
+
    private final GroupingHandler groupingHandler;
 
    private final PagingStore pageStore;
@@ -78,6 +89,19 @@ public final class BindingsImpl implements Bindings
       this.routeWhenNoConsumers = routeWhenNoConsumers;
    }
 
+   public void setLoadAwareDistribution(final boolean loadAwareDistribution)
+   {
+      this.loadAwareDistribution = loadAwareDistribution;
+   }
+
+   public void updateLoad(final long bindingID, final long messageCount, final float consumeRate)
+   {
+      if (bindingsMap.containsKey(bindingID))
+      {
+         loads.put(bindingID, new BindingLoad(messageCount, consumeRate));
+      }
+   }
+
    public Collection<Binding> getBindings()
    {
       return bindingsMap.values();
@@ -156,6 +180,8 @@ public final class BindingsImpl implements Bindings
 
       bindingsMap.remove(binding.getID());
 
+      loads.remove(binding.getID());
+
       if (isTrace)
       {
          ActiveMQServerLogger.LOGGER.trace("Removing binding " + binding + " into " + this + " bindingTable: " + debugBindings());
@@ -367,6 +393,16 @@ public final class BindingsImpl implements Bindings
                                   final SimpleString routingName,
                                   final List<Binding> bindings)
    {
+      if (loadAwareDistribution && bindings.size() > 1)
+      {
+         Binding leastLoadedBinding = getLeastLoadedBinding(message, routingName, bindings);
+
+         if (leastLoadedBinding != null)
+         {
+            return leastLoadedBinding;
+         }
+      }
+
       Integer ipos = routingNamePositions.get(routingName);
 
       int pos = ipos != null ? ipos : 0;
@@ -469,6 +505,81 @@ public final class BindingsImpl implements Bindings
       return theBinding;
    }
 
+   /**
+    * Picks the binding whose queue is expected to consume the message the soonest, given the backlog and consumption
+    * rate its node last reported plus the messages routed to it since.
+    * <p/>
+    * This returns null, so the round robin is used instead, when no binding has a matching consumer or while the load
+    * of one of the candidates isn't known yet.
+    */
+   private Binding getLeastLoadedBinding(final ServerMessage message,
+                                         final SimpleString routingName,
+                                         final List<Binding> bindings)
+   {
+      Integer ipos = routingNamePositions.get(routingName);
+
+      int startPos = ipos != null ? ipos : 0;
+
+      int length = bindings.size();
+
+      Binding theBinding = null;
+
+      BindingLoad theLoad = null;
+
+      int thePos = -1;
+
+      double lowestDelay = Double.MAX_VALUE;
+
+      // Starting from the round robin position so the bindings with the same load are picked in turn
+      for (int i = 0; i < length; i++)
+      {
+         int pos = (startPos + i) % length;
+
+         Binding binding;
+         try
+         {
+            binding = bindings.get(pos);
+         }
+         catch (IndexOutOfBoundsException e)
+         {
+            // This can occur if binding is removed while in route
+            return null;
+         }
+
+         Filter filter = binding.getFilter();
+
+         if ((filter == null || filter.match(message)) && binding.isConnected() &&
+            (routeWhenNoConsumers || binding.isHighAcceptPriority(message)))
+         {
+            BindingLoad load = loads.get(binding.getID());
+
+            if (load == null)
+            {
+               return null;
+            }
+
+            double delay = load.getExpectedDelay();
+
+            if (delay < lowestDelay)
+            {
+               lowestDelay = delay;
+               theBinding = binding;
+               theLoad = load;
+               thePos = pos;
+            }
+         }
+      }
+
+      if (theBinding != null)
+      {
+         theLoad.routed();
+
+         routingNamePositions.put(routingName, incrementPos(thePos, length));
+      }
+
+      return theBinding;
+   }
+
    private void routeUsingStrictOrdering(final ServerMessage message,
                                          final RoutingContext context,
                                          final GroupingHandler groupingGroupingHandler,
@@ -697,4 +808,35 @@ public final class BindingsImpl implements Bindings
       return pos;
    }
 
+   /**
+    * The last load reported for the queue of a binding, along with the messages routed to it since.
+    */
+   private static final class BindingLoad
+   {
+      private final long messageCount;
+
+      private final float consumeRate;
+
+      private final AtomicLong routedMessages = new AtomicLong(0);
+
+      BindingLoad(final long messageCount, final float consumeRate)
+      {
+         this.messageCount = messageCount;
+         this.consumeRate = consumeRate;
+      }
+
+      void routed()
+      {
+         routedMessages.incrementAndGet();
+      }
+
+      /**
+       * @return how long (in seconds) a message routed now would wait before being consumed
+       */
+      double getExpectedDelay()
+      {
+         return (messageCount + routedMessages.get() + 1) / (double) Math.max(consumeRate, MIN_CONSUME_RATE);
+      }
+   }
+
 }
@@ -44,6 +44,8 @@ import org.apache.activemq.api.core.management.NotificationType;
 import org.apache.activemq.core.filter.Filter;
 import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.message.impl.MessageImpl;
+import org.apache.activemq.core.metrics.LatencyHistogram;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.PagingManager;
 import org.apache.activemq.core.paging.PagingStore;
 import org.apache.activemq.core.persistence.StorageManager;
@@ -125,6 +127,11 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    private final ActiveMQServer server;
 
+   /**
+    * null when the metrics are disabled
+    */
+   private final LatencyHistogram routeTime;
+
    public PostOfficeImpl(final ActiveMQServer server,
                          final StorageManager storageManager,
                          final PagingManager pagingManager,
@@ -166,6 +173,10 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
       this.addressSettingsRepository = addressSettingsRepository;
 
       this.server = server;
+
+      MetricsRegistry metricsRegistry = managementService.getMetricsRegistry();
+
+      routeTime = metricsRegistry == null ? null : metricsRegistry.getHistogram(MetricsRegistry.ROUTE_TIME);
    }
 
    // ActiveMQComponent implementation ---------------------------------------
@@ -632,6 +643,28 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
                      final RoutingContext context,
                      final boolean direct,
                      boolean rejectDuplicates) throws Exception
+   {
+      if (routeTime == null)
+      {
+         internalRoute(message, context, direct, rejectDuplicates);
+         return;
+      }
+
+      long start = System.nanoTime();
+      try
+      {
+         internalRoute(message, context, direct, rejectDuplicates);
+      }
+      finally
+      {
+         routeTime.recordSince(start);
+      }
+   }
+
+   private void internalRoute(final ServerMessage message,
+                              final RoutingContext context,
+                              final boolean direct,
+                              boolean rejectDuplicates) throws Exception
    {
       // Sanity check
       if (message.getRefCount() > 0)
@@ -25,6 +25,8 @@ import static org.apache.activemq.core.protocol.core.impl.PacketImpl.QUORUM_VOTE
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.QUORUM_VOTE_REPLY;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_APPEND;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_APPEND_TX;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_BATCH;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_BATCH_RESPONSE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_COMMIT_ROLLBACK;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_DELETE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_DELETE_TX;
@@ -36,6 +38,7 @@ import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_PREPARE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.REPLICATION_RESPONSE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND_BATCH;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND_LARGE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SCALEDOWN_ANNOUNCEMENT;
 
@@ -54,6 +57,8 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.QuorumVoteReplyMes
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationLiveIsStoppingMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -67,6 +72,7 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationRespons
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationStartSyncMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationSyncFileMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ScaleDownAnnounceMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ServerSessionSendBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendLargeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendMessage;
 import org.apache.activemq.core.server.impl.ServerMessageImpl;
@@ -91,6 +97,11 @@ public class ServerPacketDecoder extends ClientPacketDecoder
             packet = new SessionSendMessage(new ServerMessageImpl());
             break;
          }
+         case SESS_SEND_BATCH:
+         {
+            packet = new ServerSessionSendBatchMessage();
+            break;
+         }
          case SESS_SEND_LARGE:
          {
             packet = new SessionSendLargeMessage(new ServerMessageImpl());
@@ -131,6 +142,16 @@ public class ServerPacketDecoder extends ClientPacketDecoder
             packet = new ReplicationResponseMessage();
             break;
          }
+         case REPLICATION_BATCH:
+         {
+            packet = new ReplicationBatchMessage();
+            break;
+         }
+         case REPLICATION_BATCH_RESPONSE:
+         {
+            packet = new ReplicationBatchResponseMessage();
+            break;
+         }
          case REPLICATION_PAGE_WRITE:
          {
             packet = new ReplicationPageWriteMessage();
@@ -32,6 +32,7 @@ import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_INDIVI
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_QUEUEQUERY;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_ROLLBACK;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND;
+import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND_BATCH;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND_CONTINUATION;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_SEND_LARGE;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_START;
@@ -50,6 +51,7 @@ import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_XA_STA
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_XA_FAILED;
 import static org.apache.activemq.core.protocol.core.impl.PacketImpl.SESS_XA_SUSPEND;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.transaction.xa.XAResource;
@@ -60,6 +62,7 @@ import org.apache.activemq.api.core.ActiveMQExceptionType;
 import org.apache.activemq.api.core.ActiveMQInternalErrorException;
 import org.apache.activemq.core.exception.ActiveMQXAException;
 import org.apache.activemq.core.journal.IOAsyncTask;
+import org.apache.activemq.core.message.impl.MessageInternal;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.core.protocol.core.impl.wireformat.CreateQueueMessage;
@@ -86,6 +89,7 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.SessionQueueQueryR
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionRequestProducerCreditsMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendContinuationMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendLargeMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionUniqueAddMetaDataMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionXAAfterFailedMessage;
@@ -494,6 +498,22 @@ public class ServerSessionPacketHandler implements ChannelHandler
                   }
                   break;
                }
+               case SESS_SEND_BATCH:
+               {
+                  SessionSendBatchMessage message = (SessionSendBatchMessage)packet;
+                  requiresResponse = message.isRequiresResponse();
+                  List<ServerMessage> messages = new ArrayList<ServerMessage>(message.getMessages().size());
+                  for (MessageInternal msg : message.getMessages())
+                  {
+                     messages.add((ServerMessage)msg);
+                  }
+                  session.send(messages, direct);
+                  if (requiresResponse)
+                  {
+                     response = new NullResponseMessage();
+                  }
+                  break;
+               }
                case SESS_SEND_LARGE:
                {
                   SessionSendLargeMessage message = (SessionSendLargeMessage)packet;
@@ -43,6 +43,7 @@ import org.apache.activemq.core.protocol.core.impl.ChannelImpl.CHANNEL_ID;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V2;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V3;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ClusterTopologyChangeMessage_V4;
 import org.apache.activemq.core.protocol.core.impl.wireformat.Ping;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SubscribeClusterTopologyUpdatesMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SubscribeClusterTopologyUpdatesMessageV2;
@@ -171,7 +172,9 @@ class CoreProtocolManager implements ProtocolManager<Interceptor>
    @Override
    public void addChannelHandlers(ChannelPipeline pipeline)
    {
-      pipeline.addLast("activemq-decoder", new ActiveMQFrameDecoder2());
+      Configuration config = server.getConfiguration();
+
+      pipeline.addLast("activemq-decoder", new ActiveMQFrameDecoder2(config.isPooledMessageBuffers(), config.isDirectMessageBuffers()));
    }
 
    @Override
@@ -264,7 +267,14 @@ class CoreProtocolManager implements ProtocolManager<Interceptor>
                      {
                         public void run()
                         {
-                           if (channel0.supports(PacketImpl.CLUSTER_TOPOLOGY_V3))
+                           if (channel0.supports(PacketImpl.CLUSTER_TOPOLOGY_V4))
+                           {
+                              channel0.send(new ClusterTopologyChangeMessage_V4(topologyMember.getUniqueEventID(),
+                                                                                nodeID, topologyMember.getBackupGroupName(),
+                                                                                topologyMember.getScaleDownGroupName(),
+                                                                                connectorPair, last, topologyMember.getLoad()));
+                           }
+                           else if (channel0.supports(PacketImpl.CLUSTER_TOPOLOGY_V3))
                            {
                               channel0.send(new ClusterTopologyChangeMessage_V3(topologyMember.getUniqueEventID(),
                                                                                 nodeID, topologyMember.getBackupGroupName(),
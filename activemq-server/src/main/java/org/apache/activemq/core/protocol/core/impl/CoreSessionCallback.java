@@ -16,12 +16,16 @@
  */
 package org.apache.activemq.core.protocol.core.impl;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.core.protocol.core.Channel;
 import org.apache.activemq.core.protocol.core.Packet;
 import org.apache.activemq.core.protocol.core.impl.wireformat.DisconnectConsumerMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionProducerCreditsFailMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionProducerCreditsMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveBatchMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveContinuationMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveLargeMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveMessage;
@@ -34,8 +38,18 @@ import org.apache.activemq.spi.core.remoting.ReadyListener;
 
 public final class CoreSessionCallback implements SessionCallback
 {
+   /**
+    * A batch is written as soon as its messages take this many bytes, even if the delivery pass is not over.
+    */
+   private static final int MAX_BATCH_SIZE = 64 * 1024;
+
    private final Channel channel;
 
+   /**
+    * The messages delivered to each consumer during the current delivery pass, written on {@link #afterDeliver(ServerConsumer)}.
+    */
+   private final Map<Long, SessionReceiveBatchMessage> batches = new HashMap<Long, SessionReceiveBatchMessage>();
+
    private ProtocolManager protocolManager;
 
    private String name;
@@ -49,6 +63,9 @@ public final class CoreSessionCallback implements SessionCallback
 
    public int sendLargeMessage(ServerMessage message, ServerConsumer consumer, long bodySize, int deliveryCount)
    {
+      // the regular messages delivered before must reach the client first
+      afterDeliver(consumer);
+
       Packet packet = new SessionReceiveLargeMessage(consumer.getID(), message, bodySize, deliveryCount);
 
       channel.send(packet);
@@ -67,20 +84,111 @@ public final class CoreSessionCallback implements SessionCallback
       return packet.getPacketSize();
    }
 
+   public boolean supportsNativeProtocol(SimpleString protocol)
+   {
+      return false;
+   }
+
    public int sendMessage(ServerMessage message, ServerConsumer consumer, int deliveryCount)
    {
-      Packet packet = new SessionReceiveMessage(consumer.getID(), message, deliveryCount);
+      if (!channel.supports(PacketImpl.SESS_RECEIVE_BATCH))
+      {
+         Packet packet = new SessionReceiveMessage(consumer.getID(), message, deliveryCount);
+
+         int size = 0;
+
+         if (channel.sendBatched(packet))
+         {
+            size = packet.getPacketSize();
+         }
+
+         return size;
+      }
+
+      SessionReceiveBatchMessage batch;
 
-      int size = 0;
+      int size;
 
-      if (channel.sendBatched(packet))
+      synchronized (batches)
       {
-         size = packet.getPacketSize();
+         batch = batches.get(consumer.getID());
+
+         if (batch == null)
+         {
+            batch = new SessionReceiveBatchMessage(consumer.getID());
+            batches.put(consumer.getID(), batch);
+         }
+
+         size = batch.addMessage(message, deliveryCount);
+
+         if (batch.getMessagesEncodeSize() < MAX_BATCH_SIZE)
+         {
+            return size;
+         }
+
+         batches.remove(consumer.getID());
       }
 
+      sendBatch(consumer, batch);
+
       return size;
    }
 
+   public void afterDeliver(ServerConsumer consumer)
+   {
+      SessionReceiveBatchMessage batch;
+
+      synchronized (batches)
+      {
+         if (batches.isEmpty())
+         {
+            return;
+         }
+
+         batch = batches.remove(consumer.getID());
+      }
+
+      if (batch != null)
+      {
+         sendBatch(consumer, batch);
+      }
+   }
+
+   private void sendBatch(ServerConsumer consumer, SessionReceiveBatchMessage batch)
+   {
+      int rejectedCredits;
+
+      if (batch.getMessages().size() == 1)
+      {
+         // no point on paying for the batch header, the client gets the same credits back either way
+         Packet packet = new SessionReceiveMessage(batch.getConsumerID(),
+                                                   (ServerMessage) batch.getMessages().get(0),
+                                                   batch.getDeliveryCount(0));
+
+         rejectedCredits = channel.sendBatched(packet) ? 0 : batch.getFlowControlSize(0);
+      }
+      else
+      {
+         int credits = 0;
+
+         for (int i = 0; i < batch.getMessages().size(); i++)
+         {
+            credits += batch.getFlowControlSize(i);
+         }
+
+         // the interceptors run by sendBatched take out the messages they reject, so the removed credits are only
+         // known once it returns; when the whole batch is rejected they are already part of credits
+         rejectedCredits = channel.sendBatched(batch) ? batch.getRemovedCredits() : credits;
+      }
+
+      // the credits were taken when the messages were added to the batch, but messages rejected by an interceptor
+      // never reach the client to give them back
+      if (rejectedCredits > 0)
+      {
+         consumer.receiveCredits(rejectedCredits);
+      }
+   }
+
    public void sendProducerCreditsMessage(int credits, SimpleString address)
    {
       Packet packet = new SessionProducerCreditsMessage(credits, address);
@@ -114,6 +222,8 @@ public final class CoreSessionCallback implements SessionCallback
    @Override
    public void disconnect(ServerConsumer consumerId, String queueName)
    {
+      afterDeliver(consumerId);
+
       if (channel.supports(PacketImpl.DISCONNECT_CONSUMER))
       {
          channel.send(new DisconnectConsumerMessage(consumerId.getID()));
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.api.core.ActiveMQBuffers;
+import org.apache.activemq.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.utils.DataConstants;
+
+/**
+ * Replicates several journal and paging operations in a single packet, the backup applies them in order and
+ * answers with a single {@link ReplicationBatchResponseMessage}.
+ * <p/>
+ * Operations are encoded as soon as they are added, as the records they carry may change once the live server
+ * carries on with them. Each one is written as its packet type followed by the body of its own packet.
+ */
+public final class ReplicationBatchMessage extends PacketImpl
+{
+   private ActiveMQBuffer operationsBuffer;
+
+   private int count;
+
+   private List<PacketImpl> operations;
+
+   public ReplicationBatchMessage()
+   {
+      super(PacketImpl.REPLICATION_BATCH);
+   }
+
+   public ReplicationBatchMessage(final int initialSize)
+   {
+      this();
+      operationsBuffer = ActiveMQBuffers.dynamicBuffer(initialSize);
+   }
+
+   // Public --------------------------------------------------------
+
+   /**
+    * @return whether the operation can be replicated as part of a batch
+    */
+   public static boolean isBatched(final byte type)
+   {
+      switch (type)
+      {
+         case PacketImpl.REPLICATION_APPEND:
+         case PacketImpl.REPLICATION_APPEND_TX:
+         case PacketImpl.REPLICATION_DELETE:
+         case PacketImpl.REPLICATION_DELETE_TX:
+         case PacketImpl.REPLICATION_PREPARE:
+         case PacketImpl.REPLICATION_COMMIT_ROLLBACK:
+         case PacketImpl.REPLICATION_PAGE_WRITE:
+         case PacketImpl.REPLICATION_PAGE_EVENT:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   public void addOperation(final PacketImpl operation)
+   {
+      operationsBuffer.writeByte(operation.getType());
+      operation.encodeRest(operationsBuffer);
+      count++;
+   }
+
+   /**
+    * @return the number of operations in the batch, each of them expecting a response from the backup
+    */
+   public int getCount()
+   {
+      return count;
+   }
+
+   /**
+    * @return the number of bytes taken by the operations added so far
+    */
+   public int getOperationsSize()
+   {
+      return operationsBuffer.writerIndex();
+   }
+
+   /**
+    * @return the operations of a batch received by the backup
+    */
+   public List<PacketImpl> getOperations()
+   {
+      return operations;
+   }
+
+   @Override
+   protected int expectedEncodeSize()
+   {
+      return PACKET_HEADERS_SIZE + DataConstants.SIZE_INT + operationsBuffer.writerIndex();
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer)
+   {
+      buffer.writeInt(count);
+      buffer.writeBytes(operationsBuffer, 0, operationsBuffer.writerIndex());
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer)
+   {
+      count = buffer.readInt();
+
+      operations = new ArrayList<PacketImpl>(count);
+
+      for (int i = 0; i < count; i++)
+      {
+         PacketImpl operation = createOperation(buffer.readByte());
+         operation.decodeRest(buffer);
+         operations.add(operation);
+      }
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + count;
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!super.equals(obj))
+         return false;
+      if (!(obj instanceof ReplicationBatchMessage))
+         return false;
+      ReplicationBatchMessage other = (ReplicationBatchMessage) obj;
+      if (count != other.count)
+         return false;
+      return true;
+   }
+
+   @Override
+   public String toString()
+   {
+      return getParentString() + ", operations=" + count + "]";
+   }
+
+   // Private -------------------------------------------------------
+
+   private static PacketImpl createOperation(final byte type)
+   {
+      switch (type)
+      {
+         case PacketImpl.REPLICATION_APPEND:
+            return new ReplicationAddMessage();
+         case PacketImpl.REPLICATION_APPEND_TX:
+            return new ReplicationAddTXMessage();
+         case PacketImpl.REPLICATION_DELETE:
+            return new ReplicationDeleteMessage();
+         case PacketImpl.REPLICATION_DELETE_TX:
+            return new ReplicationDeleteTXMessage();
+         case PacketImpl.REPLICATION_PREPARE:
+            return new ReplicationPrepareMessage();
+         case PacketImpl.REPLICATION_COMMIT_ROLLBACK:
+            return new ReplicationCommitMessage();
+         case PacketImpl.REPLICATION_PAGE_WRITE:
+            return new ReplicationPageWriteMessage();
+         case PacketImpl.REPLICATION_PAGE_EVENT:
+            return new ReplicationPageEventMessage();
+         default:
+            throw new IllegalArgumentException("Invalid replication operation " + type);
+      }
+   }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.core.protocol.core.impl.PacketImpl;
+
+/**
+ * Confirms all the operations of a {@link ReplicationBatchMessage} at once.
+ * <p>
+ * When an operation fails on the backup, the operations after it are not applied. The response then carries the
+ * index of the failed operation, the ones before it being confirmed and the others failed.
+ */
+public final class ReplicationBatchResponseMessage extends PacketImpl
+{
+   private int count;
+
+   private int failedIndex = -1;
+
+   private String error;
+
+   public ReplicationBatchResponseMessage()
+   {
+      super(PacketImpl.REPLICATION_BATCH_RESPONSE);
+   }
+
+   public ReplicationBatchResponseMessage(final int count)
+   {
+      this();
+      this.count = count;
+   }
+
+   public ReplicationBatchResponseMessage(final int count, final int failedIndex, final String error)
+   {
+      this(count);
+      this.failedIndex = failedIndex;
+      this.error = error;
+   }
+
+   // Public --------------------------------------------------------
+
+   /**
+    * @return the number of operations replicated
+    */
+   public int getCount()
+   {
+      return count;
+   }
+
+   /**
+    * @return the index of the operation which failed on the backup, -1 if all of them were replicated
+    */
+   public int getFailedIndex()
+   {
+      return failedIndex;
+   }
+
+   /**
+    * @return why the operation at {@link #getFailedIndex()} failed
+    */
+   public String getError()
+   {
+      return error;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer)
+   {
+      buffer.writeInt(count);
+      buffer.writeInt(failedIndex);
+      buffer.writeNullableString(error);
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer)
+   {
+      count = buffer.readInt();
+      failedIndex = buffer.readInt();
+      error = buffer.readNullableString();
+   }
+
+   @Override
+   public int hashCode()
+   {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + count;
+      result = prime * result + failedIndex;
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!super.equals(obj))
+         return false;
+      if (!(obj instanceof ReplicationBatchResponseMessage))
+         return false;
+      ReplicationBatchResponseMessage other = (ReplicationBatchResponseMessage) obj;
+      if (count != other.count)
+         return false;
+      if (failedIndex != other.failedIndex)
+         return false;
+      if (error == null)
+      {
+         if (other.error != null)
+            return false;
+      }
+      else if (!error.equals(other.error))
+         return false;
+      return true;
+   }
+
+   @Override
+   public String toString()
+   {
+      return getParentString() + ", count=" + count + ", failedIndex=" + failedIndex + "]";
+   }
+}
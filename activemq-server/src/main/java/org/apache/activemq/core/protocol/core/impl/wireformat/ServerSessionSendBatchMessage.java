@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.protocol.core.impl.wireformat;
+
+import java.util.ArrayList;
+
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.core.message.impl.MessageInternal;
+import org.apache.activemq.core.server.impl.ServerMessageImpl;
+
+/**
+ * A {@link SessionSendBatchMessage} decoded on the server, its messages being decoded into {@link ServerMessageImpl}s.
+ */
+public class ServerSessionSendBatchMessage extends SessionSendBatchMessage
+{
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer)
+   {
+      int count = buffer.readInt();
+
+      messages = new ArrayList<MessageInternal>(count);
+
+      for (int i = 0; i < count; i++)
+      {
+         ServerMessageImpl message = new ServerMessageImpl(-1, 50);
+         message.decode(buffer);
+         messages.add(message);
+      }
+
+      requiresResponse = buffer.readBoolean();
+   }
+}
@@ -25,6 +25,7 @@ import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.client.ActiveMQClient;
 import org.apache.activemq.api.core.management.CoreNotificationType;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.security.ActiveMQPrincipal;
 import org.apache.activemq.core.server.ActiveMQComponent;
 import org.apache.activemq.core.server.ActiveMQMessageBundle;
@@ -184,6 +185,11 @@ public final class InVMAcceptor implements Acceptor
       this.notificationService = notificationService;
    }
 
+   public void setMetricsRegistry(final MetricsRegistry metricsRegistry)
+   {
+      // the in-VM connections hand their buffers over without any bytes going through a socket
+   }
+
    public BufferHandler getHandler()
    {
       if (!started)
@@ -167,6 +167,9 @@ public class InVMConnection implements Connection
 
       copied.setIndex(buffer.readerIndex(), buffer.writerIndex());
 
+      // like a network write, done with what it was given once it is copied
+      buffer.byteBuf().release();
+
       try
       {
          executor.execute(new Runnable()
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.remoting.impl.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import org.apache.activemq.core.metrics.StripedCounter;
+
+/**
+ * Counts the bytes read and written by the channels of an acceptor.
+ * <p>
+ * It's the first handler of the pipeline, so it counts the bytes as they go through the socket, after SSL and the
+ * HTTP codecs. The same instance is shared by all the channels of the acceptor.
+ */
+@ChannelHandler.Sharable
+final class ByteCountingHandler extends ChannelDuplexHandler
+{
+   private final StripedCounter bytesIn;
+
+   private final StripedCounter bytesOut;
+
+   ByteCountingHandler(final StripedCounter bytesIn, final StripedCounter bytesOut)
+   {
+      this.bytesIn = bytesIn;
+      this.bytesOut = bytesOut;
+   }
+
+   @Override
+   public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception
+   {
+      if (msg instanceof ByteBuf)
+      {
+         bytesIn.add(((ByteBuf) msg).readableBytes());
+      }
+      ctx.fireChannelRead(msg);
+   }
+
+   @Override
+   public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception
+   {
+      if (msg instanceof ByteBuf)
+      {
+         bytesOut.add(((ByteBuf) msg).readableBytes());
+      }
+      ctx.write(msg, promise);
+   }
+}
@@ -61,6 +61,8 @@ import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.management.CoreNotificationType;
 import org.apache.activemq.core.client.impl.ClientSessionFactoryImpl;
+import org.apache.activemq.core.metrics.MetricsRegistry;
+import org.apache.activemq.core.metrics.StripedCounter;
 import org.apache.activemq.core.protocol.ProtocolHandler;
 import org.apache.activemq.core.remoting.impl.ssl.SSLSupport;
 import org.apache.activemq.core.security.ActiveMQPrincipal;
@@ -156,6 +158,11 @@ public class NettyAcceptor implements Acceptor
 
    private NotificationService notificationService;
 
+   /**
+    * Counts the bytes of the channels, null when the metrics are disabled
+    */
+   private volatile ByteCountingHandler byteCountingHandler;
+
    private boolean paused;
 
    private BatchFlusher flusher;
@@ -356,6 +363,10 @@ public class NettyAcceptor implements Acceptor
          public void initChannel(Channel channel) throws Exception
          {
             ChannelPipeline pipeline = channel.pipeline();
+            if (byteCountingHandler != null)
+            {
+               pipeline.addLast("byte-counter", byteCountingHandler);
+            }
             if (sslEnabled)
             {
                SSLEngine engine = context.createSSLEngine();
@@ -639,6 +650,20 @@ public class NettyAcceptor implements Acceptor
       this.notificationService = notificationService;
    }
 
+   public void setMetricsRegistry(final MetricsRegistry metricsRegistry)
+   {
+      if (metricsRegistry == null)
+      {
+         byteCountingHandler = null;
+      }
+      else
+      {
+         StripedCounter bytesIn = metricsRegistry.getCounter(MetricsRegistry.getAcceptorBytesIn(name));
+         StripedCounter bytesOut = metricsRegistry.getCounter(MetricsRegistry.getAcceptorBytesOut(name));
+         byteCountingHandler = new ByteCountingHandler(bytesIn, bytesOut);
+      }
+   }
+
    /**
     * not allowed
     *
@@ -21,6 +21,7 @@ import java.util.Set;
 import org.apache.activemq.api.core.Interceptor;
 import org.apache.activemq.core.protocol.core.CoreRemotingConnection;
 import org.apache.activemq.core.security.ActiveMQPrincipal;
+import org.apache.activemq.spi.core.protocol.ProtocolManager;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.spi.core.remoting.Acceptor;
 import org.apache.activemq.utils.ReusableLatch;
@@ -87,4 +88,11 @@ public interface RemotingService
     */
    Acceptor getAcceptor(String name);
 
+   /**
+    * Returns the protocol manager registered for {@code protocol} or {@code null} if there is none.
+    *
+    * @param protocol the protocol name, as exposed by {@link org.apache.activemq.spi.core.protocol.ProtocolManagerFactory#getProtocols()}
+    */
+   ProtocolManager getProtocolManager(String protocol);
+
 }
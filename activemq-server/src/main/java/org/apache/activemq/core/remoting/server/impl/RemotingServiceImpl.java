@@ -306,6 +306,8 @@ public class RemotingServiceImpl implements RemotingService, ConnectionLifeCycle
             {
                acceptor.setNotificationService(managementService);
 
+               acceptor.setMetricsRegistry(managementService.getMetricsRegistry());
+
                managementService.registerAcceptor(acceptor, info);
             }
          }
@@ -533,7 +535,7 @@ public class RemotingServiceImpl implements RemotingService, ConnectionLifeCycle
 
    // ConnectionLifeCycleListener implementation -----------------------------------
 
-   private ProtocolManager getProtocolManager(String protocol)
+   public ProtocolManager getProtocolManager(String protocol)
    {
       return protocolMap.get(protocol);
    }
@@ -57,6 +57,8 @@ import org.apache.activemq.core.protocol.core.impl.wireformat.BackupReplicationS
 import org.apache.activemq.core.protocol.core.impl.wireformat.ActiveMQExceptionMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -171,49 +173,26 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
             return;
          }
 
-         if (type == PacketImpl.REPLICATION_APPEND)
+         if (type == PacketImpl.REPLICATION_BATCH)
          {
-            handleAppendAddRecord((ReplicationAddMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_APPEND_TX)
-         {
-            handleAppendAddTXRecord((ReplicationAddTXMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_DELETE)
-         {
-            handleAppendDelete((ReplicationDeleteMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_DELETE_TX)
-         {
-            handleAppendDeleteTX((ReplicationDeleteTXMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_PREPARE)
-         {
-            handlePrepare((ReplicationPrepareMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_COMMIT_ROLLBACK)
-         {
-            handleCommitRollback((ReplicationCommitMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_PAGE_WRITE)
-         {
-            handlePageWrite((ReplicationPageWriteMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_PAGE_EVENT)
-         {
-            handlePageEvent((ReplicationPageEventMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_BEGIN)
-         {
-            handleLargeMessageBegin((ReplicationLargeMessageBeginMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_WRITE)
-         {
-            handleLargeMessageWrite((ReplicationLargeMessageWriteMessage) packet);
-         }
-         else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_END)
-         {
-            handleLargeMessageEnd((ReplicationLargeMessageEndMessage) packet);
+            ReplicationBatchMessage batch = (ReplicationBatchMessage) packet;
+            response = new ReplicationBatchResponseMessage(batch.getCount());
+            int index = 0;
+            for (Packet operation : batch.getOperations())
+            {
+               try
+               {
+                  handleOperation(operation);
+               }
+               catch (Exception e)
+               {
+                  // the following operations depend on this one, the live fails them along with it
+                  ActiveMQServerLogger.LOGGER.errorHandlingReplicationPacket(e, operation);
+                  response = new ReplicationBatchResponseMessage(batch.getCount(), index, e.toString());
+                  break;
+               }
+               index++;
+            }
          }
          else if (type == PacketImpl.REPLICATION_START_FINISH_SYNC)
          {
@@ -231,7 +210,7 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
          {
             handleFatalError((BackupReplicationStartFailedMessage) packet);
          }
-         else
+         else if (!handleOperation(packet))
          {
             ActiveMQServerLogger.LOGGER.invalidPacketForReplication(packet);
          }
@@ -250,6 +229,67 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
       channel.send(response);
    }
 
+   /**
+    * Applies an operation which may come on its own or as part of a {@link ReplicationBatchMessage}.
+    *
+    * @return false if the packet isn't a replication operation
+    */
+   private boolean handleOperation(final Packet packet) throws Exception
+   {
+      final byte type = packet.getType();
+
+      if (type == PacketImpl.REPLICATION_APPEND)
+      {
+         handleAppendAddRecord((ReplicationAddMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_APPEND_TX)
+      {
+         handleAppendAddTXRecord((ReplicationAddTXMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_DELETE)
+      {
+         handleAppendDelete((ReplicationDeleteMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_DELETE_TX)
+      {
+         handleAppendDeleteTX((ReplicationDeleteTXMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_PREPARE)
+      {
+         handlePrepare((ReplicationPrepareMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_COMMIT_ROLLBACK)
+      {
+         handleCommitRollback((ReplicationCommitMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_PAGE_WRITE)
+      {
+         handlePageWrite((ReplicationPageWriteMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_PAGE_EVENT)
+      {
+         handlePageEvent((ReplicationPageEventMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_BEGIN)
+      {
+         handleLargeMessageBegin((ReplicationLargeMessageBeginMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_WRITE)
+      {
+         handleLargeMessageWrite((ReplicationLargeMessageWriteMessage) packet);
+      }
+      else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_END)
+      {
+         handleLargeMessageEnd((ReplicationLargeMessageEndMessage) packet);
+      }
+      else
+      {
+         return false;
+      }
+
+      return true;
+   }
+
    /**
     * @param packet
     */
@@ -19,12 +19,15 @@ package org.apache.activemq.core.replication;
 import java.io.FileInputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.activemq.api.core.ActiveMQBuffer;
 import org.apache.activemq.api.core.ActiveMQException;
@@ -47,6 +50,8 @@ import org.apache.activemq.core.protocol.core.impl.ChannelImpl.CHANNEL_ID;
 import org.apache.activemq.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -70,6 +75,10 @@ import org.apache.activemq.utils.ExecutorFactory;
  * use case).
  * <p/>
  * Its equivalent in the backup server is {@link ReplicationEndpoint}.
+ * <p/>
+ * Journal and paging operations are gathered into {@link ReplicationBatchMessage}s while the replicating channel
+ * is busy: the thread sending to the backup also sends whatever was replicated in the meantime, each batch being
+ * confirmed by a single response. Under low load every operation is sent straight away, as a batch of one.
  *
  * @see ReplicationEndpoint
  */
@@ -102,6 +111,13 @@ public final class ReplicationManager implements ActiveMQComponent
       }
    }
 
+   /**
+    * A batch stops taking operations once it holds this many bytes
+    */
+   private static final int MAX_BATCH_SIZE = 128 * 1024;
+
+   private static final int INITIAL_BATCH_SIZE = 4 * 1024;
+
    private final ResponseHandler responseHandler = new ResponseHandler();
 
    private final Channel replicatingChannel;
@@ -114,6 +130,21 @@ public final class ReplicationManager implements ActiveMQComponent
 
    private final Queue<OperationContext> pendingTokens = new ConcurrentLinkedQueue<OperationContext>();
 
+   /**
+    * Packets waiting to be sent, in the same order as their tokens. Guarded by the replicationLock.
+    */
+   private final Queue<Packet> outgoingPackets = new ArrayDeque<Packet>();
+
+   /**
+    * The last of the outgoingPackets while it can take more operations. Guarded by the replicationLock.
+    */
+   private ReplicationBatchMessage openBatch;
+
+   /**
+    * Held by the thread sending the outgoingPackets
+    */
+   private final Lock sendLock = new ReentrantLock();
+
    private final ExecutorFactory executorFactory;
 
    private SessionFailureListener failureListener;
@@ -317,6 +348,9 @@ public final class ReplicationManager implements ActiveMQComponent
    {
       synchronized (replicationLock)
       {
+         // the packets not sent yet are completed with their tokens
+         outgoingPackets.clear();
+         openBatch = null;
          while (!pendingTokens.isEmpty())
          {
             OperationContext ctx = pendingTokens.poll();
@@ -369,12 +403,29 @@ public final class ReplicationManager implements ActiveMQComponent
          repliToken.replicationLineUp();
       }
 
+      boolean batched = ReplicationBatchMessage.isBatched(packet.getType());
+
       synchronized (replicationLock)
       {
          if (enabled)
          {
             pendingTokens.add(repliToken);
-            replicatingChannel.send(packet);
+
+            if (batched)
+            {
+               if (openBatch == null || openBatch.getOperationsSize() >= MAX_BATCH_SIZE)
+               {
+                  openBatch = new ReplicationBatchMessage(INITIAL_BATCH_SIZE);
+                  outgoingPackets.add(openBatch);
+               }
+
+               openBatch.addOperation((PacketImpl) packet);
+            }
+            else
+            {
+               openBatch = null;
+               outgoingPackets.add(packet);
+            }
          }
          else
          {
@@ -389,25 +440,124 @@ public final class ReplicationManager implements ActiveMQComponent
       {
          repliToken.replicationDone();
       }
+      else if (batched)
+      {
+         sendOutgoingPackets();
+      }
+      else
+      {
+         // the caller may reuse what the packet holds as soon as it returns, so it has to be sent by now
+         sendLock.lock();
+         try
+         {
+            sendPolledPackets();
+         }
+         finally
+         {
+            sendLock.unlock();
+         }
+      }
 
       return repliToken;
    }
 
    /**
+    * Sends the outgoing packets, unless another thread is already sending them.
+    */
+   private void sendOutgoingPackets()
+   {
+      do
+      {
+         if (!sendLock.tryLock())
+         {
+            // whoever is sending will check the outgoing packets again before leaving
+            return;
+         }
+
+         try
+         {
+            sendPolledPackets();
+         }
+         finally
+         {
+            sendLock.unlock();
+         }
+      }
+      while (hasOutgoingPackets());
+   }
+
+   private void sendPolledPackets()
+   {
+      Packet packet;
+
+      while ((packet = pollOutgoingPacket()) != null)
+      {
+         replicatingChannel.send(packet);
+      }
+   }
+
+   private Packet pollOutgoingPacket()
+   {
+      synchronized (replicationLock)
+      {
+         Packet packet = outgoingPackets.poll();
+
+         if (packet == openBatch)
+         {
+            openBatch = null;
+         }
+
+         return packet;
+      }
+   }
+
+   private boolean hasOutgoingPackets()
+   {
+      synchronized (replicationLock)
+      {
+         return !outgoingPackets.isEmpty();
+      }
+   }
+
+   /**
+    * @param count the number of operations confirmed by the backup
     * @throws IllegalStateException By default, all replicated packets generate a replicated
     *                               response. If your packets are triggering this exception, it may be because the
     *                               packets were not sent with {@link #sendReplicatePacket(Packet)}.
     */
-   private void replicated()
+   private void replicated(final int count)
    {
-      OperationContext ctx = pendingTokens.poll();
-
-      if (ctx == null)
+      for (int i = 0; i < count; i++)
       {
-         throw new IllegalStateException("Missing replication token on the queue.");
+         OperationContext ctx = pendingTokens.poll();
+
+         if (ctx == null)
+         {
+            throw new IllegalStateException("Missing replication token on the queue.");
+         }
+
+         ctx.replicationDone();
       }
+   }
+
+   /**
+    * Fails the tokens of operations the backup did not replicate.
+    *
+    * @param count the number of operations which failed
+    */
+   private void failed(final int count, final String error)
+   {
+      for (int i = 0; i < count; i++)
+      {
+         OperationContext ctx = pendingTokens.poll();
 
-      ctx.replicationDone();
+         if (ctx == null)
+         {
+            throw new IllegalStateException("Missing replication token on the queue.");
+         }
+
+         ctx.onError(ActiveMQExceptionType.INTERNAL_ERROR.getCode(), error);
+      }
    }
 
    // Inner classes -------------------------------------------------
@@ -454,7 +604,21 @@ public final class ReplicationManager implements ActiveMQComponent
       {
          if (packet.getType() == PacketImpl.REPLICATION_RESPONSE)
          {
-            replicated();
+            replicated(1);
+         }
+         else if (packet.getType() == PacketImpl.REPLICATION_BATCH_RESPONSE)
+         {
+            ReplicationBatchResponseMessage response = (ReplicationBatchResponseMessage) packet;
+
+            if (response.getFailedIndex() < 0)
+            {
+               replicated(response.getCount());
+            }
+            else
+            {
+               replicated(response.getFailedIndex());
+               failed(response.getCount() - response.getFailedIndex(), response.getError());
+            }
          }
       }
 
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.security;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.activemq.api.core.SimpleString;
+
+/**
+ * The permissions granted to the user of a session, one map of addresses per {@link CheckType}.
+ * <p>
+ * Each permission is granted until its expiration, and for a version of the roles: the
+ * {@link SecurityStore} moves to a new version when the roles change, and the permissions of
+ * the previous versions are then ignored.
+ * <p>
+ * A session can touch any number of addresses, e.g. temporary ones, so each map holds at most
+ * {@link #MAX_ADDRESSES} permissions: the expired ones are purged when it's full, and if none
+ * expired it's cleared.
+ */
+public final class AuthorizationCache
+{
+   public static final int MAX_ADDRESSES = 1000;
+
+   private final Map<CheckType, ConcurrentHashMap<SimpleString, Grant>> grants =
+      new EnumMap<CheckType, ConcurrentHashMap<SimpleString, Grant>>(CheckType.class);
+
+   public AuthorizationCache()
+   {
+      for (CheckType checkType : CheckType.values())
+      {
+         grants.put(checkType, new ConcurrentHashMap<SimpleString, Grant>());
+      }
+   }
+
+   public boolean isGranted(final SimpleString address, final CheckType checkType, final int version, final long now)
+   {
+      ConcurrentHashMap<SimpleString, Grant> addresses = grants.get(checkType);
+
+      Grant grant = addresses.get(address);
+
+      if (grant == null)
+      {
+         return false;
+      }
+
+      if (grant.version == version && grant.expiration > now)
+      {
+         return true;
+      }
+
+      addresses.remove(address, grant);
+
+      return false;
+   }
+
+   public void grant(final SimpleString address, final CheckType checkType, final int version, final long now, final long expiration)
+   {
+      ConcurrentHashMap<SimpleString, Grant> addresses = grants.get(checkType);
+
+      if (addresses.size() >= MAX_ADDRESSES)
+      {
+         purge(addresses, version, now);
+      }
+
+      addresses.put(address, new Grant(version, expiration));
+   }
+
+   private static void purge(final ConcurrentHashMap<SimpleString, Grant> addresses, final int version, final long now)
+   {
+      Iterator<Grant> iterator = addresses.values().iterator();
+
+      while (iterator.hasNext())
+      {
+         Grant grant = iterator.next();
+
+         if (grant.version != version || grant.expiration <= now)
+         {
+            iterator.remove();
+         }
+      }
+
+      if (addresses.size() >= MAX_ADDRESSES)
+      {
+         addresses.clear();
+      }
+   }
+
+   int size(final CheckType checkType)
+   {
+      return grants.get(checkType).size();
+   }
+
+   public void clear()
+   {
+      for (ConcurrentHashMap<SimpleString, Grant> addresses : grants.values())
+      {
+         addresses.clear();
+      }
+   }
+
+   private static final class Grant
+   {
+      final int version;
+
+      final long expiration;
+
+      Grant(final int version, final long expiration)
+      {
+         this.version = version;
+         this.expiration = expiration;
+      }
+   }
+}
@@ -17,12 +17,12 @@
 package org.apache.activemq.core.security.impl;
 
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.api.core.management.CoreNotificationType;
 import org.apache.activemq.api.core.management.ManagementHelper;
+import org.apache.activemq.core.security.AuthorizationCache;
 import org.apache.activemq.core.security.CheckType;
 import org.apache.activemq.core.security.Role;
 import org.apache.activemq.core.security.SecurityStore;
@@ -34,7 +34,6 @@ import org.apache.activemq.core.server.management.NotificationService;
 import org.apache.activemq.core.settings.HierarchicalRepository;
 import org.apache.activemq.core.settings.HierarchicalRepositoryChangeListener;
 import org.apache.activemq.spi.core.security.ActiveMQSecurityManager;
-import org.apache.activemq.utils.ConcurrentHashSet;
 import org.apache.activemq.utils.TypedProperties;
 
 /**
@@ -54,12 +53,13 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
 
    private final ActiveMQSecurityManager securityManager;
 
-   private final ConcurrentMap<String, ConcurrentHashSet<SimpleString>> cache = new ConcurrentHashMap<String, ConcurrentHashSet<SimpleString>>();
+   /**
+    * The version of the roles, the permissions cached by the sessions for a previous version are not used
+    */
+   private final AtomicInteger rolesVersion = new AtomicInteger(0);
 
    private final long invalidationInterval;
 
-   private volatile long lastCheck;
-
    private final boolean securityEnabled;
 
    private final String managementClusterUser;
@@ -158,7 +158,15 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
          }
 
          String user = session.getUsername();
-         if (checkCached(address, user, checkType))
+
+         AuthorizationCache authorizationCache = session.getAuthorizationCache();
+
+         // read before the roles, so a change while checking them is not cached as the new version
+         int version = rolesVersion.get();
+
+         long now = System.currentTimeMillis();
+
+         if (authorizationCache.isGranted(address, checkType, version, now))
          {
             // OK
             return;
@@ -192,20 +200,14 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
             throw ActiveMQMessageBundle.BUNDLE.userNoPermissions(session.getUsername(), checkType, saddress);
          }
          // if we get here we're granted, add to the cache
-         ConcurrentHashSet<SimpleString> set = new ConcurrentHashSet<SimpleString>();
-         ConcurrentHashSet<SimpleString> act = cache.putIfAbsent(user + "." + checkType.name(), set);
-         if (act != null)
-         {
-            set = act;
-         }
-         set.add(address);
+         authorizationCache.grant(address, checkType, version, now, now + invalidationInterval);
 
       }
    }
 
    public void onChange()
    {
-      invalidateCache();
+      rolesVersion.incrementAndGet();
    }
 
    // Public --------------------------------------------------------
@@ -215,34 +217,6 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
    // Package Private -----------------------------------------------
 
    // Private -------------------------------------------------------
-   private void invalidateCache()
-   {
-      cache.clear();
-   }
-
-   private boolean checkCached(final SimpleString dest, final String user, final CheckType checkType)
-   {
-      long now = System.currentTimeMillis();
-
-      boolean granted = false;
-
-      if (now - lastCheck > invalidationInterval)
-      {
-         invalidateCache();
-
-         lastCheck = now;
-      }
-      else
-      {
-         ConcurrentHashSet<SimpleString> act = cache.get(user + "." + checkType.name());
-         if (act != null)
-         {
-            granted = act.contains(dest);
-         }
-      }
-
-      return granted;
-   }
 
    // Inner class ---------------------------------------------------
 
@@ -353,4 +353,16 @@ public interface ActiveMQMessageBundle
 
    @Message(id = 119109, value = "unsupported HA Policy Configuration {0}", format = Message.Format.MESSAGE_FORMAT)
    ActiveMQIllegalStateException unsupportedHAPolicyConfiguration(Object o);
+
+   @Message(id = 119110, value = "No message converter available for native protocol {0}", format = Message.Format.MESSAGE_FORMAT)
+   ActiveMQIllegalStateException noConverterForNativeProtocol(SimpleString protocol);
+
+   @Message(id = 119111, value = "Page file {0} was closed with {1} bytes of records not written", format = Message.Format.MESSAGE_FORMAT)
+   ActiveMQIllegalStateException pageClosedWithPendingRecords(String fileName, int bytes);
+
+   @Message(id = 119112, value = "The message journal in {0} was written with {1} stripes and still has records, journal-stripes can''t be changed to {2}", format = Message.Format.MESSAGE_FORMAT)
+   ActiveMQIllegalStateException journalStripesChanged(String journalDir, int stored, int configured);
+
+   @Message(id = 119113, value = "journal-stripes is {0} but the HA policy replicates the journal, which only works with a single stripe", format = Message.Format.MESSAGE_FORMAT)
+   ActiveMQIllegalStateException stripedJournalReplicated(int stripes);
 }
@@ -292,6 +292,10 @@ public interface ActiveMQServerLogger extends BasicLogger
    @Message(id = 221050, value = "Activating Shared Store Slave", format = Message.Format.MESSAGE_FORMAT)
    void activatingSharedStoreSlave();
 
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221051, value = "Releasing the addresses held back by global-max-size; global size is currently: {0} bytes; global-max-size: {1}", format = Message.Format.MESSAGE_FORMAT)
+   void globalMaxSizeReleased(long globalSize, long globalMaxSize);
+
    @LogMessage(level = Logger.Level.WARN)
    @Message(id = 222000, value = "ActiveMQServer is being finalized and has not been stopped. Please remember to stop the server before letting it go out of scope",
             format = Message.Format.MESSAGE_FORMAT)
@@ -1104,6 +1108,14 @@ public interface ActiveMQServerLogger extends BasicLogger
          format = Message.Format.MESSAGE_FORMAT)
    void disallowedProtocol(String protocol);
 
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222191, value = "Applying address-full-policy {1} on address ''{0}'' as the global-max-size was exceeded; address size is currently: {2} bytes; global size: {3} bytes; global-max-size: {4}", format = Message.Format.MESSAGE_FORMAT)
+   void globalMaxSizeExceeded(SimpleString storeName, String policy, long addressSize, long globalSize, long globalMaxSize);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222192, value = "Unable to send the load of the queues to the cluster connection {0}", format = Message.Format.MESSAGE_FORMAT)
+   void errorSendingQueueLoad(SimpleString clusterConnection, @Cause Exception e);
+
    @LogMessage(level = Logger.Level.ERROR)
    @Message(id = 224000, value = "Failure in initialisation", format = Message.Format.MESSAGE_FORMAT)
    void initializationError(@Cause Throwable e);
@@ -45,6 +45,12 @@ public interface Consumer
     */
    void proceedDeliver(MessageReference reference) throws Exception;
 
+   /**
+    * Called by the queue once a delivery pass is over, after all the {@link #proceedDeliver(MessageReference)} calls
+    * of that pass. Consumers that hold deliveries back to send them together must send them out here.
+    */
+   void afterDeliver();
+
    Filter getFilter();
 
    /**
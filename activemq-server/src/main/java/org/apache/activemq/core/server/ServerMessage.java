@@ -46,6 +46,12 @@ public interface ServerMessage extends MessageInternal, EncodingSupport
 
    int decrementDurableRefCount();
 
+   /**
+    * Moves the message out of the pooled buffer it was received in, for messages kept without any queue referencing
+    * them, such as the ones written to a page.
+    */
+   void unpoolBuffer();
+
    ServerMessage copy(long newID);
 
    void finishCopy() throws Exception;
@@ -23,6 +23,7 @@ import java.util.Set;
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.core.message.impl.MessageInternal;
 import org.apache.activemq.core.persistence.OperationContext;
+import org.apache.activemq.core.security.AuthorizationCache;
 import org.apache.activemq.core.transaction.Transaction;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.utils.json.JSONArray;
@@ -35,6 +36,11 @@ public interface ServerSession
 
    String getPassword();
 
+   /**
+    * @return the permissions granted to the user of this session
+    */
+   AuthorizationCache getAuthorizationCache();
+
    int getMinLargeMessageSize();
 
    Object getConnectionID();
@@ -107,6 +113,16 @@ public interface ServerSession
 
    void send(ServerMessage message, boolean direct) throws Exception;
 
+   /**
+    * Sends the messages as a unit, when the session doesn't transact its sends they are routed in their own transaction.
+    */
+   void send(List<ServerMessage> messages, boolean direct) throws Exception;
+
+   /**
+    * Converts a message stored in a protocol's native format into core, using the protocol manager that stored it.
+    */
+   ServerMessage convertNativeMessage(ServerMessage message) throws Exception;
+
    void sendLarge(MessageInternal msg) throws Exception;
 
    void forceConsumerDelivery(long consumerID, long sequence) throws Exception;
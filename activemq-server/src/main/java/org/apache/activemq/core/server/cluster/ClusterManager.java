@@ -746,7 +746,9 @@ public final class ClusterManager implements ActiveMQComponent
                                                        server.getConfiguration().getClusterPassword(),
                                                        config.isAllowDirectConnectionsOnly(),
                                                        config.getClusterNotificationInterval(),
-                                                       config.getClusterNotificationAttempts());
+                                                       config.getClusterNotificationAttempts(),
+                                                       config.getLoadUpdatePeriod(),
+                                                       config.isLoadAwareDistribution());
 
          clusterController.addClusterConnection(clusterConnection.getName(), dg, config);
       }
@@ -788,7 +790,9 @@ public final class ClusterManager implements ActiveMQComponent
                                                        server.getConfiguration().getClusterPassword(),
                                                        config.isAllowDirectConnectionsOnly(),
                                                        config.getClusterNotificationInterval(),
-                                                       config.getClusterNotificationAttempts());
+                                                       config.getClusterNotificationAttempts(),
+                                                       config.getLoadUpdatePeriod(),
+                                                       config.isLoadAwareDistribution());
 
 
          clusterController.addClusterConnection(clusterConnection.getName(), tcConfigs, config);
@@ -617,6 +617,11 @@ public class BridgeImpl implements Bridge, SessionFailureListener, SendAcknowled
       // no op
    }
 
+   public void afterDeliver()
+   {
+      // no op
+   }
+
    public void connectionFailed(final ActiveMQException me, boolean failedOver)
    {
       connectionFailed(me, failedOver, null);
@@ -265,6 +265,8 @@ public class ClusterConnectionBridge extends BridgeImpl
                                                    CoreNotificationType.PROPOSAL_RESPONSE +
                                                    "','" +
                                                    CoreNotificationType.UNPROPOSAL +
+                                                   "','" +
+                                                   CoreNotificationType.QUEUE_LOAD +
                                                    "') AND " +
                                                    ManagementHelper.HDR_DISTANCE +
                                                    "<" +
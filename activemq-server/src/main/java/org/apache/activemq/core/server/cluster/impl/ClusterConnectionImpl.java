@@ -17,6 +17,8 @@
 package org.apache.activemq.core.server.cluster.impl;
 
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -27,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.activemq.api.core.ActiveMQException;
@@ -37,6 +40,7 @@ import org.apache.activemq.api.core.TransportConfiguration;
 import org.apache.activemq.api.core.client.ClientMessage;
 import org.apache.activemq.api.core.client.ClusterTopologyListener;
 import org.apache.activemq.api.core.client.TopologyMember;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
 import org.apache.activemq.api.core.management.CoreNotificationType;
 import org.apache.activemq.api.core.management.ManagementHelper;
 import org.apache.activemq.core.client.impl.AfterConnectInternalListener;
@@ -48,6 +52,7 @@ import org.apache.activemq.core.client.impl.TopologyMemberImpl;
 import org.apache.activemq.core.postoffice.Binding;
 import org.apache.activemq.core.postoffice.Bindings;
 import org.apache.activemq.core.postoffice.PostOffice;
+import org.apache.activemq.core.postoffice.impl.LocalQueueBinding;
 import org.apache.activemq.core.postoffice.impl.PostOfficeImpl;
 import org.apache.activemq.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.core.server.ActiveMQServer;
@@ -161,6 +166,14 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
 
    private final int clusterNotificationAttempts;
 
+   private final long loadUpdatePeriod;
+
+   private LoadNotifier loadNotifier = null;
+
+   private final boolean loadAwareDistribution;
+
+   private QueueLoadNotifier queueLoadNotifier = null;
+
    public ClusterConnectionImpl(final ClusterManager manager,
                                 final TransportConfiguration[] staticTranspConfigs,
                                 final TransportConfiguration connector,
@@ -190,7 +203,9 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
                                 final String clusterPassword,
                                 final boolean allowDirectConnectionsOnly,
                                 final long clusterNotificationInterval,
-                                final int clusterNotificationAttempts) throws Exception
+                                final int clusterNotificationAttempts,
+                                final long loadUpdatePeriod,
+                                final boolean loadAwareDistribution) throws Exception
    {
       this.nodeManager = nodeManager;
 
@@ -226,6 +241,10 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
 
       this.clusterNotificationAttempts = clusterNotificationAttempts;
 
+      this.loadUpdatePeriod = loadUpdatePeriod;
+
+      this.loadAwareDistribution = loadAwareDistribution;
+
       this.executor = executorFactory.getExecutor();
 
       this.topology.setExecutor(executor);
@@ -297,7 +316,9 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
                                 final String clusterPassword,
                                 final boolean allowDirectConnectionsOnly,
                                 final long clusterNotificationInterval,
-                                final int clusterNotificationAttempts) throws Exception
+                                final int clusterNotificationAttempts,
+                                final long loadUpdatePeriod,
+                                final boolean loadAwareDistribution) throws Exception
    {
       this.nodeManager = nodeManager;
 
@@ -339,6 +360,10 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
 
       this.clusterNotificationAttempts = clusterNotificationAttempts;
 
+      this.loadUpdatePeriod = loadUpdatePeriod;
+
+      this.loadAwareDistribution = loadAwareDistribution;
+
       this.executor = executorFactory.getExecutor();
 
       this.topology.setExecutor(executor);
@@ -402,6 +427,18 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
          ActiveMQServerLogger.LOGGER.debug(this + "::stopping ClusterConnection");
       }
 
+      if (loadNotifier != null)
+      {
+         loadNotifier.cancel();
+         loadNotifier = null;
+      }
+
+      if (queueLoadNotifier != null)
+      {
+         queueLoadNotifier.cancel();
+         queueLoadNotifier = null;
+      }
+
       if (serverLocator != null)
       {
          serverLocator.removeClusterTopologyListener(this);
@@ -605,6 +642,18 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
       liveNotifier.updateAsLive();
       liveNotifier.schedule();
 
+      if (loadUpdatePeriod > 0)
+      {
+         loadNotifier = new LoadNotifier();
+         loadNotifier.schedule();
+
+         if (loadAwareDistribution)
+         {
+            queueLoadNotifier = new QueueLoadNotifier();
+            queueLoadNotifier.schedule();
+         }
+      }
+
       serverLocator = clusterConnector.createServerLocator();
 
       if (serverLocator != null)
@@ -1172,6 +1221,11 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
                doUnProposalReceived(message);
                break;
             }
+            case QUEUE_LOAD:
+            {
+               doQueueLoad(message);
+               break;
+            }
             default:
             {
                throw ActiveMQMessageBundle.BUNDLE.invalidType(ntype);
@@ -1390,6 +1444,8 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
 
          theBindings.setRouteWhenNoConsumers(routeWhenNoConsumers);
 
+         theBindings.setLoadAwareDistribution(loadAwareDistribution);
+
       }
 
       private void doBindingRemoved(final ClientMessage message) throws Exception
@@ -1560,6 +1616,65 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
          managementService.sendNotification(notification);
       }
 
+      private synchronized void doQueueLoad(final ClientMessage message) throws Exception
+      {
+         if (ActiveMQServerLogger.LOGGER.isTraceEnabled())
+         {
+            ActiveMQServerLogger.LOGGER.trace(ClusterConnectionImpl.this + " Queue load " + message);
+         }
+         if (!message.containsProperty(ManagementHelper.HDR_DISTANCE))
+         {
+            throw new IllegalStateException("distance is null");
+         }
+
+         if (!message.containsProperty(ManagementHelper.HDR_CLUSTER_NAME))
+         {
+            throw new IllegalStateException("clusterName is null");
+         }
+
+         Integer distance = message.getIntProperty(ManagementHelper.HDR_DISTANCE);
+
+         SimpleString clusterName = message.getSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME);
+
+         long messageCount = message.getLongProperty(ManagementHelper.HDR_MESSAGE_COUNT);
+
+         float consumeRate = message.getFloatProperty(ManagementHelper.HDR_CONSUME_RATE);
+
+         RemoteQueueBinding binding = bindings.get(clusterName);
+
+         if (binding == null)
+         {
+            // the load is only a hint, it may be reported before the binding was added
+            return;
+         }
+
+         Bindings theBindings = postOffice.lookupBindingsForAddress(binding.getAddress());
+
+         if (theBindings != null)
+         {
+            theBindings.updateLoad(binding.getID(), messageCount, consumeRate);
+         }
+
+         // Need to propagate the queue load
+         TypedProperties props = new TypedProperties();
+
+         props.putSimpleStringProperty(ManagementHelper.HDR_ADDRESS, binding.getAddress());
+
+         props.putSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME, clusterName);
+
+         props.putSimpleStringProperty(ManagementHelper.HDR_ROUTING_NAME, binding.getRoutingName());
+
+         props.putIntProperty(ManagementHelper.HDR_DISTANCE, distance + 1);
+
+         props.putLongProperty(ManagementHelper.HDR_MESSAGE_COUNT, messageCount);
+
+         props.putFloatProperty(ManagementHelper.HDR_CONSUME_RATE, consumeRate);
+
+         Notification notification = new Notification(null, CoreNotificationType.QUEUE_LOAD, props);
+
+         managementService.sendNotification(notification);
+      }
+
    }
 
    // for testing only
@@ -1733,4 +1848,222 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
          }
       }
    }
+
+   /**
+    * Updates the cluster, and the clients of the node, with the load of the node whenever it changed.
+    */
+   private final class LoadNotifier implements Runnable
+   {
+      private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+      private NodeLoad lastLoad;
+
+      private ScheduledFuture<?> future;
+
+      @Override
+      public void run()
+      {
+         if (stopping || !started)
+         {
+            return;
+         }
+
+         NodeLoad load = currentLoad();
+
+         if (!load.equals(lastLoad))
+         {
+            lastLoad = load;
+
+            topology.updateLoad(manager.getNodeId(), load);
+         }
+      }
+
+      public void schedule()
+      {
+         future = scheduledExecutor.scheduleWithFixedDelay(this, 0, loadUpdatePeriod, TimeUnit.MILLISECONDS);
+      }
+
+      public void cancel()
+      {
+         future.cancel(false);
+      }
+
+      private NodeLoad currentLoad()
+      {
+         double loadAverage = os.getSystemLoadAverage();
+
+         int cpuLoad = loadAverage < 0 ? -1 : (int) (loadAverage * 100 / os.getAvailableProcessors());
+
+         return new NodeLoad(server.getConnectionCount(), server.getPagingManager().getGlobalSize(), cpuLoad);
+      }
+   }
+
+   /**
+    * Tells the cluster the backlog and the consumption rate of the local queues whenever they changed significantly,
+    * so the other nodes can weigh their bindings to these queues with it. The rates are smoothed, and a queue is only
+    * reported again when its load changed by more than {@link #LOAD_CHANGE_THRESHOLD}, so the distribution doesn't
+    * swing between the nodes on every small variation.
+    */
+   private final class QueueLoadNotifier implements Runnable
+   {
+      private static final double LOAD_CHANGE_THRESHOLD = 0.2;
+
+      private static final float RATE_SMOOTHING = 0.3f;
+
+      // the load of every queue is reported at least once within this many periods, for the nodes joining later
+      private static final int REFRESH_PERIODS = 10;
+
+      private final Map<Long, QueueLoad> queueLoads = new HashMap<Long, QueueLoad>();
+
+      private ScheduledFuture<?> future;
+
+      @Override
+      public void run()
+      {
+         if (stopping || !started)
+         {
+            return;
+         }
+
+         try
+         {
+            notifyQueueLoads();
+         }
+         catch (Exception e)
+         {
+            ActiveMQServerLogger.LOGGER.errorSendingQueueLoad(name, e);
+         }
+      }
+
+      public void schedule()
+      {
+         future = scheduledExecutor.scheduleWithFixedDelay(this, loadUpdatePeriod, loadUpdatePeriod, TimeUnit.MILLISECONDS);
+      }
+
+      public void cancel()
+      {
+         future.cancel(false);
+      }
+
+      private void notifyQueueLoads() throws Exception
+      {
+         long now = System.currentTimeMillis();
+
+         Set<Long> bindingIDs = new HashSet<Long>();
+
+         for (Binding binding : postOffice.getAllBindings().values())
+         {
+            if (!(binding instanceof LocalQueueBinding) || !binding.getAddress().startsWith(address))
+            {
+               continue;
+            }
+
+            Queue queue = ((LocalQueueBinding) binding).getQueue();
+
+            bindingIDs.add(binding.getID());
+
+            QueueLoad load = queueLoads.get(binding.getID());
+
+            if (load == null)
+            {
+               load = new QueueLoad(queue.getMessagesAcknowledged(), now);
+
+               queueLoads.put(binding.getID(), load);
+            }
+
+            long messageCount = queue.getMessageCount();
+
+            float consumeRate = load.update(queue.getMessagesAcknowledged(), now);
+
+            Bindings theBindings = postOffice.lookupBindingsForAddress(binding.getAddress());
+
+            if (theBindings != null)
+            {
+               theBindings.updateLoad(binding.getID(), messageCount, consumeRate);
+            }
+
+            if (load.shouldNotify(messageCount, consumeRate))
+            {
+               TypedProperties props = new TypedProperties();
+
+               props.putSimpleStringProperty(ManagementHelper.HDR_ADDRESS, binding.getAddress());
+
+               props.putSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME, binding.getClusterName());
+
+               props.putSimpleStringProperty(ManagementHelper.HDR_ROUTING_NAME, binding.getRoutingName());
+
+               props.putIntProperty(ManagementHelper.HDR_DISTANCE, binding.getDistance());
+
+               props.putLongProperty(ManagementHelper.HDR_MESSAGE_COUNT, messageCount);
+
+               props.putFloatProperty(ManagementHelper.HDR_CONSUME_RATE, consumeRate);
+
+               managementService.sendNotification(new Notification(null, CoreNotificationType.QUEUE_LOAD, props));
+            }
+         }
+
+         queueLoads.keySet().retainAll(bindingIDs);
+      }
+
+      private final class QueueLoad
+      {
+         private long lastAcknowledged;
+
+         private long lastTime;
+
+         private float consumeRate = -1;
+
+         private long notifiedMessageCount = -1;
+
+         private float notifiedConsumeRate = -1;
+
+         private int silentPeriods;
+
+         QueueLoad(final long acknowledged, final long time)
+         {
+            lastAcknowledged = acknowledged;
+            lastTime = time;
+         }
+
+         float update(final long acknowledged, final long time)
+         {
+            long elapsed = time - lastTime;
+
+            if (elapsed > 0)
+            {
+               float rate = (acknowledged - lastAcknowledged) * 1000f / elapsed;
+
+               consumeRate = consumeRate < 0 ? rate : consumeRate + RATE_SMOOTHING * (rate - consumeRate);
+
+               lastAcknowledged = acknowledged;
+
+               lastTime = time;
+            }
+
+            return Math.max(consumeRate, 0);
+         }
+
+         boolean shouldNotify(final long messageCount, final float rate)
+         {
+            if (notifiedMessageCount < 0 || ++silentPeriods >= REFRESH_PERIODS ||
+               changed(notifiedMessageCount, messageCount) ||
+               changed(notifiedConsumeRate, rate))
+            {
+               notifiedMessageCount = messageCount;
+               notifiedConsumeRate = rate;
+               silentPeriods = 0;
+               return true;
+            }
+
+            return false;
+         }
+
+         private boolean changed(final double previous, final double current)
+         {
+            double difference = Math.abs(current - previous);
+
+            return difference >= 1 && difference > Math.max(previous, current) * LOAD_CHANGE_THRESHOLD;
+         }
+      }
+   }
 }
@@ -218,6 +218,11 @@ public class Redistributor implements Consumer
       // no op
    }
 
+   public void afterDeliver()
+   {
+      // no op
+   }
+
 
    private void internalExecute(final Runnable runnable)
    {
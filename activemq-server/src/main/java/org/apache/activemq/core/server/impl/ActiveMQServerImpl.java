@@ -106,6 +106,7 @@ import org.apache.activemq.core.server.cluster.BackupManager;
 import org.apache.activemq.core.server.cluster.ClusterManager;
 import org.apache.activemq.core.server.cluster.Transformer;
 import org.apache.activemq.core.server.cluster.ha.HAPolicy;
+import org.apache.activemq.core.server.cluster.ha.LiveOnlyPolicy;
 import org.apache.activemq.core.server.group.GroupingHandler;
 import org.apache.activemq.core.server.group.impl.GroupingHandlerConfiguration;
 import org.apache.activemq.core.server.group.impl.LocalGroupingHandler;
@@ -372,13 +373,15 @@ public class ActiveMQServerImpl implements ActiveMQServer
          return;
       }
 
-      state = SERVER_STATE.STARTING;
-
       if (haPolicy == null)
       {
          haPolicy = ConfigurationUtils.getHAPolicy(configuration.getHAPolicyConfiguration());
       }
 
+      checkJournalStripes();
+
+      state = SERVER_STATE.STARTING;
+
       activationLatch.setCount(1);
 
       ActiveMQServerLogger.LOGGER.debug("Starting server " + this);
@@ -1481,7 +1484,8 @@ public class ActiveMQServerImpl implements ActiveMQServer
                                                              executorFactory,
                                                              configuration.isJournalSyncNonTransactional(),
                                                              shutdownOnCriticalIO),
-                                   addressSettingsRepository);
+                                   addressSettingsRepository,
+                                   configuration.getGlobalMaxSize());
    }
 
    /**
@@ -1491,7 +1495,10 @@ public class ActiveMQServerImpl implements ActiveMQServer
    {
       if (configuration.isPersistenceEnabled())
       {
-         return new JournalStorageManager(configuration, executorFactory, shutdownOnCriticalIO);
+         JournalStorageManager journalStorageManager = new JournalStorageManager(configuration, executorFactory,
+                                                                                 shutdownOnCriticalIO);
+         journalStorageManager.setMetricsRegistry(managementService.getMetricsRegistry());
+         return journalStorageManager;
       }
       return new NullStorageManager();
    }
@@ -1636,7 +1643,8 @@ public class ActiveMQServerImpl implements ActiveMQServer
                                             configuration.getClusterPassword(),
                                             managementService);
 
-      queueFactory = new QueueFactoryImpl(executorFactory, scheduledPool, addressSettingsRepository, storageManager);
+      queueFactory = new QueueFactoryImpl(executorFactory, scheduledPool, addressSettingsRepository, storageManager,
+                                          managementService.getMetricsRegistry());
 
       pagingManager = createPagingManager();
 
@@ -2124,6 +2132,19 @@ public class ActiveMQServerImpl implements ActiveMQServer
    }
 
 
+   /**
+    * The replication sends the records of a single journal, so the messages can't be spread over several
+    */
+   private void checkJournalStripes()
+   {
+      boolean replicated = !(haPolicy instanceof LiveOnlyPolicy) && !haPolicy.isSharedStore();
+
+      if (configuration.isPersistenceEnabled() && configuration.getJournalStripes() > 1 && replicated)
+      {
+         throw ActiveMQMessageBundle.BUNDLE.stripedJournalReplicated(configuration.getJournalStripes());
+      }
+   }
+
    // Inner classes
    // --------------------------------------------------------------------------------
 
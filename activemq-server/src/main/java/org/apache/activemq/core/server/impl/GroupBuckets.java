@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.server.impl;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apache.activemq.api.core.Message;
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.core.server.Consumer;
+import org.apache.activemq.core.server.MessageReference;
+import org.apache.activemq.utils.ConcurrentHashSet;
+
+/**
+ * The message groups of a queue hashed into a fixed number of buckets, each bucket being owned by a consumer.
+ * <p>
+ * The memory used doesn't depend on the number of group IDs. When the consumers change, the buckets are spread
+ * again over them, moving as few buckets as possible. A bucket only moves to its new consumer once none of its
+ * messages is being delivered by the previous one, so the messages of a group are never consumed out of order.
+ * <p>
+ * The buckets are not thread safe, {@link QueueImpl} guards them with its monitor. Only the messages in flight are
+ * tracked thread safely, as they are acknowledged or cancelled outside of the monitor.
+ */
+final class GroupBuckets
+{
+   private final Consumer[] owners;
+
+   /**
+    * the consumer each bucket goes to after a rebalance, once it's safe to move it
+    */
+   private final Consumer[] targets;
+
+   /**
+    * the number of messages of each bucket delivered and not yet acknowledged or cancelled
+    */
+   private final AtomicIntegerArray inFlight;
+
+   private final Set<MessageReference> inFlightRefs = new ConcurrentHashSet<MessageReference>();
+
+   GroupBuckets(final int buckets)
+   {
+      owners = new Consumer[buckets];
+      targets = new Consumer[buckets];
+      inFlight = new AtomicIntegerArray(buckets);
+   }
+
+   int getBuckets()
+   {
+      return owners.length;
+   }
+
+   /**
+    * @return the consumer of the bucket of this group, null if the bucket has no consumer yet
+    */
+   Consumer getConsumer(final SimpleString groupID)
+   {
+      int bucket = getBucket(groupID);
+
+      Consumer owner = owners[bucket];
+
+      Consumer target = targets[bucket];
+
+      if (target != null && target != owner && (owner == null || inFlight.get(bucket) == 0))
+      {
+         owners[bucket] = target;
+         owner = target;
+      }
+
+      return owner;
+   }
+
+   void setConsumer(final SimpleString groupID, final Consumer consumer)
+   {
+      int bucket = getBucket(groupID);
+
+      owners[bucket] = consumer;
+
+      if (targets[bucket] == null)
+      {
+         targets[bucket] = consumer;
+      }
+   }
+
+   /**
+    * Called once a message of the group was handed to the consumer of its bucket.
+    */
+   void delivered(final SimpleString groupID, final MessageReference ref)
+   {
+      if (inFlightRefs.add(ref))
+      {
+         inFlight.incrementAndGet(getBucket(groupID));
+      }
+   }
+
+   /**
+    * Called once a message is acknowledged or cancelled back to the queue, whether it was delivered or not.
+    */
+   void released(final MessageReference ref)
+   {
+      if (inFlightRefs.remove(ref))
+      {
+         SimpleString groupID = ref.getMessage().getSimpleStringProperty(Message.HDR_GROUP_ID);
+
+         inFlight.decrementAndGet(getBucket(groupID));
+      }
+   }
+
+   /**
+    * Releases the buckets of a consumer which is gone, its messages being cancelled back to the queue.
+    */
+   void removeConsumer(final Consumer consumer)
+   {
+      for (int i = 0; i < owners.length; i++)
+      {
+         if (owners[i] == consumer)
+         {
+            owners[i] = null;
+         }
+
+         if (targets[i] == consumer)
+         {
+            targets[i] = null;
+         }
+      }
+   }
+
+   /**
+    * Spreads the buckets evenly over the consumers, keeping each bucket with its consumer whenever that consumer
+    * doesn't own more than its share.
+    */
+   void rebalance(final Collection<Consumer> consumers)
+   {
+      if (consumers.isEmpty())
+      {
+         for (int i = 0; i < targets.length; i++)
+         {
+            targets[i] = null;
+         }
+         return;
+      }
+
+      int share = targets.length / consumers.size();
+
+      int remainder = targets.length % consumers.size();
+
+      // the number of buckets each consumer may take, the first ones taking one more with the remainder
+      Map<Consumer, Integer> quotas = new IdentityHashMap<Consumer, Integer>();
+
+      for (Consumer consumer : consumers)
+      {
+         quotas.put(consumer, remainder-- > 0 ? share + 1 : share);
+      }
+
+      boolean[] unassigned = new boolean[targets.length];
+
+      for (int i = 0; i < targets.length; i++)
+      {
+         Consumer current = targets[i] != null ? targets[i] : owners[i];
+
+         Integer quota = current == null ? null : quotas.get(current);
+
+         if (quota != null && quota > 0)
+         {
+            targets[i] = current;
+            quotas.put(current, quota - 1);
+         }
+         else
+         {
+            unassigned[i] = true;
+         }
+      }
+
+      int bucket = 0;
+
+      for (Map.Entry<Consumer, Integer> quota : quotas.entrySet())
+      {
+         for (int left = quota.getValue(); left > 0; left--)
+         {
+            while (!unassigned[bucket])
+            {
+               bucket++;
+            }
+
+            targets[bucket++] = quota.getKey();
+         }
+      }
+   }
+
+   private int getBucket(final SimpleString groupID)
+   {
+      return (groupID.hashCode() & Integer.MAX_VALUE) % owners.length;
+   }
+}
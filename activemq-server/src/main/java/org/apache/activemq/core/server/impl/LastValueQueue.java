@@ -41,11 +41,22 @@ import org.apache.activemq.core.settings.impl.AddressSettings;
  * <p>
  * This is useful for example, for stock prices, where you're only interested in the latest value
  * for a particular stock
+ * <p>
+ * The values are held by a {@link HolderReference} per property value, which is updated under a lock striped by
+ * property value instead of the queue lock, so updates of different values don't wait for each other nor for the
+ * delivery. The queue lock is never taken while holding a stripe.
+ * <p>
+ * While a delivery attempt looks at a holder (expiry, group, consumer filters) the holder is pinned, and an update
+ * is kept aside until the attempt ends, so the message delivered is always the one that was checked.
  */
 public class LastValueQueue extends QueueImpl
 {
+   private static final int STRIPES = 64;
+
    private final Map<SimpleString, HolderReference> map = new ConcurrentHashMap<SimpleString, HolderReference>();
 
+   private final Object[] stripes = new Object[STRIPES];
+
    public LastValueQueue(final long persistenceID,
                          final SimpleString address,
                          final SimpleString name,
@@ -73,44 +84,52 @@ public class LastValueQueue extends QueueImpl
             storageManager,
             addressSettingsRepository,
             executor);
-      new Exception("LastValueQeue " + this ).toString();
+      for (int i = 0; i < STRIPES; i++)
+      {
+         stripes[i] = new Object();
+      }
    }
 
    @Override
-   public synchronized void addTail(final MessageReference ref, final boolean direct)
+   public void addTail(final MessageReference ref, final boolean direct)
    {
       SimpleString prop = ref.getMessage().getSimpleStringProperty(Message.HDR_LAST_VALUE_NAME);
 
       if (prop != null)
       {
-         HolderReference hr = map.get(prop);
+         HolderReference hr;
 
-         if (hr != null)
-         {
-            // We need to overwrite the old ref with the new one and ack the old one
+         MessageReference oldRef = null;
 
-            MessageReference oldRef = hr.getReference();
+         boolean updated = false;
 
-            referenceHandled();
+         synchronized (getStripe(prop))
+         {
+            hr = map.get(prop);
 
-            try
+            if (hr != null && !hr.delivered)
             {
-               oldRef.acknowledge();
+               // We need to overwrite the old ref with the new one and ack the old one, the holder stays where it is
+               oldRef = hr.update(ref);
+
+               updated = true;
             }
-            catch (Exception e)
+            else
             {
-               ActiveMQServerLogger.LOGGER.errorAckingOldReference(e);
-            }
+               hr = new HolderReference(prop, ref);
 
-            hr.setReference(ref);
+               map.put(prop, hr);
+            }
+         }
 
+         if (updated)
+         {
+            // the holder took the value, or kept it aside while pinned
+            acknowledgeSuperseded(oldRef);
          }
          else
          {
-            hr = new HolderReference(prop, ref);
-
-            map.put(prop, hr);
-
+            // an update arriving meanwhile is applied to the holder, which then goes to the queue with the latest value
             super.addTail(hr, direct);
          }
       }
@@ -127,9 +146,23 @@ public class LastValueQueue extends QueueImpl
 
       if (prop != null)
       {
-         HolderReference hr = map.get(prop);
+         HolderReference returned = (HolderReference)ref;
+
+         boolean superseded;
+
+         synchronized (getStripe(prop))
+         {
+            superseded = map.get(prop) != null;
+
+            if (!superseded)
+            {
+               returned.delivered = false;
+
+               map.put(prop, returned);
+            }
+         }
 
-         if (hr != null)
+         if (superseded)
          {
             // We keep the current ref and ack the one we are returning
 
@@ -146,8 +179,6 @@ public class LastValueQueue extends QueueImpl
          }
          else
          {
-            map.put(prop, (HolderReference)ref);
-
             super.addHead(ref);
          }
       }
@@ -159,21 +190,99 @@ public class LastValueQueue extends QueueImpl
 
 
    @Override
-   protected void refRemoved(MessageReference ref)
+   protected void startDeliveryAttempt(final MessageReference ref)
+   {
+      if (ref instanceof HolderReference)
+      {
+         ((HolderReference)ref).pin();
+      }
+   }
+
+   @Override
+   protected void endDeliveryAttempt(final MessageReference ref)
    {
-      synchronized (this)
+      if (ref instanceof HolderReference)
       {
-         SimpleString prop = ref.getMessage().getSimpleStringProperty(Message.HDR_LAST_VALUE_NAME);
+         HolderReference hr = (HolderReference)ref;
+
+         MessageReference pending = hr.unpin();
 
-         if (prop != null)
+         if (pending == null)
          {
-            map.remove(prop);
+            return;
          }
+
+         HolderReference next = null;
+
+         MessageReference superseded;
+
+         synchronized (getStripe(hr.prop))
+         {
+            if (!hr.delivered)
+            {
+               // the attempt failed, the holder takes the value kept aside
+               superseded = hr.update(pending);
+            }
+            else if (map.get(hr.prop) == null)
+            {
+               // the holder left the queue, the value kept aside goes in a holder of its own
+               next = new HolderReference(hr.prop, pending);
+
+               map.put(hr.prop, next);
+
+               superseded = null;
+            }
+            else
+            {
+               // a later value already went in a new holder
+               superseded = pending;
+            }
+         }
+
+         acknowledgeSuperseded(superseded);
+
+         if (next != null)
+         {
+            super.addTail(next, false);
+         }
+      }
+   }
+
+   private void acknowledgeSuperseded(final MessageReference oldRef)
+   {
+      if (oldRef == null)
+      {
+         return;
+      }
+
+      referenceHandled();
+
+      try
+      {
+         oldRef.acknowledge();
+      }
+      catch (Exception e)
+      {
+         ActiveMQServerLogger.LOGGER.errorAckingOldReference(e);
+      }
+   }
+
+   @Override
+   protected void refRemoved(MessageReference ref)
+   {
+      if (ref instanceof HolderReference)
+      {
+         ((HolderReference)ref).removed();
       }
 
       super.refRemoved(ref);
    }
 
+   private Object getStripe(final SimpleString prop)
+   {
+      return stripes[prop.hashCode() & (STRIPES - 1)];
+   }
+
    private class HolderReference implements MessageReference
    {
       private final SimpleString prop;
@@ -182,6 +291,22 @@ public class LastValueQueue extends QueueImpl
 
       private Long consumerId;
 
+      /**
+       * Set under the stripe of the property once the holder leaves the queue, the following values then go to a
+       * new holder
+       */
+      private boolean delivered;
+
+      /**
+       * The delivery attempts looking at the holder, guarded by the stripe of the property
+       */
+      private int pins;
+
+      /**
+       * The latest value received while the holder was pinned, guarded by the stripe of the property
+       */
+      private MessageReference pending;
+
       HolderReference(final SimpleString prop, final MessageReference ref)
       {
          this.prop = prop;
@@ -196,9 +321,25 @@ public class LastValueQueue extends QueueImpl
 
       public void handled()
       {
-         ref.handled();
          // We need to remove the entry from the map just before it gets delivered
-         map.remove(prop);
+         synchronized (getStripe(prop))
+         {
+            ref.handled();
+
+            delivered = true;
+
+            map.remove(prop, this);
+         }
+      }
+
+      void removed()
+      {
+         synchronized (getStripe(prop))
+         {
+            delivered = true;
+
+            map.remove(prop, this);
+         }
       }
 
       @Override
@@ -213,9 +354,57 @@ public class LastValueQueue extends QueueImpl
          return ref.isAlreadyAcked();
       }
 
-      void setReference(final MessageReference ref)
+      /**
+       * Called under the stripe of the property with a later value.
+       *
+       * @return the value superseded, to be acknowledged
+       */
+      MessageReference update(final MessageReference newRef)
       {
-         this.ref = ref;
+         MessageReference superseded;
+
+         if (pins > 0)
+         {
+            superseded = pending;
+
+            pending = newRef;
+         }
+         else
+         {
+            superseded = ref;
+
+            ref = newRef;
+         }
+
+         return superseded;
+      }
+
+      void pin()
+      {
+         synchronized (getStripe(prop))
+         {
+            pins++;
+         }
+      }
+
+      /**
+       * @return the value kept aside while the holder was pinned, once the last attempt ends
+       */
+      MessageReference unpin()
+      {
+         synchronized (getStripe(prop))
+         {
+            if (--pins > 0)
+            {
+               return null;
+            }
+
+            MessageReference next = pending;
+
+            pending = null;
+
+            return next;
+         }
       }
 
       public MessageReference copy(final Queue queue)
@@ -20,6 +20,7 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.activemq.api.core.SimpleString;
 import org.apache.activemq.core.filter.Filter;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.cursor.PageSubscription;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.postoffice.PostOffice;
@@ -46,10 +47,22 @@ public class QueueFactoryImpl implements QueueFactory
 
    protected final ExecutorFactory executorFactory;
 
+   /** null when the metrics are disabled */
+   protected final MetricsRegistry metricsRegistry;
+
    public QueueFactoryImpl(final ExecutorFactory executorFactory,
                            final ScheduledExecutorService scheduledExecutor,
                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
                            final StorageManager storageManager)
+   {
+      this(executorFactory, scheduledExecutor, addressSettingsRepository, storageManager, null);
+   }
+
+   public QueueFactoryImpl(final ExecutorFactory executorFactory,
+                           final ScheduledExecutorService scheduledExecutor,
+                           final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                           final StorageManager storageManager,
+                           final MetricsRegistry metricsRegistry)
    {
       this.addressSettingsRepository = addressSettingsRepository;
 
@@ -58,6 +71,8 @@ public class QueueFactoryImpl implements QueueFactory
       this.storageManager = storageManager;
 
       this.executorFactory = executorFactory;
+
+      this.metricsRegistry = metricsRegistry;
    }
 
    public void setPostOffice(final PostOffice postOffice)
@@ -76,7 +91,7 @@ public class QueueFactoryImpl implements QueueFactory
    {
       AddressSettings addressSettings = addressSettingsRepository.getMatch(address.toString());
 
-      Queue queue;
+      QueueImpl queue;
       if (addressSettings.isLastValueQueue())
       {
          queue = new LastValueQueue(persistenceID,
@@ -110,6 +125,11 @@ public class QueueFactoryImpl implements QueueFactory
                                executorFactory.getExecutor());
       }
 
+      if (metricsRegistry != null)
+      {
+         queue.setMetricsRegistry(metricsRegistry);
+      }
+
       return queue;
    }
 }
@@ -29,7 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -48,6 +50,10 @@ import org.apache.activemq.api.core.management.ManagementHelper;
 import org.apache.activemq.core.filter.Filter;
 import org.apache.activemq.core.journal.IOAsyncTask;
 import org.apache.activemq.core.message.impl.MessageImpl;
+import org.apache.activemq.core.metrics.LatencyHistogram;
+import org.apache.activemq.core.metrics.MetricsRegistry;
+import org.apache.activemq.core.metrics.StripedCounter;
+import org.apache.activemq.core.paging.PagingStore;
 import org.apache.activemq.core.paging.cursor.PageSubscription;
 import org.apache.activemq.core.paging.cursor.PagedReference;
 import org.apache.activemq.core.persistence.StorageManager;
@@ -175,6 +181,9 @@ public class QueueImpl implements Queue
 
    private final Runnable deliverRunner = new DeliverRunner();
 
+   // consumers that got messages during the current delivery pass, guarded by deliverRunner
+   private final Set<Consumer> deliveredConsumers = new HashSet<Consumer>();
+
    private volatile boolean depagePending = false;
 
    private final StorageManager storageManager;
@@ -199,6 +208,14 @@ public class QueueImpl implements Queue
 
    private final Map<SimpleString, Consumer> groups = new HashMap<SimpleString, Consumer>();
 
+   /**
+    * The group-buckets of the address settings, applied under the queue lock by {@link #getGroupBuckets()}
+    */
+   private volatile int groupBucketsSetting = AddressSettings.DEFAULT_GROUP_BUCKETS;
+
+   // Replaces the groups when group-buckets is set, read outside of the lock as the messages are acknowledged
+   private volatile GroupBuckets groupBuckets;
+
    private volatile SimpleString expiryAddress;
 
    private int pos;
@@ -232,7 +249,22 @@ public class QueueImpl implements Queue
    private final Object directDeliveryGuard = new Object();
 
    /**
-    * For testing only
+    * The metrics of the queue, null when the metrics are disabled
+    */
+   private LatencyHistogram queueTime;
+
+   /**
+    * The {@link System#nanoTime()} at which the references waiting in the queue were added, kept aside from the
+    * references so they don't grow when the metrics are disabled. Null when the metrics are disabled
+    */
+   private ConcurrentMap<MessageReference, Long> enqueueTimes;
+
+   private LatencyHistogram depageTime;
+
+   private StripedCounter depagedMessages;
+
+   /**
+    * For testing only, the group IDs aren't recorded when group-buckets is set so the list is then empty
     */
    public List<SimpleString> getGroupsUsed()
    {
@@ -480,6 +512,10 @@ public class QueueImpl implements Queue
       return filter;
    }
 
+   /**
+    * With group-buckets the group IDs aren't bound to their consumer, each bucket keeps its consumer whatever the
+    * groups hashed into it, so there's nothing to remove.
+    */
    public void unproposed(final SimpleString groupID)
    {
       if (groupID.toString().endsWith("." + this.getName()))
@@ -569,6 +605,11 @@ public class QueueImpl implements Queue
          return;
       }
 
+      if (enqueueTimes != null)
+      {
+         enqueueTimes.put(ref, System.nanoTime());
+      }
+
       synchronized (directDeliveryGuard)
       {
          // The checkDirect flag is periodically set to true, if the delivery is specified as direct then this causes the
@@ -772,6 +813,13 @@ public class QueueImpl implements Queue
 
          consumerSet.add(consumer);
 
+         GroupBuckets buckets = getGroupBuckets();
+
+         if (buckets != null)
+         {
+            buckets.rebalance(consumerSet);
+         }
+
          if (refCountForConsumers != null)
          {
             refCountForConsumers.increment();
@@ -831,6 +879,14 @@ public class QueueImpl implements Queue
             }
          }
 
+         GroupBuckets buckets = getGroupBuckets();
+
+         if (buckets != null)
+         {
+            buckets.removeConsumer(consumer);
+            buckets.rebalance(consumerSet);
+         }
+
          if (refCountForConsumers != null)
          {
             refCountForConsumers.decrement();
@@ -1922,6 +1978,18 @@ public class QueueImpl implements Queue
    // Public
    // -----------------------------------------------------------------------------
 
+   /**
+    * Records the time the messages wait in this queue and the depage runs on the metrics. This is set when the queue
+    * is created, before it's used.
+    */
+   public void setMetricsRegistry(final MetricsRegistry metricsRegistry)
+   {
+      queueTime = metricsRegistry.getHistogram(MetricsRegistry.QUEUE_TIME);
+      enqueueTimes = new ConcurrentHashMap<MessageReference, Long>();
+      depageTime = metricsRegistry.getHistogram(MetricsRegistry.DEPAGE_TIME);
+      depagedMessages = metricsRegistry.getCounter(MetricsRegistry.DEPAGED_MESSAGES);
+   }
+
    @Override
    public boolean equals(final Object other)
    {
@@ -2094,70 +2162,85 @@ public class QueueImpl implements Queue
             }
             else
             {
-               if (checkExpired(ref))
+               startDeliveryAttempt(ref);
+
+               try
                {
-                  if (isTrace)
+                  if (checkExpired(ref))
                   {
-                     ActiveMQServerLogger.LOGGER.trace("Reference " + ref + " being expired");
-                  }
-                  holder.iter.remove();
-
-                  refRemoved(ref);
+                     if (isTrace)
+                     {
+                        ActiveMQServerLogger.LOGGER.trace("Reference " + ref + " being expired");
+                     }
+                     holder.iter.remove();
 
-                  handled++;
+                     refRemoved(ref);
 
-                  continue;
-               }
+                     handled++;
 
+                     continue;
+                  }
 
-               if (isTrace)
-               {
-                  ActiveMQServerLogger.LOGGER.trace("Queue " + this.getName() + " is delivering reference " + ref);
-               }
 
-               // If a group id is set, then this overrides the consumer chosen round-robin
+                  if (isTrace)
+                  {
+                     ActiveMQServerLogger.LOGGER.trace("Queue " + this.getName() + " is delivering reference " + ref);
+                  }
 
-               SimpleString groupID = extractGroupID(ref);
+                  // If a group id is set, then this overrides the consumer chosen round-robin
 
-               if (groupID != null)
-               {
-                  groupConsumer = groups.get(groupID);
+                  SimpleString groupID = extractGroupID(ref);
 
-                  if (groupConsumer != null)
+                  if (groupID != null)
                   {
-                     consumer = groupConsumer;
+                     groupConsumer = getGroupConsumer(groupID);
+
+                     if (groupConsumer != null)
+                     {
+                        consumer = groupConsumer;
+                     }
                   }
-               }
 
-               HandleStatus status = handle(ref, consumer);
+                  HandleStatus status = handle(ref, consumer);
 
-               if (status == HandleStatus.HANDLED)
-               {
+                  if (status == HandleStatus.HANDLED)
+                  {
 
-                  deliveriesInTransit.countUp();
+                     deliveriesInTransit.countUp();
 
-                  handledconsumer = consumer;
+                     handledconsumer = consumer;
 
-                  holder.iter.remove();
+                     recordQueueTime(ref);
 
-                  refRemoved(ref);
+                     holder.iter.remove();
 
-                  if (groupID != null && groupConsumer == null)
-                  {
-                     groups.put(groupID, consumer);
-                  }
+                     refRemoved(ref);
 
-                  handled++;
-               }
-               else if (status == HandleStatus.BUSY)
-               {
-                  holder.iter.repeat();
+                     if (groupID != null)
+                     {
+                        if (groupConsumer == null)
+                        {
+                           setGroupConsumer(groupID, consumer);
+                        }
+                        groupDelivered(groupID, ref);
+                     }
 
-                  noDelivery++;
+                     handled++;
+                  }
+                  else if (status == HandleStatus.BUSY)
+                  {
+                     holder.iter.repeat();
+
+                     noDelivery++;
+                  }
+                  else if (status == HandleStatus.NO_MATCH)
+                  {
+                     // nothing to be done on this case, the iterators will just jump next
+                  }
                }
-               else if (status == HandleStatus.NO_MATCH)
+               finally
                {
-                  // nothing to be done on this case, the iterators will just jump next
+                  endDeliveryAttempt(ref);
                }
             }
 
@@ -2201,6 +2284,8 @@ public class QueueImpl implements Queue
 
          if (handledconsumer != null)
          {
+            deliveredConsumers.add(handledconsumer);
+
             proceedDeliver(handledconsumer, ref);
          }
       }
@@ -2226,11 +2311,85 @@ public class QueueImpl implements Queue
     */
    private boolean needsDepage()
    {
-      return queueMemorySize.get() < pageSubscription.getPagingStore().getMaxSize();
+      PagingStore store = pageSubscription.getPagingStore();
+
+      long memorySize = queueMemorySize.get();
+
+      long maxSize = store.getMaxSize();
+
+      if (maxSize > 0 && memorySize >= maxSize)
+      {
+         return false;
+      }
+
+      // over the global-max-size only a page worth of messages is depaged, enough to keep the consumers busy
+      return memorySize < store.getPageSizeBytes() || !store.getPagingManager().isGlobalFull();
    }
 
 
 
+   /**
+    * @return the buckets of the message groups, or null if the groups are kept by group ID
+    */
+   private GroupBuckets getGroupBuckets()
+   {
+      int buckets = groupBucketsSetting;
+
+      if (buckets == 0)
+      {
+         groupBuckets = null;
+      }
+      else if (groupBuckets == null || groupBuckets.getBuckets() != buckets)
+      {
+         groups.clear();
+         groupBuckets = new GroupBuckets(buckets);
+         groupBuckets.rebalance(consumerSet);
+      }
+
+      return groupBuckets;
+   }
+
+   private Consumer getGroupConsumer(final SimpleString groupID)
+   {
+      GroupBuckets buckets = getGroupBuckets();
+
+      return buckets == null ? groups.get(groupID) : buckets.getConsumer(groupID);
+   }
+
+   private void setGroupConsumer(final SimpleString groupID, final Consumer consumer)
+   {
+      GroupBuckets buckets = getGroupBuckets();
+
+      if (buckets == null)
+      {
+         groups.put(groupID, consumer);
+      }
+      else
+      {
+         buckets.setConsumer(groupID, consumer);
+      }
+   }
+
+   private void groupDelivered(final SimpleString groupID, final MessageReference ref)
+   {
+      GroupBuckets buckets = groupBuckets;
+
+      if (buckets != null)
+      {
+         buckets.delivered(groupID, ref);
+      }
+   }
+
+   private void groupReleased(final MessageReference ref)
+   {
+      GroupBuckets buckets = groupBuckets;
+
+      if (buckets != null)
+      {
+         buckets.released(ref);
+      }
+   }
+
    private SimpleString extractGroupID(MessageReference ref)
    {
       if (internalQueue)
@@ -2244,11 +2403,31 @@ public class QueueImpl implements Queue
       }
    }
 
+   /**
+    * Called under the queue lock before the reference is checked for expiry, for its group and by the consumers, so
+    * a subclass can keep the reference from changing until {@link #endDeliveryAttempt(MessageReference)}.
+    */
+   protected void startDeliveryAttempt(final MessageReference ref)
+   {
+   }
+
+   /**
+    * Called under the queue lock once the reference was delivered, expired or left for later.
+    */
+   protected void endDeliveryAttempt(final MessageReference ref)
+   {
+   }
+
    /**
     * @param ref
     */
    protected void refRemoved(MessageReference ref)
    {
+      if (enqueueTimes != null)
+      {
+         // expired or removed before being delivered
+         enqueueTimes.remove(ref);
+      }
       queueMemorySize.addAndGet(-ref.getMessageMemoryEstimate());
       if (ref.isPaged())
       {
@@ -2304,6 +2483,8 @@ public class QueueImpl implements Queue
 
       this.directDeliver = false;
 
+      long start = depageTime == null ? 0 : System.nanoTime();
+
       int depaged = 0;
       while (timeout > System.currentTimeMillis() && needsDepage() && pageIterator.hasNext())
       {
@@ -2317,6 +2498,12 @@ public class QueueImpl implements Queue
          pageIterator.remove();
       }
 
+      if (depageTime != null && depaged > 0)
+      {
+         depageTime.recordSince(start);
+         depagedMessages.add(depaged);
+      }
+
       if (ActiveMQServerLogger.LOGGER.isDebugEnabled())
       {
          if (depaged == 0 && queueMemorySize.get() >= maxSize)
@@ -2427,6 +2614,8 @@ public class QueueImpl implements Queue
 
          decDelivering();
 
+         groupReleased(reference);
+
          return true;
       }
    }
@@ -2692,71 +2881,103 @@ public class QueueImpl implements Queue
             return false;
          }
 
-         if (checkExpired(ref))
+         startDeliveryAttempt(ref);
+
+         try
          {
-            return true;
-         }
+            if (checkExpired(ref))
+            {
+               return true;
+            }
 
-         int startPos = pos;
+            int startPos = pos;
 
-         int size = consumerList.size();
+            int size = consumerList.size();
 
-         while (true)
-         {
-            ConsumerHolder holder = consumerList.get(pos);
+            while (true)
+            {
+               ConsumerHolder holder = consumerList.get(pos);
 
-            Consumer consumer = holder.consumer;
+               Consumer consumer = holder.consumer;
 
-            Consumer groupConsumer = null;
+               Consumer groupConsumer = null;
 
-            // If a group id is set, then this overrides the consumer chosen round-robin
-
-            SimpleString groupID = extractGroupID(ref);
+               // If a group id is set, then this overrides the consumer chosen round-robin
 
-            if (groupID != null)
-            {
-               groupConsumer = groups.get(groupID);
+               SimpleString groupID = extractGroupID(ref);
 
-               if (groupConsumer != null)
+               if (groupID != null)
                {
-                  consumer = groupConsumer;
+                  groupConsumer = getGroupConsumer(groupID);
+
+                  if (groupConsumer != null)
+                  {
+                     consumer = groupConsumer;
+                  }
                }
-            }
 
-            // Only move onto the next position if the consumer on the current position was used.
-            if (groupConsumer == null)
-            {
-               pos++;
-            }
+               // Only move onto the next position if the consumer on the current position was used.
+               if (groupConsumer == null)
+               {
+                  pos++;
+               }
 
-            if (pos == size)
-            {
-               pos = 0;
-            }
+               if (pos == size)
+               {
+                  pos = 0;
+               }
 
-            HandleStatus status = handle(ref, consumer);
+               HandleStatus status = handle(ref, consumer);
 
-            if (status == HandleStatus.HANDLED)
-            {
-               if (groupID != null && groupConsumer == null)
+               if (status == HandleStatus.HANDLED)
                {
-                  groups.put(groupID, consumer);
-               }
+                  if (groupID != null)
+                  {
+                     if (groupConsumer == null)
+                     {
+                        setGroupConsumer(groupID, consumer);
+                     }
+                     groupDelivered(groupID, ref);
+                  }
 
-               messagesAdded++;
+                  messagesAdded++;
 
-               deliveriesInTransit.countUp();
-               proceedDeliver(consumer, ref);
-               return true;
-            }
+                  deliveriesInTransit.countUp();
+                  recordQueueTime(ref);
+                  proceedDeliver(consumer, ref);
+                  afterDeliver(consumer);
+                  return true;
+               }
 
-            if (pos == startPos)
-            {
-               // Tried them all
-               break;
+               if (pos == startPos)
+               {
+                  // Tried them all
+                  break;
+               }
             }
+            return false;
+         }
+         finally
+         {
+            endDeliveryAttempt(ref);
+         }
+      }
+   }
+
+   /**
+    * Records the time a reference waited in the queue, when it's handed to a consumer for the first time. The
+    * redeliveries are added back with no time.
+    */
+   private void recordQueueTime(final MessageReference ref)
+   {
+      if (enqueueTimes != null)
+      {
+         Long enqueueTime = enqueueTimes.remove(ref);
+
+         if (enqueueTime != null)
+         {
+            queueTime.recordSince(enqueueTime);
          }
-         return false;
       }
    }
 
@@ -2792,6 +3013,31 @@ public class QueueImpl implements Queue
       }
    }
 
+   /**
+    * Lets the consumers that got messages during the last delivery pass send out what they held back.
+    */
+   private void afterDeliver()
+   {
+      for (Consumer consumer : deliveredConsumers)
+      {
+         afterDeliver(consumer);
+      }
+
+      deliveredConsumers.clear();
+   }
+
+   private void afterDeliver(Consumer consumer)
+   {
+      try
+      {
+         consumer.afterDeliver();
+      }
+      catch (Exception e)
+      {
+         ActiveMQServerLogger.LOGGER.errorDelivering(e);
+      }
+   }
+
    private boolean checkExpired(final MessageReference reference)
    {
       if (reference.getMessage().isExpired())
@@ -2867,6 +3113,8 @@ public class QueueImpl implements Queue
 
       queue.decDelivering();
 
+      queue.groupReleased(ref);
+
       if (ref.isPaged())
       {
          // nothing to be done
@@ -3015,7 +3263,14 @@ public class QueueImpl implements Queue
             // an asynchronous delivery
             synchronized (QueueImpl.this.deliverRunner)
             {
-               deliver();
+               try
+               {
+                  deliver();
+               }
+               finally
+               {
+                  afterDeliver();
+               }
             }
          }
          catch (Exception e)
@@ -3211,6 +3466,12 @@ public class QueueImpl implements Queue
       this.expiryAddress = settings == null ? null : settings.getExpiryAddress();
    }
 
+   private void configureGroupBuckets(final AddressSettings settings)
+   {
+      // the listener can't take the queue lock, the setting is applied by the next delivery
+      groupBucketsSetting = settings == null ? AddressSettings.DEFAULT_GROUP_BUCKETS : settings.getGroupBuckets();
+   }
+
    private void configureSlowConsumerReaper(final AddressSettings settings)
    {
       if (settings == null || settings.getSlowConsumerThreshold() == AddressSettings.DEFAULT_SLOW_CONSUMER_THRESHOLD)
@@ -3269,6 +3530,7 @@ public class QueueImpl implements Queue
       {
          AddressSettings settings = addressSettingsRepository.getMatch(address.toString());
          configureExpiry(settings);
+         configureGroupBuckets(settings);
          configureSlowConsumerReaper(settings);
       }
    }
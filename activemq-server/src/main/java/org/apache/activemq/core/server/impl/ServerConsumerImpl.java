@@ -37,6 +37,7 @@ import org.apache.activemq.api.core.management.ManagementHelper;
 import org.apache.activemq.core.client.impl.ClientConsumerImpl;
 import org.apache.activemq.core.filter.Filter;
 import org.apache.activemq.core.message.BodyEncoder;
+import org.apache.activemq.core.message.impl.MessageImpl;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.postoffice.Binding;
 import org.apache.activemq.core.postoffice.QueueBinding;
@@ -422,6 +423,14 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
       }
    }
 
+   public void afterDeliver()
+   {
+      if (callback != null)
+      {
+         callback.afterDeliver(this);
+      }
+   }
+
    public Filter getFilter()
    {
       return filter;
@@ -545,6 +554,8 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
                      forcedDeliveryMessage.setAddress(messageQueue.getName());
 
                      callback.sendMessage(forcedDeliveryMessage, ServerConsumerImpl.this, 0);
+
+                     callback.afterDeliver(ServerConsumerImpl.this);
                   }
                }
             }
@@ -624,6 +635,9 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
          lockDelivery.writeLock().lock();
          try
          {
+            // deliveries held back by the callback must reach the client before the state changes
+            afterDeliver();
+
             this.started = browseOnly || started;
          }
          finally
@@ -648,6 +662,9 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
          lockDelivery.writeLock().lock();
          try
          {
+            // deliveries held back by the callback must reach the client before the state changes
+            afterDeliver();
+
             this.transferring = transferring;
          }
          finally
@@ -701,7 +718,8 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
          ActiveMQServerLogger.LOGGER.debug(this + ":: FlowControl::Received reset flow control message");
          availableCredits.set(0);
       }
-      else
+      // there are no credits without flow control, but the callback may still give back those of rejected deliveries
+      else if (availableCredits != null)
       {
          int previous = availableCredits.getAndAdd(credits);
 
@@ -975,9 +993,19 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
     * @param ref
     * @param message
     */
-   private void deliverStandardMessage(final MessageReference ref, final ServerMessage message)
+   private void deliverStandardMessage(final MessageReference ref, final ServerMessage message) throws Exception
    {
-      int packetSize = callback.sendMessage(message, ServerConsumerImpl.this, ref.getDeliveryCount());
+      ServerMessage messageToSend = message;
+
+      // messages kept in another protocol's wire format are only converted when a foreign consumer reads them
+      SimpleString nativeProtocol = message.getSimpleStringProperty(MessageImpl.HDR_NATIVE_PROTOCOL);
+
+      if (nativeProtocol != null && !callback.supportsNativeProtocol(nativeProtocol))
+      {
+         messageToSend = session.convertNativeMessage(message);
+      }
+
+      int packetSize = callback.sendMessage(messageToSend, ServerConsumerImpl.this, ref.getDeliveryCount());
 
       if (availableCredits != null)
       {
@@ -1222,6 +1250,18 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener
       }
 
       public synchronized void run()
+      {
+         try
+         {
+            browse();
+         }
+         finally
+         {
+            afterDeliver();
+         }
+      }
+
+      private void browse()
       {
          // if the reference was busy during the previous iteration, handle it now
          if (current != null)
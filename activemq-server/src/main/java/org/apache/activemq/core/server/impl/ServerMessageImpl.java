@@ -19,10 +19,15 @@ package org.apache.activemq.core.server.impl;
 import java.io.InputStream;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.netty.buffer.ByteBuf;
+import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.api.core.ActiveMQBuffers;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.core.buffers.impl.ChannelBufferWrapper;
 import org.apache.activemq.core.message.impl.MessageImpl;
 import org.apache.activemq.core.paging.PagingStore;
+import org.apache.activemq.core.remoting.impl.netty.MessageBufferPool;
 import org.apache.activemq.core.server.MessageReference;
 import org.apache.activemq.core.server.Queue;
 import org.apache.activemq.core.server.ServerMessage;
@@ -39,6 +44,9 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
 
    private PagingStore pagingStore;
 
+   // the pooled frame the message was received in, retained while the message is referenced
+   private ByteBuf pooledBuffer;
+
    private static final int memoryOffset;
 
    private boolean persisted = false;
@@ -122,6 +130,11 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
    {
       int count = refCount.incrementAndGet();
 
+      if (count == 1)
+      {
+         retainPooledBuffer();
+      }
+
       if (pagingStore != null)
       {
          if (count == 1)
@@ -146,12 +159,6 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
          if (count == 0)
          {
             pagingStore.addSize(-getMemoryEstimate() - MessageReferenceImpl.getMemoryEstimate());
-
-            if (buffer != null)
-            {
-               // release the buffer now
-               buffer.byteBuf().release();
-            }
          }
          else
          {
@@ -159,6 +166,11 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
          }
       }
 
+      if (count == 0 && durableRefCount.get() == 0)
+      {
+         releasePooledBuffer();
+      }
+
       return count;
    }
 
@@ -169,7 +181,57 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
 
    public int decrementDurableRefCount()
    {
-      return durableRefCount.decrementAndGet();
+      int count = durableRefCount.decrementAndGet();
+
+      if (count == 0 && refCount.get() == 0)
+      {
+         releasePooledBuffer();
+      }
+
+      return count;
+   }
+
+   public synchronized void unpoolBuffer()
+   {
+      if (pooledFrame() != null)
+      {
+         ActiveMQBuffer copied = buffer.copy(0, buffer.capacity());
+
+         copied.setIndex(buffer.readerIndex(), buffer.writerIndex());
+
+         buffer = copied;
+
+         if (bodyBuffer != null)
+         {
+            bodyBuffer.setBuffer(buffer);
+         }
+      }
+
+      if (pooledBuffer != null)
+      {
+         MessageBufferPool.release(pooledBuffer);
+
+         pooledBuffer = null;
+      }
+   }
+
+   @Override
+   public synchronized ActiveMQBuffer getEncodedBuffer()
+   {
+      ActiveMQBuffer encoded = super.getEncodedBuffer();
+
+      if (encoded == buffer)
+      {
+         ByteBuf frame = pooledFrame();
+
+         if (frame != null)
+         {
+            // the transport releases what it writes, so the write holds its own reference to the frame
+            return new ChannelBufferWrapper(frame.retain().duplicate(), true);
+         }
+      }
+
+      return encoded;
    }
 
    public int getRefCount()
@@ -315,6 +377,48 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage
       }
    }
 
+   /**
+    * @return the pooled frame the message was received in, as long as the message is still read from it
+    */
+   private ByteBuf pooledFrame()
+   {
+      // frames are wrapped so whoever reads them can't release them
+      ByteBuf frame = buffer == null ? null : buffer.byteBuf().unwrap();
+
+      return frame != null && MessageBufferPool.isPooled(frame) ? frame : null;
+   }
+
+   private synchronized void retainPooledBuffer()
+   {
+      if (pooledBuffer == null)
+      {
+         ByteBuf frame = pooledFrame();
+
+         if (frame != null)
+         {
+            pooledBuffer = MessageBufferPool.retain(frame);
+         }
+      }
+   }
+
+   private synchronized void releasePooledBuffer()
+   {
+      if (pooledBuffer != null)
+      {
+         if (pooledFrame() == pooledBuffer)
+         {
+            // the pooled memory is reused once it's released, nothing must read it through this message anymore
+            buffer = ActiveMQBuffers.fixedBuffer(0);
+
+            bodyBuffer = null;
+         }
+
+         MessageBufferPool.release(pooledBuffer);
+
+         pooledBuffer = null;
+      }
+   }
+
    @Override
    public String toString()
    {
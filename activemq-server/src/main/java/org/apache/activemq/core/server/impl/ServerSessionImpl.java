@@ -43,6 +43,7 @@ import org.apache.activemq.core.exception.ActiveMQXAException;
 import org.apache.activemq.core.filter.Filter;
 import org.apache.activemq.core.filter.impl.FilterImpl;
 import org.apache.activemq.core.journal.IOAsyncTask;
+import org.apache.activemq.core.message.impl.MessageImpl;
 import org.apache.activemq.core.message.impl.MessageInternal;
 import org.apache.activemq.core.paging.PagingStore;
 import org.apache.activemq.core.persistence.OperationContext;
@@ -54,6 +55,7 @@ import org.apache.activemq.core.postoffice.PostOffice;
 import org.apache.activemq.core.postoffice.QueueBinding;
 import org.apache.activemq.core.remoting.CloseListener;
 import org.apache.activemq.core.remoting.FailureListener;
+import org.apache.activemq.core.security.AuthorizationCache;
 import org.apache.activemq.core.security.CheckType;
 import org.apache.activemq.core.security.SecurityStore;
 import org.apache.activemq.core.server.ActiveMQServerLogger;
@@ -77,6 +79,8 @@ import org.apache.activemq.core.transaction.TransactionFactory;
 import org.apache.activemq.core.transaction.TransactionOperationAbstract;
 import org.apache.activemq.core.transaction.TransactionPropertyIndexes;
 import org.apache.activemq.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.spi.core.protocol.MessageConverter;
+import org.apache.activemq.spi.core.protocol.ProtocolManager;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.spi.core.protocol.SessionCallback;
 import org.apache.activemq.utils.TypedProperties;
@@ -127,6 +131,8 @@ public class ServerSessionImpl implements ServerSession, FailureListener
 
    private final SecurityStore securityStore;
 
+   private final AuthorizationCache authorizationCache = new AuthorizationCache();
+
    protected final ManagementService managementService;
 
    protected volatile boolean started = false;
@@ -148,6 +154,9 @@ public class ServerSessionImpl implements ServerSession, FailureListener
 
    private volatile SimpleString defaultAddress;
 
+   // Transaction routing the messages of a batched send when the session is not transacting its sends
+   private Transaction batchTx;
+
    private volatile int timeoutSeconds;
 
    private Map<String, String> metaData;
@@ -323,6 +332,11 @@ public class ServerSessionImpl implements ServerSession, FailureListener
       return password;
    }
 
+   public AuthorizationCache getAuthorizationCache()
+   {
+      return authorizationCache;
+   }
+
    public int getMinLargeMessageSize()
    {
       return minLargeMessageSize;
@@ -1451,6 +1465,22 @@ public class ServerSessionImpl implements ServerSession, FailureListener
       currentLargeMessage = largeMsg;
    }
 
+   public ServerMessage convertNativeMessage(final ServerMessage message) throws Exception
+   {
+      SimpleString protocol = message.getSimpleStringProperty(MessageImpl.HDR_NATIVE_PROTOCOL);
+
+      ProtocolManager protocolManager = protocol == null ? null : server.getRemotingService().getProtocolManager(protocol.toString());
+
+      MessageConverter converter = protocolManager == null ? null : protocolManager.getConverter();
+
+      if (converter == null)
+      {
+         throw ActiveMQMessageBundle.BUNDLE.noConverterForNativeProtocol(protocol);
+      }
+
+      return converter.toCore(message);
+   }
+
    public void send(final ServerMessage message, final boolean direct) throws Exception
    {
       //large message may come from StompSession directly, in which
@@ -1508,6 +1538,46 @@ public class ServerSessionImpl implements ServerSession, FailureListener
       }
    }
 
+   public void send(final List<ServerMessage> messages, final boolean direct) throws Exception
+   {
+      if (tx != null && !autoCommitSends)
+      {
+         // the session transaction already groups the sends
+         for (ServerMessage message : messages)
+         {
+            send(message, direct);
+         }
+         return;
+      }
+
+      // a single commit makes the whole batch durable with one sync, or none of it is routed
+      Transaction theBatchTx = newTransaction();
+
+      batchTx = theBatchTx;
+
+      try
+      {
+         for (ServerMessage message : messages)
+         {
+            send(message, direct);
+         }
+      }
+      catch (Exception e)
+      {
+         batchTx = null;
+
+         theBatchTx.rollback();
+
+         throw e;
+      }
+      finally
+      {
+         batchTx = null;
+      }
+
+      theBatchTx.commit();
+   }
+
    public void sendContinuations(final int packetSize,
                                  final long messageBodySize,
                                  final byte[] body,
@@ -1838,6 +1908,10 @@ public class ServerSessionImpl implements ServerSession, FailureListener
 
       if (tx == null || autoCommitSends)
       {
+         if (batchTx != null)
+         {
+            routingContext.setTransaction(batchTx);
+         }
       }
       else
       {
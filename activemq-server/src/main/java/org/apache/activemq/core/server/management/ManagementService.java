@@ -31,6 +31,7 @@ import org.apache.activemq.core.config.Configuration;
 import org.apache.activemq.core.config.DivertConfiguration;
 import org.apache.activemq.core.management.impl.ActiveMQServerControlImpl;
 import org.apache.activemq.core.messagecounter.MessageCounterManager;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.PagingManager;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.postoffice.PostOffice;
@@ -56,6 +57,11 @@ public interface ManagementService extends NotificationService, ActiveMQComponen
 
    MessageCounterManager getMessageCounterManager();
 
+   /**
+    * @return the metrics of the server, null if they are not enabled
+    */
+   MetricsRegistry getMetricsRegistry();
+
    SimpleString getManagementAddress();
 
    SimpleString getManagementNotificationAddress();
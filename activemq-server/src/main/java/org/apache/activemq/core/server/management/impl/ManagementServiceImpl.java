@@ -59,6 +59,7 @@ import org.apache.activemq.core.management.impl.QueueControlImpl;
 import org.apache.activemq.core.messagecounter.MessageCounter;
 import org.apache.activemq.core.messagecounter.MessageCounterManager;
 import org.apache.activemq.core.messagecounter.impl.MessageCounterManagerImpl;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.PagingManager;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.postoffice.PostOffice;
@@ -114,6 +115,8 @@ public class ManagementServiceImpl implements ManagementService
 
    private MessageCounterManager messageCounterManager;
 
+   private final MetricsRegistry metricsRegistry;
+
    private final SimpleString managementNotificationAddress;
 
    private final SimpleString managementAddress;
@@ -137,6 +140,7 @@ public class ManagementServiceImpl implements ManagementService
       this.mbeanServer = mbeanServer;
       jmxManagementEnabled = configuration.isJMXManagementEnabled();
       messageCounterEnabled = configuration.isMessageCounterEnabled();
+      metricsRegistry = configuration.isMetricsEnabled() ? new MetricsRegistry() : null;
       managementAddress = configuration.getManagementAddress();
       managementNotificationAddress = configuration.getManagementNotificationAddress();
 
@@ -160,6 +164,11 @@ public class ManagementServiceImpl implements ManagementService
       return messageCounterManager;
    }
 
+   public MetricsRegistry getMetricsRegistry()
+   {
+      return metricsRegistry;
+   }
+
    public void setStorageManager(final StorageManager storageManager)
    {
       this.storageManager = storageManager;
@@ -69,6 +69,10 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    public static final SlowConsumerPolicy DEFAULT_SLOW_CONSUMER_POLICY = SlowConsumerPolicy.NOTIFY;
 
+   public static final boolean DEFAULT_COMPRESS_PAGES = false;
+
+   public static final int DEFAULT_GROUP_BUCKETS = 0;
+
    private AddressFullMessagePolicy addressFullMessagePolicy = null;
 
    private Long maxSizeBytes = null;
@@ -111,6 +115,10 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    private Boolean autoDeleteJmsQueues = null;
 
+   private Boolean compressPages = null;
+
+   private Integer groupBuckets = null;
+
    public AddressSettings(AddressSettings other)
    {
       this.addressFullMessagePolicy = other.addressFullMessagePolicy;
@@ -134,6 +142,8 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       this.slowConsumerPolicy = other.slowConsumerPolicy;
       this.autoCreateJmsQueues = other.autoCreateJmsQueues;
       this.autoDeleteJmsQueues = other.autoDeleteJmsQueues;
+      this.compressPages = other.compressPages;
+      this.groupBuckets = other.groupBuckets;
    }
 
    public AddressSettings()
@@ -202,6 +212,26 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       this.pageMaxCache = pageMaxCache;
    }
 
+   public boolean isCompressPages()
+   {
+      return compressPages != null ? compressPages : AddressSettings.DEFAULT_COMPRESS_PAGES;
+   }
+
+   public void setCompressPages(final boolean compressPages)
+   {
+      this.compressPages = compressPages;
+   }
+
+   public int getGroupBuckets()
+   {
+      return groupBuckets != null ? groupBuckets : AddressSettings.DEFAULT_GROUP_BUCKETS;
+   }
+
+   public void setGroupBuckets(final int groupBuckets)
+   {
+      this.groupBuckets = groupBuckets;
+   }
+
    public long getMaxSizeBytes()
    {
       return maxSizeBytes != null ? maxSizeBytes : AddressSettings.DEFAULT_MAX_SIZE_BYTES;
@@ -433,6 +463,14 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       {
          autoDeleteJmsQueues = merged.autoDeleteJmsQueues;
       }
+      if (compressPages == null)
+      {
+         compressPages = merged.compressPages;
+      }
+      if (groupBuckets == null)
+      {
+         groupBuckets = merged.groupBuckets;
+      }
    }
 
    @Override
@@ -497,6 +535,10 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       autoCreateJmsQueues = BufferHelper.readNullableBoolean(buffer);
 
       autoDeleteJmsQueues = BufferHelper.readNullableBoolean(buffer);
+
+      compressPages = BufferHelper.readNullableBoolean(buffer);
+
+      groupBuckets = BufferHelper.readNullableInteger(buffer);
    }
 
    @Override
@@ -523,7 +565,9 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          BufferHelper.sizeOfNullableLong(slowConsumerThreshold) +
          BufferHelper.sizeOfNullableSimpleString(slowConsumerPolicy != null ? slowConsumerPolicy.toString() : null) +
          BufferHelper.sizeOfNullableBoolean(autoCreateJmsQueues) +
-         BufferHelper.sizeOfNullableBoolean(autoDeleteJmsQueues);
+         BufferHelper.sizeOfNullableBoolean(autoDeleteJmsQueues) +
+         BufferHelper.sizeOfNullableBoolean(compressPages) +
+         BufferHelper.sizeOfNullableInteger(groupBuckets);
    }
 
    @Override
@@ -571,6 +615,10 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       BufferHelper.writeNullableBoolean(buffer, autoCreateJmsQueues);
 
       BufferHelper.writeNullableBoolean(buffer, autoDeleteJmsQueues);
+
+      BufferHelper.writeNullableBoolean(buffer, compressPages);
+
+      BufferHelper.writeNullableInteger(buffer, groupBuckets);
    }
 
    /* (non-Javadoc)
@@ -603,6 +651,8 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       result = prime * result + ((slowConsumerPolicy == null) ? 0 : slowConsumerPolicy.hashCode());
       result = prime * result + ((autoCreateJmsQueues == null) ? 0 : autoCreateJmsQueues.hashCode());
       result = prime * result + ((autoDeleteJmsQueues == null) ? 0 : autoDeleteJmsQueues.hashCode());
+      result = prime * result + ((compressPages == null) ? 0 : compressPages.hashCode());
+      result = prime * result + ((groupBuckets == null) ? 0 : groupBuckets.hashCode());
       return result;
    }
 
@@ -766,6 +816,20 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       }
       else if (!autoDeleteJmsQueues.equals(other.autoDeleteJmsQueues))
          return false;
+      if (compressPages == null)
+      {
+         if (other.compressPages != null)
+            return false;
+      }
+      else if (!compressPages.equals(other.compressPages))
+         return false;
+      if (groupBuckets == null)
+      {
+         if (other.groupBuckets != null)
+            return false;
+      }
+      else if (!groupBuckets.equals(other.groupBuckets))
+         return false;
       return true;
    }
 
@@ -816,6 +880,10 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          autoCreateJmsQueues +
          ", autoDeleteJmsQueues=" +
          autoDeleteJmsQueues +
+         ", compressPages=" +
+         compressPages +
+         ", groupBuckets=" +
+         groupBuckets +
          "]";
    }
 }
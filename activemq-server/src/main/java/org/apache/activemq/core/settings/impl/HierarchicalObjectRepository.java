@@ -23,11 +23,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.activemq.core.server.ActiveMQServerLogger;
@@ -40,6 +41,7 @@ import org.apache.activemq.core.settings.Mergeable;
  */
 public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T>
 {
+   public static final int DEFAULT_MAX_CACHE_SIZE = 10000;
 
    private boolean listenersEnabled = true;
    /**
@@ -52,6 +54,16 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    private final Map<String, Match<T>> matches = new HashMap<String, Match<T>>();
 
+   /**
+    * the matches made of words and wildcards, indexed by word
+    */
+   private final MatchTrie<T> trie = new MatchTrie<T>();
+
+   /**
+    * the other matches, which are checked one by one against their pattern
+    */
+   private final Map<String, Match<T>> patternMatches = new HashMap<String, Match<T>>();
+
    /**
     * Certain values cannot be removed after installed.
     * This is because we read a few records from the main config.
@@ -67,18 +79,19 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
    private final MatchComparator matchComparator = new MatchComparator();
 
    /**
-    * a cache
+    * a cache of the values of the addresses looked up, cleared whenever it reaches {@link #maxCacheSize}
     */
-   private final Map<String, T> cache = new ConcurrentHashMap<String, T>();
+   private final ConcurrentMap<String, CachedValue<T>> cache = new ConcurrentHashMap<String, CachedValue<T>>();
+
+   private final int maxCacheSize;
 
    /**
-    * Need a lock instead of using multiple {@link ConcurrentHashMap}s.
-    * <p>
-    * We could have a race between the state of {@link #matches} and {@link #cache}:
+    * Need a lock to keep the state of {@link #matches} and {@link #cache} in sync:
     * <p>
-    * Thread1: calls {@link #addMatch(String , T)}: i. cleans cache; ii. adds match to Map.<br/>
-    * Thread2: could add an (out-dated) entry to the cache between 'i. clean cache' and 'ii. add
-    * match to Map'.
+    * Thread1: calls {@link #addMatch(String , T)}: i. adds match to Map; ii. removes the entries of the match from
+    * the cache.<br/>
+    * Thread2: could add an (out-dated) entry to the cache between 'i. add match to Map' and 'ii. removes the
+    * entries'.
     * <p>
     * The lock is OK with regards to performance because we can search the cache before entering the
     * lock.
@@ -92,6 +105,18 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    private final ArrayList<HierarchicalRepositoryChangeListener> listeners = new ArrayList<HierarchicalRepositoryChangeListener>();
 
+   public HierarchicalObjectRepository()
+   {
+      this(DEFAULT_MAX_CACHE_SIZE);
+   }
+
+   /**
+    * @param maxCacheSize the number of addresses whose values are cached
+    */
+   public HierarchicalObjectRepository(final int maxCacheSize)
+   {
+      this.maxCacheSize = maxCacheSize;
+   }
 
    @Override
    public void disableListeners()
@@ -159,8 +184,6 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
       lock.writeLock().lock();
       try
       {
-         clearCache();
-
          if (immutableMatch)
          {
             immutables.add(match);
@@ -168,7 +191,24 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          Match.verify(match);
          Match<T> match1 = new Match<T>(match);
          match1.setValue(value);
-         matches.put(match, match1);
+         Match<T> previous = matches.put(match, match1);
+         if (previous != null)
+         {
+            unindex(previous);
+            /**
+             * only the addresses of the replaced match get another value
+             */
+            removeFromCache(previous);
+         }
+         else
+         {
+            /**
+             * a new match could apply to any address, rather than matching each cached address against it the cache
+             * is rebuilt as addresses are looked up
+             */
+            clearCache();
+         }
+         index(match1);
       }
       finally
       {
@@ -192,10 +232,10 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    public T getMatch(final String match)
    {
-      T cacheResult = cache.get(match);
+      CachedValue<T> cacheResult = cache.get(match);
       if (cacheResult != null)
       {
-         return cacheResult;
+         return cacheResult.value;
       }
       lock.readLock().lock();
       try
@@ -207,7 +247,12 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          T value = actualMatch != null ? actualMatch : defaultmatch;
          if (value != null)
          {
-            cache.put(match, value);
+            // temporary addresses come and go, the cache would grow forever
+            if (cache.size() >= maxCacheSize)
+            {
+               cache.clear();
+            }
+            cache.put(match, new CachedValue<T>(value, orderedMatches));
          }
          return value;
       }
@@ -278,12 +323,16 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          }
          else
          {
-            /**
-             * clear the cache before removing the match. This will force any thread at
-             * {@link #getMatch(String)} to get the lock to recompute.
-             */
-            clearCache();
-            matches.remove(match);
+            Match<T> removed = matches.remove(match);
+            if (removed != null)
+            {
+               unindex(removed);
+               /**
+                * any thread at {@link #getMatch(String)} for the addresses of this match will now get the lock
+                * to recompute.
+                */
+               removeFromCache(removed);
+            }
             onChange();
          }
       }
@@ -342,6 +391,8 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          clearCache();
          listeners.clear();
          matches.clear();
+         trie.clear();
+         patternMatches.clear();
       }
       finally
       {
@@ -359,6 +410,45 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
       cache.clear();
    }
 
+   /**
+    * Removes the addresses whose value was looked up through {@code match}.
+    */
+   private void removeFromCache(final Match<T> match)
+   {
+      Iterator<CachedValue<T>> iterator = cache.values().iterator();
+      while (iterator.hasNext())
+      {
+         if (iterator.next().isFrom(match))
+         {
+            iterator.remove();
+         }
+      }
+   }
+
+   private void index(final Match<T> match)
+   {
+      if (match.getWords() != null)
+      {
+         trie.put(match);
+      }
+      else
+      {
+         patternMatches.put(match.getMatch(), match);
+      }
+   }
+
+   private void unindex(final Match<T> match)
+   {
+      if (match.getWords() != null)
+      {
+         trie.remove(match);
+      }
+      else
+      {
+         patternMatches.remove(match.getMatch());
+      }
+   }
+
    private void onChange()
    {
       lock.readLock().lock();
@@ -394,17 +484,46 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
    {
       HashMap<String, Match<T>> possibleMatches = new HashMap<String, Match<T>>();
 
-      for (Entry<String, Match<T>> entry : matches.entrySet())
+      trie.collect(match, possibleMatches);
+
+      for (Match<T> patternMatch : patternMatches.values())
       {
-         Match<T> entryMatch = entry.getValue();
-         if (entryMatch.getPattern().matcher(match).matches())
+         if (patternMatch.matches(match))
          {
-            possibleMatches.put(entry.getKey(), entryMatch);
+            possibleMatches.put(patternMatch.getMatch(), patternMatch);
          }
       }
       return possibleMatches;
    }
 
+   /**
+    * A value and the matches it was looked up through.
+    */
+   private static final class CachedValue<T>
+   {
+      final T value;
+
+      final Collection<Match<T>> matches;
+
+      CachedValue(final T value, final Collection<Match<T>> matches)
+      {
+         this.value = value;
+         this.matches = matches;
+      }
+
+      boolean isFrom(final Match<T> match)
+      {
+         for (Match<T> candidate : matches)
+         {
+            if (candidate == match)
+            {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+
    /**
     * Compares to matches to see which one is more specific.
     */
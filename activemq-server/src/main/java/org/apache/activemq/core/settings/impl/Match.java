@@ -39,10 +39,18 @@ public class Match<T>
 
    private static final String DOT_REPLACEMENT = "\\.";
 
+   private static final String REGEX_CHARACTERS = "\\[](){}^$|?+";
+
    private String match;
 
    private final Pattern pattern;
 
+   /**
+    * the words of the match, null if they are not all plain words or wildcards, the match is then only done by the
+    * pattern
+    */
+   private final String[] words;
+
    private T value;
 
    public Match(final String match)
@@ -67,6 +75,7 @@ public class Match<T>
       }
       pattern = Pattern.compile(actMatch);
 
+      words = toWords(match);
    }
 
    public String getMatch()
@@ -84,6 +93,53 @@ public class Match<T>
       return pattern;
    }
 
+   /**
+    * @return the words of the match, or null if it can only be matched through its pattern
+    */
+   String[] getWords()
+   {
+      return words;
+   }
+
+   /**
+    * @param address the address
+    * @return true if the address is matched by this match
+    */
+   public boolean matches(final String address)
+   {
+      if (words == null)
+      {
+         return pattern.matcher(address).matches();
+      }
+
+      String[] addressWords = Match.split(address);
+
+      int i = 0;
+
+      for (String word : words)
+      {
+         if (Match.WILDCARD.equals(word))
+         {
+            // always the last word, matching any remaining words
+            return true;
+         }
+
+         if (i == addressWords.length)
+         {
+            return false;
+         }
+
+         if (Match.WORD_WILDCARD.equals(word) ? addressWords[i].isEmpty() : !word.equals(addressWords[i]))
+         {
+            return false;
+         }
+
+         i++;
+      }
+
+      return i == addressWords.length;
+   }
+
    public T getValue()
    {
       return value;
@@ -119,6 +175,49 @@ public class Match<T>
       return match != null ? match.hashCode() : 0;
    }
 
+   /**
+    * splits an address in its words, keeping the empty ones
+    */
+   static String[] split(final String address)
+   {
+      return address.split("\\.", -1);
+   }
+
+   private static String[] toWords(final String match)
+   {
+      String[] words = Match.split(match);
+
+      for (int i = 0; i < words.length; i++)
+      {
+         String word = words[i];
+
+         if (Match.WILDCARD.equals(word))
+         {
+            if (i < words.length - 1)
+            {
+               return null;
+            }
+         }
+         else if (!Match.WORD_WILDCARD.equals(word))
+         {
+            if (word.contains(Match.WILDCARD) || word.contains(Match.WORD_WILDCARD))
+            {
+               return null;
+            }
+
+            for (int c = 0; c < word.length(); c++)
+            {
+               if (Match.REGEX_CHARACTERS.indexOf(word.charAt(c)) >= 0)
+               {
+                  return null;
+               }
+            }
+         }
+      }
+
+      return words;
+   }
+
    /**
     * utility method to verify consistency of match
     * @param match the match to validate
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.settings.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An index of the matches made of words, one node per word.
+ * <p>
+ * The matches of an address are found by walking its words down the trie, following the node of each word and the
+ * node of the word wildcard, so the cost of a lookup depends on the depth of the address and not on the number of
+ * matches. The {@link Match#WILDCARD} is only allowed as the last word, and so is held by the node of its parent.
+ * <p>
+ * This class is not thread safe, {@link HierarchicalObjectRepository} guards it with its lock.
+ */
+final class MatchTrie<T>
+{
+   private final Node<T> root = new Node<T>();
+
+   /**
+    * @param match a match returning its {@link Match#getWords()}
+    */
+   public void put(final Match<T> match)
+   {
+      String[] words = match.getWords();
+
+      Node<T> node = root;
+
+      for (int i = 0; i < words.length; i++)
+      {
+         String word = words[i];
+
+         if (Match.WILDCARD.equals(word))
+         {
+            node.anyWords = match;
+            return;
+         }
+
+         node = node.getOrCreateChild(word);
+      }
+
+      node.match = match;
+   }
+
+   public void remove(final Match<T> match)
+   {
+      remove(root, match.getWords(), 0);
+   }
+
+   /**
+    * Adds the matches of the address to the map, keyed by their match strings.
+    */
+   public void collect(final String address, final Map<String, Match<T>> possibleMatches)
+   {
+      collect(root, Match.split(address), 0, possibleMatches);
+   }
+
+   public void clear()
+   {
+      root.children = null;
+      root.anyWord = null;
+      root.anyWords = null;
+      root.match = null;
+   }
+
+   private static <T> void collect(final Node<T> node,
+                                   final String[] words,
+                                   final int index,
+                                   final Map<String, Match<T>> possibleMatches)
+   {
+      if (node.anyWords != null)
+      {
+         possibleMatches.put(node.anyWords.getMatch(), node.anyWords);
+      }
+
+      if (index == words.length)
+      {
+         if (node.match != null)
+         {
+            possibleMatches.put(node.match.getMatch(), node.match);
+         }
+         return;
+      }
+
+      String word = words[index];
+
+      if (node.children != null)
+      {
+         Node<T> child = node.children.get(word);
+
+         if (child != null)
+         {
+            collect(child, words, index + 1, possibleMatches);
+         }
+      }
+
+      // a word wildcard doesn't match an empty word
+      if (node.anyWord != null && !word.isEmpty())
+      {
+         collect(node.anyWord, words, index + 1, possibleMatches);
+      }
+   }
+
+   /**
+    * @return true if the node is left empty, and can be removed from its parent
+    */
+   private static <T> boolean remove(final Node<T> node, final String[] words, final int index)
+   {
+      if (index == words.length)
+      {
+         node.match = null;
+      }
+      else if (Match.WILDCARD.equals(words[index]))
+      {
+         node.anyWords = null;
+      }
+      else if (Match.WORD_WILDCARD.equals(words[index]))
+      {
+         if (node.anyWord != null && remove(node.anyWord, words, index + 1))
+         {
+            node.anyWord = null;
+         }
+      }
+      else if (node.children != null)
+      {
+         Node<T> child = node.children.get(words[index]);
+
+         if (child != null && remove(child, words, index + 1))
+         {
+            node.children.remove(words[index]);
+
+            if (node.children.isEmpty())
+            {
+               node.children = null;
+            }
+         }
+      }
+
+      return node.isEmpty();
+   }
+
+   private static final class Node<T>
+   {
+      /**
+       * the nodes of the plain words, never holding the wildcards
+       */
+      Map<String, Node<T>> children;
+
+      /**
+       * the node of the {@link Match#WORD_WILDCARD}
+       */
+      Node<T> anyWord;
+
+      /**
+       * the match ending with a {@link Match#WILDCARD} after the words of this node
+       */
+      Match<T> anyWords;
+
+      /**
+       * the match ending at this node
+       */
+      Match<T> match;
+
+      Node<T> getOrCreateChild(final String word)
+      {
+         if (Match.WORD_WILDCARD.equals(word))
+         {
+            if (anyWord == null)
+            {
+               anyWord = new Node<T>();
+            }
+            return anyWord;
+         }
+
+         if (children == null)
+         {
+            children = new HashMap<String, Node<T>>();
+         }
+
+         Node<T> child = children.get(word);
+
+         if (child == null)
+         {
+            child = new Node<T>();
+            children.put(word, child);
+         }
+
+         return child;
+      }
+
+      boolean isEmpty()
+      {
+         return children == null && anyWord == null && anyWords == null && match == null;
+      }
+   }
+}
@@ -24,4 +24,11 @@ public interface MessageConverter
    ServerMessage inbound(Object messageInbound) throws Exception;
 
    Object outbound(ServerMessage messageOutbound, int deliveryCount) throws Exception;
+
+   /**
+    * Converts a message that was stored in this protocol's native format (see
+    * {@link org.apache.activemq.core.message.impl.MessageImpl#HDR_NATIVE_PROTOCOL}) into a regular core message,
+    * keeping its message ID so it can still be acknowledged by the consumer it is delivered to.
+    */
+   ServerMessage toCore(ServerMessage nativeMessage) throws Exception;
 }
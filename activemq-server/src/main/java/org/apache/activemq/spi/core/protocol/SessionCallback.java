@@ -30,8 +30,20 @@ public interface SessionCallback
 
    void sendProducerCreditsFailMessage(int credits, SimpleString address);
 
+   /**
+    * Messages stored in a protocol's native format are only delivered as they are to callbacks accepting that
+    * protocol, every other callback receives them converted to core.
+    */
+   boolean supportsNativeProtocol(SimpleString protocol);
+
    int sendMessage(ServerMessage message, ServerConsumer consumerID, int deliveryCount);
 
+   /**
+    * The queue finished a delivery pass for the consumer, messages kept back to be sent together by
+    * {@link #sendMessage(ServerMessage, ServerConsumer, int)} must be written now.
+    */
+   void afterDeliver(ServerConsumer consumerID);
+
    int sendLargeMessage(ServerMessage message, ServerConsumer consumerID, long bodySize, int deliveryCount);
 
    int sendLargeMessageContinuation(ServerConsumer consumerID, byte[] body, boolean continues, boolean requiresResponse);
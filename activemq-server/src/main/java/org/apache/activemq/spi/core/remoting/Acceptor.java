@@ -18,6 +18,7 @@ package org.apache.activemq.spi.core.remoting;
 
 import java.util.Map;
 
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.security.ActiveMQPrincipal;
 import org.apache.activemq.core.server.ActiveMQComponent;
 import org.apache.activemq.core.server.cluster.ClusterConnection;
@@ -48,6 +49,13 @@ public interface Acceptor extends ActiveMQComponent
     */
    void setNotificationService(NotificationService notificationService);
 
+   /**
+    * Set the metrics on which this acceptor counts the bytes it reads and writes.
+    *
+    * @param metricsRegistry the metrics of the server, null if they are not enabled
+    */
+   void setMetricsRegistry(MetricsRegistry metricsRegistry);
+
    /**
    * Set the default security Principal to be used when no user/pass are defined, only for InVM
    */
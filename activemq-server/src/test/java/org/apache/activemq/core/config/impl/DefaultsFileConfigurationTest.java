@@ -97,6 +97,8 @@ public class DefaultsFileConfigurationTest extends ConfigurationImplTest
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultJournalCompactMinFiles(), conf.getJournalCompactMinFiles());
 
+      Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultJournalCompactMaxFiles(), conf.getJournalCompactMaxFiles());
+
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultJournalCompactPercentage(), conf.getJournalCompactPercentage());
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultJournalMinFiles(), conf.getJournalMinFiles());
@@ -113,12 +115,23 @@ public class DefaultsFileConfigurationTest extends ConfigurationImplTest
 
       Assert.assertEquals(JournalConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, conf.getJournalBufferSize_NIO());
 
+      Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultJournalAdaptiveBufferTimeout(),
+                          conf.isJournalAdaptiveBufferTimeout());
+
+      Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultJournalStripes(), conf.getJournalStripes());
+
       Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultCreateBindingsDir(), conf.isCreateBindingsDir());
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultCreateJournalDir(), conf.isCreateJournalDir());
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultPagingDir(), conf.getPagingDirectory());
 
+      Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultGlobalMaxSize(), conf.getGlobalMaxSize());
+
+      Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultPooledMessageBuffers(), conf.isPooledMessageBuffers());
+
+      Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultDirectMessageBuffers(), conf.isDirectMessageBuffers());
+
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultLargeMessagesDir(), conf.getLargeMessagesDirectory());
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultWildcardRoutingEnabled(), conf.isWildcardRoutingEnabled());
@@ -127,6 +140,8 @@ public class DefaultsFileConfigurationTest extends ConfigurationImplTest
 
       Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultMessageCounterEnabled(), conf.isMessageCounterEnabled());
 
+      Assert.assertEquals(ActiveMQDefaultConfiguration.isDefaultMetricsEnabled(), conf.isMetricsEnabled());
+
       Assert.assertEquals(ActiveMQDefaultConfiguration.getDefaultTransactionTimeoutScanPeriod(),
                           conf.getTransactionTimeoutScanPeriod());
 
@@ -69,6 +69,7 @@ public class FileConfigurationTest extends ConfigurationImplTest
       Assert.assertEquals(true, conf.isMessageCounterEnabled());
       Assert.assertEquals(5, conf.getMessageCounterMaxDayHistory());
       Assert.assertEquals(123456, conf.getMessageCounterSamplePeriod());
+      Assert.assertEquals(true, conf.isMetricsEnabled());
       Assert.assertEquals(12345, conf.getConnectionTTLOverride());
       Assert.assertEquals(98765, conf.getTransactionTimeout());
       Assert.assertEquals(56789, conf.getTransactionTimeoutScanPeriod());
@@ -78,6 +79,7 @@ public class FileConfigurationTest extends ConfigurationImplTest
       Assert.assertEquals(true, conf.isPersistIDCache());
       Assert.assertEquals(true, conf.isPersistDeliveryCountBeforeDelivery());
       Assert.assertEquals("pagingdir", conf.getPagingDirectory());
+      Assert.assertEquals(1073741824L, conf.getGlobalMaxSize());
       Assert.assertEquals("somedir", conf.getBindingsDirectory());
       Assert.assertEquals(false, conf.isCreateBindingsDir());
 
@@ -87,6 +89,8 @@ public class FileConfigurationTest extends ConfigurationImplTest
       Assert.assertEquals(JournalType.NIO, conf.getJournalType());
       Assert.assertEquals(10000, conf.getJournalBufferSize_NIO());
       Assert.assertEquals(1000, conf.getJournalBufferTimeout_NIO());
+      Assert.assertEquals(true, conf.isJournalAdaptiveBufferTimeout());
+      Assert.assertEquals(3, conf.getJournalStripes());
       Assert.assertEquals(56546, conf.getJournalMaxIO_NIO());
 
       Assert.assertEquals(false, conf.isJournalSyncTransactional());
@@ -94,12 +98,15 @@ public class FileConfigurationTest extends ConfigurationImplTest
       Assert.assertEquals(12345678, conf.getJournalFileSize());
       Assert.assertEquals(100, conf.getJournalMinFiles());
       Assert.assertEquals(123, conf.getJournalCompactMinFiles());
+      Assert.assertEquals(4, conf.getJournalCompactMaxFiles());
       Assert.assertEquals(33, conf.getJournalCompactPercentage());
       Assert.assertEquals(true, conf.isGracefulShutdownEnabled());
       Assert.assertEquals(12345, conf.getGracefulShutdownTimeout());
 
       Assert.assertEquals("largemessagesdir", conf.getLargeMessagesDirectory());
       Assert.assertEquals(95, conf.getMemoryWarningThreshold());
+      Assert.assertTrue(conf.isPooledMessageBuffers());
+      Assert.assertTrue(conf.isDirectMessageBuffers());
 
       Assert.assertEquals(2, conf.getIncomingInterceptorClassNames().size());
       Assert.assertTrue(conf.getIncomingInterceptorClassNames()
@@ -261,6 +268,8 @@ public class FileConfigurationTest extends ConfigurationImplTest
             Assert.assertEquals(1, ccc.getMaxHops());
             Assert.assertEquals(123, ccc.getCallTimeout());
             Assert.assertEquals(123, ccc.getCallFailoverTimeout());
+            Assert.assertEquals(2000, ccc.getLoadUpdatePeriod());
+            Assert.assertTrue(ccc.isLoadAwareDistribution());
             assertEquals("multiplier", 0.25, ccc.getRetryIntervalMultiplier(), 0.00001);
             assertEquals("max retry interval", 10000, ccc.getMaxRetryInterval());
             assertEquals(72, ccc.getReconnectAttempts());
@@ -278,6 +287,7 @@ public class FileConfigurationTest extends ConfigurationImplTest
             Assert.assertEquals(false, ccc.isDuplicateDetection());
             Assert.assertEquals(true, ccc.isForwardWhenNoConsumers());
             Assert.assertEquals(2, ccc.getMaxHops());
+            Assert.assertFalse(ccc.isLoadAwareDistribution());
             Assert.assertEquals(Collections.emptyList(), ccc.getStaticConnectors());
             Assert.assertEquals("dg1", ccc.getDiscoveryGroupName());
          }
@@ -295,6 +305,8 @@ public class FileConfigurationTest extends ConfigurationImplTest
       assertEquals(81781728121878L, conf.getAddressesSettings().get("a1").getMaxSizeBytes());
       assertEquals(81738173872337L, conf.getAddressesSettings().get("a1").getPageSizeBytes());
       assertEquals(10, conf.getAddressesSettings().get("a1").getPageCacheMaxSize());
+      assertTrue(conf.getAddressesSettings().get("a1").isCompressPages());
+      assertEquals(64, conf.getAddressesSettings().get("a1").getGroupBuckets());
       assertEquals(4, conf.getAddressesSettings().get("a1").getMessageCounterHistoryDayLimit());
       assertEquals(10, conf.getAddressesSettings().get("a1").getSlowConsumerThreshold());
       assertEquals(5, conf.getAddressesSettings().get("a1").getSlowConsumerCheckPeriod());
@@ -308,6 +320,8 @@ public class FileConfigurationTest extends ConfigurationImplTest
       assertEquals(932489234928324L, conf.getAddressesSettings().get("a2").getMaxSizeBytes());
       assertEquals(7126716262626L, conf.getAddressesSettings().get("a2").getPageSizeBytes());
       assertEquals(20, conf.getAddressesSettings().get("a2").getPageCacheMaxSize());
+      assertFalse(conf.getAddressesSettings().get("a2").isCompressPages());
+      assertEquals(0, conf.getAddressesSettings().get("a2").getGroupBuckets());
       assertEquals(8, conf.getAddressesSettings().get("a2").getMessageCounterHistoryDayLimit());
       assertEquals(20, conf.getAddressesSettings().get("a2").getSlowConsumerThreshold());
       assertEquals(15, conf.getAddressesSettings().get("a2").getSlowConsumerCheckPeriod());
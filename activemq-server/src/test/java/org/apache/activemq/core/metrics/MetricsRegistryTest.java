@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTest extends Assert
+{
+   @Test
+   public void testHistogramBuckets()
+   {
+      long previous = -1;
+
+      for (long value = 0; value < 1L << 40; value = value * 3 / 2 + 1)
+      {
+         int bucket = LatencyHistogram.bucket(value);
+
+         long highest = LatencyHistogram.highestValue(bucket);
+
+         assertTrue(value + " above " + highest, value <= highest);
+
+         // within about 3% of the value
+         assertTrue(value + " counted up to " + highest, highest - value <= value / 32);
+
+         assertTrue(highest >= previous);
+
+         previous = highest;
+      }
+
+      assertEquals(LatencyHistogram.bucket(Long.MAX_VALUE), LatencyHistogram.bucket(Long.MAX_VALUE - 1));
+   }
+
+   @Test
+   public void testHistogramPercentiles()
+   {
+      LatencyHistogram histogram = new LatencyHistogram();
+
+      assertEquals(0, histogram.getValueAtPercentile(99));
+
+      for (int i = 1; i <= 1000; i++)
+      {
+         histogram.record(i * 1000L);
+      }
+
+      assertEquals(1000, histogram.getCount());
+      assertEquals(1000000, histogram.getMax());
+      assertEquals(500500, histogram.getMean(), 1);
+
+      assertApproximately(500000, histogram.getValueAtPercentile(50));
+      assertApproximately(990000, histogram.getValueAtPercentile(99));
+      assertApproximately(1000000, histogram.getValueAtPercentile(100));
+
+      Map<String, Object> map = histogram.toMap();
+
+      assertEquals(1000L, map.get("count"));
+      assertEquals(1000000L, map.get("max"));
+      assertApproximately(900000, (Long) map.get("p90"));
+
+      histogram.reset();
+
+      assertEquals(0, histogram.getCount());
+      assertEquals(0, histogram.getMax());
+   }
+
+   @Test
+   public void testCounterFromManyThreads() throws Exception
+   {
+      final StripedCounter counter = new StripedCounter();
+
+      final int threads = 8;
+
+      final int increments = 10000;
+
+      final CountDownLatch start = new CountDownLatch(1);
+
+      Thread[] workers = new Thread[threads];
+
+      for (int i = 0; i < threads; i++)
+      {
+         workers[i] = new Thread()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  start.await();
+               }
+               catch (InterruptedException e)
+               {
+                  return;
+               }
+
+               for (int j = 0; j < increments; j++)
+               {
+                  counter.increment();
+               }
+            }
+         };
+         workers[i].start();
+      }
+
+      start.countDown();
+
+      for (Thread worker : workers)
+      {
+         worker.join();
+      }
+
+      assertEquals(threads * increments, counter.sum());
+
+      counter.reset();
+
+      assertEquals(0, counter.sum());
+   }
+
+   @Test
+   public void testHistogramFromManyThreads() throws Exception
+   {
+      final LatencyHistogram histogram = new LatencyHistogram();
+
+      final int threads = 8;
+
+      final int records = 10000;
+
+      final CountDownLatch start = new CountDownLatch(1);
+
+      Thread[] workers = new Thread[threads];
+
+      for (int i = 0; i < threads; i++)
+      {
+         final long value = (i + 1) * 1000L;
+
+         workers[i] = new Thread()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  start.await();
+               }
+               catch (InterruptedException e)
+               {
+                  return;
+               }
+
+               for (int j = 0; j < records; j++)
+               {
+                  histogram.record(value);
+               }
+            }
+         };
+         workers[i].start();
+      }
+
+      start.countDown();
+
+      for (Thread worker : workers)
+      {
+         worker.join();
+      }
+
+      assertEquals(threads * records, histogram.getCount());
+      assertEquals(threads * 1000L, histogram.getMax());
+      assertApproximately(threads * 1000L, histogram.getValueAtPercentile(100));
+      assertApproximately(1000L, histogram.getValueAtPercentile(1));
+
+      histogram.reset();
+
+      assertEquals(0, histogram.getCount());
+   }
+
+   @Test
+   public void testRegistry()
+   {
+      MetricsRegistry registry = new MetricsRegistry();
+
+      assertSame(registry.getCounter(MetricsRegistry.DEPAGED_MESSAGES),
+                 registry.getCounter(MetricsRegistry.DEPAGED_MESSAGES));
+      assertSame(registry.getHistogram(MetricsRegistry.ROUTE_TIME), registry.getHistogram(MetricsRegistry.ROUTE_TIME));
+
+      registry.getCounter(MetricsRegistry.getAcceptorBytesIn("netty")).add(100);
+      registry.getHistogram(MetricsRegistry.ROUTE_TIME).record(1000);
+
+      Map<String, Object> map = registry.toMap();
+
+      assertEquals(0L, map.get(MetricsRegistry.DEPAGED_MESSAGES));
+      assertEquals(100L, map.get("acceptor.netty.bytes-in"));
+      assertEquals(1L, ((Map<?, ?>) map.get(MetricsRegistry.ROUTE_TIME)).get("count"));
+
+      registry.reset();
+
+      map = registry.toMap();
+
+      assertEquals(0L, map.get("acceptor.netty.bytes-in"));
+      assertEquals(0L, ((Map<?, ?>) map.get(MetricsRegistry.ROUTE_TIME)).get("count"));
+   }
+
+   private static void assertApproximately(final long expected, final long actual)
+   {
+      assertTrue(expected + " but was " + actual, Math.abs(actual - expected) <= expected / 32);
+   }
+}
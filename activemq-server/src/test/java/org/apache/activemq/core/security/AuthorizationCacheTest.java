@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.security;
+
+import org.apache.activemq.api.core.SimpleString;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthorizationCacheTest extends Assert
+{
+   private static final SimpleString ADDRESS = new SimpleString("address");
+
+   @Test
+   public void testGrant()
+   {
+      AuthorizationCache cache = new AuthorizationCache();
+
+      cache.grant(ADDRESS, CheckType.SEND, 1, 0, 100);
+
+      assertTrue(cache.isGranted(ADDRESS, CheckType.SEND, 1, 50));
+      assertFalse(cache.isGranted(ADDRESS, CheckType.CONSUME, 1, 50));
+
+      // a new version of the roles
+      assertFalse(cache.isGranted(ADDRESS, CheckType.SEND, 2, 50));
+
+      cache.grant(ADDRESS, CheckType.SEND, 2, 50, 150);
+
+      assertTrue(cache.isGranted(ADDRESS, CheckType.SEND, 2, 100));
+      assertFalse(cache.isGranted(ADDRESS, CheckType.SEND, 2, 150));
+   }
+
+   @Test
+   public void testExpiredPurgedWhenFull()
+   {
+      AuthorizationCache cache = new AuthorizationCache();
+
+      for (int i = 0; i < AuthorizationCache.MAX_ADDRESSES / 2; i++)
+      {
+         cache.grant(new SimpleString("expiring." + i), CheckType.SEND, 1, 0, 100);
+      }
+
+      for (int i = 0; i < AuthorizationCache.MAX_ADDRESSES / 2; i++)
+      {
+         cache.grant(new SimpleString("lasting." + i), CheckType.SEND, 1, 0, 1000);
+      }
+
+      assertEquals(AuthorizationCache.MAX_ADDRESSES, cache.size(CheckType.SEND));
+
+      cache.grant(ADDRESS, CheckType.SEND, 1, 200, 1200);
+
+      assertEquals(AuthorizationCache.MAX_ADDRESSES / 2 + 1, cache.size(CheckType.SEND));
+      assertTrue(cache.isGranted(new SimpleString("lasting.0"), CheckType.SEND, 1, 200));
+      assertTrue(cache.isGranted(ADDRESS, CheckType.SEND, 1, 200));
+   }
+
+   @Test
+   public void testBounded()
+   {
+      AuthorizationCache cache = new AuthorizationCache();
+
+      for (int i = 0; i < AuthorizationCache.MAX_ADDRESSES * 10; i++)
+      {
+         cache.grant(new SimpleString("temp." + i), CheckType.SEND, 1, 0, 1000);
+
+         assertTrue(cache.size(CheckType.SEND) <= AuthorizationCache.MAX_ADDRESSES);
+      }
+   }
+}
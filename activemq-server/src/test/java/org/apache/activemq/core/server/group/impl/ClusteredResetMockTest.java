@@ -34,6 +34,7 @@ import org.apache.activemq.core.config.Configuration;
 import org.apache.activemq.core.config.DivertConfiguration;
 import org.apache.activemq.core.management.impl.ActiveMQServerControlImpl;
 import org.apache.activemq.core.messagecounter.MessageCounterManager;
+import org.apache.activemq.core.metrics.MetricsRegistry;
 import org.apache.activemq.core.paging.PagingManager;
 import org.apache.activemq.core.persistence.StorageManager;
 import org.apache.activemq.core.postoffice.PostOffice;
@@ -214,6 +215,12 @@ public class ClusteredResetMockTest extends UnitTestCase
          return null;
       }
 
+      @Override
+      public MetricsRegistry getMetricsRegistry()
+      {
+         return null;
+      }
+
       @Override
       public SimpleString getManagementAddress()
       {
@@ -0,0 +1,249 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.core.server.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.activemq.api.core.Message;
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.core.filter.Filter;
+import org.apache.activemq.core.server.Consumer;
+import org.apache.activemq.core.server.HandleStatus;
+import org.apache.activemq.core.server.MessageReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupBucketsTest extends Assert
+{
+   private static final int BUCKETS = 16;
+
+   @Test
+   public void testBucketsSpreadOverConsumers()
+   {
+      GroupBuckets buckets = new GroupBuckets(BUCKETS);
+
+      FakeConsumer consumer1 = new FakeConsumer();
+      FakeConsumer consumer2 = new FakeConsumer();
+      FakeConsumer consumer3 = new FakeConsumer();
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1));
+
+      for (int i = 0; i < 1000; i++)
+      {
+         assertSame(consumer1, buckets.getConsumer(new SimpleString("group" + i)));
+      }
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2, consumer3));
+
+      Map<Consumer, Integer> counts = countBuckets(buckets);
+
+      assertEquals(3, counts.size());
+
+      for (int count : counts.values())
+      {
+         assertTrue(count == BUCKETS / 3 || count == BUCKETS / 3 + 1);
+      }
+   }
+
+   @Test
+   public void testGroupsStayWithTheirConsumer()
+   {
+      GroupBuckets buckets = new GroupBuckets(BUCKETS);
+
+      FakeConsumer consumer1 = new FakeConsumer();
+      FakeConsumer consumer2 = new FakeConsumer();
+      FakeConsumer consumer3 = new FakeConsumer();
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2));
+
+      Consumer[] before = getOwners(buckets);
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2, consumer3));
+
+      Consumer[] after = getOwners(buckets);
+
+      int moved = 0;
+
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         if (before[i] != after[i])
+         {
+            assertSame(consumer3, after[i]);
+            moved++;
+         }
+      }
+
+      // only the share of the new consumer moves
+      assertEquals(BUCKETS / 3, moved);
+   }
+
+   @Test
+   public void testBucketMovesOnceDelivered()
+   {
+      GroupBuckets buckets = new GroupBuckets(BUCKETS);
+
+      FakeConsumer consumer1 = new FakeConsumer();
+      FakeConsumer consumer2 = new FakeConsumer();
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1));
+
+      // find a group moving to the new consumer
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2));
+
+      SimpleString movingGroup = null;
+
+      for (int i = 0; movingGroup == null; i++)
+      {
+         SimpleString groupID = new SimpleString("group" + i);
+         if (buckets.getConsumer(groupID) == consumer2)
+         {
+            movingGroup = groupID;
+         }
+      }
+
+      buckets = new GroupBuckets(BUCKETS);
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1));
+
+      assertSame(consumer1, buckets.getConsumer(movingGroup));
+
+      ServerMessageImpl message = new ServerMessageImpl(1, 100);
+      message.putStringProperty(Message.HDR_GROUP_ID, movingGroup);
+      MessageReference ref = message.createReference(null);
+      buckets.delivered(movingGroup, ref);
+
+      // messages which weren't delivered through the buckets don't count
+      buckets.released(new ServerMessageImpl(2, 100).createReference(null));
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2));
+
+      // a message of the group is still being delivered by the first consumer
+      assertSame(consumer1, buckets.getConsumer(movingGroup));
+
+      buckets.released(ref);
+
+      assertSame(consumer2, buckets.getConsumer(movingGroup));
+   }
+
+   @Test
+   public void testRemoveConsumer()
+   {
+      GroupBuckets buckets = new GroupBuckets(BUCKETS);
+
+      FakeConsumer consumer1 = new FakeConsumer();
+      FakeConsumer consumer2 = new FakeConsumer();
+
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1, consumer2));
+
+      assertEquals(2, countBuckets(buckets).size());
+
+      buckets.removeConsumer(consumer2);
+      buckets.rebalance(Arrays.<Consumer>asList(consumer1));
+
+      Map<Consumer, Integer> counts = countBuckets(buckets);
+
+      assertEquals(1, counts.size());
+      assertEquals(BUCKETS, counts.get(consumer1).intValue());
+
+      buckets.removeConsumer(consumer1);
+      buckets.rebalance(new ArrayList<Consumer>());
+
+      assertNull(buckets.getConsumer(new SimpleString("group")));
+   }
+
+   /**
+    * @return the consumer of each bucket, found through group IDs hashed into them
+    */
+   private static Consumer[] getOwners(final GroupBuckets buckets)
+   {
+      Consumer[] owners = new Consumer[BUCKETS];
+
+      int found = 0;
+
+      for (int i = 0; found < BUCKETS; i++)
+      {
+         SimpleString groupID = new SimpleString("group" + i);
+
+         int bucket = (groupID.hashCode() & Integer.MAX_VALUE) % BUCKETS;
+
+         if (owners[bucket] == null)
+         {
+            owners[bucket] = buckets.getConsumer(groupID);
+            found++;
+         }
+      }
+
+      return owners;
+   }
+
+   private static Map<Consumer, Integer> countBuckets(final GroupBuckets buckets)
+   {
+      Map<Consumer, Integer> counts = new IdentityHashMap<Consumer, Integer>();
+
+      for (Consumer owner : getOwners(buckets))
+      {
+         Integer count = counts.get(owner);
+         counts.put(owner, count == null ? 1 : count + 1);
+      }
+
+      return counts;
+   }
+
+   private static final class FakeConsumer implements Consumer
+   {
+      public HandleStatus handle(final MessageReference reference) throws Exception
+      {
+         return HandleStatus.HANDLED;
+      }
+
+      public void proceedDeliver(final MessageReference reference) throws Exception
+      {
+      }
+
+      public void afterDeliver()
+      {
+      }
+
+      public Filter getFilter()
+      {
+         return null;
+      }
+
+      public List<MessageReference> getDeliveringMessages()
+      {
+         return new ArrayList<MessageReference>();
+      }
+
+      public String debug()
+      {
+         return toString();
+      }
+
+      public String toManagementString()
+      {
+         return toString();
+      }
+
+      public void disconnect()
+      {
+      }
+   }
+}
@@ -37,6 +37,7 @@ import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.ActiveMQPropertyConversionException;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
 import org.apache.activemq.core.filter.Filter;
 import org.apache.activemq.core.message.BodyEncoder;
 import org.apache.activemq.core.paging.PagingStore;
@@ -375,6 +376,11 @@ public class ScheduledDeliveryHandlerTest extends Assert
          return 0;
       }
 
+      @Override
+      public void unpoolBuffer()
+      {
+      }
+
       @Override
       public ServerMessage copy(long newID)
       {
@@ -567,6 +573,23 @@ public class ScheduledDeliveryHandlerTest extends Assert
          return null;
       }
 
+      @Override
+      public boolean isBodyCompressed()
+      {
+         return false;
+      }
+
+      @Override
+      public boolean compressBody(BodyCodec codec, int minSize)
+      {
+         return false;
+      }
+
+      @Override
+      public void decompressBody()
+      {
+      }
+
       @Override
       public UUID getUserID()
       {
@@ -179,6 +179,86 @@ public class RepositoryTest extends UnitTestCase
    }
 
 
+   @Test
+   public void testWordMatching()
+   {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<String>();
+      repository.setDefault("default");
+      repository.addMatch("news.europe.#", "news.europe.#");
+      repository.addMatch("news.*", "news.*");
+      repository.addMatch("news.*.sport", "news.*.sport");
+
+      Assert.assertEquals("news.europe.#", repository.getMatch("news.europe.politics"));
+      Assert.assertEquals("news.europe.#", repository.getMatch("news.europe.politics.regional"));
+      Assert.assertEquals("news.*", repository.getMatch("news.usa"));
+      Assert.assertEquals("news.*.sport", repository.getMatch("news.usa.sport"));
+      Assert.assertEquals("default", repository.getMatch("news.europesport.politics"));
+      Assert.assertEquals("default", repository.getMatch("news.usa.politics"));
+      Assert.assertEquals("default", repository.getMatch("news."));
+      Assert.assertEquals("default", repository.getMatch("entertainment"));
+   }
+
+   @Test
+   public void testPatternMatching()
+   {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<String>();
+      repository.setDefault("default");
+      repository.addMatch("a.b*", "a.b*");
+      repository.addMatch("a.(c|d)", "a.(c|d)");
+
+      Assert.assertEquals("a.b*", repository.getMatch("a.bcd"));
+      Assert.assertEquals("a.(c|d)", repository.getMatch("a.d"));
+      Assert.assertEquals("default", repository.getMatch("a.e"));
+
+      repository.removeMatch("a.b*");
+
+      Assert.assertEquals("default", repository.getMatch("a.bcd"));
+   }
+
+   @Test
+   public void testCacheIsBounded()
+   {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<String>(10);
+      repository.addMatch("#", "#");
+
+      for (int i = 0; i < 100; i++)
+      {
+         Assert.assertEquals("#", repository.getMatch("temp." + i));
+      }
+
+      Assert.assertTrue(repository.getCacheSize() <= 10);
+   }
+
+   @Test
+   public void testCacheInvalidation()
+   {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<String>();
+      repository.addMatch("#", "#");
+
+      Assert.assertEquals("#", repository.getMatch("a.b"));
+      Assert.assertEquals("#", repository.getMatch("c.d"));
+      Assert.assertEquals(2, repository.getCacheSize());
+
+      repository.addMatch("a.*", "a.*");
+
+      // a new match could apply to any address
+      Assert.assertEquals(0, repository.getCacheSize());
+      Assert.assertEquals("a.*", repository.getMatch("a.b"));
+      Assert.assertEquals("#", repository.getMatch("c.d"));
+
+      // only the entries looked up through a replaced match are removed
+      repository.addMatch("a.*", "a.* again");
+
+      Assert.assertEquals(1, repository.getCacheSize());
+      Assert.assertEquals("a.* again", repository.getMatch("a.b"));
+
+      repository.removeMatch("a.*");
+
+      Assert.assertEquals(1, repository.getCacheSize());
+      Assert.assertEquals("#", repository.getMatch("a.b"));
+      Assert.assertEquals("#", repository.getMatch("c.d"));
+   }
+
    @Test
    public void testAddListener()
    {
@@ -399,6 +399,12 @@ public class AeroGearConnectorService implements ConnectorService, Consumer, Mes
       //noop
    }
 
+   @Override
+   public void afterDeliver()
+   {
+      //noop
+   }
+
    @Override
    public Filter getFilter()
    {
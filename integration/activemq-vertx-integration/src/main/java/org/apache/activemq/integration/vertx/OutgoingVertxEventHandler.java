@@ -300,6 +300,12 @@ public class OutgoingVertxEventHandler implements Consumer, ConnectorService
       // no op
    }
 
+   @Override
+   public void afterDeliver()
+   {
+      // no op
+   }
+
    @Override
    public Filter getFilter()
    {
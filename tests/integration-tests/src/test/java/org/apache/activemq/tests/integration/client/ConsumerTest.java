@@ -36,6 +36,8 @@ import org.apache.activemq.api.core.client.MessageHandler;
 import org.apache.activemq.api.core.client.ServerLocator;
 import org.apache.activemq.core.protocol.core.Packet;
 import org.apache.activemq.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveBatchMessage;
+import org.apache.activemq.core.protocol.core.impl.wireformat.SessionReceiveMessage;
 import org.apache.activemq.core.server.ActiveMQServer;
 import org.apache.activemq.core.server.Queue;
 import org.apache.activemq.spi.core.protocol.RemotingConnection;
@@ -355,6 +357,148 @@ public class ConsumerTest extends ServiceTestBase
 
    }
 
+   @Test
+   public void testReceiveBatches() throws Exception
+   {
+      final AtomicInteger batches = new AtomicInteger(0);
+      final AtomicInteger batchedMessages = new AtomicInteger(0);
+      final AtomicInteger singleMessages = new AtomicInteger(0);
+
+      server.getRemotingService().addOutgoingInterceptor(new Interceptor()
+      {
+         public boolean intercept(final Packet packet, final RemotingConnection connection) throws ActiveMQException
+         {
+            if (packet.getType() == PacketImpl.SESS_RECEIVE_BATCH)
+            {
+               batches.incrementAndGet();
+               batchedMessages.addAndGet(((SessionReceiveBatchMessage) packet).getMessages().size());
+            }
+            else if (packet.getType() == PacketImpl.SESS_RECEIVE_MSG)
+            {
+               singleMessages.incrementAndGet();
+            }
+            return true;
+         }
+      });
+
+      // a small window, so the consumer only gets the messages if the credits of the batched ones are sent back
+      locator.setConsumerWindowSize(10 * 1024);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = sf.createSession(false, false, false);
+
+      session.createQueue(QUEUE, QUEUE, null, false);
+
+      ClientProducer producer = session.createProducer(QUEUE);
+
+      final int numMessages = 1000;
+
+      for (int i = 0; i < numMessages; i++)
+      {
+         ClientMessage message = createTextMessage(session, "m" + i);
+         message.putIntProperty("count", i);
+         producer.send(message);
+      }
+
+      session.commit();
+
+      ClientConsumer consumer = session.createConsumer(QUEUE);
+
+      session.start();
+
+      for (int deliveryCount = 1; deliveryCount <= 2; deliveryCount++)
+      {
+         for (int i = 0; i < numMessages; i++)
+         {
+            ClientMessage message = consumer.receive(5000);
+            assertNotNull(message);
+            assertEquals(i, message.getIntProperty("count").intValue());
+            assertEquals("m" + i, message.getBodyBuffer().readString());
+            assertEquals(deliveryCount, message.getDeliveryCount());
+            message.acknowledge();
+         }
+
+         if (deliveryCount == 1)
+         {
+            session.rollback();
+         }
+      }
+
+      session.commit();
+
+      assertTrue(batches.get() > 0);
+      assertTrue(batchedMessages.get() > batches.get());
+      // interceptors also see each message of a batch as a single delivery
+      assertEquals(numMessages * 2, singleMessages.get());
+
+      assertNull(consumer.receiveImmediate());
+
+      session.close();
+   }
+
+   @Test
+   public void testReceiveBatchesPartiallyRejected() throws Exception
+   {
+      final AtomicInteger batches = new AtomicInteger(0);
+
+      server.getRemotingService().addOutgoingInterceptor(new Interceptor()
+      {
+         public boolean intercept(final Packet packet, final RemotingConnection connection) throws ActiveMQException
+         {
+            if (packet.getType() == PacketImpl.SESS_RECEIVE_BATCH)
+            {
+               batches.incrementAndGet();
+            }
+            else if (packet.getType() == PacketImpl.SESS_RECEIVE_MSG)
+            {
+               // reject every other message, whether it is part of a batch or not
+               SessionReceiveMessage receive = (SessionReceiveMessage) packet;
+               return receive.getMessage().getIntProperty("count") % 2 == 1;
+            }
+            return true;
+         }
+      });
+
+      // a small window, so the consumer only gets all the messages if the credits of the rejected ones are given back
+      locator.setConsumerWindowSize(10 * 1024);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = sf.createSession(false, true, true);
+
+      session.createQueue(QUEUE, QUEUE, null, false);
+
+      ClientProducer producer = session.createProducer(QUEUE);
+
+      final int numMessages = 1000;
+
+      for (int i = 0; i < numMessages; i++)
+      {
+         ClientMessage message = createTextMessage(session, "m" + i);
+         message.putIntProperty("count", i);
+         producer.send(message);
+      }
+
+      ClientConsumer consumer = session.createConsumer(QUEUE);
+
+      session.start();
+
+      for (int i = 1; i < numMessages; i += 2)
+      {
+         ClientMessage message = consumer.receive(5000);
+         assertNotNull(message);
+         assertEquals(i, message.getIntProperty("count").intValue());
+         message.acknowledge();
+      }
+
+      assertTrue(batches.get() > 0);
+
+      assertNull(consumer.receiveImmediate());
+
+      session.close();
+   }
+
    @Test
    public void testClearListener() throws Exception
    {
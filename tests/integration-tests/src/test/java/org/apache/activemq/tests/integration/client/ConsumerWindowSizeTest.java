@@ -1579,4 +1579,73 @@ public class ConsumerWindowSizeTest extends ServiceTestBase
       }
    }
 
+   @Test
+   public void testAdaptiveWindow() throws Exception
+   {
+      ActiveMQServer server = createServer(false, isNetty());
+
+      server.start();
+
+      final int initialWindow = 100 * 1024;
+
+      locator.setConsumerWindowSize(initialWindow);
+      locator.setConsumerMinWindowSize(4 * 1024);
+      locator.setConsumerMaxWindowSize(1024 * 1024);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      session.createQueue(addressA, queueA, false);
+
+      ClientProducer producer = session.createProducer(addressA);
+
+      final int numberOfMessages = 300;
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage msg = session.createMessage(false);
+         msg.getBodyBuffer().writeBytes(new byte[1024]);
+         producer.send(msg);
+      }
+
+      session.start();
+
+      ClientConsumerInternal fastConsumer = (ClientConsumerInternal) session.createConsumer(queueA);
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage msg = fastConsumer.receive(5000);
+         Assert.assertNotNull(msg);
+         msg.acknowledge();
+      }
+
+      Assert.assertTrue("window didn't grow: " + fastConsumer.getClientWindowSize(),
+                        fastConsumer.getClientWindowSize() > initialWindow);
+
+      fastConsumer.close();
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage msg = session.createMessage(false);
+         msg.getBodyBuffer().writeBytes(new byte[1024]);
+         producer.send(msg);
+      }
+
+      ClientConsumerInternal slowConsumer = (ClientConsumerInternal) session.createConsumer(queueA);
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage msg = slowConsumer.receive(5000);
+         Assert.assertNotNull(msg);
+         msg.acknowledge();
+         Thread.sleep(2);
+      }
+
+      Assert.assertTrue("window didn't shrink: " + slowConsumer.getClientWindowSize(),
+                        slowConsumer.getClientWindowSize() < initialWindow);
+
+      Assert.assertNull(slowConsumer.receiveImmediate());
+   }
+
 }
@@ -566,6 +566,12 @@ public class HangConsumerTest extends ServiceTestBase
          targetCallback.sendProducerCreditsFailMessage(credits, address);
       }
 
+      @Override
+      public boolean supportsNativeProtocol(SimpleString protocol)
+      {
+         return targetCallback.supportsNativeProtocol(protocol);
+      }
+
       /* (non-Javadoc)
        * @see org.apache.activemq.spi.core.protocol.SessionCallback#sendMessage(org.apache.activemq.core.server.ServerMessage, long, int)
        */
@@ -594,6 +600,12 @@ public class HangConsumerTest extends ServiceTestBase
          }
       }
 
+      @Override
+      public void afterDeliver(ServerConsumer consumer)
+      {
+         targetCallback.afterDeliver(consumer);
+      }
+
       /* (non-Javadoc)
        * @see org.apache.activemq.spi.core.protocol.SessionCallback#sendLargeMessage(org.apache.activemq.core.server.ServerMessage, long, long, int)
        */
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.client;
+
+import java.util.HashMap;
+
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.ClientConsumer;
+import org.apache.activemq.api.core.client.ClientMessage;
+import org.apache.activemq.api.core.client.ClientProducer;
+import org.apache.activemq.api.core.client.ClientSession;
+import org.apache.activemq.api.core.client.ClientSessionFactory;
+import org.apache.activemq.api.core.client.ServerLocator;
+import org.apache.activemq.api.core.client.compression.LZBodyCodec;
+import org.apache.activemq.core.server.ActiveMQServer;
+import org.apache.activemq.core.server.MessageReference;
+import org.apache.activemq.core.server.Queue;
+import org.apache.activemq.core.settings.impl.AddressSettings;
+import org.apache.activemq.tests.util.ServiceTestBase;
+import org.apache.activemq.utils.LinkedListIterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageBodyCompressionTest extends ServiceTestBase
+{
+   private static final SimpleString ADDRESS = new SimpleString("compressedAddress");
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      server = createServer(true, createDefaultConfig(), 10 * 1024, 20 * 1024, new HashMap<String, AddressSettings>());
+
+      server.start();
+
+      locator = createInVMNonHALocator();
+
+      locator.setBodyCodecClassName(LZBodyCodec.class.getName());
+   }
+
+   @Test
+   public void testSendReceive() throws Exception
+   {
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      session.createQueue(ADDRESS, ADDRESS, true);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      ClientMessage message = session.createMessage(true);
+      message.getBodyBuffer().writeString(createText(0));
+      producer.send(message);
+
+      message = session.createMessage(true);
+      message.getBodyBuffer().writeString("small");
+      producer.send(message);
+
+      Queue queue = server.locateQueue(ADDRESS);
+
+      Assert.assertEquals(2, getMessageCount(queue));
+
+      LinkedListIterator<MessageReference> iterator = queue.iterator();
+      try
+      {
+         Assert.assertTrue(iterator.hasNext());
+         Assert.assertTrue(iterator.next().getMessage().isBodyCompressed());
+         Assert.assertTrue(iterator.hasNext());
+         Assert.assertFalse(iterator.next().getMessage().isBodyCompressed());
+      }
+      finally
+      {
+         iterator.close();
+      }
+
+      ClientConsumer consumer = session.createConsumer(ADDRESS);
+
+      session.start();
+
+      message = consumer.receive(5000);
+      Assert.assertNotNull(message);
+      Assert.assertEquals(createText(0), message.getBodyBuffer().readString());
+
+      message = consumer.receive(5000);
+      Assert.assertNotNull(message);
+      Assert.assertEquals("small", message.getBodyBuffer().readString());
+
+      Assert.assertNull(consumer.receiveImmediate());
+   }
+
+   @Test
+   public void testPaging() throws Exception
+   {
+      final int numberOfMessages = 500;
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      session.createQueue(ADDRESS, ADDRESS, true);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage message = session.createMessage(true);
+         message.getBodyBuffer().writeString(createText(i));
+         producer.send(message);
+      }
+
+      Assert.assertTrue(server.getPagingManager().getPageStore(ADDRESS).isPaging());
+
+      ClientConsumer consumer = session.createConsumer(ADDRESS);
+
+      session.start();
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         Assert.assertEquals(createText(i), message.getBodyBuffer().readString());
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+   }
+
+   private static String createText(final int id)
+   {
+      StringBuilder builder = new StringBuilder("[");
+      for (int i = 0; i < 100; i++)
+      {
+         builder.append("{\"message\":").append(id).append(",\"item\":").append(i).append(",\"status\":\"pending\"},");
+      }
+      return builder.append("]").toString();
+   }
+}
@@ -2104,13 +2104,19 @@ public class PagingTest extends ServiceTestBase
    @Test
    public void testSendReceivePagingPersistent() throws Exception
    {
-      internaltestSendReceivePaging(true);
+      internaltestSendReceivePaging(true, false);
    }
 
    @Test
    public void testSendReceivePagingNonPersistent() throws Exception
    {
-      internaltestSendReceivePaging(false);
+      internaltestSendReceivePaging(false, false);
+   }
+
+   @Test
+   public void testSendReceivePagingCompressed() throws Exception
+   {
+      internaltestSendReceivePaging(true, true);
    }
 
    @Test
@@ -2587,7 +2593,7 @@ public class PagingTest extends ServiceTestBase
 
    }
 
-   private void internaltestSendReceivePaging(final boolean persistentMessages) throws Exception
+   private void internaltestSendReceivePaging(final boolean persistentMessages, final boolean compressPages) throws Exception
    {
 
       clearDataRecreateServerDirs();
@@ -2595,11 +2601,20 @@ public class PagingTest extends ServiceTestBase
       Configuration config = createDefaultConfig()
          .setJournalSyncNonTransactional(false);
 
+      HashMap<String, AddressSettings> settings = new HashMap<String, AddressSettings>();
+
+      if (compressPages)
+      {
+         AddressSettings compressedSettings = new AddressSettings();
+         compressedSettings.setCompressPages(true);
+         settings.put(PagingTest.ADDRESS.toString(), compressedSettings);
+      }
+
       server = createServer(true,
                             config,
                             PagingTest.PAGE_SIZE,
                             PagingTest.PAGE_MAX,
-                            new HashMap<String, AddressSettings>());
+                            settings);
 
       server.start();
 
@@ -2647,6 +2662,11 @@ public class PagingTest extends ServiceTestBase
          producer.send(message);
       }
 
+      if (compressPages)
+      {
+         Assert.assertTrue(server.getPagingManager().getPageStore(ADDRESS).getPageCompressionRatio() > 1);
+      }
+
       session.close();
       sf.close();
       locator.close();
@@ -2657,7 +2677,7 @@ public class PagingTest extends ServiceTestBase
                             config,
                             PagingTest.PAGE_SIZE,
                             PagingTest.PAGE_MAX,
-                            new HashMap<String, AddressSettings>());
+                            settings);
       server.start();
 
       locator = createInVMNonHALocator();
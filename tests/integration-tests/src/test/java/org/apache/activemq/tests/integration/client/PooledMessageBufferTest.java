@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.client;
+
+import java.util.HashMap;
+
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.ClientConsumer;
+import org.apache.activemq.api.core.client.ClientMessage;
+import org.apache.activemq.api.core.client.ClientProducer;
+import org.apache.activemq.api.core.client.ClientSession;
+import org.apache.activemq.api.core.client.ClientSessionFactory;
+import org.apache.activemq.api.core.client.ServerLocator;
+import org.apache.activemq.core.config.Configuration;
+import org.apache.activemq.core.remoting.impl.netty.MessageBufferPool;
+import org.apache.activemq.core.server.ActiveMQServer;
+import org.apache.activemq.core.settings.impl.AddressSettings;
+import org.apache.activemq.tests.util.ServiceTestBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PooledMessageBufferTest extends ServiceTestBase
+{
+   private static final SimpleString ADDRESS = new SimpleString("pooledAddress");
+
+   private static final SimpleString QUEUE1 = new SimpleString("pooledQueue1");
+
+   private static final SimpleString QUEUE2 = new SimpleString("pooledQueue2");
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      MessageBufferPool.setLeakDetection(true);
+
+      locator = createNettyNonHALocator();
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception
+   {
+      MessageBufferPool.setLeakDetection(false);
+
+      super.tearDown();
+   }
+
+   @Test
+   public void testSendReceive() throws Exception
+   {
+      internalTestSendReceive(false);
+   }
+
+   @Test
+   public void testSendReceiveDirect() throws Exception
+   {
+      internalTestSendReceive(true);
+   }
+
+   @Test
+   public void testSendWithoutQueues() throws Exception
+   {
+      startServer(false, -1);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      for (int i = 0; i < 100; i++)
+      {
+         ClientMessage message = session.createMessage(i % 2 == 0);
+         message.getBodyBuffer().writeString(createText(i));
+         producer.send(message);
+      }
+
+      Assert.assertEquals(0, MessageBufferPool.getRetainedBuffers());
+      Assert.assertTrue(MessageBufferPool.getLeaks().isEmpty());
+   }
+
+   @Test
+   public void testPaging() throws Exception
+   {
+      final int numberOfMessages = 500;
+
+      startServer(false, 20 * 1024);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      session.createQueue(ADDRESS, QUEUE1, true);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage message = session.createMessage(true);
+         message.getBodyBuffer().writeString(createText(i));
+         producer.send(message);
+      }
+
+      Assert.assertTrue(server.getPagingManager().getPageStore(ADDRESS).isPaging());
+
+      ClientConsumer consumer = session.createConsumer(QUEUE1);
+
+      session.start();
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         Assert.assertEquals(createText(i), message.getBodyBuffer().readString());
+         message.acknowledge();
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+
+      session.close();
+
+      assertNoRetainedBuffers();
+   }
+
+   private void internalTestSendReceive(final boolean direct) throws Exception
+   {
+      final int numberOfMessages = 200;
+
+      startServer(direct, -1);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+
+      session.createQueue(ADDRESS, QUEUE1, true);
+      session.createQueue(ADDRESS, QUEUE2, true);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         ClientMessage message = session.createMessage(i % 2 == 0);
+         message.getBodyBuffer().writeString(createText(i));
+         message.putIntProperty("i", i);
+         producer.send(message);
+      }
+
+      Assert.assertEquals(numberOfMessages, MessageBufferPool.getRetainedBuffers());
+
+      ClientConsumer consumer1 = session.createConsumer(QUEUE1);
+      ClientConsumer consumer2 = session.createConsumer(QUEUE2);
+
+      session.start();
+
+      // both queues deliver the same messages, the first one from the pooled buffer and the other one from a copy
+      for (int i = 0; i < numberOfMessages; i++)
+      {
+         for (ClientConsumer consumer : new ClientConsumer[]{consumer1, consumer2})
+         {
+            ClientMessage message = consumer.receive(5000);
+            Assert.assertNotNull(message);
+            Assert.assertEquals(i, message.getIntProperty("i").intValue());
+            Assert.assertEquals(createText(i), message.getBodyBuffer().readString());
+            message.acknowledge();
+         }
+      }
+
+      Assert.assertNull(consumer1.receiveImmediate());
+      Assert.assertNull(consumer2.receiveImmediate());
+
+      session.close();
+
+      assertNoRetainedBuffers();
+   }
+
+   private void startServer(final boolean direct, final int maxSize) throws Exception
+   {
+      Configuration config = createDefaultConfig(true)
+         .setPooledMessageBuffers(true)
+         .setDirectMessageBuffers(direct);
+
+      server = createServer(true, config, 10 * 1024, maxSize, new HashMap<String, AddressSettings>());
+
+      server.start();
+   }
+
+   private void assertNoRetainedBuffers() throws Exception
+   {
+      long timeout = System.currentTimeMillis() + 5000;
+
+      while (MessageBufferPool.getRetainedBuffers() != 0 && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+
+      Assert.assertEquals(MessageBufferPool.getLeaks().toString(), 0, MessageBufferPool.getRetainedBuffers());
+      Assert.assertTrue(MessageBufferPool.getLeaks().isEmpty());
+   }
+
+   private static String createText(final int id)
+   {
+      StringBuilder builder = new StringBuilder("message ").append(id);
+      for (int i = 0; i < 20; i++)
+      {
+         builder.append(", item ").append(i);
+      }
+      return builder.toString();
+   }
+}
@@ -16,8 +16,11 @@
  */
 package org.apache.activemq.tests.integration.client;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.api.core.Interceptor;
@@ -85,6 +88,64 @@ public class ProducerTest extends ServiceTestBase
       locator.close();
    }
 
+   @Test
+   public void testSendBatch() throws Exception
+   {
+      final AtomicInteger batches = new AtomicInteger();
+      final AtomicInteger singleSends = new AtomicInteger();
+      server.getRemotingService().addIncomingInterceptor(new Interceptor()
+      {
+         public boolean intercept(final Packet packet, final RemotingConnection connection) throws ActiveMQException
+         {
+            if (packet.getType() == PacketImpl.SESS_SEND_BATCH)
+            {
+               batches.incrementAndGet();
+            }
+            else if (packet.getType() == PacketImpl.SESS_SEND)
+            {
+               singleSends.incrementAndGet();
+            }
+            return true;
+         }
+      });
+      server.createQueue(QUEUE, QUEUE, null, true, false);
+
+      ServerLocator locator = createInVMNonHALocator();
+      locator.setBlockOnDurableSend(true);
+      locator.setMinLargeMessageSize(1024);
+      ClientSessionFactory cf = locator.createSessionFactory();
+      ClientSession session = cf.createSession(false, true, true);
+      ClientProducer producer = session.createProducer(QUEUE);
+
+      List<ClientMessage> messages = new ArrayList<ClientMessage>();
+      for (int i = 0; i < 100; i++)
+      {
+         ClientMessage message = session.createMessage(true);
+         message.putIntProperty("i", i);
+         // a large message in the middle splits the batch in two
+         message.getBodyBuffer().writeBytes(new byte[i == 50 ? 5 * 1024 : 10]);
+         messages.add(message);
+      }
+      producer.send(messages);
+
+      Assert.assertEquals(2, batches.get());
+      Assert.assertEquals(0, singleSends.get());
+
+      ClientConsumer consumer = session.createConsumer(QUEUE);
+      session.start();
+      for (int i = 0; i < 100; i++)
+      {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         Assert.assertEquals(i, message.getIntProperty("i").intValue());
+         Assert.assertEquals(i == 50 ? 5 * 1024 : 10, message.getBodySize());
+         message.acknowledge();
+      }
+      Assert.assertNull(consumer.receiveImmediate());
+
+      session.close();
+      locator.close();
+   }
 
    @Test
    public void testProducerMultiThread() throws Exception
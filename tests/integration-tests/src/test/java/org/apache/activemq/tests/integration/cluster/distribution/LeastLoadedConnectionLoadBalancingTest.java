@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.cluster.distribution;
+
+import org.apache.activemq.api.core.TransportConfiguration;
+import org.apache.activemq.api.core.client.ActiveMQClient;
+import org.apache.activemq.api.core.client.ServerLocator;
+import org.apache.activemq.api.core.client.TopologyMember;
+import org.apache.activemq.api.core.client.loadbalance.LeastLoadedConnectionLoadBalancingPolicy;
+import org.apache.activemq.api.core.client.loadbalance.NodeLoad;
+import org.apache.activemq.core.config.ClusterConnectionConfiguration;
+import org.apache.activemq.tests.util.UnitTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LeastLoadedConnectionLoadBalancingTest extends ClusterTestBase
+{
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      setupServer(0, isFileStorage(), isNetty());
+      setupServer(1, isFileStorage(), isNetty());
+      setupServer(2, isFileStorage(), isNetty());
+
+      setupClusterConnection("cluster0", "queues", false, 1, isNetty(), 0, 1, 2);
+      setupClusterConnection("cluster1", "queues", false, 1, isNetty(), 1, 0, 2);
+      setupClusterConnection("cluster2", "queues", false, 1, isNetty(), 2, 0, 1);
+
+      for (int node = 0; node < 3; node++)
+      {
+         for (ClusterConnectionConfiguration config : servers[node].getConfiguration().getClusterConfigurations())
+         {
+            config.setLoadUpdatePeriod(100);
+         }
+      }
+
+      startServers(0, 1, 2);
+
+      for (int node = 0; node < 3; node++)
+      {
+         waitForTopology(servers[node], 3);
+      }
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception
+   {
+      closeAllSessionFactories();
+      closeAllServerLocatorsFactories();
+      stopServers(0, 1, 2);
+      super.tearDown();
+   }
+
+   public boolean isNetty()
+   {
+      return false;
+   }
+
+   @Test
+   public void testConnectionsGoToTheLeastLoadedNodes() throws Exception
+   {
+      // the first node already has some connections
+      ServerLocator busyLocator = addServerLocator(ActiveMQClient.createServerLocatorWithoutHA(createConnector(0)));
+      for (int i = 0; i < 6; i++)
+      {
+         addSessionFactory(busyLocator.createSessionFactory());
+      }
+
+      ServerLocator locator = addServerLocator(ActiveMQClient.createServerLocatorWithHA(createConnector(0)));
+      locator.setConnectionLoadBalancingPolicyClassName(LeastLoadedConnectionLoadBalancingPolicy.class.getName());
+
+      // the topology is received through this connection to the first node
+      addSessionFactory(locator.createSessionFactory());
+
+      waitForLoads(locator, servers[0].getConnectionCount());
+
+      int[] initialCounts = new int[3];
+      for (int node = 0; node < 3; node++)
+      {
+         initialCounts[node] = servers[node].getConnectionCount();
+      }
+
+      for (int i = 0; i < 6; i++)
+      {
+         addSessionFactory(locator.createSessionFactory());
+      }
+
+      Assert.assertEquals("no new connection to the busiest node", initialCounts[0], servers[0].getConnectionCount());
+      Assert.assertTrue(servers[1].getConnectionCount() - initialCounts[1] >= 2);
+      Assert.assertTrue(servers[2].getConnectionCount() - initialCounts[2] >= 2);
+   }
+
+   @Test
+   public void testRoundRobinUntilTheLoadsAreKnown() throws Exception
+   {
+      LeastLoadedConnectionLoadBalancingPolicy policy = new LeastLoadedConnectionLoadBalancingPolicy();
+
+      int first = policy.select(3);
+      Assert.assertEquals((first + 1) % 3, policy.select(3));
+      Assert.assertEquals((first + 2) % 3, policy.select(3));
+   }
+
+   private TransportConfiguration createConnector(final int node)
+   {
+      return new TransportConfiguration(isNetty() ? UnitTestCase.NETTY_CONNECTOR_FACTORY : UnitTestCase.INVM_CONNECTOR_FACTORY,
+                                        generateParams(node, isNetty()));
+   }
+
+   /**
+    * Waits for every node of the topology to report its load, and for the first node to report at least
+    * {@code connections}.
+    */
+   private void waitForLoads(final ServerLocator locator, final int connections) throws Exception
+   {
+      long timeout = System.currentTimeMillis() + 5000;
+
+      while (System.currentTimeMillis() < timeout)
+      {
+         boolean loaded = locator.getTopology().getMembers().size() == 3;
+
+         for (TopologyMember member : locator.getTopology().getMembers())
+         {
+            NodeLoad load = member.getLoad();
+
+            if (load == null || member.getNodeId().equals(servers[0].getNodeID().toString()) && load.getConnectionCount() < connections)
+            {
+               loaded = false;
+            }
+         }
+
+         if (loaded)
+         {
+            return;
+         }
+
+         Thread.sleep(10);
+      }
+
+      Assert.fail("the nodes didn't report their load: " + locator.getTopology().describe());
+   }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.cluster.distribution;
+
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.ClientConsumer;
+import org.apache.activemq.api.core.client.ClientMessage;
+import org.apache.activemq.core.config.ClusterConnectionConfiguration;
+import org.apache.activemq.core.server.Queue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LoadAwareMessageDistributionTest extends ClusterTestBase
+{
+   private static final long LOAD_UPDATE_PERIOD = 100;
+
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      setupServer(0, isFileStorage(), isNetty());
+      setupServer(1, isFileStorage(), isNetty());
+
+      setupClusterConnection("cluster0", "queues", false, 1, isNetty(), 0, 1);
+      setupClusterConnection("cluster1", "queues", false, 1, isNetty(), 1, 0);
+
+      for (int node = 0; node < 2; node++)
+      {
+         for (ClusterConnectionConfiguration config : servers[node].getConfiguration().getClusterConfigurations())
+         {
+            config.setLoadUpdatePeriod(LOAD_UPDATE_PERIOD);
+            config.setLoadAwareDistribution(true);
+         }
+      }
+
+      startServers(0, 1);
+
+      setupSessionFactory(0, isNetty());
+      setupSessionFactory(1, isNetty());
+
+      createQueue(0, "queues", "queue0", null, false);
+      createQueue(1, "queues", "queue0", null, false);
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception
+   {
+      closeAllConsumers();
+      closeAllSessionFactories();
+      closeAllServerLocatorsFactories();
+      stopServers(0, 1);
+      super.tearDown();
+   }
+
+   public boolean isNetty()
+   {
+      return false;
+   }
+
+   @Test
+   public void testMessagesAvoidTheNodeWithABacklog() throws Exception
+   {
+      // the consumer on the second node never acknowledges anything
+      addConsumer(1, 1, "queue0", null);
+
+      waitForBindings(1, "queues", 1, 1, true);
+      waitForBindings(0, "queues", 1, 1, false);
+
+      // the second node keeps its messages while there is no consumer on the first node
+      send(1, "queues", 50, false, null);
+
+      Queue queue1 = servers[1].locateQueue(new SimpleString("queue0"));
+
+      waitForMessages(queue1, 50);
+
+      addConsumer(0, 0, "queue0", null);
+
+      waitForBindings(0, "queues", 1, 1, true);
+      waitForBindings(1, "queues", 1, 1, false);
+
+      // the nodes report the load of their queues
+      Thread.sleep(LOAD_UPDATE_PERIOD * 5);
+
+      send(0, "queues", 50, false, null);
+
+      Assert.assertEquals(50, receiveAll(consumers[0].getConsumer()));
+
+      Assert.assertEquals("nothing was sent to the node with a backlog", 50, queue1.getMessageCount());
+   }
+
+   @Test
+   public void testMessagesAreSpreadWhenTheLoadsAreTheSame() throws Exception
+   {
+      addConsumer(0, 0, "queue0", null);
+      addConsumer(1, 1, "queue0", null);
+
+      waitForBindings(0, "queues", 1, 1, true);
+      waitForBindings(1, "queues", 1, 1, true);
+      waitForBindings(0, "queues", 1, 1, false);
+      waitForBindings(1, "queues", 1, 1, false);
+
+      Thread.sleep(LOAD_UPDATE_PERIOD * 5);
+
+      send(0, "queues", 10, false, null);
+
+      verifyReceiveRoundRobinInSomeOrder(10, 0, 1);
+   }
+
+   private void waitForMessages(final Queue queue, final long count) throws Exception
+   {
+      long timeout = System.currentTimeMillis() + 5000;
+
+      while (queue.getMessageCount() != count && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+
+      Assert.assertEquals(count, queue.getMessageCount());
+   }
+
+   private int receiveAll(final ClientConsumer consumer) throws Exception
+   {
+      int received = 0;
+
+      ClientMessage message;
+
+      while ((message = consumer.receive(1000)) != null)
+      {
+         message.acknowledge();
+
+         received++;
+      }
+
+      return received;
+   }
+}
@@ -381,5 +381,11 @@ public class BackupSyncDelay implements Interceptor
          return true;
       }
 
+      @Override
+      public long getRoundTripTime()
+      {
+         return channel.getRoundTripTime();
+      }
+
    }
 }
\ No newline at end of file
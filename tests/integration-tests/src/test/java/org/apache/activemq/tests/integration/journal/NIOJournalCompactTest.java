@@ -1916,6 +1916,322 @@ public class NIOJournalCompactTest extends JournalImplTestBase
       assertTrue("delete executor terminated", deleteExecutor.awaitTermination(30, TimeUnit.SECONDS));
    }
 
+   @Test
+   public void testIncrementalCompact() throws Exception
+   {
+      setup(2, 60 * 1024, false);
+
+      createIncrementalJournal(3);
+      startJournal();
+      load();
+
+      ArrayList<Long> kept = new ArrayList<Long>();
+
+      for (int i = 0; i < 6; i++)
+      {
+         ArrayList<Long> ids = new ArrayList<Long>();
+
+         for (int j = 0; j < 20; j++)
+         {
+            long id = idGenerator.generateID();
+            ids.add(id);
+            add(id);
+         }
+
+         journal.forceMoveNextFile();
+
+         // keep a few records of every file, the first of them updated on the next file
+         kept.add(ids.remove(0));
+         update(kept.get(kept.size() - 1));
+         kept.add(ids.remove(0));
+
+         for (long id : ids)
+         {
+            delete(id);
+         }
+      }
+
+      journal.forceMoveNextFile();
+
+      JournalFile[] files = journal.getDataFiles();
+
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      JournalFile[] compactedFiles = journal.getDataFiles();
+
+      // the first three files were compacted into one
+      Assert.assertEquals(files.length - 2, compactedFiles.length);
+      Assert.assertEquals(files[0].getFileID(), compactedFiles[0].getFileID());
+
+      for (int i = 3; i < files.length; i++)
+      {
+         Assert.assertSame(files[i], compactedFiles[i - 2]);
+      }
+
+      // the journal still knows about the relocated records
+      update(kept.get(0));
+      delete(kept.get(1), kept.get(2));
+
+      stopJournal();
+      createIncrementalJournal(3);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testIncrementalCompactTransactionEndingAfterCompactedFiles() throws Exception
+   {
+      setup(2, 60 * 1024, false);
+
+      createIncrementalJournal(2);
+      startJournal();
+      load();
+
+      long tx = idGenerator.generateID();
+
+      long[] ids = new long[20];
+
+      for (int i = 0; i < ids.length; i++)
+      {
+         ids[i] = idGenerator.generateID();
+      }
+
+      addTx(tx, ids[0], ids[1]);
+
+      journal.forceMoveNextFile();
+
+      addTx(tx, ids[2], ids[3]);
+
+      journal.forceMoveNextFile();
+
+      commit(tx);
+
+      // a rolled back transaction on the compacted file is not kept
+      long rolledBack = idGenerator.generateID();
+
+      addTx(rolledBack, ids[4]);
+
+      journal.forceMoveNextFile();
+
+      rollback(rolledBack);
+
+      add(ids[5]);
+
+      journal.forceMoveNextFile();
+
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      Assert.assertEquals(3, journal.getDataFilesCount());
+
+      delete(ids[0]);
+      update(ids[3]);
+
+      stopJournal();
+      createIncrementalJournal(2);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testIncrementalCompactTransactionEndingOnCurrentFile() throws Exception
+   {
+      setup(2, 60 * 1024, false);
+
+      createIncrementalJournal(2);
+      startJournal();
+      load();
+
+      long tx = idGenerator.generateID();
+
+      long[] ids = new long[3];
+
+      for (int i = 0; i < ids.length; i++)
+      {
+         ids[i] = idGenerator.generateID();
+      }
+
+      add(ids[0]);
+
+      addTx(tx, ids[1]);
+
+      journal.forceMoveNextFile();
+
+      addTx(tx, ids[2]);
+
+      journal.forceMoveNextFile();
+
+      commit(tx);
+
+      int files = journal.getDataFilesCount();
+
+      // the commit is still on the current file, so nothing is compacted
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      Assert.assertEquals(files, journal.getDataFilesCount());
+
+      update(ids[0], ids[1]);
+      delete(ids[2]);
+
+      journal.forceMoveNextFile();
+
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      Assert.assertEquals(files, journal.getDataFilesCount());
+
+      stopJournal();
+      createIncrementalJournal(2);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testIncrementalCompactWithPendingTransaction() throws Exception
+   {
+      setup(2, 60 * 1024, false);
+
+      createIncrementalJournal(3);
+      startJournal();
+      load();
+
+      long tx = idGenerator.generateID();
+
+      long pending = idGenerator.generateID();
+
+      addTx(tx, pending);
+
+      for (int i = 0; i < 3; i++)
+      {
+         long id = idGenerator.generateID();
+         add(id);
+         journal.forceMoveNextFile();
+         delete(id);
+      }
+
+      journal.forceMoveNextFile();
+
+      int files = journal.getDataFilesCount();
+
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      // the first file is held by the transaction
+      Assert.assertEquals(files, journal.getDataFilesCount());
+
+      commit(tx);
+
+      journal.forceMoveNextFile();
+
+      ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+
+      Assert.assertTrue(journal.getDataFilesCount() < files);
+
+      stopJournal();
+      createIncrementalJournal(3);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testIncrementalCompactWithConcurrentUpdatesAndDeletes() throws Exception
+   {
+      setup(2, 60 * 1024, false);
+
+      final CountDownLatch compactDone = new CountDownLatch(1);
+
+      final CountDownLatch waitCompact = new CountDownLatch(1);
+
+      journal = new JournalImpl(fileSize, minFiles, 0, 50, fileFactory, filePrefix, fileExtension, maxAIO)
+      {
+         @Override
+         public void onCompactDone()
+         {
+            compactDone.countDown();
+            try
+            {
+               waitCompact.await();
+            }
+            catch (InterruptedException e)
+            {
+               e.printStackTrace();
+            }
+         }
+      };
+
+      journal.setAutoReclaim(false);
+      ((JournalImpl) journal).setCompactMaxFiles(2);
+      addActiveMQComponent(journal);
+
+      startJournal();
+      load();
+
+      long[] ids = new long[10];
+
+      for (int i = 0; i < ids.length; i++)
+      {
+         ids[i] = idGenerator.generateID();
+         add(ids[i]);
+         if (i % 5 == 4)
+         {
+            journal.forceMoveNextFile();
+         }
+      }
+
+      journal.forceMoveNextFile();
+
+      Thread compactThread = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               ((JournalImpl) journal).scheduleIncrementalCompactAndBlock(60);
+            }
+            catch (Throwable e)
+            {
+               e.printStackTrace();
+            }
+         }
+      };
+
+      compactThread.start();
+
+      Assert.assertTrue(compactDone.await(10, TimeUnit.SECONDS));
+
+      update(ids[0], ids[6]);
+      delete(ids[1], ids[7]);
+
+      waitCompact.countDown();
+
+      compactThread.join();
+
+      Assert.assertEquals(2, journal.getDataFilesCount());
+
+      delete(ids[0]);
+
+      stopJournal();
+      createIncrementalJournal(2);
+      startJournal();
+      loadAndCheck();
+   }
+
+   private void createIncrementalJournal(final int compactMaxFiles)
+   {
+      JournalImpl incrementalJournal = new JournalImpl(fileSize,
+                                                       minFiles,
+                                                       0,
+                                                       50,
+                                                       fileFactory,
+                                                       filePrefix,
+                                                       fileExtension,
+                                                       maxAIO);
+
+      incrementalJournal.setCompactMaxFiles(compactMaxFiles);
+      incrementalJournal.setAutoReclaim(false);
+
+      journal = incrementalJournal;
+      addActiveMQComponent(journal);
+   }
+
    @Override
    @After
    public void tearDown() throws Exception
@@ -122,6 +122,7 @@ public class ActiveMQServerControlTest extends ManagementTestBase
       Assert.assertEquals(conf.isJournalSyncNonTransactional(), serverControl.isJournalSyncNonTransactional());
       Assert.assertEquals(conf.getJournalFileSize(), serverControl.getJournalFileSize());
       Assert.assertEquals(conf.getJournalMinFiles(), serverControl.getJournalMinFiles());
+      Assert.assertEquals(conf.isJournalAdaptiveBufferTimeout(), serverControl.isJournalAdaptiveBufferTimeout());
       if (AsynchronousFileImpl.isLoaded())
       {
          Assert.assertEquals(conf.getJournalMaxIO_AIO(), serverControl.getJournalMaxIO());
@@ -131,10 +132,12 @@ public class ActiveMQServerControlTest extends ManagementTestBase
       Assert.assertEquals(conf.isCreateBindingsDir(), serverControl.isCreateBindingsDir());
       Assert.assertEquals(conf.isCreateJournalDir(), serverControl.isCreateJournalDir());
       Assert.assertEquals(conf.getPagingDirectory(), serverControl.getPagingDirectory());
+      Assert.assertEquals(conf.getGlobalMaxSize(), serverControl.getGlobalMaxSize());
       Assert.assertEquals(conf.getLargeMessagesDirectory(), serverControl.getLargeMessagesDirectory());
       Assert.assertEquals(conf.isWildcardRoutingEnabled(), serverControl.isWildcardRoutingEnabled());
       Assert.assertEquals(conf.getTransactionTimeout(), serverControl.getTransactionTimeout());
       Assert.assertEquals(conf.isMessageCounterEnabled(), serverControl.isMessageCounterEnabled());
+      Assert.assertEquals(conf.isMetricsEnabled(), serverControl.isMetricsEnabled());
       Assert.assertEquals(conf.getTransactionTimeoutScanPeriod(), serverControl.getTransactionTimeoutScanPeriod());
       Assert.assertEquals(conf.getMessageExpiryScanPeriod(), serverControl.getMessageExpiryScanPeriod());
       Assert.assertEquals(conf.getMessageExpiryThreadPriority(), serverControl.getMessageExpiryThreadPriority());
@@ -420,6 +423,54 @@ public class ActiveMQServerControlTest extends ManagementTestBase
       Assert.assertEquals(newSample, serverControl.getMessageCounterSamplePeriod());
    }
 
+   @Test
+   public void testListMetrics() throws Exception
+   {
+      ActiveMQServerControl serverControl = createManagementControl();
+
+      Assert.assertFalse(serverControl.isMetricsEnabled());
+      Assert.assertEquals(0, new JSONObject(serverControl.listMetricsAsJSON()).length());
+
+      server.stop();
+      conf.setMetricsEnabled(true);
+      server.start();
+
+      Assert.assertTrue(serverControl.isMetricsEnabled());
+
+      SimpleString address = RandomUtil.randomSimpleString();
+      server.createQueue(address, address, null, false, false);
+
+      ServerLocator locator = createInVMNonHALocator();
+      ClientSessionFactory csf = createSessionFactory(locator);
+      ClientSession session = csf.createSession();
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 10; i++)
+      {
+         producer.send(session.createMessage(false));
+      }
+
+      session.start();
+      ClientConsumer consumer = session.createConsumer(address);
+      for (int i = 0; i < 10; i++)
+      {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         message.acknowledge();
+      }
+      session.close();
+
+      JSONObject metrics = new JSONObject(serverControl.listMetricsAsJSON());
+      // the management notifications are routed too
+      Assert.assertTrue(metrics.getJSONObject("route-time").getLong("count") >= 10);
+      Assert.assertEquals(10, metrics.getJSONObject("queue-time").getLong("count"));
+
+      serverControl.resetMetrics();
+
+      metrics = new JSONObject(serverControl.listMetricsAsJSON());
+      Assert.assertEquals(0, metrics.getJSONObject("route-time").getLong("count"));
+      Assert.assertEquals(0, metrics.getJSONObject("queue-time").getLong("count"));
+   }
+
    protected void restartServer() throws Exception
    {
       server.stop();
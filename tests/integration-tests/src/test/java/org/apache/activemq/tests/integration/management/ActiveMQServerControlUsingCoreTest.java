@@ -310,6 +310,16 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             return (String) proxy.retrieveAttributeValue("pagingDirectory");
          }
 
+         public long getGlobalMaxSize()
+         {
+            return (Long) proxy.retrieveAttributeValue("globalMaxSize", Long.class);
+         }
+
+         public long getGlobalSize()
+         {
+            return (Long) proxy.retrieveAttributeValue("globalSize", Long.class);
+         }
+
          public int getScheduledThreadPoolMaxSize()
          {
             return (Integer) proxy.retrieveAttributeValue("scheduledThreadPoolMaxSize");
@@ -395,6 +405,11 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             return (Boolean) proxy.retrieveAttributeValue("messageCounterEnabled");
          }
 
+         public boolean isMetricsEnabled()
+         {
+            return (Boolean) proxy.retrieveAttributeValue("metricsEnabled");
+         }
+
          public boolean isPersistDeliveryCountBeforeDelivery()
          {
             return (Boolean) proxy.retrieveAttributeValue("persistDeliveryCountBeforeDelivery");
@@ -475,6 +490,16 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             proxy.invokeOperation("resetAllMessageCounterHistories");
          }
 
+         public String listMetricsAsJSON() throws Exception
+         {
+            return (String) proxy.invokeOperation("listMetricsAsJSON");
+         }
+
+         public void resetMetrics() throws Exception
+         {
+            proxy.invokeOperation("resetMetrics");
+         }
+
          public void resetAllMessageCounters() throws Exception
          {
             proxy.invokeOperation("resetAllMessageCounters");
@@ -510,6 +535,21 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             return (Integer) proxy.retrieveAttributeValue("JournalBufferTimeout");
          }
 
+         public boolean isJournalAdaptiveBufferTimeout()
+         {
+            return (Boolean) proxy.retrieveAttributeValue("journalAdaptiveBufferTimeout");
+         }
+
+         public long getJournalFlushWindow()
+         {
+            return (Long) proxy.retrieveAttributeValue("journalFlushWindow", Long.class);
+         }
+
+         public double getJournalAverageBatchSize()
+         {
+            return (Double) proxy.retrieveAttributeValue("journalAverageBatchSize", Double.class);
+         }
+
          public int getJournalCompactMinFiles()
          {
             return (Integer) proxy.retrieveAttributeValue("JournalCompactMinFiles");
@@ -51,6 +51,7 @@ import org.apache.activemq.core.settings.impl.AddressSettings;
 import org.apache.activemq.tests.integration.jms.server.management.JMSUtil;
 import org.apache.activemq.tests.util.RandomUtil;
 import org.apache.activemq.utils.json.JSONArray;
+import org.apache.activemq.utils.json.JSONObject;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -780,6 +781,118 @@ public class QueueControlTest extends ManagementTestBase
       session.deleteQueue(queue);
    }
 
+   @Test
+   public void testListMessagesPage() throws Exception
+   {
+      SimpleString key = new SimpleString("key");
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+
+      session.createQueue(address, queue, null, false);
+      QueueControl queueControl = createManagementControl(address, queue);
+
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 10; i++)
+      {
+         ClientMessage message = session.createMessage(false);
+         message.putIntProperty(key, i);
+         producer.send(message);
+      }
+
+      Map<String, Object>[] messages = queueControl.listMessages(null, 3, 4);
+      Assert.assertEquals(4, messages.length);
+      for (int i = 0; i < messages.length; i++)
+      {
+         Assert.assertEquals(3 + i, ((Number) messages[i].get("key")).intValue());
+      }
+
+      // the offset counts the matching messages only
+      messages = queueControl.listMessages(key + " >= 5", 2, -1);
+      Assert.assertEquals(3, messages.length);
+      Assert.assertEquals(7, ((Number) messages[0].get("key")).intValue());
+
+      Assert.assertEquals(0, queueControl.listMessages(null, 10, 5).length);
+      Assert.assertEquals(10, queueControl.listMessages(null, 0, -1).length);
+
+      ManagementTestBase.consumeMessages(10, session, queue);
+
+      session.deleteQueue(queue);
+   }
+
+   @Test
+   public void testListMessagesAsJSONPage() throws Exception
+   {
+      SimpleString key = new SimpleString("key");
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+
+      session.createQueue(address, queue, null, false);
+      QueueControl queueControl = createManagementControl(address, queue);
+
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 5; i++)
+      {
+         ClientMessage message = session.createMessage(false);
+         message.putIntProperty(key, i);
+         producer.send(message);
+      }
+
+      Assert.assertEquals(queueControl.listMessagesAsJSON(null), queueControl.listMessagesAsJSON(null, 0, -1, null));
+
+      JSONArray array = new JSONArray(queueControl.listMessagesAsJSON(null, 1, 2, "key, messageID"));
+      Assert.assertEquals(2, array.length());
+      for (int i = 0; i < array.length(); i++)
+      {
+         JSONObject object = array.getJSONObject(i);
+         Assert.assertEquals(1 + i, object.get("key"));
+         Assert.assertTrue(object.has("messageID"));
+         Assert.assertFalse(object.has("priority"));
+      }
+
+      array = new JSONArray(queueControl.listMessagesAsJSON(null, 0, 0, ""));
+      Assert.assertEquals(0, array.length());
+
+      ManagementTestBase.consumeMessages(5, session, queue);
+
+      session.deleteQueue(queue);
+   }
+
+   @Test
+   public void testListScheduledMessagesPage() throws Exception
+   {
+      long delay = 2000;
+      SimpleString key = new SimpleString("key");
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+      session.createQueue(address, queue, null, false);
+
+      QueueControl queueControl = createManagementControl(address, queue);
+
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 3; i++)
+      {
+         ClientMessage message = session.createMessage(false);
+         message.putLongProperty(Message.HDR_SCHEDULED_DELIVERY_TIME, System.currentTimeMillis() + delay);
+         message.putIntProperty(key, i);
+         producer.send(message);
+      }
+
+      Assert.assertEquals(2, queueControl.listScheduledMessages(1, -1).length);
+      Assert.assertEquals(1, queueControl.listScheduledMessages(0, 1).length);
+      Assert.assertEquals(0, queueControl.listScheduledMessages(5, 1).length);
+
+      JSONArray array = new JSONArray(queueControl.listScheduledMessagesAsJSON(0, 2));
+      Assert.assertEquals(2, array.length());
+
+      Thread.sleep(delay + 500);
+
+      Assert.assertEquals(0, queueControl.listScheduledMessages(0, -1).length);
+
+      ManagementTestBase.consumeMessages(3, session, queue);
+
+      session.deleteQueue(queue);
+   }
+
    /**
     * <ol>
     * <li>send a message to queue</li>
@@ -204,6 +204,25 @@ public class QueueControlUsingCoreTest extends QueueControlTest
             return (String) proxy.invokeOperation("listMessagesAsJSON", filter);
          }
 
+         public Map<String, Object>[] listMessages(final String filter, final int offset, final int limit) throws Exception
+         {
+            Object[] res = (Object[]) proxy.invokeOperation("listMessages", filter, offset, limit);
+            Map<String, Object>[] results = new Map[res.length];
+            for (int i = 0; i < res.length; i++)
+            {
+               results[i] = (Map<String, Object>) res[i];
+            }
+            return results;
+         }
+
+         public String listMessagesAsJSON(final String filter,
+                                          final int offset,
+                                          final int limit,
+                                          final String properties) throws Exception
+         {
+            return (String) proxy.invokeOperation("listMessagesAsJSON", filter, offset, limit, properties);
+         }
+
          public Map<String, Object>[] listScheduledMessages() throws Exception
          {
             Object[] res = (Object[]) proxy.invokeOperation("listScheduledMessages");
@@ -220,6 +239,22 @@ public class QueueControlUsingCoreTest extends QueueControlTest
             return (String) proxy.invokeOperation("listScheduledMessagesAsJSON");
          }
 
+         public Map<String, Object>[] listScheduledMessages(final int offset, final int limit) throws Exception
+         {
+            Object[] res = (Object[]) proxy.invokeOperation("listScheduledMessages", offset, limit);
+            Map<String, Object>[] results = new Map[res.length];
+            for (int i = 0; i < res.length; i++)
+            {
+               results[i] = (Map<String, Object>) res[i];
+            }
+            return results;
+         }
+
+         public String listScheduledMessagesAsJSON(final int offset, final int limit) throws Exception
+         {
+            return (String) proxy.invokeOperation("listScheduledMessagesAsJSON", offset, limit);
+         }
+
          public int moveMessages(final String filter, final String otherQueueName) throws Exception
          {
             return (Integer) proxy.invokeOperation("moveMessages", filter, otherQueueName);
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.paging;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.ClientConsumer;
+import org.apache.activemq.api.core.client.ClientMessage;
+import org.apache.activemq.api.core.client.ClientProducer;
+import org.apache.activemq.api.core.client.ClientSession;
+import org.apache.activemq.api.core.client.ClientSessionFactory;
+import org.apache.activemq.api.core.client.ServerLocator;
+import org.apache.activemq.core.config.Configuration;
+import org.apache.activemq.core.paging.PagingManager;
+import org.apache.activemq.core.server.ActiveMQServer;
+import org.apache.activemq.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.core.settings.impl.AddressSettings;
+import org.apache.activemq.tests.util.ServiceTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GlobalPagingTest extends ServiceTestBase
+{
+   private static final SimpleString ADDRESS_A = new SimpleString("GlobalPagingA");
+
+   private static final SimpleString ADDRESS_B = new SimpleString("GlobalPagingB");
+
+   private static final int GLOBAL_MAX_SIZE = 100 * 1024;
+
+   private static final int MESSAGE_SIZE = 1024;
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   @Test
+   public void testLargestAddressPages() throws Exception
+   {
+      startServer(AddressFullMessagePolicy.PAGE);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = addClientSession(sf.createSession(true, true, 0));
+
+      session.createQueue(ADDRESS_A, ADDRESS_A, null, true);
+      session.createQueue(ADDRESS_B, ADDRESS_B, null, true);
+
+      PagingManager pagingManager = server.getPagingManager();
+
+      send(session, ADDRESS_B, 20);
+      send(session, ADDRESS_A, 150);
+
+      Assert.assertTrue(pagingManager.isGlobalFull());
+      Assert.assertTrue(pagingManager.getPageStore(ADDRESS_A).isPaging());
+      Assert.assertFalse(pagingManager.getPageStore(ADDRESS_B).isPaging());
+      Assert.assertTrue(pagingManager.getGlobalSize() < 2 * GLOBAL_MAX_SIZE);
+
+      receive(session, ADDRESS_A, 150);
+
+      Assert.assertFalse(pagingManager.isGlobalFull());
+      waitForNotPaging(pagingManager.getPageStore(ADDRESS_A));
+
+      receive(session, ADDRESS_B, 20);
+
+      Assert.assertEquals(pagingManager.getPageStore(ADDRESS_A).getAddressSize() +
+                          pagingManager.getPageStore(ADDRESS_B).getAddressSize(), pagingManager.getGlobalSize());
+   }
+
+   @Test
+   public void testOnlyLargestAddressHeldBack() throws Exception
+   {
+      startServer(AddressFullMessagePolicy.PAGE);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = addClientSession(sf.createSession(true, true, 0));
+
+      session.createQueue(ADDRESS_A, ADDRESS_A, null, true);
+      session.createQueue(ADDRESS_B, ADDRESS_B, null, true);
+
+      PagingManager pagingManager = server.getPagingManager();
+
+      send(session, ADDRESS_B, 30);
+      send(session, ADDRESS_A, 80);
+
+      Assert.assertTrue(pagingManager.isGlobalFull());
+      Assert.assertTrue(pagingManager.getPageStore(ADDRESS_A).isPaging());
+
+      // the global size is still over the limit, but what A is going to free leaves room for B
+      send(session, ADDRESS_B, 30);
+
+      Assert.assertTrue(pagingManager.isGlobalFull());
+      Assert.assertFalse(pagingManager.getPageStore(ADDRESS_B).isPaging());
+
+      receive(session, ADDRESS_A, 80);
+      receive(session, ADDRESS_B, 60);
+
+      Assert.assertFalse(pagingManager.isGlobalFull());
+   }
+
+   @Test
+   public void testBlockUntilReleased() throws Exception
+   {
+      startServer(AddressFullMessagePolicy.BLOCK);
+
+      locator.setProducerWindowSize(MESSAGE_SIZE);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      final ClientSession session = addClientSession(sf.createSession(true, true, 0));
+
+      session.createQueue(ADDRESS_A, ADDRESS_A, null, true);
+
+      final CountDownLatch sent = new CountDownLatch(1);
+
+      Thread producer = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               send(session, ADDRESS_A, 200);
+               sent.countDown();
+            }
+            catch (Exception e)
+            {
+               e.printStackTrace();
+            }
+         }
+      };
+
+      producer.start();
+
+      Assert.assertFalse(sent.await(1, TimeUnit.SECONDS));
+      Assert.assertTrue(server.getPagingManager().isGlobalFull());
+
+      // acknowledgements are sent straight away, to release the memory
+      ClientSession consumerSession = addClientSession(sf.createSession(true, true, 0));
+      receive(consumerSession, ADDRESS_A, 200);
+
+      Assert.assertTrue(sent.await(10, TimeUnit.SECONDS));
+      producer.join();
+   }
+
+   // Private -------------------------------------------------------
+
+   private void startServer(final AddressFullMessagePolicy policy) throws Exception
+   {
+      Configuration config = createDefaultConfig()
+         .setGlobalMaxSize(GLOBAL_MAX_SIZE);
+
+      server = createServer(true, config, 10 * 1024, -1, policy, new HashMap<String, AddressSettings>());
+      server.start();
+
+      locator = createInVMNonHALocator();
+      locator.setBlockOnDurableSend(true);
+      locator.setBlockOnNonDurableSend(true);
+   }
+
+   private static void send(final ClientSession session, final SimpleString address, final int count) throws Exception
+   {
+      ClientProducer producer = session.createProducer(address);
+
+      for (int i = 0; i < count; i++)
+      {
+         ClientMessage message = session.createMessage(true);
+         message.getBodyBuffer().writeBytes(new byte[MESSAGE_SIZE]);
+         producer.send(message);
+      }
+
+      producer.close();
+   }
+
+   private static void receive(final ClientSession session, final SimpleString address, final int count) throws Exception
+   {
+      ClientConsumer consumer = session.createConsumer(address);
+
+      session.start();
+
+      for (int i = 0; i < count; i++)
+      {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         message.acknowledge();
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+
+      consumer.close();
+   }
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.persistence;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.activemq.api.core.ActiveMQIllegalStateException;
+import org.apache.activemq.core.config.Configuration;
+import org.apache.activemq.core.config.ha.ReplicatedPolicyConfiguration;
+import org.apache.activemq.core.journal.impl.TimedBuffer;
+import org.apache.activemq.core.persistence.GroupingInfo;
+import org.apache.activemq.core.persistence.QueueBindingInfo;
+import org.apache.activemq.core.server.ActiveMQServer;
+import org.apache.activemq.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.tests.unit.core.server.impl.fakes.FakeJournalLoader;
+import org.apache.activemq.tests.unit.core.server.impl.fakes.FakePostOffice;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JournalStripesTest extends StorageManagerTestBase
+{
+   private Configuration configuration;
+
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      configuration = createDefaultConfig();
+   }
+
+   @Test
+   public void testStripesChangedWithRecords() throws Exception
+   {
+      startStorage(1);
+
+      journal.storeMessage(new ServerMessageImpl(1, 100));
+
+      journal.stop();
+
+      try
+      {
+         startStorage(2);
+         fail("the journal was written with one stripe");
+      }
+      catch (ActiveMQIllegalStateException expected)
+      {
+      }
+
+      // back to the number it was written with
+      startStorage(1);
+   }
+
+   @Test
+   public void testStripesChangedWithoutRecords() throws Exception
+   {
+      startStorage(2);
+
+      journal.storeMessage(new ServerMessageImpl(1, 100));
+      journal.storeMessage(new ServerMessageImpl(2, 100));
+
+      journal.deleteMessage(1);
+      journal.deleteMessage(2);
+
+      journal.stop();
+
+      startStorage(3);
+
+      journal.storeMessage(new ServerMessageImpl(3, 100));
+
+      journal.stop();
+
+      try
+      {
+         startStorage(2);
+         fail("the journal was written with three stripes");
+      }
+      catch (ActiveMQIllegalStateException expected)
+      {
+      }
+   }
+
+   @Test
+   public void testJournalWithoutStripesFile() throws Exception
+   {
+      startStorage(1);
+
+      journal.storeMessage(new ServerMessageImpl(1, 100));
+
+      journal.stop();
+
+      // as left by a server keeping no number of stripes
+      assertTrue(new File(configuration.getJournalDirectory(), "journal-stripes").delete());
+
+      try
+      {
+         startStorage(2);
+         fail("a journal without the number has one stripe");
+      }
+      catch (ActiveMQIllegalStateException expected)
+      {
+      }
+   }
+
+   @Test
+   public void testBufferOfEachStripe() throws Exception
+   {
+      startStorage(3);
+
+      List<TimedBuffer> buffers = journal.getMessageJournalBuffers();
+
+      assertEquals(3, buffers.size());
+      assertEquals(3, new HashSet<TimedBuffer>(buffers).size());
+   }
+
+   @Test
+   public void testReplicatedServerWithStripes() throws Exception
+   {
+      configuration.setJournalStripes(2)
+         .setHAPolicyConfiguration(new ReplicatedPolicyConfiguration());
+
+      ActiveMQServer server = createServer(true, configuration);
+
+      try
+      {
+         server.start();
+         fail("a replicated server can't have several journal stripes");
+      }
+      catch (ActiveMQIllegalStateException expected)
+      {
+      }
+
+      assertFalse(server.isStarted());
+   }
+
+   private void startStorage(final int stripes) throws Exception
+   {
+      configuration.setJournalStripes(stripes);
+
+      journal = createJournalStorageManager(configuration);
+
+      journal.start();
+
+      journal.loadBindingJournal(new ArrayList<QueueBindingInfo>(), new ArrayList<GroupingInfo>());
+
+      journal.loadMessageJournal(new FakePostOffice(), null, null, null, null, null, null, new FakeJournalLoader());
+   }
+}
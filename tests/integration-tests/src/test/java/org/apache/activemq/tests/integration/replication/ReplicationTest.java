@@ -312,6 +312,119 @@ public final class ReplicationTest extends ServiceTestBase
       Assert.assertEquals(0, store.getNumberOfPages());
    }
 
+   @Test
+   public void testSendPacketsConcurrently() throws Exception
+   {
+      final int numberOfThreads = 10;
+      final int numberOfAdds = 500;
+
+      setupServer(true);
+
+      manager = liveServer.getReplicationManager();
+      waitForComponent(manager);
+
+      final Journal replicatedJournal = new ReplicatedJournal((byte) 1, new FakeJournal(), manager);
+
+      final AtomicInteger errors = new AtomicInteger(0);
+
+      Thread[] threads = new Thread[numberOfThreads];
+
+      for (int i = 0; i < numberOfThreads; i++)
+      {
+         final long firstId = i * numberOfAdds;
+
+         threads[i] = new Thread()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  for (int j = 0; j < numberOfAdds; j++)
+                  {
+                     replicatedJournal.appendAddRecord(firstId + j, (byte) 1, new FakeData(), false);
+                  }
+               }
+               catch (Exception e)
+               {
+                  e.printStackTrace();
+                  errors.incrementAndGet();
+               }
+            }
+         };
+
+         threads[i].start();
+      }
+
+      for (Thread thread : threads)
+      {
+         thread.join();
+      }
+
+      Assert.assertEquals(0, errors.get());
+
+      long timeout = System.currentTimeMillis() + 10000;
+
+      while (!manager.getActiveTokens().isEmpty() && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+
+      // every operation is confirmed by the backup, whether it was sent alone or batched
+      Assert.assertTrue("Expecting no active tokens:" + manager.getActiveTokens(), manager.getActiveTokens().isEmpty());
+   }
+
+   @Test
+   public void testBatchWithFailedOperation() throws Exception
+   {
+      setupServer(true);
+
+      StorageManager storage = getStorage();
+      manager = liveServer.getReplicationManager();
+      waitForComponent(manager);
+
+      Journal replicatedJournal = new ReplicatedJournal((byte) 1, new FakeJournal(), manager);
+
+      // the backup has no such journal, the operation fails there
+      Journal missingJournal = new ReplicatedJournal((byte) 9, new FakeJournal(), manager);
+
+      replicatedJournal.appendAddRecord(1, (byte) 1, new FakeData(), false);
+      missingJournal.appendAddRecord(2, (byte) 1, new FakeData(), false);
+      replicatedJournal.appendAddRecord(3, (byte) 1, new FakeData(), false);
+
+      final AtomicInteger lastError = new AtomicInteger(-1);
+
+      final CountDownLatch latch = new CountDownLatch(1);
+
+      storage.getContext().executeOnCompletion(new IOAsyncTask()
+      {
+         public void onError(final int errorCode, final String errorMessage)
+         {
+            lastError.set(errorCode);
+            latch.countDown();
+         }
+
+         public void done()
+         {
+            latch.countDown();
+         }
+      });
+
+      Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+      Assert.assertEquals(ActiveMQExceptionType.INTERNAL_ERROR.getCode(), lastError.get());
+
+      long timeout = System.currentTimeMillis() + 10000;
+
+      while (!manager.getActiveTokens().isEmpty() && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+
+      // the tokens of the failed operation and of the ones after it in the batch are not left behind
+      Assert.assertTrue("Expecting no active tokens:" + manager.getActiveTokens(), manager.getActiveTokens().isEmpty());
+   }
+
    @Test
    public void testSendPacketsWithFailure() throws Exception
    {
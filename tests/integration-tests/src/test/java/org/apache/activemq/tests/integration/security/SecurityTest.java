@@ -622,6 +622,58 @@ public class SecurityTest extends ServiceTestBase
       senSession.close();
    }
 
+   @Test
+   public void testConsumeUpdateRolesInRepository() throws Exception
+   {
+      Configuration configuration = createDefaultConfig(false)
+         .setSecurityEnabled(true)
+         .setSecurityInvalidationInterval(10000);
+      ActiveMQServer server = createServer(false, configuration);
+      server.start();
+      HierarchicalRepository<Set<Role>> securityRepository = server.getSecurityRepository();
+      ActiveMQSecurityManagerImpl securityManager = (ActiveMQSecurityManagerImpl) server.getSecurityManager();
+      securityManager.getConfiguration().addUser("auser", "pass");
+      securityManager.getConfiguration().addUser("guest", "guest");
+      securityManager.getConfiguration().addRole("guest", "guest");
+      securityManager.getConfiguration().addRole("auser", "receiver");
+      securityManager.getConfiguration().setDefaultUser("guest");
+      Role sendRole = new Role("guest", true, false, true, false, false, false, false);
+      Role receiveRole = new Role("receiver", false, true, false, false, false, false, false);
+      Set<Role> roles = new HashSet<Role>();
+      roles.add(sendRole);
+      roles.add(receiveRole);
+      securityRepository.addMatch(SecurityTest.addressA, roles);
+      ClientSessionFactory cf = createSessionFactory(locator);
+      ClientSession senSession = cf.createSession(false, true, true);
+      ClientSession session = cf.createSession("auser", "pass", false, true, true, false, -1);
+      senSession.createQueue(SecurityTest.addressA, SecurityTest.queueA, true);
+
+      session.createConsumer(SecurityTest.queueA).close();
+
+      // the check is cached by the session, but changing the roles of the address makes it check them again
+      Set<Role> newRoles = new HashSet<Role>();
+      newRoles.add(sendRole);
+      securityRepository.addMatch(SecurityTest.addressA, newRoles);
+
+      try
+      {
+         session.createConsumer(SecurityTest.queueA);
+         Assert.fail("should throw exception");
+      }
+      catch (ActiveMQSecurityException se)
+      {
+         //ok
+      }
+      catch (ActiveMQException e)
+      {
+         fail("Invalid Exception type:" + e.getType());
+      }
+
+      session.close();
+
+      senSession.close();
+   }
+
    @Test
    public void testSendMessageUpdateRoleCached2() throws Exception
    {
@@ -15,6 +15,12 @@
  * limitations under the License.
  */
 package org.apache.activemq.tests.integration.server;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.activemq.api.core.ActiveMQException;
 import org.apache.activemq.core.server.Queue;
 import org.junit.Before;
@@ -73,6 +79,141 @@ public class LVQTest extends UnitTestCase
       Assert.assertEquals(m.getBodyBuffer().readString(), "m2");
    }
 
+   @Test
+   public void testConcurrentUpdates() throws Exception
+   {
+      final int threads = 4;
+      final int keys = 10;
+      final int updates = 50;
+
+      final ClientSessionFactory sessionFactory = clientSession.getSessionFactory();
+      final CountDownLatch done = new CountDownLatch(threads);
+      final AtomicInteger errors = new AtomicInteger(0);
+
+      for (int t = 0; t < threads; t++)
+      {
+         final int thread = t;
+         new Thread()
+         {
+            public void run()
+            {
+               try
+               {
+                  ClientSession session = sessionFactory.createSession(false, true, true);
+                  ClientProducer producer = session.createProducer(address);
+                  for (int i = 0; i < updates; i++)
+                  {
+                     for (int k = 0; k < keys; k++)
+                     {
+                        ClientMessage m = createTextMessage(session, thread + "." + k + "." + i);
+                        m.putStringProperty(Message.HDR_LAST_VALUE_NAME, new SimpleString("KEY" + thread + "." + k));
+                        producer.send(m);
+                     }
+                  }
+                  session.close();
+               }
+               catch (Throwable e)
+               {
+                  e.printStackTrace();
+                  errors.incrementAndGet();
+               }
+               finally
+               {
+                  done.countDown();
+               }
+            }
+         }.start();
+      }
+
+      Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+      Assert.assertEquals(0, errors.get());
+
+      ClientConsumer consumer = clientSession.createConsumer(qName1);
+      clientSession.start();
+
+      Set<String> received = new HashSet<String>();
+
+      for (int i = 0; i < threads * keys; i++)
+      {
+         ClientMessage m = consumer.receive(5000);
+         Assert.assertNotNull(m);
+         m.acknowledge();
+         received.add(m.getBodyBuffer().readString());
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+
+      for (int t = 0; t < threads; t++)
+      {
+         for (int k = 0; k < keys; k++)
+         {
+            Assert.assertTrue(received.contains(t + "." + k + "." + (updates - 1)));
+         }
+      }
+   }
+
+   @Test
+   public void testUpdatesWhileFilteredConsumerReceives() throws Exception
+   {
+      final int updates = 500;
+
+      final ClientSessionFactory sessionFactory = clientSession.getSessionFactory();
+      final CountDownLatch done = new CountDownLatch(1);
+      final AtomicInteger errors = new AtomicInteger(0);
+
+      ClientConsumer consumer = clientSession.createConsumer(qName1, new SimpleString("color='red'"));
+      clientSession.start();
+
+      new Thread()
+      {
+         public void run()
+         {
+            try
+            {
+               ClientSession session = sessionFactory.createSession(false, true, true);
+               ClientProducer producer = session.createProducer(address);
+               for (int i = 0; i < updates; i++)
+               {
+                  ClientMessage m = createTextMessage(session, "m" + i);
+                  m.putStringProperty(Message.HDR_LAST_VALUE_NAME, new SimpleString("KEY"));
+                  m.putStringProperty("color", i % 2 == 0 ? "red" : "blue");
+                  producer.send(m);
+               }
+               session.close();
+            }
+            catch (Throwable e)
+            {
+               e.printStackTrace();
+               errors.incrementAndGet();
+            }
+            finally
+            {
+               done.countDown();
+            }
+         }
+      }.start();
+
+      while (done.getCount() > 0)
+      {
+         ClientMessage m = consumer.receive(100);
+         if (m != null)
+         {
+            m.acknowledge();
+            Assert.assertEquals(m.getBodyBuffer().readString(), "red", m.getStringProperty("color"));
+         }
+      }
+
+      Assert.assertEquals(0, errors.get());
+
+      ClientMessage m = consumer.receive(500);
+      while (m != null)
+      {
+         m.acknowledge();
+         Assert.assertEquals(m.getBodyBuffer().readString(), "red", m.getStringProperty("color"));
+         m = consumer.receive(500);
+      }
+   }
+
    @Test
    public void testMultipleMessages() throws Exception
    {
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.integration.stomp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.activemq.api.core.ActiveMQBuffers;
+import org.apache.activemq.core.protocol.stomp.Stomp;
+import org.apache.activemq.core.protocol.stomp.StompDecoder;
+import org.apache.activemq.core.protocol.stomp.StompFrame;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StompDecoderTest extends Assert
+{
+   private StompDecoder decoder;
+
+   @Before
+   public void setUp()
+   {
+      decoder = new StompDecoder();
+      decoder.init();
+   }
+
+   @Test
+   public void testDecodeFrame() throws Exception
+   {
+      StompFrame frame = decode("SEND\ndestination:/queue/a\nreceipt: 1\nmy-header:my value\n\nhello\0");
+
+      assertNotNull(frame);
+      assertEquals(Stomp.Commands.SEND, frame.getCommand());
+      assertEquals("/queue/a", frame.getHeader(Stomp.Headers.Send.DESTINATION));
+      // leading white space is trimmed from the values
+      assertEquals("1", frame.getHeader(Stomp.Headers.RECEIPT_REQUESTED));
+      assertEquals("my value", frame.getHeader("my-header"));
+      assertEquals("hello", frame.getBody());
+      assertFalse(decoder.hasBytes());
+   }
+
+   @Test
+   public void testKnownHeaderNamesAreShared() throws Exception
+   {
+      StompFrame frame = decode("SEND\ndestination:/queue/a\ncontent-type:text/plain\nmy-header:value\n\n\0");
+
+      for (Map.Entry<String, String> header : frame.getHeadersMap().entrySet())
+      {
+         String name = header.getKey();
+
+         if (name.equals(Stomp.Headers.Send.DESTINATION))
+         {
+            assertSame(Stomp.Headers.Send.DESTINATION, name);
+         }
+         else if (name.equals(Stomp.Headers.CONTENT_TYPE))
+         {
+            assertSame(Stomp.Headers.CONTENT_TYPE, name);
+         }
+         else
+         {
+            assertEquals("my-header", name);
+         }
+      }
+
+      assertEquals(3, frame.getHeadersMap().size());
+   }
+
+   @Test
+   public void testContentLength() throws Exception
+   {
+      // the body holds NUL bytes, only the content-length tells where it ends
+      StompFrame frame = decode("SEND\ndestination:/queue/a\ncontent-length:5\n\nab\0cd\0");
+
+      assertNotNull(frame);
+      assertArrayEquals(new byte[]{'a', 'b', 0, 'c', 'd'}, frame.getBodyAsBytes());
+      assertFalse(decoder.hasBytes());
+   }
+
+   @Test
+   public void testFragmentedFrame() throws Exception
+   {
+      byte[] bytes = "SEND\ndestination:/queue/a\ncontent-length:5\n\nhello\0".getBytes(StandardCharsets.UTF_8);
+
+      for (int i = 0; i < bytes.length - 1; i++)
+      {
+         assertNull("frame decoded at byte " + i, decoder.decode(ActiveMQBuffers.wrappedBuffer(new byte[]{bytes[i]})));
+      }
+
+      StompFrame frame = decoder.decode(ActiveMQBuffers.wrappedBuffer(new byte[]{bytes[bytes.length - 1]}));
+
+      assertNotNull(frame);
+      assertEquals("/queue/a", frame.getHeader(Stomp.Headers.Send.DESTINATION));
+      assertEquals("hello", frame.getBody());
+   }
+
+   @Test
+   public void testFragmentedBody() throws Exception
+   {
+      assertNull(decode("SEND\ndestination:/queue/a\n\nhel"));
+      assertNull(decode("lo wor"));
+
+      StompFrame frame = decode("ld\0");
+
+      assertNotNull(frame);
+      assertEquals("hello world", frame.getBody());
+   }
+
+   @Test
+   public void testSeveralFramesInOneBuffer() throws Exception
+   {
+      StompFrame frame = decode("SEND\ndestination:/queue/a\n\nfirst\0\nSEND\ndestination:/queue/b\ncontent-length:6\n\nsecond\0");
+
+      assertNotNull(frame);
+      assertEquals("/queue/a", frame.getHeader(Stomp.Headers.Send.DESTINATION));
+      assertEquals("first", frame.getBody());
+
+      // the next frame is decoded from the bytes left over
+      assertTrue(decoder.hasBytes());
+
+      frame = decode("");
+
+      assertNotNull(frame);
+      assertEquals("/queue/b", frame.getHeader(Stomp.Headers.Send.DESTINATION));
+      assertEquals("second", frame.getBody());
+      assertFalse(decoder.hasBytes());
+   }
+
+   private StompFrame decode(final String data) throws Exception
+   {
+      return decoder.decode(ActiveMQBuffers.wrappedBuffer(data.getBytes(StandardCharsets.UTF_8)));
+   }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.unit.core.client.compression;
+
+import java.util.Arrays;
+
+import org.apache.activemq.api.core.client.compression.LZBodyCodec;
+import org.apache.activemq.tests.util.RandomUtil;
+import org.apache.activemq.tests.util.UnitTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LZBodyCodecTest extends UnitTestCase
+{
+   private final LZBodyCodec codec = new LZBodyCodec();
+
+   @Test
+   public void testText() throws Exception
+   {
+      StringBuilder json = new StringBuilder("[");
+      for (int i = 0; i < 200; i++)
+      {
+         json.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i * 7).append("\",\"active\":true},");
+      }
+      json.append("]");
+
+      byte[] bytes = json.toString().getBytes("UTF-8");
+
+      int compressedSize = roundTrip(bytes, 0);
+
+      Assert.assertTrue("compressed to " + compressedSize, compressedSize < bytes.length / 3);
+   }
+
+   @Test
+   public void testRandom() throws Exception
+   {
+      byte[] bytes = RandomUtil.randomBytes(10 * 1024);
+
+      int compressedSize = roundTrip(bytes, 0);
+
+      Assert.assertTrue(compressedSize <= codec.maxCompressedLength(bytes.length));
+   }
+
+   @Test
+   public void testRuns() throws Exception
+   {
+      byte[] bytes = new byte[100 * 1024];
+
+      Arrays.fill(bytes, 0, 70 * 1024, (byte) 'a');
+
+      for (int i = 70 * 1024; i < bytes.length; i++)
+      {
+         bytes[i] = (byte) (i % 3);
+      }
+
+      int compressedSize = roundTrip(bytes, 7);
+
+      Assert.assertTrue("compressed to " + compressedSize, compressedSize < 1024);
+   }
+
+   @Test
+   public void testSmall() throws Exception
+   {
+      for (int size = 0; size < 40; size++)
+      {
+         byte[] bytes = new byte[size];
+
+         Arrays.fill(bytes, (byte) 'x');
+
+         roundTrip(bytes, 3);
+      }
+   }
+
+   @Test
+   public void testMalformed() throws Exception
+   {
+      byte[] bytes = new byte[1024];
+
+      Arrays.fill(bytes, (byte) 'z');
+
+      byte[] compressed = new byte[codec.maxCompressedLength(bytes.length)];
+
+      int compressedSize = codec.compress(bytes, 0, bytes.length, compressed, 0);
+
+      try
+      {
+         codec.decompress(compressed, 0, compressedSize - 1, new byte[bytes.length], 0, bytes.length);
+         Assert.fail("truncated body");
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+
+      try
+      {
+         codec.decompress(compressed, 0, compressedSize, new byte[bytes.length + 1], 0, bytes.length + 1);
+         Assert.fail("wrong size");
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+
+   /**
+    * @return the compressed size
+    */
+   private int roundTrip(final byte[] bytes, final int offset)
+   {
+      byte[] src = new byte[offset + bytes.length];
+
+      System.arraycopy(bytes, 0, src, offset, bytes.length);
+
+      byte[] compressed = new byte[offset + codec.maxCompressedLength(bytes.length)];
+
+      int compressedSize = codec.compress(src, offset, bytes.length, compressed, offset);
+
+      byte[] decompressed = new byte[offset + bytes.length];
+
+      codec.decompress(compressed, offset, compressedSize, decompressed, offset, bytes.length);
+
+      Assert.assertArrayEquals(bytes, Arrays.copyOfRange(decompressed, offset, decompressed.length));
+
+      return compressedSize;
+   }
+}
@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.unit.core.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.core.client.impl.AdaptiveConsumerWindow;
+import org.apache.activemq.tests.util.UnitTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveConsumerWindowTest extends UnitTestCase
+{
+   // Constants -----------------------------------------------------
+
+   private static final int MESSAGE_SIZE = 1000;
+
+   private static final long ROUND_TRIP = TimeUnit.MILLISECONDS.toNanos(1);
+
+   // Attributes ----------------------------------------------------
+
+   // what the server can still deliver
+   private long serverCredits;
+
+   // Public --------------------------------------------------------
+
+   @Test
+   public void testFixedUntilProcessed() throws Exception
+   {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(100 * 1024, 10 * 1024, 1024 * 1024);
+
+      serverCredits = window.getWindowSize();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         consume(window);
+      }
+
+      Assert.assertEquals(100 * 1024, window.getWindowSize());
+   }
+
+   @Test
+   public void testFastConsumerGrows() throws Exception
+   {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(100 * 1024, 10 * 1024, 1024 * 1024);
+
+      serverCredits = window.getWindowSize();
+
+      // a byte per nanosecond
+      window.processed(MESSAGE_SIZE, MESSAGE_SIZE);
+
+      for (int i = 0; i < 100; i++)
+      {
+         consume(window);
+      }
+
+      Assert.assertEquals(1024 * 1024, window.getWindowSize());
+   }
+
+   @Test
+   public void testSlowConsumerShrinks() throws Exception
+   {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(100 * 1024, 10 * 1024, 1024 * 1024);
+
+      serverCredits = window.getWindowSize();
+
+      // a message per millisecond
+      window.processed(MESSAGE_SIZE, TimeUnit.MILLISECONDS.toNanos(1));
+
+      int previous = window.getWindowSize();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         consume(window);
+
+         // never more than a quarter at once
+         Assert.assertTrue(window.getWindowSize() >= previous - previous / 4);
+
+         previous = window.getWindowSize();
+      }
+
+      // a message per millisecond, for the delivery allowance plus twice the round trip
+      Assert.assertEquals(12 * MESSAGE_SIZE, window.getWindowSize());
+      Assert.assertTrue(serverCredits <= window.getWindowSize());
+   }
+
+   @Test
+   public void testBounds() throws Exception
+   {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(100 * 1024, 50 * 1024, 200 * 1024);
+
+      serverCredits = window.getWindowSize();
+
+      window.processed(MESSAGE_SIZE, TimeUnit.SECONDS.toNanos(1));
+
+      for (int i = 0; i < 1000; i++)
+      {
+         consume(window);
+      }
+
+      Assert.assertEquals(50 * 1024, window.getWindowSize());
+
+      window.processed(MESSAGE_SIZE, 1);
+
+      for (int i = 0; i < 1000; i++)
+      {
+         consume(window);
+      }
+
+      Assert.assertEquals(200 * 1024, window.getWindowSize());
+   }
+
+   @Test
+   public void testReset() throws Exception
+   {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(100 * 1024, 10 * 1024, 1024 * 1024);
+
+      for (int i = 0; i < 10; i++)
+      {
+         window.consumed(MESSAGE_SIZE, ROUND_TRIP);
+      }
+
+      window.reset();
+
+      // the pending credits were forgotten, half a window is needed again
+      int credits = 0;
+      int consumed = 0;
+      while (credits == 0)
+      {
+         credits = window.consumed(MESSAGE_SIZE, ROUND_TRIP);
+         consumed += MESSAGE_SIZE;
+      }
+
+      Assert.assertEquals(consumed, credits);
+      Assert.assertTrue(consumed >= 50 * 1024);
+   }
+
+   // Private -------------------------------------------------------
+
+   private void consume(final AdaptiveConsumerWindow window)
+   {
+      serverCredits -= MESSAGE_SIZE;
+
+      int credits = window.consumed(MESSAGE_SIZE, ROUND_TRIP);
+
+      if (credits > 0)
+      {
+         serverCredits += credits;
+
+         // once the credits are sent the server is holding the whole window
+         Assert.assertEquals(window.getWindowSize(), serverCredits);
+      }
+   }
+}
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -886,6 +887,10 @@ public class LargeMessageBufferTest extends UnitTestCase
       {
       }
 
+      public void handleMessages(List<ClientMessageInternal> messages) throws Exception
+      {
+      }
+
       @Override
       public void handleLargeMessage(ClientLargeMessageInternal clientLargeMessage, long largeMessageSize) throws Exception
       {
@@ -0,0 +1,372 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.tests.unit.core.journal.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.core.journal.RecordInfo;
+import org.apache.activemq.core.journal.impl.JournalImpl;
+import org.apache.activemq.core.journal.impl.SimpleWaitIOCallback;
+import org.apache.activemq.core.journal.impl.StripedJournal;
+import org.apache.activemq.tests.unit.core.journal.impl.fakes.FakeSequentialFileFactory;
+import org.apache.activemq.tests.unit.core.journal.impl.fakes.SimpleEncoding;
+import org.apache.activemq.tests.util.UnitTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StripedJournalTest extends UnitTestCase
+{
+   private static final int STRIPES = 2;
+
+   // not the ID of any record, as the IDs the server generates
+   private static final long TX = 101;
+
+   private FakeSequentialFileFactory[] factories;
+
+   private StripedJournal journal;
+
+   private List<RecordInfo> records;
+
+   private List<PreparedTransactionInfo> transactions;
+
+   @Override
+   @Before
+   public void setUp() throws Exception
+   {
+      super.setUp();
+
+      factories = new FakeSequentialFileFactory[STRIPES];
+
+      for (int i = 0; i < STRIPES; i++)
+      {
+         factories[i] = new FakeSequentialFileFactory(1, true);
+      }
+
+      records = new ArrayList<RecordInfo>();
+
+      transactions = new ArrayList<PreparedTransactionInfo>();
+
+      startJournal();
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception
+   {
+      stopJournal();
+
+      super.tearDown();
+   }
+
+   @Test
+   public void testRecordsGoToTheStripeOfTheirID() throws Exception
+   {
+      for (long id = 0; id < 10; id++)
+      {
+         journal.appendAddRecord(id, (byte) 1, new SimpleEncoding(10, (byte) id), true);
+      }
+
+      journal.appendUpdateRecord(3, (byte) 1, new SimpleEncoding(10, (byte) 30), true);
+
+      journal.appendDeleteRecord(4, true);
+
+      Assert.assertEquals(4, journal.getStripe(0).getNumberOfRecords());
+      Assert.assertEquals(5, journal.getStripe(1).getNumberOfRecords());
+
+      restartJournal();
+
+      // the update of the record 3 is loaded as well
+      Assert.assertEquals(10, records.size());
+      Assert.assertEquals(ids(0, 1, 2, 3, 5, 6, 7, 8, 9), ids(records));
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testTransactionOnOneStripe() throws Exception
+   {
+      journal.appendAddRecordTransactional(TX, 2, (byte) 1, new SimpleEncoding(10, (byte) 2));
+      journal.appendAddRecordTransactional(TX, 4, (byte) 1, new SimpleEncoding(10, (byte) 4));
+
+      journal.appendCommitRecord(TX, true);
+
+      Assert.assertEquals(2, journal.getStripe(0).getNumberOfRecords());
+      Assert.assertEquals(0, journal.getStripe(1).getNumberOfRecords());
+
+      restartJournal();
+
+      Assert.assertEquals(ids(2, 4), ids(records));
+   }
+
+   @Test
+   public void testTransactionSpanningStripes() throws Exception
+   {
+      journal.appendAddRecord(10, (byte) 1, new SimpleEncoding(10, (byte) 10), true);
+      journal.appendAddRecord(11, (byte) 1, new SimpleEncoding(10, (byte) 11), true);
+
+      for (long id = 0; id < 6; id++)
+      {
+         journal.appendAddRecordTransactional(TX, id, (byte) 1, new SimpleEncoding(10, (byte) id));
+      }
+
+      journal.appendDeleteRecordTransactional(TX, 10);
+      journal.appendDeleteRecordTransactional(TX, 11);
+
+      journal.appendCommitRecord(TX, true);
+
+      restartJournal();
+
+      Assert.assertEquals(ids(0, 1, 2, 3, 4, 5), ids(records));
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testRollbackSpanningStripes() throws Exception
+   {
+      for (long id = 0; id < 6; id++)
+      {
+         journal.appendAddRecordTransactional(TX, id, (byte) 1, new SimpleEncoding(10, (byte) id));
+      }
+
+      journal.appendRollbackRecord(TX, true);
+
+      restartJournal();
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testPreparedTransactionSpanningStripes() throws Exception
+   {
+      for (long id = 0; id < 6; id++)
+      {
+         journal.appendAddRecordTransactional(TX, id, (byte) 1, new SimpleEncoding(10, (byte) id));
+      }
+
+      journal.appendPrepareRecord(TX, new SimpleEncoding(10, (byte) 'x'), true);
+
+      restartJournal();
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertEquals(1, transactions.size());
+      Assert.assertEquals(6, transactions.get(0).records.size());
+
+      // the transaction is still known to the journal once loaded
+      journal.appendCommitRecord(TX, true);
+
+      restartJournal();
+
+      Assert.assertEquals(ids(0, 1, 2, 3, 4, 5), ids(records));
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testCommitInterruptedBeforeItsCommitRecord() throws Exception
+   {
+      for (long id = 0; id < 6; id++)
+      {
+         journal.appendAddRecordTransactional(TX, id, (byte) 1, new SimpleEncoding(10, (byte) id));
+      }
+
+      holdCallbacks();
+
+      SimpleWaitIOCallback callback = new SimpleWaitIOCallback();
+
+      journal.appendCommitRecord(TX, true, callback, true);
+
+      // only one of the stripes gets its prepare record written
+      factories[1].flushAllCallbacks();
+
+      crash();
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testCommitInterruptedAfterItsCommitRecord() throws Exception
+   {
+      for (long id = 0; id < 6; id++)
+      {
+         journal.appendAddRecordTransactional(TX, id, (byte) 1, new SimpleEncoding(10, (byte) id));
+      }
+
+      holdCallbacks();
+
+      SimpleWaitIOCallback callback = new SimpleWaitIOCallback();
+
+      journal.appendCommitRecord(TX, true, callback, true);
+
+      // the prepare records
+      flushCallbacks(0, 1);
+      flushCallbacks(1, 1);
+
+      // the commit record, on the stripe of the transaction
+      flushCallbacks(journal.getStripe(TX), 1);
+
+      // the commits of the stripes are never written
+      waitForCallbacks(0, 1);
+      waitForCallbacks(1, 1);
+
+      callback.waitCompletion();
+
+      crash();
+
+      Assert.assertEquals(ids(0, 1, 2, 3, 4, 5), ids(records));
+      Assert.assertTrue(transactions.isEmpty());
+
+      // the transaction was completed on the stripes when loaded
+      restartJournal();
+
+      Assert.assertEquals(ids(0, 1, 2, 3, 4, 5), ids(records));
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testCompactStripes() throws Exception
+   {
+      for (long id = 0; id < 100; id++)
+      {
+         journal.appendAddRecord(id, (byte) 1, new SimpleEncoding(10, (byte) id), true);
+      }
+
+      for (long id = 0; id < 100; id += 2)
+      {
+         journal.appendDeleteRecord(id, true);
+      }
+
+      journal.scheduleCompactAndBlock(60);
+
+      restartJournal();
+
+      Assert.assertEquals(50, records.size());
+   }
+
+   private void startJournal() throws Exception
+   {
+      JournalImpl[] stripes = new JournalImpl[STRIPES];
+
+      for (int i = 0; i < STRIPES; i++)
+      {
+         stripes[i] = new JournalImpl(10 * 1024, 2, 0, 0, factories[i], "amq", "amq", 1000);
+      }
+
+      journal = new StripedJournal(stripes);
+
+      journal.start();
+
+      records.clear();
+
+      transactions.clear();
+
+      journal.load(records, transactions, null);
+   }
+
+   private void stopJournal() throws Exception
+   {
+      if (journal != null)
+      {
+         journal.stop();
+
+         journal = null;
+      }
+   }
+
+   private void restartJournal() throws Exception
+   {
+      stopJournal();
+
+      startJournal();
+   }
+
+   /**
+    * Loses the writes that were not completed yet and reloads the journal.
+    */
+   private void crash() throws Exception
+   {
+      for (FakeSequentialFileFactory factory : factories)
+      {
+         for (int i = 0; i < factory.getNumberOfCallbacks(); i++)
+         {
+            factory.setCallbackAsError(i);
+         }
+
+         factory.flushAllCallbacks();
+
+         factory.setHoldCallbacks(false, null);
+      }
+
+      restartJournal();
+   }
+
+   private void holdCallbacks()
+   {
+      for (FakeSequentialFileFactory factory : factories)
+      {
+         factory.setHoldCallbacks(true, null);
+      }
+   }
+
+   private void flushCallbacks(final int stripe, final int callbacks) throws Exception
+   {
+      waitForCallbacks(stripe, callbacks);
+
+      factories[stripe].flushAllCallbacks();
+   }
+
+   private void waitForCallbacks(final int stripe, final int callbacks) throws Exception
+   {
+      long timeout = System.currentTimeMillis() + 5000;
+
+      while (factories[stripe].getNumberOfCallbacks() < callbacks && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+
+      Assert.assertEquals(callbacks, factories[stripe].getNumberOfCallbacks());
+   }
+
+   private static Set<Long> ids(final long... ids)
+   {
+      Set<Long> set = new HashSet<Long>();
+
+      for (long id : ids)
+      {
+         set.add(id);
+      }
+
+      return set;
+   }
+
+   private static Set<Long> ids(final List<RecordInfo> records)
+   {
+      Set<Long> set = new HashSet<Long>();
+
+      for (RecordInfo record : records)
+      {
+         set.add(record.id);
+      }
+
+      return set;
+   }
+}
@@ -24,6 +24,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -87,6 +89,11 @@ public class TimedBufferTest extends UnitTestCase
          {
             return 1024 * 1024;
          }
+
+         public boolean isEncodeInPlace()
+         {
+            return false;
+         }
       }
 
       TimedBuffer timedBuffer = new TimedBuffer(100, TimedBufferTest.ONE_SECOND_IN_NANOS, false);
@@ -162,6 +169,11 @@ public class TimedBufferTest extends UnitTestCase
          {
             return 1024 * 1024;
          }
+
+         public boolean isEncodeInPlace()
+         {
+            return false;
+         }
       }
 
       TimedBuffer timedBuffer = new TimedBuffer(100, TimedBufferTest.ONE_SECOND_IN_NANOS / 10, false);
@@ -251,6 +263,11 @@ public class TimedBufferTest extends UnitTestCase
          {
             return 1024 * 1024;
          }
+
+         public boolean isEncodeInPlace()
+         {
+            return false;
+         }
       }
 
       final CountDownLatch sleptLatch = new CountDownLatch(1);
@@ -337,6 +354,11 @@ public class TimedBufferTest extends UnitTestCase
          {
             return 1024 * 1024;
          }
+
+         public boolean isEncodeInPlace()
+         {
+            return false;
+         }
       }
 
       final CountDownLatch sleptLatch = new CountDownLatch(TimedBuffer.MAX_CHECKS_ON_SLEEP);
@@ -399,4 +421,325 @@ public class TimedBufferTest extends UnitTestCase
          timedBuffer.stop();
       }
    }
+
+   @Test
+   public void testEncodeInPlace() throws Exception
+   {
+      final ArrayList<ByteBuffer> newBuffers = new ArrayList<ByteBuffer>();
+      final ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+      class TestObserver implements TimedBufferObserver
+      {
+         public void flushBuffer(final ByteBuffer buffer, final boolean sync, final List<IOAsyncTask> callbacks)
+         {
+            buffers.add(buffer);
+         }
+
+         public ByteBuffer newBuffer(final int minSize, final int maxSize)
+         {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(minSize);
+            buffer.limit(maxSize);
+            newBuffers.add(buffer);
+            return buffer;
+         }
+
+         public int getRemainingBytes()
+         {
+            return 1024 * 1024;
+         }
+
+         public boolean isEncodeInPlace()
+         {
+            return true;
+         }
+      }
+
+      TimedBuffer timedBuffer = new TimedBuffer(100, TimedBufferTest.ONE_SECOND_IN_NANOS, false);
+
+      timedBuffer.start();
+
+      try
+      {
+         timedBuffer.setObserver(new TestObserver());
+
+         int x = 0;
+         for (int i = 0; i < 15; i++)
+         {
+            byte[] bytes = new byte[10];
+            for (int j = 0; j < 10; j++)
+            {
+               bytes[j] = UnitTestCase.getSamplebyte(x++);
+            }
+
+            timedBuffer.checkSize(10);
+            timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(bytes), false, dummyCallback);
+         }
+
+         timedBuffer.flush();
+
+         Assert.assertEquals(2, buffers.size());
+
+         // the records were written straight into the buffers of the observer
+         Assert.assertSame(newBuffers.get(0), buffers.get(0));
+         Assert.assertSame(newBuffers.get(1), buffers.get(1));
+
+         x = 0;
+         for (ByteBuffer flushedBuffer : buffers)
+         {
+            flushedBuffer.flip();
+
+            while (flushedBuffer.hasRemaining())
+            {
+               Assert.assertEquals(UnitTestCase.getSamplebyte(x++), flushedBuffer.get());
+            }
+         }
+
+         Assert.assertEquals(150, x);
+      }
+      finally
+      {
+         timedBuffer.stop();
+      }
+   }
+
+   @Test
+   public void testAddBytesWhileFlushing() throws Exception
+   {
+      final CountDownLatch flushing = new CountDownLatch(1);
+      final CountDownLatch releaseFlush = new CountDownLatch(1);
+      final ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+      class TestObserver implements TimedBufferObserver
+      {
+         public void flushBuffer(final ByteBuffer buffer, final boolean sync, final List<IOAsyncTask> callbacks)
+         {
+            flushing.countDown();
+            try
+            {
+               releaseFlush.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+               throw new RuntimeException(e);
+            }
+            buffers.add(buffer);
+         }
+
+         public ByteBuffer newBuffer(final int minSize, final int maxSize)
+         {
+            return ByteBuffer.allocate(maxSize);
+         }
+
+         public int getRemainingBytes()
+         {
+            return 1024 * 1024;
+         }
+
+         public boolean isEncodeInPlace()
+         {
+            return false;
+         }
+      }
+
+      final TimedBuffer timedBuffer = new TimedBuffer(100, TimedBufferTest.ONE_SECOND_IN_NANOS, false);
+
+      timedBuffer.start();
+
+      try
+      {
+         timedBuffer.setObserver(new TestObserver());
+
+         timedBuffer.checkSize(10);
+         timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(new byte[10]), false, dummyCallback);
+
+         Thread flusher = new Thread()
+         {
+            @Override
+            public void run()
+            {
+               timedBuffer.flush();
+            }
+         };
+
+         flusher.start();
+
+         Assert.assertTrue(flushing.await(10, TimeUnit.SECONDS));
+
+         // the second buffer takes the records while the first one is being flushed
+         timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(new byte[20]), false, dummyCallback);
+
+         releaseFlush.countDown();
+
+         flusher.join(10000);
+
+         Assert.assertEquals(1, buffers.size());
+         Assert.assertEquals(10, buffers.get(0).position());
+
+         timedBuffer.flush();
+
+         Assert.assertEquals(2, buffers.size());
+         Assert.assertEquals(20, buffers.get(1).position());
+      }
+      finally
+      {
+         releaseFlush.countDown();
+
+         timedBuffer.stop();
+      }
+   }
+
+   @Test
+   public void testAdaptiveFlushesRightAwayWhenIdle() throws Exception
+   {
+      SyncObserver observer = new SyncObserver(10);
+
+      // the timeout is way longer than the test waits for a flush
+      TimedBuffer timedBuffer = new TimedBuffer(100, 2 * TimedBufferTest.ONE_SECOND_IN_NANOS, false, true);
+
+      timedBuffer.start();
+
+      try
+      {
+         timedBuffer.setObserver(observer);
+
+         sync(timedBuffer, observer);
+
+         // the buffer is idle long after the previous sync completed
+         Thread.sleep(100);
+
+         sync(timedBuffer, observer);
+
+         Assert.assertEquals(2, observer.flushes.get());
+
+         Assert.assertEquals(0, timedBuffer.getFlushWindow());
+      }
+      finally
+      {
+         timedBuffer.stop();
+
+         observer.stop();
+      }
+   }
+
+   @Test
+   public void testAdaptiveBatchesUnderLoad() throws Exception
+   {
+      final int syncs = 100;
+
+      SyncObserver observer = new SyncObserver(10);
+
+      TimedBuffer timedBuffer = new TimedBuffer(1000, TimedBufferTest.ONE_SECOND_IN_NANOS / 10, false, true);
+
+      timedBuffer.start();
+
+      try
+      {
+         timedBuffer.setObserver(observer);
+
+         observer.completions = new CountDownLatch(syncs);
+
+         // a sync every millisecond while each sync takes 10 milliseconds
+         for (int i = 0; i < syncs; i++)
+         {
+            timedBuffer.checkSize(1);
+            timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(new byte[1]), true, observer.newCallback());
+
+            Thread.sleep(1);
+         }
+
+         Assert.assertTrue(timedBuffer.getFlushWindow() > 0);
+
+         Assert.assertTrue(observer.completions.await(10, TimeUnit.SECONDS));
+
+         Assert.assertTrue("flushes: " + observer.flushes.get(), observer.flushes.get() < syncs / 2);
+
+         Assert.assertTrue(timedBuffer.getAverageBatchSize() > 2);
+      }
+      finally
+      {
+         timedBuffer.stop();
+
+         observer.stop();
+      }
+   }
+
+   private void sync(final TimedBuffer timedBuffer, final SyncObserver observer) throws Exception
+   {
+      observer.completions = new CountDownLatch(1);
+
+      timedBuffer.checkSize(1);
+      timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(new byte[1]), true, observer.newCallback());
+
+      Assert.assertTrue(observer.completions.await(500, TimeUnit.MILLISECONDS));
+   }
+
+   /**
+    * Completes the syncs after the given latency, as a device would.
+    */
+   private static final class SyncObserver implements TimedBufferObserver
+   {
+      private final ScheduledExecutorService device = Executors.newSingleThreadScheduledExecutor();
+
+      private final long latency;
+
+      final AtomicInteger flushes = new AtomicInteger(0);
+
+      volatile CountDownLatch completions = new CountDownLatch(1);
+
+      SyncObserver(final long latency)
+      {
+         this.latency = latency;
+      }
+
+      IOAsyncTask newCallback()
+      {
+         final CountDownLatch latch = completions;
+
+         return new IOAsyncTask()
+         {
+            public void done()
+            {
+               latch.countDown();
+            }
+
+            public void onError(final int errorCode, final String errorMessage)
+            {
+            }
+         };
+      }
+
+      public void flushBuffer(final ByteBuffer buffer, final boolean sync, final List<IOAsyncTask> callbacks)
+      {
+         flushes.incrementAndGet();
+
+         device.schedule(new Runnable()
+         {
+            public void run()
+            {
+               for (IOAsyncTask callback : callbacks)
+               {
+                  callback.done();
+               }
+            }
+         }, latency, TimeUnit.MILLISECONDS);
+      }
+
+      public ByteBuffer newBuffer(final int minSize, final int maxSize)
+      {
+         return ByteBuffer.allocate(maxSize);
+      }
+
+      public int getRemainingBytes()
+      {
+         return 1024 * 1024;
+      }
+
+      public boolean isEncodeInPlace()
+      {
+         return false;
+      }
+
+      void stop()
+      {
+         device.shutdownNow();
+      }
+   }
 }
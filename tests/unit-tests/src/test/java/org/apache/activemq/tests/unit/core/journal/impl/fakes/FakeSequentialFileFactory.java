@@ -706,6 +706,11 @@ public class FakeSequentialFileFactory implements SequentialFileFactory
    {
    }
 
+   public TimedBuffer getTimedBuffer()
+   {
+      return null;
+   }
+
    @Override
    public void flush()
    {
@@ -21,9 +21,14 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.api.core.ActiveMQBuffer;
+import org.apache.activemq.api.core.ActiveMQBuffers;
 import org.apache.activemq.api.core.Message;
 import org.apache.activemq.api.core.SimpleString;
+import org.apache.activemq.api.core.client.compression.BodyCodec;
+import org.apache.activemq.api.core.client.compression.BodyCodecs;
+import org.apache.activemq.api.core.client.compression.LZBodyCodec;
 import org.apache.activemq.core.client.impl.ClientMessageImpl;
+import org.apache.activemq.core.message.impl.MessageImpl;
 import org.apache.activemq.core.protocol.core.impl.wireformat.SessionSendMessage;
 import org.apache.activemq.core.server.impl.ServerMessageImpl;
 import org.apache.activemq.tests.util.RandomUtil;
@@ -353,6 +358,157 @@ public class MessageImplTest extends UnitTestCase
       Assert.assertEquals(0, errors.get());
    }
 
+   @Test
+   public void testBodyCompression() throws Exception
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < 500; i++)
+      {
+         builder.append("{\"id\":").append(i).append(",\"state\":\"ok\"}");
+      }
+      String text = builder.toString();
+
+      ClientMessageImpl message = new ClientMessageImpl(Message.TEXT_TYPE, true, 0, 0, (byte) 4, 1024);
+      message.getBodyBuffer().writeString(text);
+
+      int encodeSize = message.getEncodeSize();
+
+      int bodySize = message.getBodySize();
+
+      Assert.assertTrue(message.compressBody(new LZBodyCodec(), 1024));
+      Assert.assertTrue(message.isBodyCompressed());
+      Assert.assertFalse(message.compressBody(new LZBodyCodec(), 1024));
+      Assert.assertTrue(message.getEncodeSize() < encodeSize / 2);
+
+      // the server keeps the body compressed
+      ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(message.getEncodeSize());
+      message.encode(buffer);
+
+      ServerMessageImpl serverMessage = new ServerMessageImpl(1, 100);
+      serverMessage.decode(buffer);
+
+      Assert.assertTrue(serverMessage.isBodyCompressed());
+      Assert.assertEquals(text, serverMessage.getBodyBufferCopy().readString());
+      Assert.assertTrue(serverMessage.isBodyCompressed());
+
+      // and consumers decompress it when reading it
+      buffer = ActiveMQBuffers.dynamicBuffer(serverMessage.getEncodeSize());
+      serverMessage.encode(buffer);
+
+      ClientMessageImpl received = new ClientMessageImpl(Message.DEFAULT_TYPE, false, 0, 0, (byte) 4, 100);
+      received.decode(buffer);
+
+      Assert.assertEquals(bodySize, received.getBodySize());
+      Assert.assertFalse(received.isBodyCompressed());
+      Assert.assertFalse(received.containsProperty(MessageImpl.HDR_BODY_SIZE));
+      Assert.assertEquals(text, received.getBodyBuffer().readString());
+
+      // the original message is still usable
+      Assert.assertEquals(text, message.getBodyBuffer().readString());
+   }
+
+   @Test
+   public void testIncompressibleBody() throws Exception
+   {
+      ClientMessageImpl message = new ClientMessageImpl(Message.BYTES_TYPE, true, 0, 0, (byte) 4, 1024);
+      message.getBodyBuffer().writeBytes(RandomUtil.randomBytes(4096));
+
+      Assert.assertFalse(message.compressBody(new LZBodyCodec(), 1024));
+      Assert.assertFalse(message.isBodyCompressed());
+      Assert.assertEquals(4096, message.getBodySize());
+   }
+
+   @Test
+   public void testUnregisteredBodyCodec() throws Exception
+   {
+      ClientMessageImpl message = new ClientMessageImpl(Message.BYTES_TYPE, true, 0, 0, (byte) 4, 1024);
+      message.getBodyBuffer().writeBytes(new byte[100]);
+
+      // a producer naming any class as the codec
+      message.putStringProperty(MessageImpl.HDR_BODY_CODEC, new SimpleString(NotABodyCodec.class.getName()));
+      message.putIntProperty(MessageImpl.HDR_BODY_SIZE, 1000);
+
+      try
+      {
+         message.decompressBody();
+         Assert.fail("the codec isn't registered");
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+
+      try
+      {
+         BodyCodecs.getCodecForClassName(NotABodyCodec.class.getName());
+         Assert.fail("not a codec");
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+
+      Assert.assertFalse(NotABodyCodec.created);
+
+      BodyCodec codec = BodyCodecs.getCodecForClassName(LZBodyCodec.class.getName());
+      Assert.assertSame(BodyCodecs.getCodec(BodyCodecs.LZ), codec);
+      Assert.assertEquals(BodyCodecs.LZ, BodyCodecs.getId(new LZBodyCodec()));
+   }
+
+   @Test
+   public void testMalformedBodySize() throws Exception
+   {
+      byte[] body = new byte[4096];
+
+      ClientMessageImpl message = new ClientMessageImpl(Message.BYTES_TYPE, true, 0, 0, (byte) 4, 1024);
+      message.getBodyBuffer().writeBytes(body);
+      Assert.assertTrue(message.compressBody(new LZBodyCodec(), 1024));
+
+      int compressedSize = message.getBodySize();
+
+      // sizes a producer could declare, none being allocated
+      Object[] sizes = {Integer.MAX_VALUE,
+                        -1,
+                        BodyCodecs.MAX_BODY_SIZE + 1,
+                        compressedSize * BodyCodecs.MAX_EXPANSION + 17,
+                        new SimpleString("4096"),
+                        4096L,
+                        null};
+
+      for (Object size : sizes)
+      {
+         if (size == null)
+         {
+            message.removeProperty(MessageImpl.HDR_BODY_SIZE);
+         }
+         else
+         {
+            message.putObjectProperty(MessageImpl.HDR_BODY_SIZE, size);
+         }
+
+         try
+         {
+            message.getBodyBufferCopy();
+            Assert.fail("declared size " + size);
+         }
+         catch (IllegalArgumentException expected)
+         {
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("119062"));
+         }
+      }
+
+      message.putIntProperty(MessageImpl.HDR_BODY_SIZE, body.length);
+      message.decompressBody();
+      Assert.assertEquals(body.length, message.getBodySize());
+   }
+
+   public static class NotABodyCodec
+   {
+      static volatile boolean created;
+
+      public NotABodyCodec()
+      {
+         created = true;
+      }
+   }
 
    private void simulateRead(ActiveMQBuffer buf)
    {
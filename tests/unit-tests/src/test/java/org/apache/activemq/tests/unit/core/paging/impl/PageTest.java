@@ -27,6 +27,7 @@ import org.apache.activemq.core.journal.SequentialFileFactory;
 import org.apache.activemq.core.journal.impl.NIOSequentialFileFactory;
 import org.apache.activemq.core.paging.PagedMessage;
 import org.apache.activemq.core.paging.impl.Page;
+import org.apache.activemq.core.paging.impl.PageCompression;
 import org.apache.activemq.core.paging.impl.PagedMessageImpl;
 import org.apache.activemq.core.persistence.impl.nullpm.NullStorageManager;
 import org.apache.activemq.core.server.ServerMessage;
@@ -77,6 +78,129 @@ public class PageTest extends UnitTestCase
       testDamagedPage(new FakeSequentialFileFactory(1, false), 100);
    }
 
+   @Test
+   public void testCompressedPageWithNIO() throws Exception
+   {
+      recreateDirectory(getTestDir());
+      SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDir());
+
+      SequentialFile file = factory.createSequentialFile("00010.page", 1);
+
+      Page impl = new Page(new SimpleString("something"), new NullStorageManager(), factory, file, 10);
+
+      impl.open();
+
+      PageCompression compression = new PageCompression();
+
+      impl.setCompression(compression);
+
+      SimpleString simpleDestination = new SimpleString("Test");
+
+      ArrayList<ActiveMQBuffer> buffers = addPageElements(simpleDestination, impl, 1000);
+
+      impl.sync();
+      impl.close();
+
+      Assert.assertTrue(compression.getRatio() > 2);
+
+      List<PagedMessage> msgs = readPage(factory);
+
+      assertMessages(simpleDestination, buffers, msgs);
+
+      long uncompressedSize = 0;
+
+      for (PagedMessage msg : msgs)
+      {
+         uncompressedSize += msg.getEncodeSize() + Page.SIZE_RECORD;
+      }
+
+      file = factory.createSequentialFile("00010.page", 1);
+      file.open();
+
+      Assert.assertTrue(file.size() * 2 < uncompressedSize);
+
+      file.close();
+   }
+
+   /**
+    * Plain records and compressed blocks can be found on the same page
+    */
+   @Test
+   public void testMixedPageWithNIO() throws Exception
+   {
+      recreateDirectory(getTestDir());
+      SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDir());
+
+      SequentialFile file = factory.createSequentialFile("00010.page", 1);
+
+      Page impl = new Page(new SimpleString("something"), new NullStorageManager(), factory, file, 10);
+
+      impl.open();
+
+      SimpleString simpleDestination = new SimpleString("Test");
+
+      ArrayList<ActiveMQBuffer> buffers = addPageElements(simpleDestination, impl, 10);
+
+      impl.setCompression(new PageCompression());
+
+      buffers.addAll(addPageElements(simpleDestination, impl, 100));
+
+      impl.setCompression(null);
+
+      buffers.addAll(addPageElements(simpleDestination, impl, 10));
+
+      impl.close();
+
+      assertMessages(simpleDestination, buffers, readPage(factory));
+   }
+
+   /**
+    * A block declaring more than its compressed bytes can hold makes the page suspect, nothing being allocated for it
+    */
+   @Test
+   public void testCorruptedBlockSizeWithNIO() throws Exception
+   {
+      recreateDirectory(getTestDir());
+      SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDir());
+
+      SequentialFile file = factory.createSequentialFile("00010.page", 1);
+
+      Page impl = new Page(new SimpleString("something"), new NullStorageManager(), factory, file, 10);
+
+      impl.open();
+
+      SimpleString simpleDestination = new SimpleString("Test");
+
+      ArrayList<ActiveMQBuffer> buffers = addPageElements(simpleDestination, impl, 10);
+
+      impl.sync();
+
+      long blockPosition = file.position();
+
+      impl.setCompression(new PageCompression());
+
+      addPageElements(simpleDestination, impl, 100);
+
+      impl.close();
+
+      file = factory.createSequentialFile("00010.page", 1);
+      file.open();
+
+      // the original size follows the start byte and the compressed size
+      file.position(blockPosition + 1 + 4);
+
+      ByteBuffer buffer = ByteBuffer.allocate(4);
+      buffer.putInt(Integer.MAX_VALUE);
+      buffer.rewind();
+
+      file.writeDirect(buffer, true);
+
+      file.close();
+
+      // the records before the block are still read
+      assertMessages(simpleDestination, buffers, readPage(factory));
+   }
+
    /**
     * Validate if everything we add is recovered
     */
@@ -246,5 +370,39 @@ public class PageTest extends UnitTestCase
 
    // Private -------------------------------------------------------
 
+   private List<PagedMessage> readPage(final SequentialFileFactory factory) throws Exception
+   {
+      SequentialFile file = factory.createSequentialFile("00010.page", 1);
+      file.open();
+      Page page = new Page(new SimpleString("something"), new NullStorageManager(), factory, file, 10);
+
+      try
+      {
+         return page.read(new NullStorageManager());
+      }
+      finally
+      {
+         page.close();
+      }
+   }
+
+   private void assertMessages(final SimpleString simpleDestination,
+                               final List<ActiveMQBuffer> buffers,
+                               final List<PagedMessage> msgs)
+   {
+      Assert.assertEquals(buffers.size(), msgs.size());
+
+      for (int i = 0; i < msgs.size(); i++)
+      {
+         Assert.assertEquals(simpleDestination, msgs.get(i).getMessage().getAddress());
+
+         UnitTestCase.assertEqualsByteArrays(buffers.get(i).toByteBuffer().array(), msgs.get(i)
+            .getMessage()
+            .getBodyBuffer()
+            .toByteBuffer()
+            .array());
+      }
+   }
+
    // Inner classes -------------------------------------------------
 }
@@ -235,6 +235,18 @@ public class WildcardAddressManagerUnitTest extends UnitTestCase
 
       }
 
+      @Override
+      public void setLoadAwareDistribution(boolean loadAwareDistribution)
+      {
+
+      }
+
+      @Override
+      public void updateLoad(long bindingID, long messageCount, float consumeRate)
+      {
+
+      }
+
       @Override
       public void unproposed(SimpleString groupID)
       {
@@ -61,6 +61,41 @@ public class NettyConnectionTest extends UnitTestCase
       Assert.assertEquals(1, channel.outboundMessages().size());
    }
 
+   @Test
+   public void testWritesShareAFlush() throws Exception
+   {
+      EmbeddedChannel channel = createChannel();
+      NettyConnection conn = new NettyConnection(emptyMap, channel, new MyListener(), false, false);
+
+      for (int i = 0; i < 10; i++)
+      {
+         conn.write(ActiveMQBuffers.wrappedBuffer(new byte[128]));
+      }
+
+      Assert.assertEquals(0, channel.outboundMessages().size());
+      channel.runPendingTasks();
+      Assert.assertEquals(10, channel.outboundMessages().size());
+      Assert.assertEquals(1, conn.getFlushCount());
+      Assert.assertEquals(1280, conn.getFlushedBytes());
+      Assert.assertEquals(1280, conn.getAverageBytesPerFlush(), 0);
+   }
+
+   @Test
+   public void testBatchedWritesWaitForCheckFlush() throws Exception
+   {
+      EmbeddedChannel channel = createChannel();
+      NettyConnection conn = new NettyConnection(emptyMap, channel, new MyListener(), true, false);
+
+      conn.write(ActiveMQBuffers.wrappedBuffer(new byte[128]), false, true);
+      channel.runPendingTasks();
+      Assert.assertEquals(0, channel.outboundMessages().size());
+
+      conn.checkFlushBatchBuffer();
+      channel.runPendingTasks();
+      Assert.assertEquals(1, channel.outboundMessages().size());
+      Assert.assertEquals(1, conn.getFlushCount());
+   }
+
    @Test
    public void testCreateBuffer() throws Exception
    {
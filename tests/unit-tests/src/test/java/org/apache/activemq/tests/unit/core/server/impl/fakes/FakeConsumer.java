@@ -155,6 +155,12 @@ public class FakeConsumer implements Consumer
       // no op
    }
 
+   @Override
+   public void afterDeliver()
+   {
+      // no op
+   }
+
    @Override
    public String toManagementString()
    {
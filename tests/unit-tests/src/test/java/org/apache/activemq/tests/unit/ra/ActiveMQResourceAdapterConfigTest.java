@@ -385,6 +385,30 @@ public class ActiveMQResourceAdapterConfigTest extends UnitTestCase
       "         <config-property-name>JgroupsChannelRefName</config-property-name>" +
       "         <config-property-type>java.lang.String</config-property-type>" +
       "         <config-property-value></config-property-value>" +
+      "      </config-property>\n" +
+      "      <config-property>\n" +
+      "         <description>The smallest window size the consumers adapt their window to</description>\n" +
+      "         <config-property-name>ConsumerMinWindowSize</config-property-name>\n" +
+      "         <config-property-type>int</config-property-type>\n" +
+      "         <config-property-value></config-property-value>\n" +
+      "      </config-property>\n" +
+      "      <config-property>\n" +
+      "         <description>The largest window size the consumers adapt their window to</description>\n" +
+      "         <config-property-name>ConsumerMaxWindowSize</config-property-name>\n" +
+      "         <config-property-type>int</config-property-type>\n" +
+      "         <config-property-value></config-property-value>\n" +
+      "      </config-property>\n" +
+      "      <config-property>\n" +
+      "         <description>The class name of the codec compressing the message bodies</description>\n" +
+      "         <config-property-name>BodyCodecClassName</config-property-name>\n" +
+      "         <config-property-type>java.lang.String</config-property-type>\n" +
+      "         <config-property-value></config-property-value>\n" +
+      "      </config-property>\n" +
+      "      <config-property>\n" +
+      "         <description>The smallest body size (in bytes) the message bodies are compressed from</description>\n" +
+      "         <config-property-name>MinBodyCompressionSize</config-property-name>\n" +
+      "         <config-property-type>int</config-property-type>\n" +
+      "         <config-property-value></config-property-value>\n" +
       "      </config-property>";
 
 
@@ -38,6 +38,20 @@ public final class FakePagingManager implements PagingManager
       return 0;
    }
 
+   public void addSize(final PagingStore store, final int size)
+   {
+   }
+
+   public long getGlobalSize()
+   {
+      return 0;
+   }
+
+   public long getGlobalMaxSize()
+   {
+      return -1;
+   }
+
    public void addTransaction(final PageTransactionInfo pageTransaction)
    {
    }